@@ -16,10 +16,12 @@ import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.event.EventListener;
 import org.springframework.core.env.Environment;
 import org.springframework.http.converter.protobuf.ProtobufHttpMessageConverter;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @Slf4j
 @EnableDiscoveryClient
 @EnableFeignClients
+@EnableScheduling
 @SpringBootApplication
 @ComponentScan(basePackages = {"com.vv.personal.twm.portfolio", "com.vv.personal.twm.ping"})
 public class TwmPortfolioServer {
@@ -1,53 +1,62 @@
 package com.vv.personal.twm.portfolio.cache;
 
-import com.google.common.collect.BiMap;
-import com.google.common.collect.HashBiMap;
-import com.vv.personal.twm.portfolio.util.DateFormatUtil;
 import java.time.LocalDate;
 import java.util.Optional;
 import java.util.OptionalInt;
 
 /**
+ * Keeps the original date cache API over a {@link DenseCalendarCache}. Every valid date resolves
+ * now, so {@link #add} and {@link #flush} are retained as no-ops for the existing callers, and
+ * {@link #contains} reports whether the date falls in the precomputed range.
+ *
  * @author Vivek
  * @since 2025-01-12
  */
 public class DateLocalDateCache {
+  private static final int DEFAULT_FROM_YEAR = 2000;
+  private static final int DEFAULT_TO_YEAR = 2100;
 
-  private final BiMap<Integer, LocalDate> dateLocalDateCache;
+  private final DenseCalendarCache calendar;
 
   public DateLocalDateCache() {
-    this.dateLocalDateCache = HashBiMap.create();
+    this(new DenseCalendarCache(DEFAULT_FROM_YEAR, DEFAULT_TO_YEAR));
   }
 
-  public void add(int date) {
-    dateLocalDateCache.putIfAbsent(date, DateFormatUtil.getLocalDate(date));
+  public DateLocalDateCache(DenseCalendarCache calendar) {
+    this.calendar = calendar;
   }
 
-  public void add(LocalDate date) {
-    if (!contains(date)) dateLocalDateCache.put(DateFormatUtil.getDate(date), date);
-  }
+  public void add(int date) {}
+
+  public void add(LocalDate date) {}
 
   public Optional<LocalDate> get(int date) {
-    return Optional.ofNullable(dateLocalDateCache.get(date));
+    return Optional.of(calendar.getLocalDate(date));
   }
 
   public LocalDate getOrCalc(int date) {
-    return get(date).orElse(DateFormatUtil.getLocalDate(date));
+    return calendar.getLocalDate(date);
   }
 
   public OptionalInt get(LocalDate date) {
-    return OptionalInt.of(dateLocalDateCache.inverse().get(date));
+    return OptionalInt.of(calendar.getDate(date));
+  }
+
+  public int getDate(LocalDate date) {
+    return calendar.getDate(date);
+  }
+
+  public LocalDate getLocalDate(int date) {
+    return calendar.getLocalDate(date);
   }
 
   public boolean contains(int date) {
-    return dateLocalDateCache.containsKey(date);
+    return calendar.covers(date);
   }
 
   public boolean contains(LocalDate date) {
-    return dateLocalDateCache.inverse().containsKey(date);
+    return calendar.covers(date);
   }
 
-  public void flush() {
-    dateLocalDateCache.clear();
-  }
+  public void flush() {}
 }
@@ -0,0 +1,73 @@
+package com.vv.personal.twm.portfolio.cache;
+
+import com.vv.personal.twm.portfolio.util.DateFormatUtil;
+import java.time.LocalDate;
+
+/**
+ * Precomputed calendar over a fixed year range, indexed by the day offset from its first day. Both
+ * directions of the yyyyMMdd int <-> LocalDate mapping are a single array read. The arrays are
+ * filled in the constructor and never mutated after, so reads are lock-free and safe from any
+ * thread.
+ *
+ * <p>Dates outside of the range are still served, by falling back to the arithmetic conversion.
+ *
+ * @author Vivek
+ * @since 2026-10-18
+ */
+public final class DenseCalendarCache {
+  private final int fromDate;
+  private final int toDate;
+  private final long baseEpochDay;
+  private final int[] dates;
+  private final LocalDate[] localDates;
+
+  public DenseCalendarCache(int fromYear, int toYear) {
+    if (fromYear > toYear)
+      throw new IllegalArgumentException(
+          "Invalid calendar year range: " + fromYear + " - " + toYear);
+
+    LocalDate start = LocalDate.of(fromYear, 1, 1);
+    LocalDate end = LocalDate.of(toYear, 12, 31);
+    this.fromDate = DateFormatUtil.getDate(start);
+    this.toDate = DateFormatUtil.getDate(end);
+    this.baseEpochDay = start.toEpochDay();
+
+    int days = (int) (end.toEpochDay() - baseEpochDay + 1);
+    this.dates = new int[days];
+    this.localDates = new LocalDate[days];
+    LocalDate date = start;
+    for (int offset = 0; offset < days; offset++, date = date.plusDays(1)) {
+      dates[offset] = DateFormatUtil.getDate(date);
+      localDates[offset] = date;
+    }
+  }
+
+  /** Throws DateTimeException for a non-existent date, same as {@link LocalDate#of} */
+  public LocalDate getLocalDate(int date) {
+    if (date >= fromDate && date <= toDate) {
+      int offset = (int) (DateFormatUtil.toEpochDay(date) - baseEpochDay);
+      // an invalid day-of-month like 20250231 rolls over onto another day's slot
+      if (dates[offset] == date) return localDates[offset];
+    }
+    return DateFormatUtil.getLocalDate(date);
+  }
+
+  public int getDate(LocalDate date) {
+    long offset = date.toEpochDay() - baseEpochDay;
+    if (offset >= 0 && offset < dates.length) return dates[(int) offset];
+    return DateFormatUtil.getDate(date);
+  }
+
+  public boolean covers(int date) {
+    return date >= fromDate && date <= toDate;
+  }
+
+  public boolean covers(LocalDate date) {
+    long offset = date.toEpochDay() - baseEpochDay;
+    return offset >= 0 && offset < dates.length;
+  }
+
+  public int size() {
+    return dates.length;
+  }
+}
@@ -56,6 +56,14 @@ public class KeyInstrumentValueCache {
     if (containsKey(key)) keyImntValueCache.remove(key);
   }
 
+  /** Drops the imnt's values under the flushable keys, e.g. once its prices are reloaded */
+  public void flushImnt(String imnt) {
+    keyImntValueCache.keySet().stream()
+        .filter(key -> keyImntValueCache.get(key).flush())
+        .toList()
+        .forEach(key -> remove(key, imnt));
+  }
+
   public void flushAll() {
     Set<String> keysToDel = new HashSet<>();
     keyImntValueCache.keySet().stream()
@@ -0,0 +1,19 @@
+package com.vv.personal.twm.portfolio.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * @author Vivek
+ * @since 2026-10-18
+ */
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "calendar")
+public class CalendarConfig {
+  private int fromYear = 2000;
+  private int toYear = 2100;
+}
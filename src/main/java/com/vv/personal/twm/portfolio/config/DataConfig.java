@@ -1,6 +1,7 @@
 package com.vv.personal.twm.portfolio.config;
 
 import com.vv.personal.twm.portfolio.cache.DateLocalDateCache;
+import com.vv.personal.twm.portfolio.cache.DenseCalendarCache;
 import com.vv.personal.twm.portfolio.cache.InstrumentMetaDataCache;
 import com.vv.personal.twm.portfolio.cache.KeyInstrumentValueCache;
 import com.vv.personal.twm.portfolio.remote.feign.BankCrdbServiceFeign;
@@ -21,23 +22,29 @@ import com.vv.personal.twm.portfolio.service.InstrumentMetaDataService;
 import com.vv.personal.twm.portfolio.service.ProgressTrackerService;
 import com.vv.personal.twm.portfolio.service.ReloadService;
 import com.vv.personal.twm.portfolio.service.TickerDataWarehouseService;
+import com.vv.personal.twm.portfolio.service.WarmStartService;
 import com.vv.personal.twm.portfolio.service.impl.CentralDataPointServiceImpl;
 import com.vv.personal.twm.portfolio.service.impl.CompleteBankDataServiceImpl;
 import com.vv.personal.twm.portfolio.service.impl.CompleteMarketDataServiceImpl;
 import com.vv.personal.twm.portfolio.service.impl.ComputeMarketStatisticsServiceImpl;
 import com.vv.personal.twm.portfolio.service.impl.DiscoveryClientServiceImpl;
+import com.vv.personal.twm.portfolio.service.impl.EngineSnapshotHolder;
 import com.vv.personal.twm.portfolio.service.impl.ExecutorProviderServiceImpl;
 import com.vv.personal.twm.portfolio.service.impl.ExtractMarketPortfolioDataServiceImpl;
 import com.vv.personal.twm.portfolio.service.impl.InstrumentMetaDataServiceImpl;
 import com.vv.personal.twm.portfolio.service.impl.ProgressTrackerServiceImpl;
 import com.vv.personal.twm.portfolio.service.impl.ReloadServiceImpl;
+import com.vv.personal.twm.portfolio.service.impl.SnapshotCompleteBankDataService;
+import com.vv.personal.twm.portfolio.service.impl.SnapshotCompleteMarketDataService;
 import com.vv.personal.twm.portfolio.service.impl.TickerDataWarehouseServiceImpl;
+import com.vv.personal.twm.portfolio.service.impl.WarmStartServiceImpl;
+import com.vv.personal.twm.portfolio.util.MarketClock;
 import com.vv.personal.twm.portfolio.warehouse.bank.BankAccountWarehouse;
 import com.vv.personal.twm.portfolio.warehouse.bank.BankFixedDepositsWarehouse;
 import com.vv.personal.twm.portfolio.warehouse.bank.impl.BankAccountWarehouseImpl;
 import com.vv.personal.twm.portfolio.warehouse.bank.impl.BankFixedDepositsWarehouseImpl;
-import com.vv.personal.twm.portfolio.warehouse.market.TickerDataWarehouse;
-import com.vv.personal.twm.portfolio.warehouse.market.impl.TickerDataWarehouseImpl;
+import com.vv.personal.twm.portfolio.warehouse.market.impl.ColumnarTickerDataWarehouseImpl;
+import com.vv.personal.twm.portfolio.warehouse.market.impl.EpochTickerDataWarehouseImpl;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cloud.client.discovery.DiscoveryClient;
@@ -55,6 +62,8 @@ public class DataConfig {
 
   private final FileLocationConfig fileLocationConfig;
   private final TickerDataWarehouseConfig tickerDataWarehouseConfig;
+  private final CalendarConfig calendarConfig;
+  private final WarmStartConfig warmStartConfig;
   private final MarketDataPythonEngineFeign marketDataPythonEngineFeign;
   private final MarketDataCrdbServiceFeign marketDataCrdbServiceFeign;
   private final BankCrdbServiceFeign bankCrdbServiceFeign;
@@ -63,8 +72,9 @@ public class DataConfig {
   private final DiscoveryClient discoveryClient;
 
   @Bean
-  public TickerDataWarehouse tickerDataWarehouse() {
-    return new TickerDataWarehouseImpl(tickerDataWarehouseConfig);
+  public EpochTickerDataWarehouseImpl tickerDataWarehouse() {
+    return new EpochTickerDataWarehouseImpl(
+        new ColumnarTickerDataWarehouseImpl(tickerDataWarehouseConfig), tickerDataWarehouseConfig);
   }
 
   @Bean
@@ -77,9 +87,19 @@ public class DataConfig {
     return new BankFixedDepositsWarehouseImpl();
   }
 
+  @Bean
+  public MarketClock marketClock() {
+    return MarketClock.system();
+  }
+
+  @Bean
+  public DenseCalendarCache denseCalendarCache() {
+    return new DenseCalendarCache(calendarConfig.getFromYear(), calendarConfig.getToYear());
+  }
+
   @Bean
   public DateLocalDateCache dateLocalDateCache() {
-    return new DateLocalDateCache();
+    return new DateLocalDateCache(denseCalendarCache());
   }
 
   @Bean
@@ -114,23 +134,46 @@ public class DataConfig {
             outdatedSymbols(),
             executorProviderService(),
             discoveryClientService());
-    tickerDataWarehouseService.loadBenchmarkData();
+    tickerDataWarehouseService.setMarketClock(marketClock());
     return tickerDataWarehouseService;
   }
 
+  @Bean
+  public EngineSnapshotHolder engineSnapshotHolder() {
+    return new EngineSnapshotHolder(
+        this::newCompleteBankDataService,
+        this::newCompleteMarketDataService,
+        keyInstrumentValueCache(),
+        tickerDataWarehouse());
+  }
+
+  @Bean
+  public EngineSnapshotPinFilter engineSnapshotPinFilter() {
+    return new EngineSnapshotPinFilter(engineSnapshotHolder());
+  }
+
   @Bean
   public CompleteBankDataService completeBankDataService() {
+    return new SnapshotCompleteBankDataService(engineSnapshotHolder());
+  }
+
+  @Bean(destroyMethod = "shutdown")
+  public CompleteMarketDataService completeMarketDataService() {
+    return new SnapshotCompleteMarketDataService(engineSnapshotHolder());
+  }
+
+  // each engine snapshot gets its own bank warehouses
+  private CompleteBankDataService newCompleteBankDataService() {
     return new CompleteBankDataServiceImpl(
-        bankAccountWarehouse(),
-        bankFixedDepositsWarehouse(),
+        new BankAccountWarehouseImpl(),
+        new BankFixedDepositsWarehouseImpl(),
         bankCrdbServiceFeign,
         calcServiceFeign,
         dateLocalDateCache(),
         progressTrackerService());
   }
 
-  @Bean(destroyMethod = "shutdown")
-  public CompleteMarketDataService completeMarketDataService() {
+  private CompleteMarketDataService newCompleteMarketDataService() {
     CompleteMarketDataService marketDataService =
         new CompleteMarketDataServiceImpl(
             dateLocalDateCache(),
@@ -144,6 +187,7 @@ public class DataConfig {
             computeMarketStatisticsService(),
             marketDataCrdbServiceFeign);
     marketDataService.setOutdatedSymbols(outdatedSymbols());
+    marketDataService.setMarketClock(marketClock());
     return marketDataService;
   }
 
@@ -164,6 +208,7 @@ public class DataConfig {
             executorProviderService(),
             discoveryClientService());
     instrumentMetaDataService.setOutdatedSymbols(outdatedSymbols());
+    instrumentMetaDataService.setMarketClock(marketClock());
     return instrumentMetaDataService;
   }
 
@@ -178,7 +223,7 @@ public class DataConfig {
 
   @Bean
   public ProgressTrackerService progressTrackerService() {
-    return new ProgressTrackerServiceImpl();
+    return new ProgressTrackerServiceImpl(fileLocationConfig.getLoadTimings());
   }
 
   @Bean
@@ -192,9 +237,18 @@ public class DataConfig {
   public ReloadService reloadService() {
     return new ReloadServiceImpl(
         completeMarketDataService(),
-        completeBankDataService(),
+        engineSnapshotHolder(),
         instrumentMetaDataService(),
-        instrumentMaxWeight());
+        instrumentMaxWeight(),
+        progressTrackerService(),
+        tickerDataWarehouseService(),
+        warmStartService(),
+        executorProviderService());
+  }
+
+  @Bean
+  public WarmStartService warmStartService() {
+    return new WarmStartServiceImpl(warmStartConfig, tickerDataWarehouseService());
   }
 
   @Bean(destroyMethod = "shutdownAllExecutors")
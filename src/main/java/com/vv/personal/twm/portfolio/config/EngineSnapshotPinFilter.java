@@ -0,0 +1,39 @@
+package com.vv.personal.twm.portfolio.config;
+
+import com.vv.personal.twm.portfolio.service.impl.EngineSnapshotHolder;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Pins the live engine snapshot for the whole request, so its reads, of the engine and of the
+ * prices the incremental updates put in the warehouse, are all of one data epoch, which is sent
+ * back in the response header. A full reload loading mid request is the exception, see {@link
+ * EngineSnapshotHolder}.
+ *
+ * @author Vivek
+ * @since 2026-10-18
+ */
+@RequiredArgsConstructor
+public class EngineSnapshotPinFilter extends OncePerRequestFilter {
+  static final String DATA_EPOCH_HEADER = "X-Data-Epoch";
+
+  private final EngineSnapshotHolder engineSnapshotHolder;
+
+  @Override
+  protected void doFilterInternal(
+      HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+    EngineSnapshotHolder.Snapshot snapshot = engineSnapshotHolder.pin();
+    try {
+      response.setHeader(DATA_EPOCH_HEADER, String.valueOf(snapshot.epoch()));
+      filterChain.doFilter(request, response);
+    } finally {
+      engineSnapshotHolder.unpin();
+    }
+  }
+}
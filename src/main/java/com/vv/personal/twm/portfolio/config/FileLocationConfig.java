@@ -21,4 +21,5 @@ public class FileLocationConfig {
   private String marketTransactionsDivTfsa;
   private String marketTransactionsDivNr;
   private String marketTransactionsDivFhsa;
+  private String loadTimings;
 }
@@ -0,0 +1,19 @@
+package com.vv.personal.twm.portfolio.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * @author Vivek
+ * @since 2026-10-18
+ */
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "warm-start")
+public class WarmStartConfig {
+  private boolean enabled = true;
+  private String snapshotFile = "/var/twm-portfolio-warm-start.snapshot";
+}
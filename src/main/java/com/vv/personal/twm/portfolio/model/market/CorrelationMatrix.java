@@ -0,0 +1,149 @@
+package com.vv.personal.twm.portfolio.model.market;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
+import java.util.Set;
+
+/**
+ * Symmetric correlation matrix. Only the upper triangle (diagonal included) is held, packed row by
+ * row into a primitive {@code double[]} of n(n+1)/2 cells, with the symbols indexed in the order
+ * they were computed in.
+ *
+ * <p>{@link #subset} and {@link #relabel} hand out views over the same packed values, so slicing
+ * the master matrix for a set of instruments copies nothing but the index mapping.
+ *
+ * @author Vivek
+ * @since 2026-10-18
+ */
+public final class CorrelationMatrix {
+  private final List<String> symbols;
+  private final Map<String, Integer> symbolIndex;
+  private final int[] masterIndices; // this view's index -> index in the packed master
+  private final int masterSize;
+  private final double[] values;
+
+  /**
+   * @param packedValues upper triangle of the matrix, see {@link #packedIndex}
+   */
+  public CorrelationMatrix(List<String> symbols, double[] packedValues) {
+    this(symbols, identity(symbols.size()), symbols.size(), packedValues);
+    if (packedValues.length != packedLength(symbols.size()))
+      throw new IllegalArgumentException(
+          "Correlation values of length "
+              + packedValues.length
+              + " for "
+              + symbols.size()
+              + " symbols");
+  }
+
+  private CorrelationMatrix(
+      List<String> symbols, int[] masterIndices, int masterSize, double[] values) {
+    this.symbols = List.copyOf(symbols);
+    this.symbolIndex = new HashMap<>(symbols.size() * 2);
+    for (int i = 0; i < symbols.size(); i++) symbolIndex.put(symbols.get(i), i);
+    this.masterIndices = masterIndices;
+    this.masterSize = masterSize;
+    this.values = values;
+  }
+
+  public static int packedLength(int size) {
+    return size * (size + 1) / 2;
+  }
+
+  /** Position of cell (row, col) in the packed upper triangle of a size x size matrix */
+  public static int packedIndex(int size, int row, int col) {
+    if (row > col) {
+      int swap = row;
+      row = col;
+      col = swap;
+    }
+    return row * size - row * (row - 1) / 2 + col - row;
+  }
+
+  public int size() {
+    return symbols.size();
+  }
+
+  public List<String> getSymbols() {
+    return symbols;
+  }
+
+  public boolean contains(String symbol) {
+    return symbolIndex.containsKey(symbol);
+  }
+
+  public OptionalInt indexOf(String symbol) {
+    Integer index = symbolIndex.get(symbol);
+    return index == null ? OptionalInt.empty() : OptionalInt.of(index);
+  }
+
+  public double get(int row, int col) {
+    return values[packedIndex(masterSize, masterIndices[row], masterIndices[col])];
+  }
+
+  public OptionalDouble get(String rowSymbol, String colSymbol) {
+    Integer row = symbolIndex.get(rowSymbol);
+    Integer col = symbolIndex.get(colSymbol);
+    if (row == null || col == null) return OptionalDouble.empty();
+    return OptionalDouble.of(get(row, col));
+  }
+
+  /** View over the given symbols, in their order. Unknown and repeated symbols are skipped */
+  public CorrelationMatrix subset(List<String> subsetSymbols) {
+    List<String> viewSymbols = new ArrayList<>(subsetSymbols.size());
+    Set<String> seen = new HashSet<>();
+    int[] viewIndices = new int[subsetSymbols.size()];
+    for (String symbol : subsetSymbols) {
+      Integer index = symbolIndex.get(symbol);
+      if (index == null || !seen.add(symbol)) continue;
+      viewIndices[viewSymbols.size()] = masterIndices[index];
+      viewSymbols.add(symbol);
+    }
+    return new CorrelationMatrix(
+        viewSymbols, Arrays.copyOf(viewIndices, viewSymbols.size()), masterSize, values);
+  }
+
+  /** View with the symbols renamed, positionally */
+  public CorrelationMatrix relabel(List<String> labels) {
+    if (labels.size() != size())
+      throw new IllegalArgumentException(
+          "Cannot relabel " + size() + " symbols with " + labels.size() + " labels");
+    return new CorrelationMatrix(labels, masterIndices, masterSize, values);
+  }
+
+  /**
+   * A new matrix with the symbol's row and column replaced by the given correlations, in this one's
+   * symbol order. Everything else is copied over as it is, so it is no longer a view.
+   */
+  public CorrelationMatrix withCorrelations(String symbol, double[] correlations) {
+    Integer row = symbolIndex.get(symbol);
+    if (row == null) throw new IllegalArgumentException("Unknown symbol " + symbol);
+    if (correlations.length != size())
+      throw new IllegalArgumentException(
+          correlations.length + " correlations for " + size() + " symbols");
+    int size = size();
+    double[] packedValues = new double[packedLength(size)];
+    for (int i = 0; i < size; i++)
+      for (int j = i; j < size; j++) packedValues[packedIndex(size, i, j)] = get(i, j);
+    for (int col = 0; col < size; col++)
+      packedValues[packedIndex(size, row, col)] = correlations[col];
+    return new CorrelationMatrix(symbols, packedValues);
+  }
+
+  @Override
+  public String toString() {
+    return "CorrelationMatrix{size=" + size() + ", symbols=" + symbols + "}";
+  }
+
+  private static int[] identity(int size) {
+    int[] indices = new int[size];
+    for (int i = 0; i < size; i++) indices[i] = i;
+    return indices;
+  }
+}
@@ -0,0 +1,17 @@
+package com.vv.personal.twm.portfolio.model.market;
+
+/**
+ * Outcome of ingesting a single transaction into its ledger
+ *
+ * @author Vivek
+ * @since 2026-10-18
+ */
+public enum IngestResult {
+  REJECTED, // left out of the ledger, e.g. a short sell, or the market data not ready
+  APPLIED, // in the ledger, but its pnl could not be computed
+  BOOKED; // in the ledger, with its pnl booked
+
+  public boolean isApplied() {
+    return this != REJECTED;
+  }
+}
@@ -0,0 +1,19 @@
+package com.vv.personal.twm.portfolio.model.market;
+
+import com.vv.personal.twm.artifactory.generated.equitiesMarket.MarketDataProto;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * What a market data load pulls from remote, besides the prices: the buy and sell transactions, the
+ * dividends per account type and the imnts tracked outside the portfolio. Everything else is
+ * computed off these and the prices.
+ *
+ * @author Vivek
+ * @since 2026-10-18
+ */
+public record MarketLoadInputs(
+    MarketDataProto.Portfolio buys,
+    MarketDataProto.Portfolio sells,
+    Map<MarketDataProto.AccountType, MarketDataProto.Portfolio> dividends,
+    Set<String> imntsNotInPortfolio) {}
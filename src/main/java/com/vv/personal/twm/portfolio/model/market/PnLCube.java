@@ -0,0 +1,334 @@
+package com.vv.personal.twm.portfolio.model.market;
+
+import com.vv.personal.twm.artifactory.generated.equitiesMarket.MarketDataProto;
+import com.vv.personal.twm.portfolio.util.DateFormatUtil;
+import com.vv.personal.twm.portfolio.util.math.MathUtil;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Date level pnl of the portfolio, as one dense cube of measure x account type ordinal x date
+ * ordinal over a single primitive {@code double[]}, so that each account type's series of a measure
+ * is contiguous. A cell is booked once something is written to it, and a date counts as present for
+ * a measure if any of its cells are booked. Unbooked cells of a present date read 0, like the
+ * default account types of the date x account type maps did.
+ *
+ * <p>As-of lookups resolve the date to the latest present date on or before it through a per
+ * calendar day index and a per measure floor, i.e. O(1) instead of a TreeMap floorEntry. Cumulative
+ * measures read 0 before their first present date, as the baseline.
+ *
+ * <p>Not thread safe while being filled. Fill the base measures, {@link #aggregate()} and only then
+ * hand the cube out to readers; changes go into a {@link #copy()}.
+ *
+ * @author Vivek
+ * @since 2026-10-18
+ */
+public final class PnLCube {
+  private static final int TYPES = MarketDataProto.AccountType.values().length;
+
+  public enum Measure {
+    REALIZED(false), // pure date x account type x sells
+    UNREALIZED(false), // pure date x account type x unrealized
+    COMBINED(false), // pure date x account type x (realized + unrealized)
+    DIVIDEND(false), // pure date x account type x divs
+    DIVIDEND_CUMULATIVE(true), // cumulative date x account type x divs, on dividend dates only
+    REALIZED_WITH_DIVIDEND_CUMULATIVE(true), // cumulative date x account type x (sells + divs)
+    COMBINED_CUMULATIVE(true); // (unrealized + cumulative sells + cumulative divs)
+
+    private final boolean cumulative;
+
+    Measure(boolean cumulative) {
+      this.cumulative = cumulative;
+    }
+
+    public boolean isCumulative() {
+      return cumulative;
+    }
+  }
+
+  private static final int MEASURES = Measure.values().length;
+
+  private final int[] dates; // sorted yyyyMMdd
+  private final List<MarketDataProto.AccountType> defaultTypes;
+  private final double[] values; // measure x account type ordinal x date ordinal
+  private final boolean[] booked;
+  private final int[] floors; // measure x date ordinal -> latest present ordinal on or before, -1
+  private final long firstDay;
+  // calendar day since the first date -> latest date ordinal on or before it
+  private final int[] dayOrdinals;
+
+  public PnLCube(int[] dates, List<MarketDataProto.AccountType> defaultTypes) {
+    this.dates = dates.clone();
+    this.defaultTypes = List.copyOf(defaultTypes);
+    this.values = new double[MEASURES * dates.length * TYPES];
+    this.booked = new boolean[values.length];
+    this.floors = new int[MEASURES * dates.length];
+    Arrays.fill(floors, -1);
+
+    if (dates.length == 0) {
+      firstDay = 0;
+      dayOrdinals = new int[0];
+      return;
+    }
+    firstDay = DateFormatUtil.toEpochDay(dates[0]);
+    dayOrdinals =
+        new int[(int) (DateFormatUtil.toEpochDay(dates[dates.length - 1]) - firstDay + 1)];
+    for (int d = 0; d < dates.length; d++) {
+      int from = (int) (DateFormatUtil.toEpochDay(dates[d]) - firstDay);
+      int to =
+          d + 1 < dates.length
+              ? (int) (DateFormatUtil.toEpochDay(dates[d + 1]) - firstDay)
+              : dayOrdinals.length;
+      Arrays.fill(dayOrdinals, from, to, d);
+    }
+  }
+
+  private PnLCube(PnLCube cube) {
+    this.dates = cube.dates;
+    this.defaultTypes = cube.defaultTypes;
+    this.values = cube.values.clone();
+    this.booked = cube.booked.clone();
+    this.floors = cube.floors.clone();
+    this.firstDay = cube.firstDay;
+    this.dayOrdinals = cube.dayOrdinals;
+  }
+
+  public static PnLCube empty() {
+    return new PnLCube(new int[0], List.of());
+  }
+
+  public PnLCube copy() {
+    return new PnLCube(this);
+  }
+
+  /**
+   * A copy of the cube with the date appended as its last ordinal, e.g. on a day rollover. The
+   * running realized + dividend sums carry forward onto it, as nothing is realized or paid on it
+   * yet; the other measures start unbooked. Re-index the floors once it is booked.
+   */
+  public PnLCube append(int date) {
+    int size = dates.length;
+    if (size > 0 && date <= dates[size - 1])
+      throw new IllegalArgumentException(
+          "Cannot append " + date + " on or before the last date " + dates[size - 1]);
+    int[] appendedDates = Arrays.copyOf(dates, size + 1);
+    appendedDates[size] = date;
+    PnLCube cube = new PnLCube(appendedDates, defaultTypes);
+    for (int series = 0; series < MEASURES * TYPES; series++) {
+      System.arraycopy(values, series * size, cube.values, series * (size + 1), size);
+      System.arraycopy(booked, series * size, cube.booked, series * (size + 1), size);
+    }
+    if (size == 0) return cube;
+    for (MarketDataProto.AccountType type : defaultTypes) {
+      int last = cell(Measure.REALIZED_WITH_DIVIDEND_CUMULATIVE, size - 1, type.ordinal());
+      int appended = cube.cell(Measure.REALIZED_WITH_DIVIDEND_CUMULATIVE, size, type.ordinal());
+      cube.values[appended] = values[last];
+      cube.booked[appended] = booked[last];
+    }
+    return cube;
+  }
+
+  public int size() {
+    return dates.length;
+  }
+
+  public int getDate(int ordinal) {
+    return dates[ordinal];
+  }
+
+  /** Ordinal of the date, -1 if it is not one of the cube's dates */
+  public int ordinalOf(int date) {
+    int ordinal = floorOrdinal(date);
+    return ordinal >= 0 && dates[ordinal] == date ? ordinal : -1;
+  }
+
+  /** Ordinal of the latest date on or before the given one, -1 if it is before all of them */
+  public int floorOrdinal(int date) {
+    if (dates.length == 0 || date < dates[0]) return -1;
+    if (date >= dates[dates.length - 1]) return dates.length - 1;
+    return dayOrdinals[(int) (DateFormatUtil.toEpochDay(date) - firstDay)];
+  }
+
+  public void add(Measure measure, int ordinal, MarketDataProto.AccountType type, double value) {
+    int cell = cell(measure, ordinal, type.ordinal());
+    values[cell] += value;
+    booked[cell] = true;
+  }
+
+  public double get(Measure measure, int ordinal, MarketDataProto.AccountType type) {
+    return values[cell(measure, ordinal, type.ordinal())];
+  }
+
+  public boolean isBooked(Measure measure, int ordinal, MarketDataProto.AccountType type) {
+    return booked[cell(measure, ordinal, type.ordinal())];
+  }
+
+  /** Whether anything is booked for the date */
+  public boolean isPresent(Measure measure, int ordinal) {
+    for (int t = 0; t < TYPES; t++) if (booked[cell(measure, ordinal, t)]) return true;
+    return false;
+  }
+
+  /** Value as of the latest present date on or before the given one, 0 if there is none */
+  public double asOf(Measure measure, MarketDataProto.AccountType type, int date) {
+    int floor = floor(measure, date);
+    return floor < 0 ? 0.0 : values[cell(measure, floor, type.ordinal())];
+  }
+
+  /** Sum over the account types as of the latest present date on or before the given one */
+  public double asOfTotal(Measure measure, int date) {
+    int floor = floor(measure, date);
+    return floor < 0 ? 0.0 : rowTotal(measure, floor);
+  }
+
+  /** Date x value of the account type on the measure's present dates, baseline included */
+  public TreeMap<Integer, Double> slice(Measure measure, MarketDataProto.AccountType type) {
+    TreeMap<Integer, Double> slice = new TreeMap<>();
+    if (measure.isCumulative()) slice.put(0, 0.0);
+    for (int d = 0; d < dates.length; d++)
+      if (isPresent(measure, d)) slice.put(dates[d], values[cell(measure, d, type.ordinal())]);
+    return slice;
+  }
+
+  /** Date x value summed over the account types on the measure's present dates */
+  public TreeMap<Integer, Double> sliceTotal(Measure measure) {
+    TreeMap<Integer, Double> slice = new TreeMap<>();
+    if (measure.isCumulative()) slice.put(0, 0.0);
+    for (int d = 0; d < dates.length; d++)
+      if (isPresent(measure, d)) slice.put(dates[d], rowTotal(measure, d));
+    return slice;
+  }
+
+  /**
+   * The measure as a date x account type map, the default account types at 0 on present dates and a
+   * 0 date baseline for the cumulative ones. For inspection, the cube itself is what is read.
+   */
+  public TreeMap<Integer, Map<MarketDataProto.AccountType, Double>> toDateMap(Measure measure) {
+    TreeMap<Integer, Map<MarketDataProto.AccountType, Double>> dateMap = new TreeMap<>();
+    if (measure.isCumulative()) {
+      Map<MarketDataProto.AccountType, Double> baseline = new HashMap<>();
+      defaultTypes.forEach(type -> baseline.put(type, 0.0));
+      dateMap.put(0, baseline);
+    }
+    MarketDataProto.AccountType[] types = MarketDataProto.AccountType.values();
+    for (int d = 0; d < dates.length; d++) {
+      if (!isPresent(measure, d)) continue;
+      Map<MarketDataProto.AccountType, Double> typeMap = new HashMap<>();
+      defaultTypes.forEach(type -> typeMap.put(type, 0.0));
+      for (int t = 0; t < TYPES; t++)
+        if (booked[cell(measure, d, t)]) typeMap.put(types[t], values[cell(measure, d, t)]);
+      dateMap.put(dates[d], typeMap);
+    }
+    return dateMap;
+  }
+
+  /**
+   * Rolls the booked REALIZED, UNREALIZED and DIVIDEND cells up into the combined and cumulative
+   * measures, over the default account types, and re-indexes the as-of floors. The running sums are
+   * prefix sums over each account type's contiguous date series.
+   */
+  public void aggregate() {
+    clear(Measure.COMBINED);
+    clear(Measure.DIVIDEND_CUMULATIVE);
+    clear(Measure.REALIZED_WITH_DIVIDEND_CUMULATIVE);
+    clear(Measure.COMBINED_CUMULATIVE);
+
+    int size = dates.length;
+    boolean[] marketDates = new boolean[size];
+    boolean[] dividendDates = new boolean[size];
+    for (int d = 0; d < size; d++) {
+      marketDates[d] = isPresent(Measure.REALIZED, d) || isPresent(Measure.UNREALIZED, d);
+      dividendDates[d] = isPresent(Measure.DIVIDEND, d);
+    }
+
+    for (MarketDataProto.AccountType type : MarketDataProto.AccountType.values()) {
+      if (type == MarketDataProto.AccountType.UNRECOGNIZED) continue;
+      int t = type.ordinal();
+      int dividend = cell(Measure.DIVIDEND, 0, t);
+      int dividendCumulative = cell(Measure.DIVIDEND_CUMULATIVE, 0, t);
+      boolean defaultType = defaultTypes.contains(type);
+
+      // dividend only account types outside the defaults still carry their running sum
+      System.arraycopy(values, dividend, values, dividendCumulative, size);
+      MathUtil.prefixSum(values, dividendCumulative, dividendCumulative + size);
+      for (int d = 0; d < size; d++) {
+        booked[dividendCumulative + d] = dividendDates[d] && (defaultType || booked[dividend + d]);
+        if (!booked[dividendCumulative + d]) values[dividendCumulative + d] = 0.0;
+      }
+      if (!defaultType) continue;
+
+      int realized = cell(Measure.REALIZED, 0, t);
+      int unrealized = cell(Measure.UNREALIZED, 0, t);
+      int realizedWithDividends = cell(Measure.REALIZED_WITH_DIVIDEND_CUMULATIVE, 0, t);
+      int combined = cell(Measure.COMBINED, 0, t);
+      int combinedCumulative = cell(Measure.COMBINED_CUMULATIVE, 0, t);
+      for (int d = 0; d < size; d++)
+        values[realizedWithDividends + d] = values[dividend + d] + values[realized + d];
+      MathUtil.prefixSum(values, realizedWithDividends, realizedWithDividends + size);
+      Arrays.fill(booked, realizedWithDividends, realizedWithDividends + size, true);
+
+      for (int d = 0; d < size; d++) {
+        if (!marketDates[d]) continue;
+        values[combined + d] = values[unrealized + d] + values[realized + d];
+        values[combinedCumulative + d] = values[realizedWithDividends + d] + values[unrealized + d];
+        booked[combined + d] = booked[combinedCumulative + d] = true;
+      }
+    }
+    indexFloors();
+  }
+
+  /**
+   * Re-derives the combined measures of a single date after only its UNREALIZED cells changed, e.g.
+   * on an intraday price refresh or a rollover. The running realized + dividend sums do not depend
+   * on the unrealized pnl, so nothing else moves.
+   */
+  public void aggregateUnrealized(int ordinal) {
+    if (!isPresent(Measure.REALIZED, ordinal) && !isPresent(Measure.UNREALIZED, ordinal)) return;
+    for (MarketDataProto.AccountType type : defaultTypes) {
+      int t = type.ordinal();
+      double unrealized = values[cell(Measure.UNREALIZED, ordinal, t)];
+      values[cell(Measure.COMBINED, ordinal, t)] =
+          unrealized + values[cell(Measure.REALIZED, ordinal, t)];
+      values[cell(Measure.COMBINED_CUMULATIVE, ordinal, t)] =
+          values[cell(Measure.REALIZED_WITH_DIVIDEND_CUMULATIVE, ordinal, t)] + unrealized;
+      booked[cell(Measure.COMBINED, ordinal, t)] = true;
+      booked[cell(Measure.COMBINED_CUMULATIVE, ordinal, t)] = true;
+    }
+  }
+
+  /** Re-indexes the as-of floors, after booking cells outside of {@link #aggregate()} */
+  public void indexFloors() {
+    for (Measure measure : Measure.values()) {
+      int floor = -1;
+      for (int d = 0; d < dates.length; d++) {
+        if (isPresent(measure, d)) floor = d;
+        floors[measure.ordinal() * dates.length + d] = floor;
+      }
+    }
+  }
+
+  private int floor(Measure measure, int date) {
+    int ordinal = floorOrdinal(date);
+    return ordinal < 0 ? -1 : floors[measure.ordinal() * dates.length + ordinal];
+  }
+
+  private double rowTotal(Measure measure, int ordinal) {
+    double total = 0.0;
+    for (int t = 0; t < TYPES; t++) total += values[cell(measure, ordinal, t)];
+    return total;
+  }
+
+  private void clear(Measure measure) {
+    int from = cell(measure, 0, 0);
+    int to = from + dates.length * TYPES;
+    Arrays.fill(values, from, to, 0.0);
+    Arrays.fill(booked, from, to, false);
+  }
+
+  private int cell(Measure measure, int ordinal, int type) {
+    return (measure.ordinal() * TYPES + type) * dates.length + ordinal;
+  }
+}
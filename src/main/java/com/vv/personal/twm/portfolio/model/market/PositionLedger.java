@@ -0,0 +1,280 @@
+package com.vv.personal.twm.portfolio.model.market;
+
+import com.vv.personal.twm.artifactory.generated.equitiesMarket.MarketDataProto;
+import java.util.Arrays;
+import java.util.OptionalDouble;
+
+/**
+ * Transactions of one instrument x account type, ordered by trade date, held as parallel primitive
+ * arrays (struct of arrays) instead of a linked list of nodes each wrapping the full instrument
+ * proto. Entry i's running quantity and ACB are as of just after its transaction.
+ *
+ * <p>A BUY goes in after every entry on or before its trade date, so in trade date order it is
+ * appended, and a back-dated one lands in its place. A SELL goes in before any entry on or after
+ * its trade date. Both positions are found by binary search on the dates.
+ *
+ * <p>Adding a transaction lowers a dirty watermark to its position, and {@link #computeAcb()} only
+ * recomputes from the watermark forward, as nothing before it depends on the new entry.
+ *
+ * @author Vivek
+ * @since 2026-10-18
+ */
+public final class PositionLedger {
+  private static final int INITIAL_CAPACITY = 8;
+
+  private int size;
+  private int[] dates;
+  private double[] quantities;
+  private double[] prices; // total price of the transaction, i.e. price per share * qty
+  private double[] pricesPerShare; // NaN for BUYs, or SELLs without it
+  private boolean[] sells;
+  private double[] runningQuantities;
+  private double[] totalAcbs;
+  private double[] acbPerUnits;
+  private double[] pnls; // NaN for BUYs
+  private String sector; // of the latest transaction
+  private int dirtyFrom; // entries from here on need their ACB computed
+
+  public PositionLedger() {
+    this(INITIAL_CAPACITY);
+  }
+
+  public PositionLedger(int capacity) {
+    capacity = Math.max(1, capacity);
+    dates = new int[capacity];
+    quantities = new double[capacity];
+    prices = new double[capacity];
+    pricesPerShare = new double[capacity];
+    sells = new boolean[capacity];
+    runningQuantities = new double[capacity];
+    totalAcbs = new double[capacity];
+    acbPerUnits = new double[capacity];
+    pnls = new double[capacity];
+  }
+
+  public void add(MarketDataProto.Instrument instrument) {
+    MarketDataProto.Value value = instrument.getTicker().getData(0);
+    boolean sell = instrument.getDirection() == MarketDataProto.Direction.SELL;
+    int index;
+    if (sell) {
+      index = size == 0 ? 0 : lowerBound(value.getDate());
+      if (index == 0)
+        throw new UnsupportedOperationException("Does not allow short selling of instruments yet!");
+    } else index = upperBound(value.getDate());
+    ensureCapacity(size + 1);
+    shiftRight(index);
+
+    dates[index] = value.getDate();
+    quantities[index] = instrument.getQty();
+    prices[index] = value.getPrice();
+    pricesPerShare[index] =
+        sell && instrument.containsMetaData("pricePerShare")
+            ? Double.parseDouble(instrument.getMetaDataOrThrow("pricePerShare"))
+            : Double.NaN;
+    sells[index] = sell;
+    runningQuantities[index] = instrument.getQty();
+    totalAcbs[index] = acbPerUnits[index] = 0.0;
+    pnls[index] = Double.NaN;
+    if (index == size) sector = instrument.getTicker().getSector();
+    dirtyFrom = Math.min(dirtyFrom, index);
+    size++;
+  }
+
+  /**
+   * Invoke after adding transactions, in order to compute running quantity, ACB and realized pnl
+   * for the entries from the dirty watermark on. Returns the number of entries recomputed. <a
+   * href="https://www.atb.com/wealth/good-advice/tax/understanding-adjusted-cost-base/">Follow
+   * logic shown here</a>
+   */
+  public int computeAcb() {
+    int recomputed = size - dirtyFrom;
+    for (int i = dirtyFrom; i < size; i++) {
+      double runningQuantity = quantities[i];
+      double totalAcb, acbU;
+      if (i == 0) { // no short selling, so assuming first entry will always have BUY direction
+        totalAcb = prices[i];
+        acbU = totalAcb / runningQuantity;
+      } else if (!sells[i]) {
+        runningQuantity += runningQuantities[i - 1];
+        totalAcb = totalAcbs[i - 1] + prices[i];
+        acbU = totalAcb / runningQuantity;
+      } else {
+        // IMPORTANT -- ACB/U is NOT updated on SELL, only the total ACB decreases due to qty drop
+        acbU = acbPerUnits[i - 1];
+        // pnl => sold-price-from-txn - acbu * sold-qty
+        pnls[i] = prices[i] - acbU * quantities[i];
+        // handle oversell + position close, disallow short selling
+        runningQuantity = Math.max(0, runningQuantities[i - 1] - quantities[i]);
+        if (runningQuantity == 0.0) acbU = 0.0; // closing position
+        totalAcb = runningQuantity * acbU;
+      }
+      runningQuantities[i] = runningQuantity;
+      totalAcbs[i] = totalAcb;
+      acbPerUnits[i] = acbU;
+    }
+    dirtyFrom = size;
+    return recomputed;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  /** Index of the first entry whose ACB is stale, size() if none */
+  public int getDirtyFrom() {
+    return dirtyFrom;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /** Index of the latest transaction, -1 if there is none */
+  public int latest() {
+    return size - 1;
+  }
+
+  public int getDate(int index) {
+    return dates[checkIndex(index)];
+  }
+
+  public double getQuantity(int index) {
+    return quantities[checkIndex(index)];
+  }
+
+  public double getPrice(int index) {
+    return prices[checkIndex(index)];
+  }
+
+  public double getPricePerShare(int index) {
+    return pricesPerShare[checkIndex(index)];
+  }
+
+  public boolean isSell(int index) {
+    return sells[checkIndex(index)];
+  }
+
+  public MarketDataProto.Direction getDirection(int index) {
+    return isSell(index) ? MarketDataProto.Direction.SELL : MarketDataProto.Direction.BUY;
+  }
+
+  public double getRunningQuantity(int index) {
+    return runningQuantities[checkIndex(index)];
+  }
+
+  public double getTotalAcb(int index) {
+    return totalAcbs[checkIndex(index)];
+  }
+
+  public double getAcbPerUnit(int index) {
+    return acbPerUnits[checkIndex(index)];
+  }
+
+  public ACB getAcb(int index) {
+    return ACB.builder().totalAcb(getTotalAcb(index)).acbPerUnit(getAcbPerUnit(index)).build();
+  }
+
+  /** Realized pnl of a SELL against the ACB/U before it, empty for BUYs */
+  public OptionalDouble getPnl(int index) {
+    double pnl = pnls[checkIndex(index)];
+    return Double.isNaN(pnl) ? OptionalDouble.empty() : OptionalDouble.of(pnl);
+  }
+
+  /** Whether the entry closes out the position for good, i.e. the last one, at zero quantity */
+  public boolean isClosingPosition(int index) {
+    return index == size - 1 && runningQuantities[checkIndex(index)] == 0.0;
+  }
+
+  public boolean isClosed() {
+    return size > 0 && isClosingPosition(size - 1);
+  }
+
+  public String getSector() {
+    return sector;
+  }
+
+  /** An independent copy, trimmed to size, which the adds to either one do not show up in */
+  public PositionLedger copy() {
+    PositionLedger copy = new PositionLedger(size);
+    copy.size = size;
+    System.arraycopy(dates, 0, copy.dates, 0, size);
+    System.arraycopy(quantities, 0, copy.quantities, 0, size);
+    System.arraycopy(prices, 0, copy.prices, 0, size);
+    System.arraycopy(pricesPerShare, 0, copy.pricesPerShare, 0, size);
+    System.arraycopy(sells, 0, copy.sells, 0, size);
+    System.arraycopy(runningQuantities, 0, copy.runningQuantities, 0, size);
+    System.arraycopy(totalAcbs, 0, copy.totalAcbs, 0, size);
+    System.arraycopy(acbPerUnits, 0, copy.acbPerUnits, 0, size);
+    System.arraycopy(pnls, 0, copy.pnls, 0, size);
+    copy.sector = sector;
+    copy.dirtyFrom = dirtyFrom;
+    return copy;
+  }
+
+  @Override
+  public String toString() {
+    return String.format(
+        "PositionLedger [size=%d, from=%s, to=%s, runningQuantity=%s]",
+        size,
+        size == 0 ? null : dates[0],
+        size == 0 ? null : dates[size - 1],
+        size == 0 ? null : runningQuantities[size - 1]);
+  }
+
+  /** First index with a trade date on or after the given one */
+  private int lowerBound(int date) {
+    int low = 0, high = size;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (dates[mid] < date) low = mid + 1;
+      else high = mid;
+    }
+    return low;
+  }
+
+  /** First index with a trade date after the given one */
+  private int upperBound(int date) {
+    if (size == 0 || dates[size - 1] <= date) return size; // in order, the usual case
+    int low = 0, high = size;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (dates[mid] <= date) low = mid + 1;
+      else high = mid;
+    }
+    return low;
+  }
+
+  private void ensureCapacity(int capacity) {
+    if (capacity <= dates.length) return;
+    int newCapacity = Math.max(capacity, dates.length + (dates.length >> 1));
+    dates = Arrays.copyOf(dates, newCapacity);
+    quantities = Arrays.copyOf(quantities, newCapacity);
+    prices = Arrays.copyOf(prices, newCapacity);
+    pricesPerShare = Arrays.copyOf(pricesPerShare, newCapacity);
+    sells = Arrays.copyOf(sells, newCapacity);
+    runningQuantities = Arrays.copyOf(runningQuantities, newCapacity);
+    totalAcbs = Arrays.copyOf(totalAcbs, newCapacity);
+    acbPerUnits = Arrays.copyOf(acbPerUnits, newCapacity);
+    pnls = Arrays.copyOf(pnls, newCapacity);
+  }
+
+  private void shiftRight(int index) {
+    int moved = size - index;
+    if (moved == 0) return;
+    System.arraycopy(dates, index, dates, index + 1, moved);
+    System.arraycopy(quantities, index, quantities, index + 1, moved);
+    System.arraycopy(prices, index, prices, index + 1, moved);
+    System.arraycopy(pricesPerShare, index, pricesPerShare, index + 1, moved);
+    System.arraycopy(sells, index, sells, index + 1, moved);
+    System.arraycopy(runningQuantities, index, runningQuantities, index + 1, moved);
+    System.arraycopy(totalAcbs, index, totalAcbs, index + 1, moved);
+    System.arraycopy(acbPerUnits, index, acbPerUnits, index + 1, moved);
+    System.arraycopy(pnls, index, pnls, index + 1, moved);
+  }
+
+  private int checkIndex(int index) {
+    if (index < 0 || index >= size)
+      throw new IndexOutOfBoundsException("Index " + index + " out of ledger of size " + size);
+    return index;
+  }
+}
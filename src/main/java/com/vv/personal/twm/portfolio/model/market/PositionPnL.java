@@ -0,0 +1,29 @@
+package com.vv.personal.twm.portfolio.model.market;
+
+import com.vv.personal.twm.artifactory.generated.equitiesMarket.MarketDataProto;
+import java.util.Arrays;
+
+/**
+ * One position's (instrument x account type) pnl over the pnl dates, as primitive series indexed
+ * like the dates. NaN marks a date nothing was booked on. Positions are computed independently of
+ * each other and only meet when summed into the date level totals.
+ *
+ * @author Vivek
+ * @since 2026-10-18
+ */
+public record PositionPnL(
+    String imnt, MarketDataProto.AccountType accountType, double[] unrealized, double[] realized) {
+
+  public static PositionPnL unbooked(
+      String imnt, MarketDataProto.AccountType accountType, int dates) {
+    double[] unrealized = new double[dates];
+    double[] realized = new double[dates];
+    Arrays.fill(unrealized, Double.NaN);
+    Arrays.fill(realized, Double.NaN);
+    return new PositionPnL(imnt, accountType, unrealized, realized);
+  }
+
+  public int size() {
+    return unrealized.length;
+  }
+}
@@ -0,0 +1,39 @@
+package com.vv.personal.twm.portfolio.model.market;
+
+import java.util.Arrays;
+
+/**
+ * Prices of an instrument aligned on a date axis. A slot whose {@code valid} flag is false carries
+ * no price for that date and its {@code prices} value is to be ignored.
+ *
+ * @author Vivek
+ * @since 2026-10-18
+ */
+public record PriceSeries(String imnt, int[] dates, double[] prices, boolean[] valid) {
+
+  public int size() {
+    return dates.length;
+  }
+
+  public boolean isValid(int index) {
+    return valid[index];
+  }
+
+  public double price(int index) {
+    return prices[index];
+  }
+
+  public int validCount() {
+    int count = 0;
+    for (boolean present : valid) if (present) count++;
+    return count;
+  }
+
+  /** Prices of the valid slots only, in date order */
+  public double[] validPrices() {
+    double[] compacted = new double[prices.length];
+    int count = 0;
+    for (int i = 0; i < prices.length; i++) if (valid[i]) compacted[count++] = prices[i];
+    return count == compacted.length ? compacted : Arrays.copyOf(compacted, count);
+  }
+}
@@ -0,0 +1,83 @@
+package com.vv.personal.twm.portfolio.model.market;
+
+import com.vv.personal.twm.artifactory.generated.equitiesMarket.MarketDataProto;
+import com.vv.personal.twm.portfolio.util.DateFormatUtil;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Prices fetched from remote ahead of an incremental update, by imnt and date. They only go into
+ * the ticker data warehouse with the update, as of the data epoch it is published as. A revision
+ * rewrites already stored history, e.g. an imnt's prices reloaded from the db.
+ *
+ * @author Vivek
+ * @since 2026-10-18
+ */
+public record PriceUpdate(Map<String, NavigableMap<LocalDate, Double>> prices, boolean revision) {
+  private static final PriceUpdate EMPTY = new PriceUpdate(Map.of(), false);
+
+  public static PriceUpdate empty() {
+    return EMPTY;
+  }
+
+  /** Prices of the imnts on the one date */
+  public static PriceUpdate of(LocalDate date, Map<String, Double> prices) {
+    Map<String, NavigableMap<LocalDate, Double>> imntPrices = new HashMap<>();
+    prices.forEach(
+        (imnt, price) ->
+            imntPrices.put(
+                imnt, Collections.unmodifiableNavigableMap(new TreeMap<>(Map.of(date, price)))));
+    return new PriceUpdate(Collections.unmodifiableMap(imntPrices), false);
+  }
+
+  /** The tickers' prices as a revision of their history */
+  public static PriceUpdate revisionOf(Iterable<MarketDataProto.Ticker> tickers) {
+    Map<String, NavigableMap<LocalDate, Double>> imntPrices = new HashMap<>();
+    for (MarketDataProto.Ticker ticker : tickers) {
+      NavigableMap<LocalDate, Double> datePrices =
+          imntPrices.computeIfAbsent(ticker.getSymbol(), k -> new TreeMap<>());
+      ticker
+          .getDataList()
+          .forEach(
+              value ->
+                  datePrices.put(DateFormatUtil.getLocalDate(value.getDate()), value.getPrice()));
+    }
+    imntPrices.replaceAll((imnt, datePrices) -> Collections.unmodifiableNavigableMap(datePrices));
+    return new PriceUpdate(Collections.unmodifiableMap(imntPrices), true);
+  }
+
+  public boolean isEmpty() {
+    return prices.isEmpty();
+  }
+
+  public Double get(LocalDate date, String imnt) {
+    NavigableMap<LocalDate, Double> datePrices = prices.get(imnt);
+    return datePrices == null ? null : datePrices.get(date);
+  }
+
+  /** Every date priced, of any imnt */
+  public NavigableSet<LocalDate> dates() {
+    NavigableSet<LocalDate> dates = new TreeSet<>();
+    prices.values().forEach(datePrices -> dates.addAll(datePrices.keySet()));
+    return dates;
+  }
+
+  /** Both updates' prices, the other's winning on the same imnt and date */
+  public PriceUpdate merge(PriceUpdate other) {
+    if (other.isEmpty()) return this;
+    if (isEmpty()) return other;
+    Map<String, NavigableMap<LocalDate, Double>> imntPrices = new HashMap<>();
+    prices.forEach((imnt, datePrices) -> imntPrices.put(imnt, new TreeMap<>(datePrices)));
+    other.prices.forEach(
+        (imnt, datePrices) ->
+            imntPrices.computeIfAbsent(imnt, k -> new TreeMap<>()).putAll(datePrices));
+    imntPrices.replaceAll((imnt, datePrices) -> Collections.unmodifiableNavigableMap(datePrices));
+    return new PriceUpdate(Collections.unmodifiableMap(imntPrices), revision || other.revision);
+  }
+}
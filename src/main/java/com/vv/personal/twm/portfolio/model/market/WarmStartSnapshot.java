@@ -0,0 +1,14 @@
+package com.vv.personal.twm.portfolio.model.market;
+
+import com.vv.personal.twm.artifactory.generated.equitiesMarket.MarketDataProto;
+import java.util.List;
+
+/**
+ * Everything a market data load pulled from remote, as saved to local disk after a good load: its
+ * inputs and the prices of the ticker data warehouse, one ticker per instrument.
+ *
+ * @author Vivek
+ * @since 2026-10-18
+ */
+public record WarmStartSnapshot(
+    long savedAtMillis, MarketLoadInputs loadInputs, List<MarketDataProto.Ticker> tickers) {}
@@ -0,0 +1,24 @@
+package com.vv.personal.twm.portfolio.model.tracking;
+
+import java.util.List;
+
+/**
+ * A client's load as of now: its stage, the phases started so far in start order, how many of the
+ * phases declared are done, and how far along the load is. The ETA goes off the time the last
+ * completed load took, stretched by any running phase expected to end past it; -1 when unknown. An
+ * ended load that did not complete, i.e. failed or was cancelled, is as far along as its phases.
+ *
+ * @author Vivek
+ * @since 2026-10-18
+ */
+public record LoadProgress(
+    String clientId,
+    ProgressTracker stage,
+    long startedAtMillis,
+    long endedAtMillis,
+    boolean completed,
+    int phasesDone,
+    int phasesTotal,
+    double percent,
+    long etaMillis,
+    List<PhaseProgress> phases) {}
@@ -0,0 +1,21 @@
+package com.vv.personal.twm.portfolio.model.tracking;
+
+/**
+ * A load phase as of now: when it started and ended (0 while running), whether it completed or was
+ * stopped by a failed or cancelled load, the items, e.g. instruments, it got through out of its
+ * total (0 if it does not count them), and how far along it is. The percent and ETA go off the
+ * counters if there are any, else off the time the phase took last run; the ETA is -1 when neither
+ * is known.
+ *
+ * @author Vivek
+ * @since 2026-10-18
+ */
+public record PhaseProgress(
+    String phase,
+    long startedAtMillis,
+    long endedAtMillis,
+    boolean completed,
+    int done,
+    int total,
+    double percent,
+    long etaMillis) {}
@@ -0,0 +1,21 @@
+package com.vv.personal.twm.portfolio.model.tracking;
+
+import java.util.Set;
+
+/**
+ * The reload in flight: its id, the phases running, time since it started and whether it was asked
+ * to cancel, or another reload is queued behind it. Id 0 when no reload is in flight.
+ *
+ * @author Vivek
+ * @since 2026-10-18
+ */
+public record ReloadStatus(
+    long reloadId,
+    boolean hardRefresh,
+    Set<String> runningPhases,
+    long elapsedMillis,
+    boolean cancelRequested,
+    boolean followUpQueued) {
+
+  public static final ReloadStatus IDLE = new ReloadStatus(0, false, Set.of(), 0, false, false);
+}
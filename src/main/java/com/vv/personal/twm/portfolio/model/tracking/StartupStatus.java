@@ -0,0 +1,26 @@
+package com.vv.personal.twm.portfolio.model.tracking;
+
+import org.springframework.boot.availability.LivenessState;
+import org.springframework.boot.availability.ReadinessState;
+
+/**
+ * Where the startup pipeline is at. Ready once a load has published market data, i.e. the data
+ * epoch is past 0, and live unless the pipeline broke down outside of the loads.
+ *
+ * @author Vivek
+ * @since 2026-10-18
+ */
+public record StartupStatus(
+    Stage stage,
+    LivenessState liveness,
+    ReadinessState readiness,
+    long dataEpoch,
+    long elapsedMillis) {
+
+  public enum Stage {
+    PENDING, // app context not ready yet
+    LOADING,
+    STARTED,
+    FAILED // the initial load failed, a reload is needed
+  }
+}
@@ -1,11 +1,12 @@
 package com.vv.personal.twm.portfolio.remote.controller;
 
-import com.google.common.collect.Table;
 import com.vv.personal.twm.artifactory.generated.bank.BankProto;
 import com.vv.personal.twm.artifactory.generated.data.DataPacketProto;
 import com.vv.personal.twm.artifactory.generated.deposit.FixedDepositProto;
 import com.vv.personal.twm.artifactory.generated.equitiesMarket.MarketDataProto;
+import com.vv.personal.twm.portfolio.model.market.CorrelationMatrix;
 import com.vv.personal.twm.portfolio.model.market.InvestmentDivWeight;
+import com.vv.personal.twm.portfolio.model.tracking.ReloadStatus;
 import com.vv.personal.twm.portfolio.service.CentralDataPointService;
 import com.vv.personal.twm.portfolio.service.InvestmentDivWeightService;
 import com.vv.personal.twm.portfolio.service.ReloadService;
@@ -63,6 +64,35 @@ public class PortfolioController {
     else return "ERROR";
   }
 
+  @GetMapping("/reload/v2k/scope/{uid}")
+  public String reloadV2kScope(@PathVariable("uid") String uid) {
+    if (reloadService.reload(uid)) return "OK";
+    else return "ERROR";
+  }
+
+  @GetMapping("/reload/v2k/status")
+  public ReloadStatus getReloadStatus() {
+    return reloadService.getReloadStatus();
+  }
+
+  @GetMapping("/reload/v2k/cancel")
+  public String cancelV2kReload() {
+    if (reloadService.cancelReload()) return "OK";
+    else return "ERROR";
+  }
+
+  @GetMapping("/reload/v2k/intraday")
+  public String refreshV2kIntraday() {
+    if (reloadService.refreshIntraday()) return "OK";
+    else return "ERROR";
+  }
+
+  @GetMapping("/reload/v2k/rollover")
+  public String rolloverV2k() {
+    if (reloadService.rollover()) return "OK";
+    else return "ERROR";
+  }
+
   @GetMapping("/manual/investment/div-weights")
   public String getInvestmentDivWeights(
       @RequestParam(defaultValue = "VFV.TO, VCE.TO, XEQT.TO, ZDB.TO") String highValImnts,
@@ -247,7 +277,7 @@ public class PortfolioController {
   @GetMapping("/market/correlation/matrix")
   public MarketDataProto.CorrelationMatrix getCorrelationMatrix() {
     log.info("getCorrelationMatrix invoked");
-    Optional<Table<String, String, Double>> optionalCorrelationMatrix =
+    Optional<CorrelationMatrix> optionalCorrelationMatrix =
         centralDataPointService.getCorrelationMatrix();
     MarketDataProto.CorrelationMatrix correlationMatrix =
         DataConverterUtil.getCorrelationMatrix(optionalCorrelationMatrix);
@@ -262,7 +292,7 @@ public class PortfolioController {
     log.info("getCorrelationMatrix invoked for {}", accountType);
     MarketDataProto.AccountType accType = MarketDataProto.AccountType.valueOf(accountType);
 
-    Optional<Table<String, String, Double>> optionalCorrelationMatrix =
+    Optional<CorrelationMatrix> optionalCorrelationMatrix =
         centralDataPointService.getCorrelationMatrix(accType);
     MarketDataProto.CorrelationMatrix correlationMatrix =
         DataConverterUtil.getCorrelationMatrix(optionalCorrelationMatrix);
@@ -277,7 +307,7 @@ public class PortfolioController {
   public MarketDataProto.CorrelationMatrix getCorrelationMatrixForSelected(
       @RequestBody DataPacketProto.DataPacket dataPacket) {
     log.info("getCorrelationMatrix invoked for selected imnts: {}", dataPacket.getStringsCount());
-    Optional<Table<String, String, Double>> optionalCorrelationMatrix =
+    Optional<CorrelationMatrix> optionalCorrelationMatrix =
         centralDataPointService.getCorrelationMatrix(dataPacket.getStringsList());
     MarketDataProto.CorrelationMatrix correlationMatrix =
         DataConverterUtil.getCorrelationMatrix(optionalCorrelationMatrix);
@@ -290,7 +320,7 @@ public class PortfolioController {
   @GetMapping("/market/sector/correlation/matrix")
   public MarketDataProto.CorrelationMatrix getCorrelationMatrixForSectors() {
     log.info("getCorrelationMatrixForSectors invoked for sectors");
-    Optional<Table<String, String, Double>> optionalCorrelationMatrix =
+    Optional<CorrelationMatrix> optionalCorrelationMatrix =
         centralDataPointService.getCorrelationMatrixForSectors();
     MarketDataProto.CorrelationMatrix correlationMatrix =
         DataConverterUtil.getCorrelationMatrix(optionalCorrelationMatrix);
@@ -385,6 +415,16 @@ public class PortfolioController {
 
   // METADATA
 
+  @PostMapping("/market/transaction")
+  public String ingestTransaction(@RequestBody MarketDataProto.Instrument instrument) {
+    log.info(
+        "ingestTransaction invoked for {} x {}",
+        instrument.getTicker().getSymbol(),
+        instrument.getAccountType());
+    if (centralDataPointService.ingestTransaction(instrument)) return "OK";
+    else return "ERROR";
+  }
+
   @GetMapping("/market/metadata")
   public MarketDataProto.Portfolio getEntireMetaData() {
     log.info("getEntireMetaData invoked");
@@ -1,10 +1,21 @@
 package com.vv.personal.twm.portfolio.remote.controller;
 
+import com.vv.personal.twm.portfolio.model.tracking.LoadProgress;
+import com.vv.personal.twm.portfolio.model.tracking.StartupStatus;
 import com.vv.personal.twm.portfolio.service.ProgressTrackerService;
+import com.vv.personal.twm.portfolio.service.StartupService;
+import java.io.IOException;
+import java.util.Map;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.availability.LivenessState;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 /**
  * @author Vivek
@@ -17,7 +28,11 @@ import org.springframework.web.bind.annotation.*;
 @CrossOrigin(origins = "http://localhost:5173") // Allow React app
 @RequiredArgsConstructor
 public class ProgressTrackerController {
+  private static final long STREAM_TIMEOUT_MILLIS = 30 * 60 * 1000L; // client reconnects after
+  private static final String STREAM_EVENT = "progress";
+
   private final ProgressTrackerService progressTrackerService;
+  private final StartupService startupService;
 
   @GetMapping("query")
   public String queryProgressTracker(@RequestParam("client") String clientId) {
@@ -26,4 +41,60 @@ public class ProgressTrackerController {
     log.info("progress status for {} => {}", clientId, progress);
     return progress;
   }
+
+  @GetMapping("timings")
+  public Map<String, Long> queryPhaseTimings(@RequestParam("client") String clientId) {
+    log.info("phase timings requested for {}", clientId);
+    return progressTrackerService.getPhaseTimings(clientId);
+  }
+
+  @GetMapping("detail")
+  public LoadProgress queryLoadProgress(@RequestParam("client") String clientId) {
+    return progressTrackerService.getLoadProgress(clientId);
+  }
+
+  /** Pushes the load progress on every change, starting with where it is at now */
+  @GetMapping(value = "stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public SseEmitter streamLoadProgress(@RequestParam("client") String clientId) {
+    log.info("progress stream requested for {}", clientId);
+    SseEmitter emitter = new SseEmitter(STREAM_TIMEOUT_MILLIS);
+    Runnable unsubscribe =
+        progressTrackerService.subscribe(clientId, progress -> send(emitter, progress));
+    emitter.onCompletion(unsubscribe);
+    emitter.onTimeout(unsubscribe);
+    emitter.onError(e -> unsubscribe.run());
+    send(emitter, progressTrackerService.getLoadProgress(clientId));
+    return emitter;
+  }
+
+  @GetMapping("startup")
+  public StartupStatus queryStartupStatus() {
+    return startupService.getStartupStatus();
+  }
+
+  // probes, 503 until the state is the healthy one
+  @GetMapping("liveness")
+  public ResponseEntity<String> queryLiveness() {
+    LivenessState liveness = startupService.getStartupStatus().liveness();
+    return probe(liveness == LivenessState.CORRECT, liveness.name());
+  }
+
+  @GetMapping("readiness")
+  public ResponseEntity<String> queryReadiness() {
+    ReadinessState readiness = startupService.getStartupStatus().readiness();
+    return probe(readiness == ReadinessState.ACCEPTING_TRAFFIC, readiness.name());
+  }
+
+  private ResponseEntity<String> probe(boolean healthy, String state) {
+    return ResponseEntity.status(healthy ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE)
+        .body(state);
+  }
+
+  private void send(SseEmitter emitter, LoadProgress progress) {
+    try {
+      emitter.send(SseEmitter.event().name(STREAM_EVENT).data(progress));
+    } catch (IOException | IllegalStateException e) { // the client went away
+      emitter.completeWithError(e);
+    }
+  }
 }
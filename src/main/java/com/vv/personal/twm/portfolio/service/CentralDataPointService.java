@@ -1,11 +1,11 @@
 package com.vv.personal.twm.portfolio.service;
 
-import com.google.common.collect.Table;
 import com.google.protobuf.ProtocolStringList;
 import com.vv.personal.twm.artifactory.generated.bank.BankProto;
 import com.vv.personal.twm.artifactory.generated.data.DataPacketProto;
 import com.vv.personal.twm.artifactory.generated.deposit.FixedDepositProto;
 import com.vv.personal.twm.artifactory.generated.equitiesMarket.MarketDataProto;
+import com.vv.personal.twm.portfolio.model.market.CorrelationMatrix;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -62,15 +62,15 @@ public interface CentralDataPointService {
 
   OptionalInt forceDownloadMarketDataForDates(String imnt, String start, String end);
 
-  Optional<Table<String, String, Double>> getCorrelationMatrix();
+  Optional<CorrelationMatrix> getCorrelationMatrix();
 
-  Optional<Table<String, String, Double>> getCorrelationMatrix(ProtocolStringList targetImnts);
+  Optional<CorrelationMatrix> getCorrelationMatrix(ProtocolStringList targetImnts);
 
   OptionalDouble getCorrelation(String imnt1, String imnt2);
 
-  Optional<Table<String, String, Double>> getCorrelationMatrix(MarketDataProto.AccountType accType);
+  Optional<CorrelationMatrix> getCorrelationMatrix(MarketDataProto.AccountType accType);
 
-  Optional<Table<String, String, Double>> getCorrelationMatrixForSectors();
+  Optional<CorrelationMatrix> getCorrelationMatrixForSectors();
 
   MarketDataProto.Portfolio getEntireMetaData();
 
@@ -108,6 +108,8 @@ public interface CentralDataPointService {
 
   MarketDataProto.Portfolio getSellPnl();
 
+  boolean ingestTransaction(MarketDataProto.Instrument instrument);
+
   MarketDataProto.Portfolio getSellPnl(MarketDataProto.AccountType accType);
 
   void testInfo();
@@ -1,14 +1,18 @@
 package com.vv.personal.twm.portfolio.service;
 
-import com.google.common.collect.Table;
 import com.vv.personal.twm.artifactory.generated.data.DataPacketProto;
 import com.vv.personal.twm.artifactory.generated.equitiesMarket.MarketDataProto;
+import com.vv.personal.twm.portfolio.model.market.CorrelationMatrix;
+import com.vv.personal.twm.portfolio.model.market.IngestResult;
+import com.vv.personal.twm.portfolio.model.market.MarketLoadInputs;
+import com.vv.personal.twm.portfolio.model.market.PnLCube;
+import com.vv.personal.twm.portfolio.model.market.PriceUpdate;
 import com.vv.personal.twm.portfolio.remote.market.outdated.OutdatedSymbols;
+import com.vv.personal.twm.portfolio.util.MarketClock;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.OptionalDouble;
-import java.util.TreeMap;
 
 /**
  * @author Vivek
@@ -18,13 +22,82 @@ public interface CompleteMarketDataService {
 
   void load();
 
+  /**
+   * Loads off the inputs of an earlier load, with the ticker data warehouse already holding the
+   * prices, so nothing is fetched from remote. Used to warm start
+   */
+  void load(MarketLoadInputs loadInputs);
+
+  /** What the last load pulled from remote, null until loaded */
+  MarketLoadInputs getLoadInputs();
+
+  /**
+   * An independent copy of the loaded state, to apply an ingest, intraday refresh or rollover to
+   * while the readers of this one keep seeing it as it was
+   */
+  CompleteMarketDataService copy();
+
+  /**
+   * Adds a single new BUY / SELL to its ledger, recomputing ACB from its position in the ledger
+   * onwards and the pnl of that instrument x account type, without a full reload. Returns whether
+   * the transaction was rejected, applied to the ledger only, or had its pnl booked too. A new
+   * instrument's prices are read off the warehouse, see {@link #fetchTransactionPrices}
+   */
+  IngestResult ingestTransaction(MarketDataProto.Instrument instrument);
+
+  /** The history of the transaction's instrument from remote if it is new, else nothing */
+  PriceUpdate fetchTransactionPrices(MarketDataProto.Instrument instrument);
+
+  /**
+   * Recomputes just today's unrealized and combined pnl off today's prices in the warehouse, see
+   * {@link #fetchIntradayPrices()}, without a full reload. Returns false if today is not a market
+   * date of the loaded data, or the market data is not ready
+   */
+  boolean refreshIntraday();
+
+  /** The latest price of the instruments held today, from remote */
+  PriceUpdate fetchIntradayPrices();
+
+  /**
+   * Moves the market data on to every market date of the warehouse past the last loaded one, up to
+   * today: re-prices the date before each off its close, then appends it carrying the open
+   * positions and running sums forward, without a full reload. Returns false if there was nothing
+   * to roll over to, or the market data is not ready
+   */
+  boolean rollover();
+
+  /**
+   * The benchmark's prices on the market dates past the last loaded one up to today, confirming
+   * them, and the closes of the instruments held on each date to be closed, from remote. Nothing if
+   * there is nothing to roll over to
+   */
+  PriceUpdate fetchRolloverPrices();
+
+  /**
+   * Recomputes the sell records, pnl, sector aggregates and correlations of the imnt's positions
+   * off its prices in the warehouse, see {@link #fetchInstrumentPrices}, then the aggregates,
+   * without a full reload. Returns false if the imnt is not held or the market data is not ready
+   */
+  boolean reloadInstrument(String imnt);
+
+  /** The imnt's history, reloaded from the database, if it is held */
+  PriceUpdate fetchInstrumentPrices(String imnt);
+
+  /**
+   * Recomputes the sell records, pnl and sector aggregates of the positions held in the account
+   * type off the prices loaded, then the aggregates, without a full reload. Returns false if
+   * nothing is held in it or the market data is not ready
+   */
+  boolean reloadAccountType(MarketDataProto.AccountType accountType);
+
   void clear();
 
   double getLatestCombinedCumulativePnL();
 
   double getLatestTotalInvestmentAmount();
 
-  TreeMap<Integer, Map<MarketDataProto.AccountType, Double>> getCombinedDatePnLCumulativeMap();
+  /** Date level pnl cube of the last compute, read as of a date or sliced per account type */
+  PnLCube getPnLCube();
 
   Map<String, Map<MarketDataProto.AccountType, Double>> getCumulativeImntAccountTypeDividendMap();
 
@@ -50,17 +123,19 @@ public interface CompleteMarketDataService {
 
   void setOutdatedSymbols(OutdatedSymbols outdatedSymbols);
 
+  void setMarketClock(MarketClock marketClock);
+
   int forceDownloadMarketDataForDates(String imnt, String startDate, String endDate);
 
-  Optional<Table<String, String, Double>> getCorrelationMatrix();
+  Optional<CorrelationMatrix> getCorrelationMatrix();
 
-  Optional<Table<String, String, Double>> getCorrelationMatrix(List<String> targetInstruments);
+  Optional<CorrelationMatrix> getCorrelationMatrix(List<String> targetInstruments);
 
   OptionalDouble getCorrelation(String imnt1, String imnt2);
 
-  Optional<Table<String, String, Double>> getCorrelationMatrix(MarketDataProto.AccountType accType);
+  Optional<CorrelationMatrix> getCorrelationMatrix(MarketDataProto.AccountType accType);
 
-  Optional<Table<String, String, Double>> getCorrelationMatrixForSectors();
+  Optional<CorrelationMatrix> getCorrelationMatrixForSectors();
 
   Optional<Double> fetchLatestPrice(String imnt, int tDate);
 
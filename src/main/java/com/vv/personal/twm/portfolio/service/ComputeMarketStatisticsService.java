@@ -1,6 +1,6 @@
 package com.vv.personal.twm.portfolio.service;
 
-import com.google.common.collect.Table;
+import com.vv.personal.twm.portfolio.model.market.CorrelationMatrix;
 import java.util.List;
 import java.util.Optional;
 
@@ -31,8 +31,25 @@ public interface ComputeMarketStatisticsService {
 
   Optional<Double> computeCorrelation(String instrument1, String instrument2, List<Integer> dates);
 
-  Optional<Table<String, String, Double>> computeCorrelationMatrix(
+  Optional<CorrelationMatrix> computeCorrelationMatrix(
       List<String> instruments, List<Integer> dates);
 
+  /**
+   * Same as {@link #computeCorrelationMatrix}, but rolls the previous result forward when only the
+   * latest days moved on since, falling back to a full compute otherwise.
+   */
+  Optional<CorrelationMatrix> computeCorrelationMatrixIncrementally(
+      List<String> instruments, List<Integer> dates);
+
+  /**
+   * The instrument's correlations against each of the instruments, in their order, computed the
+   * same way as a row of {@link #computeCorrelationMatrix}
+   */
+  Optional<double[]> computeCorrelationRow(
+      String instrument, List<String> instruments, List<Integer> dates);
+
+  /** Drops the instrument's cached log returns, e.g. once its prices are reloaded */
+  void evictInstrument(String instrument);
+
   void cleanUp();
 }
@@ -4,6 +4,7 @@ import com.vv.personal.twm.artifactory.generated.data.DataPacketProto;
 import com.vv.personal.twm.artifactory.generated.equitiesMarket.MarketDataProto;
 import com.vv.personal.twm.portfolio.cache.InstrumentMetaDataCache;
 import com.vv.personal.twm.portfolio.remote.market.outdated.OutdatedSymbols;
+import com.vv.personal.twm.portfolio.util.MarketClock;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -56,5 +57,7 @@ public interface InstrumentMetaDataService {
 
   void setOutdatedSymbols(OutdatedSymbols outdatedSymbols);
 
+  void setMarketClock(MarketClock marketClock);
+
   String backup();
 }
@@ -1,6 +1,9 @@
 package com.vv.personal.twm.portfolio.service;
 
+import com.vv.personal.twm.portfolio.model.tracking.LoadProgress;
 import com.vv.personal.twm.portfolio.model.tracking.ProgressTracker;
+import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * @author Vivek
@@ -10,4 +13,38 @@ public interface ProgressTrackerService {
   void publishProgressTracker(String clientId, ProgressTracker progressTracker);
 
   ProgressTracker getProgressTracker(String clientId);
+
+  /** Starts tracking a new load of the client, dropping the phases of the one before */
+  void startLoad(String clientId);
+
+  /**
+   * Ends the client's load. A completed load's duration is kept for the next one's ETA, and saved
+   * along with the phase timings, if there is a file to save them to
+   */
+  void finishLoad(String clientId, boolean completed);
+
+  /** Adds to the number of phases the client's load is to go through */
+  void expectPhases(String clientId, int phases);
+
+  void startPhase(String clientId, String phase);
+
+  /** Records how long a load phase took, replacing the phase's timing from the previous load */
+  void publishPhaseTiming(String clientId, String phase, long millis);
+
+  /** Phase x millis of the client's last load phases, in the order they finished */
+  Map<String, Long> getPhaseTimings(String clientId);
+
+  /** Sets the number of items, e.g. instruments, the running phase has to get through */
+  void publishPhaseTotal(String clientId, String phase, int total);
+
+  /** Counts one more item done by the running phase, ignored once the phase has ended */
+  void incrementPhaseDone(String clientId, String phase);
+
+  LoadProgress getLoadProgress(String clientId);
+
+  /**
+   * Pushes the client's progress to the listener on each change, off the publishing thread and
+   * coalescing bursts, until the returned handle is run
+   */
+  Runnable subscribe(String clientId, Consumer<LoadProgress> listener);
 }
@@ -1,15 +1,33 @@
 package com.vv.personal.twm.portfolio.service;
 
+import com.vv.personal.twm.portfolio.model.tracking.ReloadStatus;
+
 /**
  * @author Vivek
  * @since 2025-03-22
  */
 public interface ReloadService {
 
+  // Warm starts off the saved snapshot if there is one, then the full load, benchmark first
   boolean initialFullLoad();
 
-  // Reload for v2k only [me]
+  // Reload for v2k only [me]. Joins the reload in flight if it covers the refresh asked for, else
+  // waits on the one reload queued behind it
   boolean reload(boolean softRefresh);
 
+  // Asks the reload in flight to stop before its next phase, false if there was none, or it has
+  // already published
+  boolean cancelReload();
+
+  ReloadStatus getReloadStatus();
+
+  // Reloads just the slice of the instrument, or of the account type if the uid names one
   boolean reload(String uid);
+
+  // Refresh of today's prices and pnl only, in place of a full reload during market hours
+  boolean refreshIntraday();
+
+  // Moves the market data on to the new market day, catching up on any missed ones. Retried off
+  // reload.rollover-cron until it rolls over, after which it is a no-op for the day
+  boolean rollover();
 }
@@ -4,9 +4,13 @@ import static com.vv.personal.twm.artifactory.generated.deposit.FixedDepositProt
 
 import com.vv.personal.twm.artifactory.generated.deposit.FixedDepositProto;
 import com.vv.personal.twm.ping.config.PingConfig;
+import com.vv.personal.twm.portfolio.model.tracking.StartupStatus;
 import com.vv.personal.twm.portfolio.remote.feign.BankCrdbServiceFeign;
+import com.vv.personal.twm.portfolio.service.impl.EngineSnapshotHolder;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.availability.LivenessState;
+import org.springframework.boot.availability.ReadinessState;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
@@ -20,30 +24,78 @@ import org.springframework.stereotype.Service;
 @RequiredArgsConstructor
 public class StartupService {
 
+  private static final String STARTUP_EXECUTOR = "startup-pipeline";
+
   private final PingConfig pingConfig;
   private final BankCrdbServiceFeign crdbServiceFeign;
   private final ReloadService reloadService;
+  private final ExecutorProviderService executorProviderService;
+  private final EngineSnapshotHolder engineSnapshotHolder;
+  private volatile StartupStatus.Stage stage = StartupStatus.Stage.PENDING;
+  private volatile LivenessState liveness = LivenessState.CORRECT;
+  private volatile long startedAtMillis;
+  private volatile long finishedAtMillis;
 
+  /**
+   * Hands the heavy loads to a background thread, so the app serves the progress and status
+   * endpoints while the data streams in behind them
+   */
   @EventListener(ApplicationReadyEvent.class)
   public void startup() {
-    if (pingConfig.pinger().allEndPointsActive(crdbServiceFeign)) {
-      FixedDepositProto.FixedDepositList fixedDepositList =
-          crdbServiceFeign.getFixedDeposits(BANK.name(), "CIBC.*");
-      System.out.println(fixedDepositList);
+    startedAtMillis = System.currentTimeMillis();
+    stage = StartupStatus.Stage.LOADING;
+    executorProviderService.procure(STARTUP_EXECUTOR, 1).submit(this::runStartup);
+    log.info("Startup pipeline kicked off");
+  }
+
+  void runStartup() {
+    try {
+      pingBank();
+      boolean loaded = reloadService.initialFullLoad();
+      stage = loaded ? StartupStatus.Stage.STARTED : StartupStatus.Stage.FAILED;
+      if (loaded) log.info("Startup complete");
+      else log.error("Startup failed on the initial load, awaiting a reload");
+
+      /*Optional<InvestmentDivWeight> optionalInvestmentDivWeight =
+          investmentDivWeightService.calcInvestmentBasedOnDivWeight(
+              Lists.newArrayList("VFV.TO", "VDY.TO", "VCE.TO", "CCO.TO"),
+              Lists.newArrayList(
+                  "RY.TO", "BNS.TO", "CM.TO", "ENB.TO", "BCE.TO", "TRP.TO", "SU.TO", "CNQ.TO",
+                  "CP.TO", "PZA.TO", "DBM.TO", "FTS.TO"),
+              5000.0,
+              20.0,
+              0.0);
+      System.out.println(optionalInvestmentDivWeight.get());*/
+    } catch (Exception e) {
+      stage = StartupStatus.Stage.FAILED;
+      liveness = LivenessState.BROKEN;
+      log.error("Startup pipeline broke down", e);
+    } finally {
+      finishedAtMillis = System.currentTimeMillis();
+      executorProviderService.shutdown(STARTUP_EXECUTOR);
     }
+  }
+
+  public StartupStatus getStartupStatus() {
+    long dataEpoch = engineSnapshotHolder.get().epoch();
+    long elapsedUntil = finishedAtMillis > 0 ? finishedAtMillis : System.currentTimeMillis();
+    return new StartupStatus(
+        stage,
+        liveness,
+        dataEpoch > 0 ? ReadinessState.ACCEPTING_TRAFFIC : ReadinessState.REFUSING_TRAFFIC,
+        dataEpoch,
+        startedAtMillis > 0 ? elapsedUntil - startedAtMillis : 0);
+  }
 
-    reloadService.initialFullLoad();
-    log.info("Startup complete");
-
-    /*Optional<InvestmentDivWeight> optionalInvestmentDivWeight =
-        investmentDivWeightService.calcInvestmentBasedOnDivWeight(
-            Lists.newArrayList("VFV.TO", "VDY.TO", "VCE.TO", "CCO.TO"),
-            Lists.newArrayList(
-                "RY.TO", "BNS.TO", "CM.TO", "ENB.TO", "BCE.TO", "TRP.TO", "SU.TO", "CNQ.TO",
-                "CP.TO", "PZA.TO", "DBM.TO", "FTS.TO"),
-            5000.0,
-            20.0,
-            0.0);
-    System.out.println(optionalInvestmentDivWeight.get());*/
+  private void pingBank() {
+    try {
+      if (pingConfig.pinger().allEndPointsActive(crdbServiceFeign)) {
+        FixedDepositProto.FixedDepositList fixedDepositList =
+            crdbServiceFeign.getFixedDeposits(BANK.name(), "CIBC.*");
+        System.out.println(fixedDepositList);
+      }
+    } catch (Exception e) {
+      log.warn("Failed to ping the bank crdb service: {}", e.getMessage());
+    }
   }
 }
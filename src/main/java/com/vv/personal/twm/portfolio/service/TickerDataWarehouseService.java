@@ -1,6 +1,10 @@
 package com.vv.personal.twm.portfolio.service;
 
 import com.vv.personal.twm.artifactory.generated.equitiesMarket.MarketDataProto;
+import com.vv.personal.twm.portfolio.model.market.PriceSeries;
+import com.vv.personal.twm.portfolio.model.market.PriceUpdate;
+import com.vv.personal.twm.portfolio.util.MarketClock;
+import com.vv.personal.twm.portfolio.warehouse.market.TradingCalendar;
 import java.time.LocalDate;
 import java.util.*;
 import org.apache.commons.lang3.tuple.Pair;
@@ -15,6 +19,35 @@ public interface TickerDataWarehouseService {
 
   void loadAnalysisDataForInstruments(Set<String> instruments, boolean isReloadInProgress);
 
+  /** As above, running the callback as each instrument's load is done, e.g. to count progress */
+  void loadAnalysisDataForInstruments(
+      Set<String> instruments, boolean isReloadInProgress, Runnable onInstrumentLoaded);
+
+  /**
+   * The imnt's history from the db, filling in the market dates it is missing from remote as a load
+   * does, but for the warehouse: the prices are left to the caller to put in
+   */
+  PriceUpdate fetchAnalysisData(String imnt);
+
+  /**
+   * Fetches the latest price of the instruments for the date, touching neither the warehouse nor
+   * the db. The prices found, by instrument
+   */
+  PriceUpdate fetchLatestPrices(Set<String> instruments, LocalDate date);
+
+  /**
+   * Fetches the close of the instruments and the benchmark for the date, like {@link
+   * #fetchLatestPrices(Set, LocalDate)}
+   */
+  PriceUpdate fetchClosingPrices(Set<String> instruments, LocalDate date);
+
+  /**
+   * Fetches the benchmark's prices after the one date up to the other, both exclusive of after and
+   * inclusive of upTo, without putting them in the warehouse. The dates it has a price on are the
+   * market dates in between, which are marked as such for the loads to come
+   */
+  PriceUpdate confirmMarketDates(LocalDate after, LocalDate upTo);
+
   void loadAnalysisDataForInstrumentsViaDbOnly(Set<String> instruments, boolean isReloadInProgress);
 
   Set<String> loadAnalysisDataForInstrumentsNotInPortfolio(
@@ -28,12 +61,40 @@ public interface TickerDataWarehouseService {
 
   boolean containsMarketData(String imnt, LocalDate date);
 
+  /**
+   * Latest market data of the imnt at or before the date, within maxLookBackDays calendar days.
+   * Pair of the date the price was found on and the price.
+   */
+  Optional<Pair<Integer, Double>> getMarketDataAsOf(String imnt, int date, int maxLookBackDays);
+
+  /** Prices of the imnt on the market dates between fromDate and toDate, both inclusive */
+  PriceSeries getSeries(String imnt, int fromDate, int toDate);
+
+  /** Prices of the imnt aligned on the supplied dates */
+  PriceSeries getSeries(String imnt, List<Integer> dates);
+
   List<Pair<LocalDate, LocalDate>> identifyMissingDbDates(
       MarketDataProto.Ticker benchmarkTickerDataFromDb, List<Integer> marketDates);
 
   LocalDate convertDate(int date);
 
+  /** Sorted, immutable trading dates */
   List<LocalDate> getDates();
 
+  TradingCalendar getTradingCalendar();
+
+  long getHistoryRevision();
+
   void fillAnalysisWarehouse(MarketDataProto.Ticker tickerData);
+
+  /** Every price in the warehouse, one ticker per instrument */
+  List<MarketDataProto.Ticker> exportAnalysisWarehouse();
+
+  /**
+   * Fills the warehouse back from {@link #exportAnalysisWarehouse()}, without touching remote. The
+   * benchmark ticker sets the market dates, unless they are already loaded
+   */
+  void restoreAnalysisWarehouse(List<MarketDataProto.Ticker> tickers);
+
+  void setMarketClock(MarketClock marketClock);
 }
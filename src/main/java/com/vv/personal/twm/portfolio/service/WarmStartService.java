@@ -0,0 +1,21 @@
+package com.vv.personal.twm.portfolio.service;
+
+import com.vv.personal.twm.portfolio.model.market.MarketLoadInputs;
+import com.vv.personal.twm.portfolio.model.market.WarmStartSnapshot;
+import java.util.Optional;
+
+/**
+ * @author Vivek
+ * @since 2026-10-18
+ */
+public interface WarmStartService {
+
+  /**
+   * Saves the load inputs along with the current ticker data warehouse prices to local disk,
+   * replacing the previous snapshot. Returns false if it could not be written
+   */
+  boolean save(MarketLoadInputs loadInputs);
+
+  /** The saved snapshot, empty if there is none or it was written in another format version */
+  Optional<WarmStartSnapshot> read();
+}
@@ -1,13 +1,15 @@
 package com.vv.personal.twm.portfolio.service.impl;
 
 import com.google.common.collect.ImmutableMap;
-import com.google.common.collect.Table;
 import com.google.protobuf.ProtocolStringList;
 import com.vv.personal.twm.artifactory.generated.bank.BankProto;
 import com.vv.personal.twm.artifactory.generated.data.DataPacketProto;
 import com.vv.personal.twm.artifactory.generated.deposit.FixedDepositProto;
 import com.vv.personal.twm.artifactory.generated.equitiesMarket.MarketDataProto;
+import com.vv.personal.twm.portfolio.model.market.CorrelationMatrix;
+import com.vv.personal.twm.portfolio.model.market.IngestResult;
 import com.vv.personal.twm.portfolio.model.market.NetWorthBreakDownKey;
+import com.vv.personal.twm.portfolio.model.market.PnLCube;
 import com.vv.personal.twm.portfolio.service.CentralDataPointService;
 import com.vv.personal.twm.portfolio.service.CompleteBankDataService;
 import com.vv.personal.twm.portfolio.service.CompleteMarketDataService;
@@ -106,26 +108,14 @@ public class CentralDataPointServiceImpl implements CentralDataPointService {
   @Override
   public TreeMap<Integer, Double> getMarketValuationsForPlot(
       MarketDataProto.AccountType accountType) {
-    TreeMap<Integer, Double> marketValuations = new TreeMap<>();
-    TreeMap<Integer, Map<MarketDataProto.AccountType, Double>> combinedDatePnLCumulativeMap =
-        completeMarketDataService.getCombinedDatePnLCumulativeMap();
-    combinedDatePnLCumulativeMap.forEach(
-        (date, accountValueMap) -> marketValuations.put(date, accountValueMap.get(accountType)));
-    return marketValuations;
+    return completeMarketDataService
+        .getPnLCube()
+        .slice(PnLCube.Measure.COMBINED_CUMULATIVE, accountType);
   }
 
   @Override
   public TreeMap<Integer, Double> getMarketValuationsForPlot() {
-    TreeMap<Integer, Double> marketValuations = new TreeMap<>();
-    TreeMap<Integer, Map<MarketDataProto.AccountType, Double>> combinedDatePnLCumulativeMap =
-        completeMarketDataService.getCombinedDatePnLCumulativeMap();
-    combinedDatePnLCumulativeMap.forEach(
-        (date, accountValueMap) -> {
-          double value = 0.0;
-          for (Double accountValue : accountValueMap.values()) value += accountValue;
-          marketValuations.put(date, value);
-        });
-    return marketValuations;
+    return completeMarketDataService.getPnLCube().sliceTotal(PnLCube.Measure.COMBINED_CUMULATIVE);
   }
 
   @Override
@@ -186,13 +176,12 @@ public class CentralDataPointServiceImpl implements CentralDataPointService {
   }
 
   @Override
-  public Optional<Table<String, String, Double>> getCorrelationMatrix() {
+  public Optional<CorrelationMatrix> getCorrelationMatrix() {
     return completeMarketDataService.getCorrelationMatrix();
   }
 
   @Override
-  public Optional<Table<String, String, Double>> getCorrelationMatrix(
-      ProtocolStringList targetImnts) {
+  public Optional<CorrelationMatrix> getCorrelationMatrix(ProtocolStringList targetImnts) {
     List<String> targetInstruments = targetImnts.stream().toList();
     return completeMarketDataService.getCorrelationMatrix(targetInstruments);
   }
@@ -203,13 +192,12 @@ public class CentralDataPointServiceImpl implements CentralDataPointService {
   }
 
   @Override
-  public Optional<Table<String, String, Double>> getCorrelationMatrix(
-      MarketDataProto.AccountType accType) {
+  public Optional<CorrelationMatrix> getCorrelationMatrix(MarketDataProto.AccountType accType) {
     return completeMarketDataService.getCorrelationMatrix(accType);
   }
 
   @Override
-  public Optional<Table<String, String, Double>> getCorrelationMatrixForSectors() {
+  public Optional<CorrelationMatrix> getCorrelationMatrixForSectors() {
     return completeMarketDataService.getCorrelationMatrixForSectors();
   }
 
@@ -292,6 +280,11 @@ public class CentralDataPointServiceImpl implements CentralDataPointService {
         imntsScope);
   }
 
+  @Override
+  public boolean ingestTransaction(MarketDataProto.Instrument instrument) {
+    return completeMarketDataService.ingestTransaction(instrument) == IngestResult.BOOKED;
+  }
+
   @Override
   public MarketDataProto.Portfolio getSellPnl() {
     return completeMarketDataService.getSellPnl();
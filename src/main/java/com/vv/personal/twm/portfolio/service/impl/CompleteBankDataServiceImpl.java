@@ -12,9 +12,9 @@ import com.vv.personal.twm.portfolio.remote.feign.BankCrdbServiceFeign;
 import com.vv.personal.twm.portfolio.remote.feign.CalcServiceFeign;
 import com.vv.personal.twm.portfolio.service.CompleteBankDataService;
 import com.vv.personal.twm.portfolio.service.ProgressTrackerService;
+import com.vv.personal.twm.portfolio.util.EpochDay;
 import com.vv.personal.twm.portfolio.warehouse.bank.BankAccountWarehouse;
 import com.vv.personal.twm.portfolio.warehouse.bank.BankFixedDepositsWarehouse;
-import java.time.LocalDate;
 import java.util.*;
 import java.util.concurrent.TimeUnit;
 import lombok.Getter;
@@ -192,30 +192,24 @@ public class CompleteBankDataServiceImpl implements CompleteBankDataService {
     for (FixedDepositProto.FixedDeposit deposit : allFixedDeposits) {
       DataPacketProto.DataPacket dataPacket = calcServiceFeign.getFixedDepositAmount(deposit);
       TreeMap<Integer, Double> gicDailyMap = new TreeMap<>();
-      dataPacket
-          .getIntDoubleMapMap()
-          .forEach(
-              (date, amount) -> {
-                gicDailyMap.put(date, amount);
-                if (!dateLocalDateCache.contains(date)) dateLocalDateCache.add(date);
-              });
+      dataPacket.getIntDoubleMapMap().forEach(gicDailyMap::put);
       universalStartDate = Math.min(universalStartDate, gicDailyMap.firstKey());
       universalEndDate = Math.max(universalEndDate, gicDailyMap.lastKey());
 
       gicDailyMap.put(0, 0.0);
       allGicDailyMapList.add(gicDailyMap);
     }
-    LocalDate endDate = dateLocalDateCache.get(universalEndDate).get().plusDays(1);
+    EpochDay endDay = EpochDay.of(universalEndDate);
 
-    for (LocalDate date = dateLocalDateCache.get(universalStartDate).get();
-        date.isBefore(endDate);
-        date = date.plusDays(1)) {
+    for (EpochDay day = EpochDay.of(universalStartDate);
+        !day.isAfter(endDay);
+        day = day.plusDays(1)) {
+      int date = day.toDate();
       double dateCumulativeAmount = 0.0;
       for (TreeMap<Integer, Double> gicDailyMap : allGicDailyMapList) {
-        dateCumulativeAmount +=
-            gicDailyMap.floorEntry(dateLocalDateCache.get(date).getAsInt()).getValue();
+        dateCumulativeAmount += gicDailyMap.floorEntry(date).getValue();
       }
-      cumulativeDateAmountGicMap.put(dateLocalDateCache.get(date).getAsInt(), dateCumulativeAmount);
+      cumulativeDateAmountGicMap.put(date, dateCumulativeAmount);
     }
   }
 }
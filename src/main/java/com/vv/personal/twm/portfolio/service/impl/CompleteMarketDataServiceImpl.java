@@ -4,20 +4,23 @@ import static com.vv.personal.twm.portfolio.util.SanitizerUtil.sanitizeAndFormat
 import static com.vv.personal.twm.portfolio.util.SanitizerUtil.sanitizeDouble;
 import static java.lang.Double.NaN;
 
-import com.google.common.collect.HashBasedTable;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
-import com.google.common.collect.Table;
 import com.google.common.util.concurrent.AtomicDouble;
 import com.vv.personal.twm.artifactory.generated.data.DataPacketProto;
 import com.vv.personal.twm.artifactory.generated.equitiesMarket.MarketDataProto;
 import com.vv.personal.twm.portfolio.cache.DateLocalDateCache;
 import com.vv.personal.twm.portfolio.cache.KeyInstrumentValueCache;
 import com.vv.personal.twm.portfolio.model.market.ACB;
-import com.vv.personal.twm.portfolio.model.market.DataList;
-import com.vv.personal.twm.portfolio.model.market.DataNode;
+import com.vv.personal.twm.portfolio.model.market.CorrelationMatrix;
 import com.vv.personal.twm.portfolio.model.market.DividendRecord;
+import com.vv.personal.twm.portfolio.model.market.IngestResult;
+import com.vv.personal.twm.portfolio.model.market.MarketLoadInputs;
+import com.vv.personal.twm.portfolio.model.market.PnLCube;
+import com.vv.personal.twm.portfolio.model.market.PositionLedger;
+import com.vv.personal.twm.portfolio.model.market.PositionPnL;
+import com.vv.personal.twm.portfolio.model.market.PriceUpdate;
 import com.vv.personal.twm.portfolio.model.market.SellRecord;
 import com.vv.personal.twm.portfolio.model.tracking.ProgressTracker;
 import com.vv.personal.twm.portfolio.remote.feign.CalcPythonEngine;
@@ -32,18 +35,24 @@ import com.vv.personal.twm.portfolio.service.ProgressTrackerService;
 import com.vv.personal.twm.portfolio.service.TickerDataWarehouseService;
 import com.vv.personal.twm.portfolio.util.DataConverterUtil;
 import com.vv.personal.twm.portfolio.util.DateFormatUtil;
+import com.vv.personal.twm.portfolio.util.MarketClock;
 import com.vv.personal.twm.portfolio.util.SanitizerUtil;
+import com.vv.personal.twm.portfolio.util.math.MathUtil;
 import com.vv.personal.twm.portfolio.util.math.StatisticsUtil;
 import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
@@ -61,9 +70,28 @@ import org.springframework.stereotype.Service;
 @Setter
 @Service
 public class CompleteMarketDataServiceImpl implements CompleteMarketDataService {
-  public static final int TODAY_DATE = DateFormatUtil.getDate(LocalDate.now());
-
   private static final String CLIENT_VIVEK = "vivek-v2";
+  private static final int LOAD_PHASE_THREADS = 4;
+  private static final String PHASE_EXTRACT_BUYS = "market-extract-buys";
+  private static final String PHASE_EXTRACT_SELLS = "market-extract-sells";
+  private static final String PHASE_EXTRACT_DIVIDENDS_PREFIX = "market-extract-dividends-";
+  private static final String PHASE_POPULATE_PORTFOLIO = "market-populate-portfolio";
+  private static final String PHASE_COMPUTE_ACB = "market-compute-acb";
+  private static final String PHASE_POPULATE_DIVIDENDS = "market-populate-dividends";
+  private static final String PHASE_LOAD_ANALYSIS = "market-load-analysis";
+  private static final String PHASE_SELL_PNL = "market-sell-pnl";
+  private static final String PHASE_LOAD_RISK_FREE = "market-load-risk-free";
+  private static final String PHASE_LOAD_NOT_IN_PORTFOLIO = "market-load-not-in-portfolio";
+  private static final String PHASE_COMPUTE_PNL = "market-compute-pnl";
+  private static final String PHASE_COMPUTE_CORRELATION = "market-compute-correlation";
+  private static final String PHASE_COMPUTE_CUMULATIVE_DIVIDENDS =
+      "market-compute-cumulative-dividends";
+  private static final String PHASE_COMPUTE_SECTOR_AGGR = "market-compute-sector-aggr";
+  private static final List<MarketDataProto.AccountType> DIVIDEND_ACCOUNT_TYPES =
+      List.of(
+          MarketDataProto.AccountType.TFSA,
+          MarketDataProto.AccountType.NR,
+          MarketDataProto.AccountType.FHSA);
 
   private static final String UNKNOWN_SECTOR = "UNKNOWN";
   private static final String KEY_ACCOUNT_TYPE = "accountType";
@@ -111,9 +139,10 @@ public class CompleteMarketDataServiceImpl implements CompleteMarketDataService
               .build();
 
   private static final boolean IGNORE_ALL_EXCEPT_EQUITY_FOR_OPTIMIZER = true;
+  private static final int PNL_DATE_BLOCK = 256; // dates summed per fork join task
 
-  // Holds map of ticker x (map of account type x doubly linked list nodes of transactions done)
-  private final Map<String, Map<MarketDataProto.AccountType, DataList>> marketData;
+  // Holds map of ticker x (map of account type x ledger of transactions done)
+  private final Map<String, Map<MarketDataProto.AccountType, PositionLedger>> marketData;
   private final Map<
           String, Map<MarketDataProto.AccountType, TreeMap<Integer, List<DividendRecord>>>>
       imntDividendsMap;
@@ -123,26 +152,16 @@ public class CompleteMarketDataServiceImpl implements CompleteMarketDataService
       imntSellRecordMap;
 
   // post processes, i.e. not filled during startup
-  // todo - think about filling all the date based maps with 0s based off entire dates
-  private final Map<Integer, Map<MarketDataProto.AccountType, Double>>
-      realizedDatePnLMap; // pure date x account type x sells
-  private final Map<Integer, Map<MarketDataProto.AccountType, Double>>
-      unrealizedDatePnLMap; // pure date x account type x unrealized
-  private final Map<Integer, Map<MarketDataProto.AccountType, Double>>
-      combinedDatePnLMap; // combined pure date x account type x (realized + unrealized)
+  // date level realized, unrealized, dividends and their cumulative forms, swapped in whole
+  private volatile PnLCube pnLCube;
   private final Map<String, Map<MarketDataProto.AccountType, TreeMap<Integer, Double>>>
       unrealizedImntPnLMap; // pure imnt x account type x date x unrealized
   private final Map<String, Map<MarketDataProto.AccountType, Map<Integer, Double>>>
       realizedImntPnLMap; // pure imnt sells
-  private final TreeMap<Integer, Map<MarketDataProto.AccountType, Double>>
-      realizedWithDividendDatePnLMap; // cumulative date x account type x (sells + divs)
-  private final Map<String, Map<MarketDataProto.AccountType, TreeMap<Integer, Double>>>
-      realizedImntWithDividendPnLMap; // cumulative imnt x account type x date x (sells + divs)
-  private final TreeMap<Integer, Map<MarketDataProto.AccountType, Double>>
-      dateDividendsCumulativeMap; // cumulative date x account type x divs
-  private final TreeMap<Integer, Map<MarketDataProto.AccountType, Double>>
-      combinedDatePnLCumulativeMap; // cumulative date x account type x (unrealized + sells + divs)
-  // SPECIAL NOTE: combinedDatePnLCumulativeMap does not include div-only non-market dates
+  private final Map<String, Map<MarketDataProto.AccountType, double[]>>
+      realizedImntWithDividendPnLMap; // cumulative imnt x account type x (sells + divs) per pnl
+  // date
+  // SPECIAL NOTE: the combined pnl of the cube does not include div-only non-market dates
   private final Map<String, Map<MarketDataProto.AccountType, Double>> cumulativeImntDividendsMap;
   private final Map<String, Map<MarketDataProto.AccountType, Map<String, Double>>>
       sectorLevelImntAggrMap; // sector level x account type x (imnt x investment-imnt)
@@ -161,11 +180,21 @@ public class CompleteMarketDataServiceImpl implements CompleteMarketDataService
   private final MarketDataCrdbServiceFeign marketDataCrdbServiceFeign;
   private final CalcPythonEngine calcPythonEngine;
 
-  private Optional<Table<String, String, Double>> correlationMatrix;
+  private Optional<CorrelationMatrix> correlationMatrix;
+  private MarketLoadInputs loadInputs; // of the last load, null until loaded
   private OutdatedSymbols outdatedSymbols;
-  private boolean isReloadInProgress;
+  private MarketClock marketClock;
+  private volatile int todayDate; // as of the last compute or rollover, moved on by the clock
+  private volatile boolean isReloadInProgress;
   private List<LocalDate> localDates;
   private List<Integer> integerDates;
+  private List<LocalDate> pnlDates; // market and off-market dividend dates the pnl is computed on
+  // imnt (x account type) keys whose pnl maps, ledgers and sector (x account type) keys whose
+  // aggregates are this instance's own to write to, the rest being shared with a copy. All are
+  // its own while null
+  private Set<Pair<String, MarketDataProto.AccountType>> ownedPositions;
+  private Set<Pair<String, MarketDataProto.AccountType>> ownedLedgers;
+  private Set<Pair<String, MarketDataProto.AccountType>> ownedSectors;
 
   public CompleteMarketDataServiceImpl(
       DateLocalDateCache dateLocalDateCache,
@@ -182,22 +211,19 @@ public class CompleteMarketDataServiceImpl implements CompleteMarketDataService
     imntDividendsMap = new ConcurrentHashMap<>();
     imntSellRecordMap = new ConcurrentHashMap<>();
     dateDividendsMap = new ConcurrentHashMap<>();
-    realizedDatePnLMap = Collections.synchronizedMap(new TreeMap<>());
-    unrealizedDatePnLMap = Collections.synchronizedMap(new TreeMap<>());
-    combinedDatePnLMap = Collections.synchronizedMap(new TreeMap<>());
+    pnLCube = PnLCube.empty();
     unrealizedImntPnLMap = new ConcurrentHashMap<>();
     realizedImntPnLMap = new ConcurrentHashMap<>();
-    realizedWithDividendDatePnLMap = new TreeMap<>();
     realizedImntWithDividendPnLMap = new ConcurrentHashMap<>();
-    dateDividendsCumulativeMap = new TreeMap<>();
-    combinedDatePnLCumulativeMap = new TreeMap<>();
     cumulativeImntDividendsMap = new ConcurrentHashMap<>();
     sectorLevelImntAggrMap = new ConcurrentHashMap<>();
     imntSectorMap = new ConcurrentHashMap<>();
     correlationMatrix = Optional.empty();
     localDates = new ArrayList<>();
     integerDates = new ArrayList<>();
+    pnlDates = new ArrayList<>();
     imntsNotInPortfolio = new HashSet<>();
+    setMarketClock(MarketClock.system());
 
     this.tickerDataWarehouseService = tickerDataWarehouseService;
     this.dateLocalDateCache = dateLocalDateCache;
@@ -213,82 +239,676 @@ public class CompleteMarketDataServiceImpl implements CompleteMarketDataService
     this.calcPythonEngine = calcPythonEngine;
   }
 
+  /**
+   * Copies the maps of imnts and sectors only, sharing the positions and sector aggregates in them.
+   * Ingests, intraday refreshes and rollovers copy a position's ledger, pnl maps or sector
+   * aggregate as they first write to it, so the untouched ones stay shared. What they only ever
+   * swap in whole, like the cube and the realized with dividend series, is shared too.
+   */
+  private CompleteMarketDataServiceImpl(CompleteMarketDataServiceImpl source) {
+    marketData = new ConcurrentHashMap<>(source.marketData);
+    imntDividendsMap = new ConcurrentHashMap<>(source.imntDividendsMap);
+    imntSellRecordMap = new ConcurrentHashMap<>(source.imntSellRecordMap);
+    dateDividendsMap = new ConcurrentHashMap<>(source.dateDividendsMap);
+    pnLCube = source.pnLCube;
+    unrealizedImntPnLMap = new ConcurrentHashMap<>(source.unrealizedImntPnLMap);
+    realizedImntPnLMap = new ConcurrentHashMap<>(source.realizedImntPnLMap);
+    realizedImntWithDividendPnLMap = new ConcurrentHashMap<>(source.realizedImntWithDividendPnLMap);
+    cumulativeImntDividendsMap = new ConcurrentHashMap<>(source.cumulativeImntDividendsMap);
+    sectorLevelImntAggrMap = new ConcurrentHashMap<>(source.sectorLevelImntAggrMap);
+    imntSectorMap = new ConcurrentHashMap<>(source.imntSectorMap);
+    imntsNotInPortfolio = new HashSet<>(source.imntsNotInPortfolio);
+    correlationMatrix = source.correlationMatrix;
+    loadInputs = source.loadInputs;
+    outdatedSymbols = source.outdatedSymbols;
+    marketClock = source.marketClock;
+    todayDate = source.todayDate;
+    isReloadInProgress = source.isReloadInProgress;
+    localDates = new ArrayList<>(source.localDates);
+    integerDates = new ArrayList<>(source.integerDates);
+    pnlDates = source.pnlDates;
+    disown();
+
+    tickerDataWarehouseService = source.tickerDataWarehouseService;
+    dateLocalDateCache = source.dateLocalDateCache;
+    keyInstrumentValueCache = source.keyInstrumentValueCache;
+    instrumentMetaDataService = source.instrumentMetaDataService;
+    extractMarketPortfolioDataService = source.extractMarketPortfolioDataService;
+    marketDataPythonEngineFeign = source.marketDataPythonEngineFeign;
+    progressTrackerService = source.progressTrackerService;
+    computeMarketStatisticsService = source.computeMarketStatisticsService;
+    marketDataCrdbServiceFeign = source.marketDataCrdbServiceFeign;
+    calcPythonEngine = source.calcPythonEngine;
+  }
+
+  @Override
+  public synchronized CompleteMarketDataService copy() {
+    CompleteMarketDataServiceImpl copy = new CompleteMarketDataServiceImpl(this);
+    // the two share all there is now, so the source copies on write as well
+    disown();
+    return copy;
+  }
+
+  private void disown() {
+    ownedPositions = new HashSet<>();
+    ownedLedgers = new HashSet<>();
+    ownedSectors = new HashSet<>();
+  }
+
+  /** Whether the key is shared still, making it this instance's own from here on */
+  private static boolean isShared(
+      Set<Pair<String, MarketDataProto.AccountType>> owned,
+      String key,
+      MarketDataProto.AccountType type) {
+    return owned != null && owned.add(Pair.of(key, type));
+  }
+
+  /** Copies the position's pnl maps and sell records if shared, before they are written to */
+  private void ownPosition(String imnt, MarketDataProto.AccountType type) {
+    if (isShared(ownedPositions, imnt, null)) {
+      marketData.computeIfPresent(imnt, (k, typeLedgerMap) -> new HashMap<>(typeLedgerMap));
+      imntSellRecordMap.computeIfPresent(imnt, (k, typeSellsMap) -> new HashMap<>(typeSellsMap));
+      unrealizedImntPnLMap.computeIfPresent(
+          imnt, (k, typeDatePnLMap) -> new HashMap<>(typeDatePnLMap));
+      realizedImntPnLMap.computeIfPresent(
+          imnt, (k, typeDatePnLMap) -> new HashMap<>(typeDatePnLMap));
+    }
+    if (isShared(ownedPositions, imnt, type)) {
+      // the sell records are only ever replaced whole
+      if (unrealizedImntPnLMap.containsKey(imnt))
+        unrealizedImntPnLMap
+            .get(imnt)
+            .computeIfPresent(type, (k, datePnLMap) -> new TreeMap<>(datePnLMap));
+      if (realizedImntPnLMap.containsKey(imnt))
+        realizedImntPnLMap
+            .get(imnt)
+            .computeIfPresent(type, (k, datePnLMap) -> new HashMap<>(datePnLMap));
+    }
+  }
+
+  /** The position's ledger, copied if shared, before a transaction goes into it */
+  private PositionLedger ownLedger(String imnt, MarketDataProto.AccountType type) {
+    ownPosition(imnt, type);
+    Map<MarketDataProto.AccountType, PositionLedger> typeLedgerMap = marketData.get(imnt);
+    if (typeLedgerMap == null) return null;
+    if (isShared(ownedLedgers, imnt, type))
+      typeLedgerMap.computeIfPresent(type, (k, ledger) -> ledger.copy());
+    return typeLedgerMap.get(type);
+  }
+
+  /** The sector x account type's imnt aggregates, copied if shared, before they are written to */
+  private Map<String, Double> ownSectorImntAggrMap(
+      String sector, MarketDataProto.AccountType type) {
+    Map<MarketDataProto.AccountType, Map<String, Double>> typeImntMap =
+        sectorLevelImntAggrMap.computeIfAbsent(sector, k -> new ConcurrentHashMap<>());
+    if (isShared(ownedSectors, sector, null)) {
+      typeImntMap = new ConcurrentHashMap<>(typeImntMap);
+      sectorLevelImntAggrMap.put(sector, typeImntMap);
+    }
+    Map<String, Double> imntMap = typeImntMap.computeIfAbsent(type, k -> new ConcurrentHashMap<>());
+    if (isShared(ownedSectors, sector, type)) {
+      imntMap = new ConcurrentHashMap<>(imntMap);
+      typeImntMap.put(type, imntMap);
+    }
+    return imntMap;
+  }
+
   @Override
   public void load() {
-    log.info("Initiating complete market data load");
+    load(Optional.empty());
+  }
+
+  @Override
+  public void load(MarketLoadInputs loadInputs) {
+    load(Optional.of(loadInputs));
+  }
+
+  private void load(Optional<MarketLoadInputs> warmStartInputs) {
+    boolean warmStart = warmStartInputs.isPresent();
+    log.info("Initiating complete market data load{}", warmStart ? " off warm start inputs" : "");
     StopWatch stopWatch = StopWatch.createStarted();
     progressTrackerService.publishProgressTracker(CLIENT_VIVEK, ProgressTracker.LOADING_MARKET);
 
-    // first populate the buy side
-    progressTrackerService.publishProgressTracker(
-        CLIENT_VIVEK, ProgressTracker.LOADING_MARKET_POPULATE_PORTFOLIO);
-    populate(
-        extractMarketPortfolioDataService
-            .extractMarketPortfolioData(MarketDataProto.Direction.BUY)
-            .getPortfolio());
-    // then populate the sell side
-    populate(
-        extractMarketPortfolioDataService
-            .extractMarketPortfolioData(MarketDataProto.Direction.SELL)
-            .getPortfolio());
-
-    progressTrackerService.publishProgressTracker(
-        CLIENT_VIVEK, ProgressTracker.LOADING_MARKET_COMPUTE_ACB);
-    computeAcb(); // compute the ACB once all the data has been populated
-
-    progressTrackerService.publishProgressTracker(
-        CLIENT_VIVEK, ProgressTracker.LOADING_MARKET_POPULATE_DIVIDENDS);
-    populateDividends(
-        extractMarketPortfolioDataService
-            .extractMarketPortfolioDividendData(MarketDataProto.AccountType.TFSA)
-            .getPortfolio());
-    populateDividends(
-        extractMarketPortfolioDataService
-            .extractMarketPortfolioDividendData(MarketDataProto.AccountType.NR)
-            .getPortfolio());
-    populateDividends(
-        extractMarketPortfolioDataService
-            .extractMarketPortfolioDividendData(MarketDataProto.AccountType.FHSA)
-            .getPortfolio());
-
-    // load analysis data for imnts which are bought
-    progressTrackerService.publishProgressTracker(
-        CLIENT_VIVEK, ProgressTracker.LOADING_MARKET_LOAD_ANALYSIS);
-    tickerDataWarehouseService.loadAnalysisDataForInstruments(getInstruments(), isReloadInProgress);
-
-    // load sell pnl data
-    progressTrackerService.publishProgressTracker(
-        CLIENT_VIVEK, ProgressTracker.LOADING_MARKET_SELL_PNL_DATA);
-    populateSellPnlData();
-
-    // load risk-free return
-    tickerDataWarehouseService.loadAnalysisDataForInstrumentsViaDbOnly(
-        Sets.newHashSet(COUNTRY_RISK_FREE_RETURN_CUSTOM_SYMBOL_MAP.values()), isReloadInProgress);
-
-    this.imntsNotInPortfolio.addAll(
-        tickerDataWarehouseService.loadAnalysisDataForInstrumentsNotInPortfolio(
-            getInstruments(), isReloadInProgress, this.imntsNotInPortfolio));
-
-    progressTrackerService.publishProgressTracker(
-        CLIENT_VIVEK, ProgressTracker.LOADING_MARKET_COMPUTE_PNL);
-    computePnL();
-
-    computeCorrelationMatrixInParallel();
-
-    progressTrackerService.publishProgressTracker(
-        CLIENT_VIVEK, ProgressTracker.LOADING_MARKET_COMPUTE_CUMULATIVE_DIVIDENDS);
-    computeCumulativeDividend();
-
-    progressTrackerService.publishProgressTracker(
-        CLIENT_VIVEK, ProgressTracker.LOADING_MARKET_COMPUTE_SECTOR_AGGR);
-    computeSectorLevelImntAggregationData();
+    AtomicReference<MarketDataProto.Portfolio> buys = new AtomicReference<>();
+    AtomicReference<MarketDataProto.Portfolio> sells = new AtomicReference<>();
+    Map<MarketDataProto.AccountType, MarketDataProto.Portfolio> dividends =
+        new ConcurrentHashMap<>();
+    LoadPhaseGraph loadPhaseGraph =
+        new LoadPhaseGraph(progressTrackerService, CLIENT_VIVEK)
+            .phase(
+                PHASE_EXTRACT_BUYS,
+                ProgressTracker.LOADING_MARKET_POPULATE_PORTFOLIO,
+                () ->
+                    buys.set(
+                        warmStartInputs
+                            .map(MarketLoadInputs::buys)
+                            .orElseGet(
+                                () ->
+                                    extractMarketPortfolioDataService
+                                        .extractMarketPortfolioData(MarketDataProto.Direction.BUY)
+                                        .getPortfolio())))
+            .phase(
+                PHASE_EXTRACT_SELLS,
+                null,
+                () ->
+                    sells.set(
+                        warmStartInputs
+                            .map(MarketLoadInputs::sells)
+                            .orElseGet(
+                                () ->
+                                    extractMarketPortfolioDataService
+                                        .extractMarketPortfolioData(MarketDataProto.Direction.SELL)
+                                        .getPortfolio())));
+    String[] extractDividendPhases =
+        DIVIDEND_ACCOUNT_TYPES.stream()
+            .map(accountType -> PHASE_EXTRACT_DIVIDENDS_PREFIX + accountType)
+            .toArray(String[]::new);
+    for (int i = 0; i < extractDividendPhases.length; i++) {
+      MarketDataProto.AccountType accountType = DIVIDEND_ACCOUNT_TYPES.get(i);
+      loadPhaseGraph.phase(
+          extractDividendPhases[i],
+          null,
+          () ->
+              dividends.put(
+                  accountType,
+                  warmStartInputs
+                      .map(
+                          inputs ->
+                              inputs
+                                  .dividends()
+                                  .getOrDefault(
+                                      accountType, MarketDataProto.Portfolio.getDefaultInstance()))
+                      .orElseGet(
+                          () ->
+                              extractMarketPortfolioDataService
+                                  .extractMarketPortfolioDividendData(accountType)
+                                  .getPortfolio())));
+    }
 
+    loadPhaseGraph
+        .phase(
+            PHASE_POPULATE_PORTFOLIO,
+            ProgressTracker.LOADING_MARKET_POPULATE_PORTFOLIO,
+            () -> {
+              populate(buys.get()); // first populate the buy side
+              populate(sells.get()); // then populate the sell side
+            },
+            PHASE_EXTRACT_BUYS,
+            PHASE_EXTRACT_SELLS)
+        .phase( // compute the ACB once all the data has been populated
+            PHASE_COMPUTE_ACB,
+            ProgressTracker.LOADING_MARKET_COMPUTE_ACB,
+            this::computeAcb,
+            PHASE_POPULATE_PORTFOLIO)
+        .phase( // one after the other, as they share the per imnt dividend maps
+            PHASE_POPULATE_DIVIDENDS,
+            ProgressTracker.LOADING_MARKET_POPULATE_DIVIDENDS,
+            () -> DIVIDEND_ACCOUNT_TYPES.forEach(type -> populateDividends(dividends.get(type))),
+            extractDividendPhases)
+        .phase( // load analysis data for imnts which are bought, already restored on warm start
+            PHASE_LOAD_ANALYSIS,
+            ProgressTracker.LOADING_MARKET_LOAD_ANALYSIS,
+            () -> {
+              if (warmStart) return;
+              Set<String> instruments = getInstruments();
+              progressTrackerService.publishPhaseTotal(
+                  CLIENT_VIVEK, PHASE_LOAD_ANALYSIS, instruments.size());
+              tickerDataWarehouseService.loadAnalysisDataForInstruments(
+                  instruments,
+                  isReloadInProgress,
+                  () ->
+                      progressTrackerService.incrementPhaseDone(CLIENT_VIVEK, PHASE_LOAD_ANALYSIS));
+            },
+            PHASE_POPULATE_PORTFOLIO)
+        .phase(
+            PHASE_SELL_PNL,
+            ProgressTracker.LOADING_MARKET_SELL_PNL_DATA,
+            this::populateSellPnlData,
+            PHASE_COMPUTE_ACB)
+        .phase(
+            PHASE_LOAD_RISK_FREE,
+            null,
+            () -> {
+              if (!warmStart)
+                tickerDataWarehouseService.loadAnalysisDataForInstrumentsViaDbOnly(
+                    Sets.newHashSet(COUNTRY_RISK_FREE_RETURN_CUSTOM_SYMBOL_MAP.values()),
+                    isReloadInProgress);
+            })
+        .phase( // shares the analysis load's executor, so cannot run alongside it
+            PHASE_LOAD_NOT_IN_PORTFOLIO,
+            null,
+            () ->
+                this.imntsNotInPortfolio.addAll(
+                    warmStart
+                        ? warmStartInputs.get().imntsNotInPortfolio()
+                        : tickerDataWarehouseService.loadAnalysisDataForInstrumentsNotInPortfolio(
+                            getInstruments(), isReloadInProgress, this.imntsNotInPortfolio)),
+            PHASE_LOAD_ANALYSIS)
+        .phase(
+            PHASE_COMPUTE_PNL,
+            ProgressTracker.LOADING_MARKET_COMPUTE_PNL,
+            this::computePnL,
+            PHASE_COMPUTE_ACB,
+            PHASE_POPULATE_DIVIDENDS,
+            PHASE_LOAD_ANALYSIS)
+        .phase(
+            PHASE_COMPUTE_CORRELATION,
+            null,
+            this::computeCorrelationMatrixInParallel,
+            PHASE_COMPUTE_PNL,
+            PHASE_LOAD_NOT_IN_PORTFOLIO)
+        .phase(
+            PHASE_COMPUTE_CUMULATIVE_DIVIDENDS,
+            ProgressTracker.LOADING_MARKET_COMPUTE_CUMULATIVE_DIVIDENDS,
+            this::computeCumulativeDividend,
+            PHASE_POPULATE_DIVIDENDS)
+        .phase(
+            PHASE_COMPUTE_SECTOR_AGGR,
+            ProgressTracker.LOADING_MARKET_COMPUTE_SECTOR_AGGR,
+            this::computeSectorLevelImntAggregationData,
+            PHASE_COMPUTE_ACB);
+
+    ExecutorService executorService = Executors.newFixedThreadPool(LOAD_PHASE_THREADS);
+    try {
+      loadPhaseGraph.run(executorService);
+    } finally {
+      executorService.shutdown();
+    }
+
+    this.loadInputs =
+        new MarketLoadInputs(
+            buys.get(), sells.get(), Map.copyOf(dividends), Set.copyOf(imntsNotInPortfolio));
     progressTrackerService.publishProgressTracker(CLIENT_VIVEK, ProgressTracker.READY_MARKET);
     stopWatch.stop();
     log.info(
         "Complete market data load finished in {}ms", stopWatch.getTime(TimeUnit.MILLISECONDS));
   }
 
+  @Override
+  public synchronized IngestResult ingestTransaction(MarketDataProto.Instrument instrument) {
+    String imnt = instrument.getTicker().getSymbol();
+    MarketDataProto.AccountType accountType = instrument.getAccountType();
+    if (isReloadInProgress || pnlDates.isEmpty()) {
+      log.warn("Market data not ready, cannot ingest transaction for {} x {}", imnt, accountType);
+      return IngestResult.REJECTED;
+    }
+    StopWatch stopWatch = StopWatch.createStarted();
+    // a new ledger only joins the market data once the transaction has gone into it
+    PositionLedger ledger = ownLedger(imnt, accountType);
+    boolean newLedger = ledger == null;
+    if (newLedger) ledger = new PositionLedger();
+    try {
+      ledger.add(instrument);
+    } catch (UnsupportedOperationException e) {
+      log.error("Cannot ingest transaction for {} x {}: {}", imnt, accountType, e.getMessage());
+      return IngestResult.REJECTED;
+    }
+    if (newLedger) marketData.computeIfAbsent(imnt, k -> new HashMap<>()).put(accountType, ledger);
+    int recomputed = ledger.computeAcb();
+
+    if (imntSellRecordMap.containsKey(imnt)) imntSellRecordMap.get(imnt).remove(accountType);
+    populateSellPnlData(imnt, accountType, ledger, new AtomicInteger(0), new AtomicDouble(0.0));
+
+    // only this ledger's pnl is re-walked, into a copy of the cube which is then swapped in
+    PnLCube cube = pnLCube.copy();
+    removePnL(imnt, accountType, cube);
+    Optional<PositionPnL> positionPnL =
+        computePnL(imnt, accountType, ledger, pnlDates, getDividendDates());
+    positionPnL.ifPresent(pnL -> bookPnL(pnL, cube));
+    computeAggregatePnL(cube);
+    pnLCube = cube;
+    computeSectorLevelImntAggregationData(imnt, accountType, ledger);
+
+    stopWatch.stop();
+    log.info(
+        "Ingested {} transaction for {} x {} on {}, recomputing {} of {} ledger entries in {}ms",
+        instrument.getDirection(),
+        imnt,
+        accountType,
+        instrument.getTicker().getData(0).getDate(),
+        recomputed,
+        ledger.size(),
+        stopWatch.getTime(TimeUnit.MILLISECONDS));
+    return positionPnL.isPresent() ? IngestResult.BOOKED : IngestResult.APPLIED;
+  }
+
+  @Override
+  public PriceUpdate fetchTransactionPrices(MarketDataProto.Instrument instrument) {
+    String imnt = instrument.getTicker().getSymbol();
+    if (isReloadInProgress || pnlDates.isEmpty() || marketData.containsKey(imnt))
+      return PriceUpdate.empty();
+    return tickerDataWarehouseService.fetchAnalysisData(imnt);
+  }
+
+  @Override
+  public synchronized boolean refreshIntraday() {
+    if (isReloadInProgress || pnlDates.isEmpty()) {
+      log.warn("Market data not ready, cannot refresh intraday");
+      return false;
+    }
+    int today = todayDate;
+    PnLCube cube = pnLCube.copy();
+    int ordinal = cube.ordinalOf(today);
+    if (ordinal < 0) {
+      log.warn("{} is not a market date of the loaded data, needs a rollover instead", today);
+      return false;
+    }
+    StopWatch stopWatch = StopWatch.createStarted();
+
+    List<Pair<String, MarketDataProto.AccountType>> positions = getPositionsHeldOn(today);
+    int refreshed = refreshUnrealizedPnL(positions, cube, ordinal);
+    cube.aggregateUnrealized(ordinal);
+    pnLCube = cube;
+
+    stopWatch.stop();
+    log.info(
+        "Refreshed intraday pnl of {} of {} positions in {}ms",
+        refreshed,
+        positions.size(),
+        stopWatch.getTime(TimeUnit.MILLISECONDS));
+    return true;
+  }
+
+  @Override
+  public PriceUpdate fetchIntradayPrices() {
+    if (isReloadInProgress || pnlDates.isEmpty()) return PriceUpdate.empty();
+    int today = todayDate;
+    return tickerDataWarehouseService.fetchLatestPrices(
+        getPositionsHeldOn(today).stream().map(Pair::getLeft).collect(Collectors.toSet()),
+        dateLocalDateCache.getLocalDate(today));
+  }
+
+  @Override
+  public synchronized boolean rollover() {
+    if (isReloadInProgress || pnlDates.isEmpty()) {
+      log.warn("Market data not ready, cannot roll over");
+      return false;
+    }
+    int today = marketClock.todayDate();
+    PnLCube cube = pnLCube;
+    int lastDate = cube.getDate(cube.size() - 1);
+    if (today <= lastDate) {
+      log.info("Market data already rolled over to {}", lastDate);
+      return false;
+    }
+    // every market date since the last one, so a missed rollover catches up on the days it skipped.
+    // A holiday falling on a weekday never makes it onto the date axes
+    List<LocalDate> newLocalDates =
+        getMarketDatesBetween(
+            dateLocalDateCache.getLocalDate(lastDate), dateLocalDateCache.getLocalDate(today));
+    if (newLocalDates.isEmpty()) {
+      log.info(
+          "No benchmark price after {} up to {}, no market date to roll over to", lastDate, today);
+      return false;
+    }
+    StopWatch stopWatch = StopWatch.createStarted();
+    List<LocalDate> dates = new ArrayList<>(pnlDates);
+    int closed = 0, carried = 0;
+    List<Pair<String, MarketDataProto.AccountType>> positions = List.of();
+    for (LocalDate newLocalDate : newLocalDates) {
+      int newDate = dateLocalDateCache.getDate(newLocalDate);
+      int previous = cube.size() - 1;
+      cube = cube.append(newDate);
+
+      // the previous date's intraday prices give way to its close
+      positions = getPositionsHeldOn(cube.getDate(previous));
+      closed += closeUnrealizedPnL(positions, cube, previous);
+
+      // the new date opens at the previous close, until an intraday refresh or the next rollover
+      // prices it
+      for (Pair<String, MarketDataProto.AccountType> position : positions) {
+        if (marketData.get(position.getLeft()).get(position.getRight()).isClosed()) continue;
+        ownPosition(position.getLeft(), position.getRight());
+        TreeMap<Integer, Double> datePnLMap =
+            unrealizedImntPnLMap.get(position.getLeft()).get(position.getRight());
+        double unrealizedPnL = datePnLMap.get(cube.getDate(previous));
+        datePnLMap.put(newDate, unrealizedPnL);
+        cube.add(PnLCube.Measure.UNREALIZED, previous + 1, position.getRight(), unrealizedPnL);
+        carried++;
+      }
+      cube.aggregateUnrealized(previous + 1);
+
+      // longer series first, as they are read through the cube's ordinals
+      // into new maps, the ones there may be shared with a copy
+      realizedImntWithDividendPnLMap.replaceAll(
+          (imnt, typeSeriesMap) -> {
+            Map<MarketDataProto.AccountType, double[]> carriedSeriesMap = new HashMap<>();
+            typeSeriesMap.forEach(
+                (type, series) -> {
+                  double[] carriedSeries = Arrays.copyOf(series, series.length + 1);
+                  carriedSeries[series.length] = series[series.length - 1];
+                  carriedSeriesMap.put(type, carriedSeries);
+                });
+            return carriedSeriesMap;
+          });
+      dates.add(newLocalDate);
+      // the analysis axis too, which the benchmark date and the statistics are read off
+      if (integerDates.isEmpty() || integerDates.get(integerDates.size() - 1) < newDate) {
+        localDates.add(newLocalDate);
+        integerDates.add(newDate);
+      }
+    }
+    // today is not a market date yet, the last one caught up on has closed already
+    int rolledTo = cube.getDate(cube.size() - 1);
+    if (rolledTo < today) {
+      positions = getPositionsHeldOn(rolledTo);
+      closed += closeUnrealizedPnL(positions, cube, cube.size() - 1);
+    }
+    cube.indexFloors();
+    pnlDates = dates;
+    pnLCube = cube;
+    todayDate = rolledTo;
+
+    stopWatch.stop();
+    log.info(
+        "Rolled over from {} to {} across {} market dates, closing {} and carrying {} position days in {}ms",
+        lastDate,
+        rolledTo,
+        newLocalDates.size(),
+        closed,
+        carried,
+        stopWatch.getTime(TimeUnit.MILLISECONDS));
+    return true;
+  }
+
+  /** Re-prices the positions' unrealized pnl on the cube's date at its close */
+  private int closeUnrealizedPnL(
+      List<Pair<String, MarketDataProto.AccountType>> positions, PnLCube cube, int ordinal) {
+    int closed = refreshUnrealizedPnL(positions, cube, ordinal);
+    cube.aggregateUnrealized(ordinal);
+    return closed;
+  }
+
+  @Override
+  public PriceUpdate fetchRolloverPrices() {
+    if (isReloadInProgress || pnlDates.isEmpty()) return PriceUpdate.empty();
+    int today = marketClock.todayDate();
+    int lastDate = pnLCube.getDate(pnLCube.size() - 1);
+    if (today <= lastDate) return PriceUpdate.empty();
+    LocalDate lastLocalDate = dateLocalDateCache.getLocalDate(lastDate);
+    PriceUpdate prices =
+        tickerDataWarehouseService.confirmMarketDates(
+            lastLocalDate, dateLocalDateCache.getLocalDate(today));
+    if (prices.isEmpty()) return prices;
+
+    // the last date closes, and so does every market date caught up on before today
+    Set<String> imnts =
+        getPositionsHeldOn(lastDate).stream().map(Pair::getLeft).collect(Collectors.toSet());
+    List<LocalDate> closingDates = new ArrayList<>();
+    closingDates.add(lastLocalDate);
+    for (LocalDate date : prices.dates())
+      if (dateLocalDateCache.getDate(date) < today) closingDates.add(date);
+    for (LocalDate date : closingDates)
+      prices = prices.merge(tickerDataWarehouseService.fetchClosingPrices(imnts, date));
+    return prices;
+  }
+
+  /** Market dates of the warehouse after the one date up to the other */
+  private List<LocalDate> getMarketDatesBetween(LocalDate after, LocalDate upTo) {
+    List<LocalDate> dates = tickerDataWarehouseService.getDates();
+    int from = Collections.binarySearch(dates, after);
+    from = from < 0 ? -from - 1 : from + 1;
+    int to = Collections.binarySearch(dates, upTo);
+    to = to < 0 ? -to - 1 : to + 1;
+    return from < to ? dates.subList(from, to) : List.of();
+  }
+
+  @Override
+  public synchronized boolean reloadInstrument(String imnt) {
+    if (isReloadInProgress || pnlDates.isEmpty()) {
+      log.warn("Market data not ready, cannot reload {}", imnt);
+      return false;
+    }
+    Map<MarketDataProto.AccountType, PositionLedger> typeLedgerMap = marketData.get(imnt);
+    if (typeLedgerMap == null) {
+      log.warn("{} is not in the portfolio, nothing to reload", imnt);
+      return false;
+    }
+    StopWatch stopWatch = StopWatch.createStarted();
+    keyInstrumentValueCache.flushImnt(imnt);
+    computeMarketStatisticsService.evictInstrument(imnt);
+
+    List<Pair<String, MarketDataProto.AccountType>> positions =
+        typeLedgerMap.keySet().stream().map(type -> Pair.of(imnt, type)).toList();
+    int booked = reloadPositions(positions);
+    correlationMatrix = correlationMatrix.map(matrix -> recomputeCorrelations(matrix, imnt));
+
+    stopWatch.stop();
+    log.info(
+        "Reloaded {}, booking the pnl of {} of {} positions in {}ms",
+        imnt,
+        booked,
+        positions.size(),
+        stopWatch.getTime(TimeUnit.MILLISECONDS));
+    return true;
+  }
+
+  @Override
+  public PriceUpdate fetchInstrumentPrices(String imnt) {
+    if (isReloadInProgress || pnlDates.isEmpty() || !marketData.containsKey(imnt))
+      return PriceUpdate.empty();
+    return tickerDataWarehouseService.fetchAnalysisData(imnt);
+  }
+
+  @Override
+  public synchronized boolean reloadAccountType(MarketDataProto.AccountType accountType) {
+    if (isReloadInProgress || pnlDates.isEmpty()) {
+      log.warn("Market data not ready, cannot reload {}", accountType);
+      return false;
+    }
+    List<Pair<String, MarketDataProto.AccountType>> positions = new ArrayList<>();
+    marketData.forEach(
+        (imnt, typeLedgerMap) -> {
+          if (typeLedgerMap.containsKey(accountType)) positions.add(Pair.of(imnt, accountType));
+        });
+    if (positions.isEmpty()) {
+      log.warn("No positions held in {}, nothing to reload", accountType);
+      return false;
+    }
+    StopWatch stopWatch = StopWatch.createStarted();
+    int booked = reloadPositions(positions);
+
+    stopWatch.stop();
+    log.info(
+        "Reloaded {}, booking the pnl of {} of {} positions in {}ms",
+        accountType,
+        booked,
+        positions.size(),
+        stopWatch.getTime(TimeUnit.MILLISECONDS));
+    return true;
+  }
+
+  /**
+   * Re-walks the sell records, pnl and sector aggregate of each position off the warehouse as it is
+   * now, into a copy of the cube, then the aggregates off it. Returns the count of positions whose
+   * pnl could be booked
+   */
+  private int reloadPositions(List<Pair<String, MarketDataProto.AccountType>> positions) {
+    PnLCube cube = pnLCube.copy();
+    int booked = 0;
+    for (Pair<String, MarketDataProto.AccountType> position : positions) {
+      String imnt = position.getLeft();
+      MarketDataProto.AccountType type = position.getRight();
+      ownPosition(imnt, type);
+      PositionLedger ledger = marketData.get(imnt).get(type);
+
+      if (imntSellRecordMap.containsKey(imnt)) imntSellRecordMap.get(imnt).remove(type);
+      populateSellPnlData(imnt, type, ledger, new AtomicInteger(0), new AtomicDouble(0.0));
+
+      removePnL(imnt, type, cube);
+      Optional<PositionPnL> positionPnL =
+          computePnL(imnt, type, ledger, pnlDates, getDividendDates());
+      if (positionPnL.isPresent()) {
+        bookPnL(positionPnL.get(), cube);
+        booked++;
+      } else log.error("Could not compute the pnl of {} x {}, left out of it", imnt, type);
+
+      removeSectorLevelImntAggregationData(imnt, type);
+      computeSectorLevelImntAggregationData(imnt, type, ledger);
+    }
+    computeAggregatePnL(cube);
+    pnLCube = cube;
+    return booked;
+  }
+
+  /** The imnt's row and column recomputed against the rest of the matrix's imnts */
+  private CorrelationMatrix recomputeCorrelations(CorrelationMatrix matrix, String imnt) {
+    if (!matrix.contains(imnt)) return matrix;
+    Optional<double[]> correlations =
+        computeMarketStatisticsService.computeCorrelationRow(
+            imnt, matrix.getSymbols(), integerDates);
+    if (correlations.isEmpty()) {
+      log.warn("Could not recompute the correlations of {}, keeping the previous ones", imnt);
+      return matrix;
+    }
+    return matrix.withCorrelations(imnt, correlations.get());
+  }
+
+  public void setMarketClock(MarketClock marketClock) {
+    this.marketClock = marketClock;
+    this.todayDate = marketClock.todayDate();
+  }
+
+  /** Positions with unrealized pnl booked on the date, i.e. the ones held on it */
+  private List<Pair<String, MarketDataProto.AccountType>> getPositionsHeldOn(int date) {
+    List<Pair<String, MarketDataProto.AccountType>> positions = new ArrayList<>();
+    unrealizedImntPnLMap.forEach(
+        (imnt, typeDatePnLMap) ->
+            typeDatePnLMap.forEach(
+                (type, datePnLMap) -> {
+                  if (datePnLMap.containsKey(date)) positions.add(Pair.of(imnt, type));
+                }));
+    return positions;
+  }
+
+  /**
+   * Re-prices the positions' unrealized pnl on the cube's date off the warehouse, booking the
+   * change into the cube and the imnt level map. Positions without a price keep the pnl they had.
+   * Returns the number re-priced
+   */
+  private int refreshUnrealizedPnL(
+      List<Pair<String, MarketDataProto.AccountType>> positions, PnLCube cube, int ordinal) {
+    int date = cube.getDate(ordinal);
+    int refreshed = 0;
+    for (Pair<String, MarketDataProto.AccountType> position : positions) {
+      String imnt = position.getLeft();
+      MarketDataProto.AccountType type = position.getRight();
+      Double price = tickerDataWarehouseService.getMarketData(imnt, date);
+      if (price == null) continue;
+
+      PositionLedger ledger = marketData.get(imnt).get(type);
+      int index = ledger.latest();
+      while (index > 0 && ledger.getDate(index) > date) index--;
+      double unrealizedPnL = computeUnrealizedPnL(imnt, type, ledger, index, date, price);
+      ownPosition(imnt, type);
+      TreeMap<Integer, Double> datePnLMap = unrealizedImntPnLMap.get(imnt).get(type);
+      cube.add(PnLCube.Measure.UNREALIZED, ordinal, type, unrealizedPnL - datePnLMap.get(date));
+      datePnLMap.put(date, unrealizedPnL);
+      refreshed++;
+    }
+    return refreshed;
+  }
+
   private void computeCorrelationMatrixInParallel() {
     ExecutorService singleThreadExecutor = Executors.newSingleThreadExecutor();
     try {
@@ -311,7 +931,7 @@ public class CompleteMarketDataServiceImpl implements CompleteMarketDataService
 
       // correlation matrix compute happens here
       this.correlationMatrix =
-          computeMarketStatisticsService.computeCorrelationMatrix(
+          computeMarketStatisticsService.computeCorrelationMatrixIncrementally(
               imntsForCorrelation, integerDates);
       log.debug("Correlation matrix => {}", this.correlationMatrix);
     } catch (ExecutionException | InterruptedException e) {
@@ -345,10 +965,10 @@ public class CompleteMarketDataServiceImpl implements CompleteMarketDataService
     log.info(
         "Initiating compute of sector level imnt aggregation data, using live sector check calls");
 
-    for (Map.Entry<String, Map<MarketDataProto.AccountType, DataList>> entry :
+    for (Map.Entry<String, Map<MarketDataProto.AccountType, PositionLedger>> entry :
         marketData.entrySet()) {
       String imnt = entry.getKey();
-      Map<MarketDataProto.AccountType, DataList> accountTypeDataListMap = entry.getValue();
+      Map<MarketDataProto.AccountType, PositionLedger> accountTypeLedgerMap = entry.getValue();
       log.info("Computing live sector and imnt aggr compute for {}", imnt);
 
       // commented for now, as yfinance sector info is diff from codes i am using
@@ -362,37 +982,9 @@ public class CompleteMarketDataServiceImpl implements CompleteMarketDataService
       }
       imntSectorMap.putIfAbsent(imnt, sectorResponse);*/
 
-      accountTypeDataListMap.forEach(
-          (accountType, dataList) -> {
-            DataNode node = dataList.getTail();
-            if (node == null) {
-              log.error("Found a null node in the datalist of {} x {}", imnt, accountType);
-            } else if (node.getInstrument() == null || node.getInstrument().getTicker() == null) {
-              log.error(
-                  "Found a null node instrument in the datalist of {} x {}", imnt, accountType);
-            } else {
-              // commented for now, as yfinance sector info is diff from codes i am using
-              /*if (imntSectorMap.get(imnt).equals(UNKNOWN_SECTOR)) {
-                String overrideSector =
-                    SanitizerUtil.sanitizeSector(node.getInstrument().getTicker().getSector());
-                log.warn("Overriding imnt {} sector to {}", imnt, overrideSector);
-                imntSectorMap.put(imnt, overrideSector);
-              }
-              String sector = imntSectorMap.get(imnt);*/
-              String sector =
-                  SanitizerUtil.sanitizeSector(node.getInstrument().getTicker().getSector());
-              imntSectorMap.put(imnt, sector);
-
-              // create placeholder for sector x account type x imnt
-              sectorLevelImntAggrMap
-                  .computeIfAbsent(sector, k -> new ConcurrentHashMap<>())
-                  .computeIfAbsent(accountType, k -> new ConcurrentHashMap<>())
-                  .computeIfAbsent(imnt, k -> 0.0);
-
-              double investment = node.getAcb().getTotalAcb();
-              sectorLevelImntAggrMap.get(sector).get(accountType).put(imnt, investment);
-            }
-          });
+      accountTypeLedgerMap.forEach(
+          (accountType, ledger) ->
+              computeSectorLevelImntAggregationData(imnt, accountType, ledger));
     }
 
     log.info(
@@ -400,6 +992,49 @@ public class CompleteMarketDataServiceImpl implements CompleteMarketDataService
         sectorLevelImntAggrMap.size());
   }
 
+  private void computeSectorLevelImntAggregationData(
+      String imnt, MarketDataProto.AccountType accountType, PositionLedger ledger) {
+    if (ledger.isEmpty()) {
+      log.error("Found an empty ledger for {} x {}", imnt, accountType);
+    } else {
+      // commented for now, as yfinance sector info is diff from codes i am using
+      /*if (imntSectorMap.get(imnt).equals(UNKNOWN_SECTOR)) {
+        String overrideSector =
+            SanitizerUtil.sanitizeSector(ledger.getSector());
+        log.warn("Overriding imnt {} sector to {}", imnt, overrideSector);
+        imntSectorMap.put(imnt, overrideSector);
+      }
+      String sector = imntSectorMap.get(imnt);*/
+      String sector = SanitizerUtil.sanitizeSector(ledger.getSector());
+      imntSectorMap.put(imnt, sector);
+
+      double investment = ledger.getTotalAcb(ledger.latest());
+      ownSectorImntAggrMap(sector, accountType).put(imnt, investment);
+    }
+  }
+
+  /** Takes the imnt x account type out of whichever sector it was aggregated under */
+  private void removeSectorLevelImntAggregationData(
+      String imnt, MarketDataProto.AccountType accountType) {
+    List<String> sectors =
+        sectorLevelImntAggrMap.entrySet().stream()
+            .filter(
+                entry ->
+                    entry.getValue().containsKey(accountType)
+                        && entry.getValue().get(accountType).containsKey(imnt))
+            .map(Map.Entry::getKey)
+            .toList();
+    for (String sector : sectors) {
+      Map<String, Double> imntMap = ownSectorImntAggrMap(sector, accountType);
+      imntMap.remove(imnt);
+      if (!imntMap.isEmpty()) continue;
+      Map<MarketDataProto.AccountType, Map<String, Double>> typeImntMap =
+          sectorLevelImntAggrMap.get(sector);
+      typeImntMap.remove(accountType);
+      if (typeImntMap.isEmpty()) sectorLevelImntAggrMap.remove(sector);
+    }
+  }
+
   private void computeCumulativeDividend() {
     imntDividendsMap.forEach(
         (imnt, accountTypeMap) ->
@@ -425,47 +1060,36 @@ public class CompleteMarketDataServiceImpl implements CompleteMarketDataService
     imntDividendsMap.clear();
     imntSellRecordMap.clear();
     dateDividendsMap.clear();
-    realizedDatePnLMap.clear();
-    unrealizedDatePnLMap.clear();
-    combinedDatePnLMap.clear();
+    pnLCube = PnLCube.empty();
     unrealizedImntPnLMap.clear();
     realizedImntPnLMap.clear();
-    realizedWithDividendDatePnLMap.clear();
     realizedImntWithDividendPnLMap.clear();
-    dateDividendsCumulativeMap.clear();
-    combinedDatePnLCumulativeMap.clear();
     cumulativeImntDividendsMap.clear();
     sectorLevelImntAggrMap.clear();
     imntSectorMap.clear();
     correlationMatrix = Optional.empty();
     integerDates.clear();
     localDates.clear();
-    dateLocalDateCache.flush();
+    pnlDates = new ArrayList<>();
+    loadInputs = null;
     keyInstrumentValueCache.flushAll();
     log.info("Completed market data clearing");
   }
 
   @Override
   public double getLatestCombinedCumulativePnL() {
-    double pnl = 0.0;
-    Map<MarketDataProto.AccountType, Double> values =
-        combinedDatePnLCumulativeMap.floorEntry(TODAY_DATE).getValue();
-    for (Double value : values.values()) pnl += value;
-    return pnl;
+    return pnLCube.asOfTotal(PnLCube.Measure.COMBINED_CUMULATIVE, todayDate);
   }
 
   // todo - write test
   @Override
   public double getLatestTotalInvestmentAmount() {
     double investment = 0.0;
-    for (Map<MarketDataProto.AccountType, DataList> entry : marketData.values()) {
-      for (DataList dataList : entry.values()) {
-        DataNode node = dataList.getHead();
-        while (node != null) {
-          int multiplier =
-              node.getInstrument().getDirection() == MarketDataProto.Direction.SELL ? -1 : 1;
-          investment += multiplier * node.getInstrument().getTicker().getData(0).getPrice();
-          node = node.getNext();
+    for (Map<MarketDataProto.AccountType, PositionLedger> entry : marketData.values()) {
+      for (PositionLedger ledger : entry.values()) {
+        for (int i = 0; i < ledger.size(); i++) {
+          int multiplier = ledger.isSell(i) ? -1 : 1;
+          investment += multiplier * ledger.getPrice(i);
         }
       }
     }
@@ -537,14 +1161,15 @@ public class CompleteMarketDataServiceImpl implements CompleteMarketDataService
         (imnt, accountTypeMap) -> {
           if (accountTypeMap.containsKey(accountType)) {
             Map.Entry<Integer, Double> dateValueEntry =
-                accountTypeMap.get(accountType).floorEntry(TODAY_DATE);
+                accountTypeMap.get(accountType).floorEntry(todayDate);
             if (dateValueEntry != null) {
               double currentValuationPnL = dateValueEntry.getValue();
 
-              DataNode lastImntNode = marketData.get(imnt).get(accountType).getTail();
+              PositionLedger ledger = marketData.get(imnt).get(accountType);
+              int latest = ledger.latest();
               double investmentActual =
-                  lastImntNode.getAcb().getAcbPerUnit() * lastImntNode.getRunningQuantity();
-              double qty = lastImntNode.getRunningQuantity();
+                  ledger.getAcbPerUnit(latest) * ledger.getRunningQuantity(latest);
+              double qty = ledger.getRunningQuantity(latest);
 
               if (qty > 0.0) {
                 imntInfoListMap.put(
@@ -558,17 +1183,9 @@ public class CompleteMarketDataServiceImpl implements CompleteMarketDataService
       log.info("Including dividend and sells in the best and worst performers calculation");
       imntInfoListMap.forEach(
           (imnt, infoList) -> {
-            if (realizedImntWithDividendPnLMap.containsKey(imnt)
-                && realizedImntWithDividendPnLMap.get(imnt).containsKey(accountType)) {
-              double combinedValuation =
-                  infoList.get(0)
-                      + realizedImntWithDividendPnLMap
-                          .get(imnt)
-                          .get(accountType)
-                          .floorEntry(TODAY_DATE)
-                          .getValue();
-              infoList.set(0, combinedValuation);
-            }
+            double combinedValuation =
+                infoList.get(0) + getRealizedImntWithDividendPnL(imnt, accountType, todayDate);
+            infoList.set(0, combinedValuation);
           });
     }
 
@@ -658,9 +1275,10 @@ public class CompleteMarketDataServiceImpl implements CompleteMarketDataService
       return marketValuation;
     }
 
-    DataNode node = marketData.get(imnt).get(accountType).getTail();
-    double bookVal = node.getAcb().getAcbPerUnit() * node.getRunningQuantity();
-    double pnl = unrealizedImntPnLMap.get(imnt).get(accountType).floorEntry(TODAY_DATE).getValue();
+    PositionLedger ledger = marketData.get(imnt).get(accountType);
+    int latest = ledger.latest();
+    double bookVal = ledger.getAcbPerUnit(latest) * ledger.getRunningQuantity(latest);
+    double pnl = unrealizedImntPnLMap.get(imnt).get(accountType).floorEntry(todayDate).getValue();
     double currentVal = bookVal + pnl;
     double totalDiv =
         cumulativeImntDividendsMap.containsKey(imnt)
@@ -670,7 +1288,7 @@ public class CompleteMarketDataServiceImpl implements CompleteMarketDataService
 
     marketValuation.put(KEY_IMNT, imnt);
     marketValuation.put(KEY_ACCOUNT_TYPE, accountType.name());
-    marketValuation.put(KEY_SECTOR, node.getInstrument().getTicker().getSector());
+    marketValuation.put(KEY_SECTOR, ledger.getSector());
     marketValuation.put(KEY_DIV_YIELD_PERCENT, sanitizeAndFormat2Double(divYieldPercent));
     marketValuation.put(KEY_BOOK_VAL, sanitizeAndFormat2Double(bookVal));
     marketValuation.put(KEY_CURRENT_VAL, sanitizeAndFormat2Double(currentVal));
@@ -712,31 +1330,33 @@ public class CompleteMarketDataServiceImpl implements CompleteMarketDataService
     }
 
     marketData.forEach(
-        (imnt, accountTypeDataListMap) -> {
+        (imnt, accountTypeLedgerMap) -> {
           Set<MarketDataProto.AccountType> accountTypesToLookAt =
               optionalAccountType.isEmpty()
-                  ? accountTypeDataListMap.keySet()
+                  ? accountTypeLedgerMap.keySet()
                   : Sets.newHashSet(optionalAccountType.get());
 
           List<Double> currentVal = Lists.newArrayList(0.0);
           accountTypesToLookAt.stream()
-              .filter(accountTypeDataListMap::containsKey)
+              .filter(accountTypeLedgerMap::containsKey)
               .forEach(
                   accountType -> {
                     imnts.add(imnt);
-                    DataNode node = accountTypeDataListMap.get(accountType).getTail();
-                    double bookVal = node.getAcb().getAcbPerUnit() * node.getRunningQuantity();
+                    PositionLedger ledger = accountTypeLedgerMap.get(accountType);
+                    int latest = ledger.latest();
+                    double bookVal =
+                        ledger.getAcbPerUnit(latest) * ledger.getRunningQuantity(latest);
                     double pnl =
                         unrealizedImntPnLMap
                             .get(imnt)
                             .get(accountType)
-                            .floorEntry(TODAY_DATE)
+                            .floorEntry(todayDate)
                             .getValue();
                     double totalDiv =
                         cumulativeImntDividendsMap.containsKey(imnt)
                             ? cumulativeImntDividendsMap.get(imnt).getOrDefault(accountType, 0.0)
                             : 0.0;
-                    double qty = node.getRunningQuantity();
+                    double qty = ledger.getRunningQuantity(latest);
                     double pnlWithDiv = pnl + (includeDividendsForCurrentVal ? totalDiv : 0.0);
 
                     values.set(
@@ -851,17 +1471,16 @@ public class CompleteMarketDataServiceImpl implements CompleteMarketDataService
   }
 
   @Override
-  public Optional<Table<String, String, Double>> getCorrelationMatrix(
-      List<String> targetInstruments) {
-    Optional<Table<String, String, Double>> optionalMatrix = correlationMatrix;
+  public Optional<CorrelationMatrix> getCorrelationMatrix(List<String> targetInstruments) {
+    Optional<CorrelationMatrix> optionalMatrix = correlationMatrix;
     if (optionalMatrix.isPresent()) {
-      Table<String, String, Double> matrix = optionalMatrix.get();
+      CorrelationMatrix matrix = optionalMatrix.get();
       Queue<String> newImnts = new LinkedList<>();
       Queue<String> knownImnts = new LinkedList<>();
 
       for (String imnt : targetInstruments) {
         imnt = imnt.toUpperCase();
-        if (!matrix.rowKeySet().contains(imnt)) { // imnt we don't have data for!
+        if (!matrix.contains(imnt)) { // imnt we don't have data for!
           if (localDates.isEmpty()) {
             throw new RuntimeException(
                 "Unstable state where localDates is empty. Shouldn't happen ever!");
@@ -897,18 +1516,7 @@ public class CompleteMarketDataServiceImpl implements CompleteMarketDataService
       } else if (newImnts.isEmpty()) { // no need to re-compute the correlation matrix
         List<String> knownInstruments = new ArrayList<>();
         while (!knownImnts.isEmpty()) knownInstruments.add(knownImnts.poll());
-        Table<String, String, Double> resultantMatrix = HashBasedTable.create();
-
-        for (int i = 0; i < knownInstruments.size(); i++)
-          for (int j = i + 1; j < knownInstruments.size(); j++) {
-            String imnt1 = knownInstruments.get(i);
-            String imnt2 = knownInstruments.get(j);
-            Double val = matrix.get(imnt1, imnt2);
-            resultantMatrix.put(imnt1, imnt2, val);
-            resultantMatrix.put(imnt2, imnt1, val);
-          }
-
-        return Optional.of(resultantMatrix);
+        return Optional.of(matrix.subset(knownInstruments));
 
       } else { // generate new correlation matrix
         List<String> instruments = new ArrayList<>();
@@ -930,16 +1538,15 @@ public class CompleteMarketDataServiceImpl implements CompleteMarketDataService
   }
 
   @Override
-  public Optional<Table<String, String, Double>> getCorrelationMatrix(
-      MarketDataProto.AccountType accType) {
-    Optional<Table<String, String, Double>> optionalMatrix = correlationMatrix;
+  public Optional<CorrelationMatrix> getCorrelationMatrix(MarketDataProto.AccountType accType) {
+    Optional<CorrelationMatrix> optionalMatrix = correlationMatrix;
     if (optionalMatrix.isPresent()) {
       List<String> imnts = new ArrayList<>();
       marketData.forEach(
           (imnt, accountTypeValueMap) -> {
             if (accountTypeValueMap.containsKey(accType)
-                && optionalMatrix.get().rowKeySet().contains(imnt)
-                && accountTypeValueMap.get(accType).getTail().getRunningQuantity() >= 0.001)
+                && optionalMatrix.get().contains(imnt)
+                && getLatestRunningQuantity(accountTypeValueMap.get(accType)) >= 0.001)
               imnts.add(imnt);
           });
       return getCorrelationMatrix(imnts);
@@ -948,7 +1555,7 @@ public class CompleteMarketDataServiceImpl implements CompleteMarketDataService
   }
 
   @Override
-  public Optional<Table<String, String, Double>> getCorrelationMatrixForSectors() {
+  public Optional<CorrelationMatrix> getCorrelationMatrixForSectors() {
     Map<String, Map<String, String>> imntValuationPortfolioLevel =
         getImntValuationPortfolioLevel(true);
     Map<String, Pair<String, Double>> sectorMaxImntValuationMap = new HashMap<>();
@@ -979,21 +1586,16 @@ public class CompleteMarketDataServiceImpl implements CompleteMarketDataService
     log.info("Sector level max imnt details: {}", sectorMaxImntValuationMap);
 
     List<String> imnts = sectorMaxImntValuationMap.values().stream().map(Pair::getKey).toList();
-    Optional<Table<String, String, Double>> correlationMatrix = getCorrelationMatrix(imnts);
+    Optional<CorrelationMatrix> correlationMatrix = getCorrelationMatrix(imnts);
     if (correlationMatrix.isEmpty()) {
       log.error("Failed to compute sector level correlation matrix");
       return Optional.empty();
     }
-    Table<String, String, Double> sectorCorrelationMatrixResult = HashBasedTable.create();
-    for (String rowImnt : correlationMatrix.get().rowKeySet()) {
-      for (String colImnt : correlationMatrix.get().columnKeySet()) {
-        Double correlation = correlationMatrix.get().get(rowImnt, colImnt);
-        if (correlation != null)
-          sectorCorrelationMatrixResult.put(
-              imntNewLabelMap.get(rowImnt), imntNewLabelMap.get(colImnt), correlation);
-      }
-    }
-    correlationMatrix = null; // force cleanup
+    CorrelationMatrix sectorCorrelationMatrixResult =
+        correlationMatrix
+            .get()
+            .relabel(
+                correlationMatrix.get().getSymbols().stream().map(imntNewLabelMap::get).toList());
     log.debug("Sector Correlation matrix => {}", sectorCorrelationMatrixResult);
     return Optional.of(sectorCorrelationMatrixResult);
   }
@@ -1014,20 +1616,20 @@ public class CompleteMarketDataServiceImpl implements CompleteMarketDataService
     Optional<Double> data;
 
     imnt = "^VIX";
-    data = fetchLatestPrice(imnt, TODAY_DATE);
+    data = fetchLatestPrice(imnt, todayDate);
     if (data.isPresent()) dataPacketBuilder.putStringDoubleMap(imnt, data.get());
 
     imnt = "CADINR=X";
-    data = fetchLatestPrice(imnt, TODAY_DATE);
+    data = fetchLatestPrice(imnt, todayDate);
     if (data.isPresent()) dataPacketBuilder.putStringDoubleMap(imnt, data.get());
 
     imnt = "CADUSD=X";
-    data = fetchLatestPrice(imnt, TODAY_DATE);
+    data = fetchLatestPrice(imnt, todayDate);
     if (data.isPresent() && data.get() >= 0.000001)
       dataPacketBuilder.putStringDoubleMap("USDCAD=X", 1.0 / data.get());
 
     imnt = "USDINR=X";
-    data = fetchLatestPrice(imnt, TODAY_DATE);
+    data = fetchLatestPrice(imnt, todayDate);
     if (data.isPresent()) dataPacketBuilder.putStringDoubleMap(imnt, data.get());
 
     return dataPacketBuilder.build();
@@ -1043,7 +1645,7 @@ public class CompleteMarketDataServiceImpl implements CompleteMarketDataService
     // https://www.bankofcanada.ca/valet/observations/group/bond_yields_benchmark/csv
     // main website: https://www.bankofcanada.ca/rates/interest-rates/canadian-bonds
 
-    return fetchLatestPrice(COUNTRY_RISK_FREE_RETURN_CUSTOM_SYMBOL_MAP.get(country), TODAY_DATE);
+    return fetchLatestPrice(COUNTRY_RISK_FREE_RETURN_CUSTOM_SYMBOL_MAP.get(country), todayDate);
     // CA -> return Optional.of(3.35); // as of 20260116
     // US -> return Optional.of(4.24); // as of 20260116
   }
@@ -1056,9 +1658,9 @@ public class CompleteMarketDataServiceImpl implements CompleteMarketDataService
     }
 
     Optional<Double> currentValue =
-        fetchLatestPrice(COUNTRY_MARKET_RETURN_SYMBOL_MAP.get(country), TODAY_DATE);
+        fetchLatestPrice(COUNTRY_MARKET_RETURN_SYMBOL_MAP.get(country), todayDate);
     if (currentValue.isPresent()) {
-      LocalDate tMinus1Year = DateFormatUtil.getLocalDate(TODAY_DATE).minusYears(1);
+      LocalDate tMinus1Year = DateFormatUtil.getLocalDate(todayDate).minusYears(1);
       Optional<Double> tMinus1YearValue =
           fetchLatestPrice(
               COUNTRY_MARKET_RETURN_SYMBOL_MAP.get(country), DateFormatUtil.getDate(tMinus1Year));
@@ -1209,7 +1811,7 @@ public class CompleteMarketDataServiceImpl implements CompleteMarketDataService
       Optional<Double> std =
           computeMarketStatisticsService.computeStandardDeviationInFormOfEWMAVol(
               imnt, integerDates);
-      Optional<Double> currentPrice = fetchLatestPrice(imnt, TODAY_DATE);
+      Optional<Double> currentPrice = fetchLatestPrice(imnt, todayDate);
 
       if (betaFromMetaData.isEmpty()
           || dividendYield.isEmpty()
@@ -1280,7 +1882,7 @@ public class CompleteMarketDataServiceImpl implements CompleteMarketDataService
       return "Investigate imnts selection reduction";
     }*/
 
-    Optional<Double> vixOpt = fetchLatestPrice("^VIX", TODAY_DATE);
+    Optional<Double> vixOpt = fetchLatestPrice("^VIX", todayDate);
     String riskMode = "CONSERVATIVE (HARVESTING PnL)";
     /*double targetBeta = 1.055;
     double maxVol = .35;
@@ -1310,7 +1912,7 @@ public class CompleteMarketDataServiceImpl implements CompleteMarketDataService
             isForcedCash ? forceCash : newCash, // forceCash overrides newCash if present
             objectiveMode);
 
-    Optional<Table<String, String, Double>> correlationMatrixOpt =
+    Optional<CorrelationMatrix> correlationMatrixOpt =
         computeMarketStatisticsService.computeCorrelationMatrix(
             instrumentsForCorrelation, integerDates);
     MarketDataProto.CorrelationMatrix correlationMatrix =
@@ -1367,15 +1969,8 @@ public class CompleteMarketDataServiceImpl implements CompleteMarketDataService
 
   @Override
   public Optional<Double> fetchLatestPrice(String imnt, int tDate) {
-    int days = 11;
-    LocalDate tLocalDate = DateFormatUtil.getLocalDate(tDate);
-
-    while (days-- > 0) {
-      Double val = tickerDataWarehouseService.getMarketData(imnt, tLocalDate);
-      if (val != null) return Optional.of(val);
-      tLocalDate = tLocalDate.minusDays(1);
-    }
-    return Optional.empty();
+    // as-of lookup, up to 10 days back from tDate
+    return tickerDataWarehouseService.getMarketDataAsOf(imnt, tDate, 10).map(Pair::getRight);
   }
 
   void populate(MarketDataProto.Portfolio portfolio) {
@@ -1385,19 +1980,14 @@ public class CompleteMarketDataServiceImpl implements CompleteMarketDataService
             instrument -> {
               marketData.computeIfAbsent(instrument.getTicker().getSymbol(), k -> new HashMap<>());
 
-              Map<MarketDataProto.AccountType, DataList> dataListMap =
-                  marketData.get(instrument.getTicker().getSymbol());
-              dataListMap.computeIfAbsent(instrument.getAccountType(), k -> new DataList());
-
-              dataListMap.get(instrument.getAccountType()).addBlock(instrument);
+              marketData
+                  .get(instrument.getTicker().getSymbol())
+                  .computeIfAbsent(instrument.getAccountType(), k -> new PositionLedger())
+                  .add(instrument);
             });
   }
 
   void populateDividends(MarketDataProto.Portfolio portfolio) {
-    dateDividendsCumulativeMap.put(0, new HashMap<>());
-    List<MarketDataProto.AccountType> accountTypes = getAccountTypes();
-    accountTypes.forEach(type -> dateDividendsCumulativeMap.get(0).put(type, 0.0)); // baseline
-
     log.info("Beginning dividends population.");
     StopWatch stopWatch = StopWatch.createStarted();
 
@@ -1430,44 +2020,9 @@ public class CompleteMarketDataServiceImpl implements CompleteMarketDataService
       dateDivAccountTypeDivMap.compute(accountType, (k, v) -> sanitizeDouble(v) + dividend);
     }
 
-    // operate below for accumulation
     // note: do not add the date / local date to the instance localDateAndDateMap or
-    // dateAndLocalDateMap as the absence is used to calculate missing div dates in computePnL
-    List<Integer> divDates = new ArrayList<>(dateDividendsMap.keySet());
-    Collections.sort(divDates);
-    Map<MarketDataProto.AccountType, Double> cumulativeDivs = new HashMap<>();
-    accountTypes.forEach(accountType -> cumulativeDivs.put(accountType, 0.0));
-    for (int date : divDates) { // skip 0th as that is date = 0
-      Map<MarketDataProto.AccountType, Double> typeDivBaseMap = dateDividendsMap.get(date);
-      Map<MarketDataProto.AccountType, Double> typeDivTargetMap =
-          dateDividendsCumulativeMap.computeIfAbsent(date, k -> new HashMap<>());
-      accountTypes.forEach(
-          accountType -> typeDivTargetMap.put(accountType, cumulativeDivs.get(accountType)));
-
-      typeDivBaseMap.forEach(
-          (type, div) -> {
-            typeDivTargetMap.compute(type, (k, v) -> sanitizeDouble(v) + div);
-            cumulativeDivs.put(type, cumulativeDivs.getOrDefault(type, 0.0) + div);
-          });
-    }
-    /*
-    LocalDate localDate = DateFormatUtil.getLocalDate(divDate);
-    int dateTMinus1 = DateFormatUtil.getDate(localDate.minusDays(1));
-
-    Map<MarketDataProto.AccountType, Double> typeDividendCumulativeMap =
-        dateDividendsCumulativeMap.computeIfAbsent(divDate, k -> new HashMap<>());
-    // update current date with t-1 data point
-    accountTypes.forEach(
-        accountType1 -> {
-          Double divTMinus1AccountTypeDividend =
-              dateDividendsCumulativeMap.floorEntry(dateTMinus1).getValue().get(accountType1);
-          typeDividendCumulativeMap.putIfAbsent(accountType1, 0.0);
-          typeDividendCumulativeMap.compute(
-              accountType1, (k, v) -> sanitizeDouble(v) + divTMinus1AccountTypeDividend);
-        });
-
-    // update current date with t data point
-    typeDividendCumulativeMap.compute(accountType, (k, v) -> sanitizeDouble(v) + dividend);*/
+    // dateAndLocalDateMap as the absence is used to calculate missing div dates in computePnL.
+    // The cumulative dividends are rolled up in the pnl cube, once the pnl dates are known
 
     stopWatch.stop();
     log.info(
@@ -1476,19 +2031,34 @@ public class CompleteMarketDataServiceImpl implements CompleteMarketDataService
   }
 
   void computeAcb() {
-    marketData.values().forEach(collection -> collection.values().forEach(DataList::computeAcb));
+    marketData.forEach(
+        (imnt, accountTypeLedgerMap) ->
+            accountTypeLedgerMap.forEach(
+                (accountType, ledger) -> {
+                  ledger.computeAcb();
+                  if (ledger.isClosed())
+                    log.info(
+                        "Marked ledger for imnt {} x {} as closed on {}",
+                        imnt,
+                        accountType,
+                        ledger.getDate(ledger.latest()));
+                }));
   }
 
   void computePnL() {
-    List<LocalDate> dates = tickerDataWarehouseService.getDates();
-    Collections.sort(dates);
+    computePnL(ForkJoinPool.commonPool());
+  }
+
+  void computePnL(ForkJoinPool pool) {
+    this.todayDate = marketClock.todayDate();
+    // the warehouse hands out its sorted calendar, copying as the dividend dates go in below
+    List<LocalDate> dates = new ArrayList<>(tickerDataWarehouseService.getDates());
     this.localDates = new ArrayList<>(dates);
 
     Set<Integer> localDates = new HashSet<>();
     dates.forEach(
         date -> {
-          dateLocalDateCache.add(date);
-          int intDate = dateLocalDateCache.get(date).getAsInt();
+          int intDate = dateLocalDateCache.getDate(date);
           localDates.add(intDate);
           this.integerDates.add(intDate);
         });
@@ -1497,227 +2067,384 @@ public class CompleteMarketDataServiceImpl implements CompleteMarketDataService
     for (Integer dividendDate : dividendDates) {
       if (!localDates.contains(dividendDate)) {
         log.info("Found a non-market dividend date: {}", dividendDate);
-        dateLocalDateCache.add(dividendDate);
-        dates.add(dateLocalDateCache.get(dividendDate).get());
+        dates.add(dateLocalDateCache.getLocalDate(dividendDate));
         toSort = true;
       }
     }
     if (toSort) Collections.sort(dates);
 
-    boolean failed = false;
-    outer:
-    for (Map.Entry<String, Map<MarketDataProto.AccountType, DataList>> marketDataEntry :
-        marketData.entrySet()) { // iterate over the marketData
-      String imnt = marketDataEntry.getKey();
-      Map<MarketDataProto.AccountType, DataList> typeDataMap = marketDataEntry.getValue();
-      for (Map.Entry<MarketDataProto.AccountType, DataList> entry : typeDataMap.entrySet()) {
-        MarketDataProto.AccountType type = entry.getKey();
-        DataList dataList = entry.getValue();
-        DataNode node = dataList.getHead();
-        int nodeDate = getDate(node);
-        int dateIndex = 0;
-
-        // find the initial date index for the nodeDate
-        while (dateIndex < dates.size()
-            && dateLocalDateCache.get(dates.get(dateIndex)).getAsInt() != nodeDate) {
-          dateIndex++;
-        }
+    // each position walks the dates on its own, in a fixed order so the sums below are the same
+    // however the work is split
+    List<Pair<String, MarketDataProto.AccountType>> positions = new ArrayList<>();
+    marketData.forEach(
+        (imnt, typeDataMap) ->
+            typeDataMap.keySet().forEach(type -> positions.add(Pair.of(imnt, type))));
+    positions.sort(
+        Comparator.comparing(Pair<String, MarketDataProto.AccountType>::getLeft)
+            .thenComparing(Pair::getRight));
+    progressTrackerService.publishPhaseTotal(CLIENT_VIVEK, PHASE_COMPUTE_PNL, positions.size());
+    List<Optional<PositionPnL>> positionPnLs =
+        pool.submit(
+                () ->
+                    positions.parallelStream()
+                        .map(
+                            position -> {
+                              Optional<PositionPnL> positionPnL =
+                                  computePnL(
+                                      position.getLeft(),
+                                      position.getRight(),
+                                      marketData.get(position.getLeft()).get(position.getRight()),
+                                      dates,
+                                      dividendDates);
+                              progressTrackerService.incrementPhaseDone(
+                                  CLIENT_VIVEK, PHASE_COMPUTE_PNL);
+                              return positionPnL;
+                            })
+                        .toList())
+            .join();
+    boolean failed = positionPnLs.stream().anyMatch(Optional::isEmpty);
+    PnLCube cube =
+        new PnLCube(
+            dates.stream().mapToInt(dateLocalDateCache::getDate).toArray(), getAccountTypes());
+    reducePnL(positionPnLs.stream().flatMap(Optional::stream).toList(), cube, pool);
+    bookDividends(cube);
+    this.pnlDates = dates;
 
-        log.debug("Found dateIndex: {} for {} of {} {}", dateIndex, nodeDate, imnt, type);
-        while (dateIndex < dates.size()) {
-          int date = dateLocalDateCache.get(dates.get(dateIndex)).getAsInt();
-          // find and point to the correct node for the date
-          while (node.getNext() != null && getDate(node.getNext()) == date) {
-            node = node.getNext();
-          }
-          // System.out.println(date + " " + node);
-
-          Double marketPrice = tickerDataWarehouseService.getMarketData(imnt, date);
-          Optional<Pair<Double, Integer>> fallbackPriceDate;
-          boolean overrideDateIndexIncrementAndContinue = false;
-          if (marketPrice == null) {
-            if (outdatedSymbols != null && outdatedSymbols.isCurrentDateOutdated(imnt, date)) {
-              log.info("Allowing skip of market price for outdated {} x {}", imnt, date);
-            } else if (dividendDates.contains(date)) {
-              log.info("Allowed to miss off-market dividend date: {}", date);
-              dateIndex++;
-              continue;
-            } else if ((fallbackPriceDate =
-                    fetchTMinusPrice(
-                        imnt, dateIndex, 7, tickerDataWarehouseService, dates, dateLocalDateCache))
-                .isPresent()) {
-              log.warn(
-                  "Found a backdated price for imnt '{}' at {}: {}",
-                  imnt,
-                  fallbackPriceDate.get().getRight(),
-                  fallbackPriceDate.get().getLeft());
-              marketPrice = fallbackPriceDate.get().getLeft();
-              overrideDateIndexIncrementAndContinue = true;
-            } else {
-              log.error(
-                  "Did not find market price for {} x {}, CANNOT compute any further!", imnt, date);
-              failed = true;
-              break outer;
-            }
-            if (!overrideDateIndexIncrementAndContinue) {
-              dateIndex++;
-              continue;
-            }
-          }
-          computeUnrealizedPnL(imnt, type, node, date, marketPrice);
-          if (node.getInstrument().getDirection() == MarketDataProto.Direction.BUY) {
-            dateIndex++;
-            continue;
-          }
-          Double soldPps =
-              Double.valueOf(node.getInstrument().getMetaDataMap().get("pricePerShare"));
-          /*double v =
-              node.getInstrument().getTicker().getData(0).getPrice()
-                  / node.getInstrument().getQty();
-          double delta =
-              soldPps
-                  - node.getInstrument().getTicker().getData(0).getPrice()
-                      / node.getInstrument().getQty();
-          delta = Math.abs(MathUtil.round2(delta));
-          log.info("\t\timnt > {}, pps: {}, v: {}, delta: {}", imnt, soldPps, v, delta);
-          if (delta > 0) {
-            log.info("******************* delta > 0");
-          }*/
-
-          // realized pnl (w/o div) changes only on SELL fixed realized pnl mis-calc. rn, because of
-          // the last STLC sell node, the dates beyond
-          // keep on using the same node and keep showing unnecessary gains whereas the gain was
-          // only for 1 day
-          // realizedImntPnLMap.get("STLC.TO").get(MarketDataProto.AccountType.TFSA).values().stream().mapToDouble(Double::doubleValue).sum()
-          if (getDate(node) == date) {
-            // shifted to actual pps instead of end of day marketPrice
-            computeRealizedPnL(imnt, type, node, date, soldPps);
-          }
+    if (!failed) {
+      computeAggregatePnL(cube);
+      System.out.println(
+          "Combined PnL of TFSA: "
+              + cube.asOf(
+                  PnLCube.Measure.COMBINED_CUMULATIVE,
+                  MarketDataProto.AccountType.TFSA,
+                  todayDate));
+      System.out.println(
+          "Combined PnL of NR: "
+              + cube.asOf(
+                  PnLCube.Measure.COMBINED_CUMULATIVE, MarketDataProto.AccountType.NR, todayDate));
+      System.out.println(
+          "Combined PnL of FHSA: "
+              + cube.asOf(
+                  PnLCube.Measure.COMBINED_CUMULATIVE,
+                  MarketDataProto.AccountType.FHSA,
+                  todayDate));
+    } else {
+      cube.indexFloors();
+      log.error("Failed to compute pnL. Check logs for relevant error.");
+    }
+    this.pnLCube = cube;
+  }
 
-          // no more position exists, thereby no more unrealized / realized
-          // TODO - think about what happens to last dividends received after position closure
-          if (node.isClosingPositionNode()) {
-            log.info("Reached the end of position for {} x {} on {}", imnt, type, date);
-            break;
-          }
-          /*
-          INCORRECT: Was causing outdated unrealized pnl for imnts who had last block as SELL and not closed position
-          if (node.getNext() == null) {
-            log.info("Reached the end of position for {} x {} on {}", imnt, type, date);
-            break;
-          } */
+  /**
+   * Walks the ledger over the dates, computing its unrealized pnl for each date and realized pnl on
+   * its SELL dates. Empty if a market price could not be found for a date
+   */
+  private Optional<PositionPnL> computePnL(
+      String imnt,
+      MarketDataProto.AccountType type,
+      PositionLedger ledger,
+      List<LocalDate> dates,
+      Set<Integer> dividendDates) {
+    PositionPnL positionPnL = PositionPnL.unbooked(imnt, type, dates.size());
+    int index = 0;
+    int nodeDate = ledger.getDate(index);
+    int dateIndex = 0;
+
+    // find the initial date index for the nodeDate
+    while (dateIndex < dates.size()
+        && dateLocalDateCache.getDate(dates.get(dateIndex)) != nodeDate) {
+      dateIndex++;
+    }
+
+    log.debug("Found dateIndex: {} for {} of {} {}", dateIndex, nodeDate, imnt, type);
+    while (dateIndex < dates.size()) {
+      int date = dateLocalDateCache.getDate(dates.get(dateIndex));
+      // find and point to the correct ledger entry for the date
+      while (index < ledger.latest() && ledger.getDate(index + 1) == date) {
+        index++;
+      }
+
+      Double marketPrice = tickerDataWarehouseService.getMarketData(imnt, date);
+      Optional<Pair<Double, Integer>> fallbackPriceDate;
+      boolean overrideDateIndexIncrementAndContinue = false;
+      if (marketPrice == null) {
+        if (outdatedSymbols != null && outdatedSymbols.isCurrentDateOutdated(imnt, date)) {
+          log.info("Allowing skip of market price for outdated {} x {}", imnt, date);
+        } else if (dividendDates.contains(date)) {
+          log.info("Allowed to miss off-market dividend date: {}", date);
           dateIndex++;
+          continue;
+        } else if ((fallbackPriceDate =
+                fetchTMinusPrice(imnt, dateIndex, 7, tickerDataWarehouseService, dates))
+            .isPresent()) {
+          log.warn(
+              "Found a backdated price for imnt '{}' at {}: {}",
+              imnt,
+              fallbackPriceDate.get().getRight(),
+              fallbackPriceDate.get().getLeft());
+          marketPrice = fallbackPriceDate.get().getLeft();
+          overrideDateIndexIncrementAndContinue = true;
+        } else {
+          log.error(
+              "Did not find market price for {} x {}, CANNOT compute any further!", imnt, date);
+          return Optional.empty();
+        }
+        if (!overrideDateIndexIncrementAndContinue) {
+          dateIndex++;
+          continue;
         }
       }
+      positionPnL.unrealized()[dateIndex] =
+          computeUnrealizedPnL(imnt, type, ledger, index, date, marketPrice);
+      if (!ledger.isSell(index)) {
+        dateIndex++;
+        continue;
+      }
+      double soldPps = ledger.getPricePerShare(index);
+      /*double v =
+          node.getInstrument().getTicker().getData(0).getPrice()
+              / node.getInstrument().getQty();
+      double delta =
+          soldPps
+              - node.getInstrument().getTicker().getData(0).getPrice()
+                  / node.getInstrument().getQty();
+      delta = Math.abs(MathUtil.round2(delta));
+      log.info("\t\timnt > {}, pps: {}, v: {}, delta: {}", imnt, soldPps, v, delta);
+      if (delta > 0) {
+        log.info("******************* delta > 0");
+      }*/
+
+      // realized pnl (w/o div) changes only on SELL fixed realized pnl mis-calc. rn, because of
+      // the last STLC sell node, the dates beyond
+      // keep on using the same node and keep showing unnecessary gains whereas the gain was
+      // only for 1 day
+      // realizedImntPnLMap.get("STLC.TO").get(MarketDataProto.AccountType.TFSA).values().stream().mapToDouble(Double::doubleValue).sum()
+      if (ledger.getDate(index) == date) {
+        // shifted to actual pps instead of end of day marketPrice
+        positionPnL.realized()[dateIndex] =
+            computeRealizedPnL(imnt, type, ledger, index, date, soldPps);
+      }
+
+      // no more position exists, thereby no more unrealized / realized
+      // TODO - think about what happens to last dividends received after position closure
+      if (ledger.isClosingPosition(index)) {
+        log.info("Reached the end of position for {} x {} on {}", imnt, type, date);
+        return Optional.of(positionPnL);
+      }
+      /*
+      INCORRECT: Was causing outdated unrealized pnl for imnts who had last block as SELL and not closed position
+      if (node.getNext() == null) {
+        log.info("Reached the end of position for {} x {} on {}", imnt, type, date);
+        break;
+      } */
+      dateIndex++;
     }
-    /*System.out.println("Spewing out acb data list of vfv.to nr to analyze: "); // todo - remove
-    DataNode vfvNrNode = marketData.get("VFV.TO").get(MarketDataProto.AccountType.NR).getHead();
-    while (vfvNrNode != null) {
-      System.out.printf(
-          "%s %f %d %f %s %s %f %f %f\n",
-          vfvNrNode.getInstrument().getTicker().getSymbol(),
-          vfvNrNode.getInstrument().getQty(),
-          vfvNrNode.getInstrument().getTicker().getData(0).getDate(),
-          vfvNrNode.getInstrument().getTicker().getData(0).getPrice(),
-          vfvNrNode.getInstrument().getMetaDataOrDefault("pricePerShare", "0.0"),
-          vfvNrNode.getInstrument().getDirection(),
-          vfvNrNode.getRunningQuantity(),
-          vfvNrNode.getAcb().getAcbPerUnit(),
-          vfvNrNode.getAcb().getTotalAcb());
-      vfvNrNode = vfvNrNode.getNext();
-    }*/
+    return Optional.of(positionPnL);
+  }
 
-    //    unrealizedDatePnLMap.forEach(
-    //        (k, v) -> System.out.printf("%d x %.6f\n", k, v.get(MarketDataProto.AccountType.NR)));
+  /**
+   * Sums the positions' series into the cube's date x account type cells, in parallel over blocks
+   * of dates, each date adding up the positions in their given order. Also fills the imnt level
+   * maps
+   */
+  private void reducePnL(List<PositionPnL> positionPnLs, PnLCube cube, ForkJoinPool pool) {
+    int dateCount = cube.size();
+    int blocks = (dateCount + PNL_DATE_BLOCK - 1) / PNL_DATE_BLOCK;
+    pool.submit(
+            () ->
+                IntStream.range(0, blocks)
+                    .parallel()
+                    .forEach(
+                        block -> {
+                          int from = block * PNL_DATE_BLOCK;
+                          int to = Math.min(dateCount, from + PNL_DATE_BLOCK);
+                          for (PositionPnL positionPnL : positionPnLs) {
+                            bookInto(cube, positionPnL, from, to, 1.0);
+                          }
+                        }))
+        .join();
+
+    // imnt level maps, each position filling its own date maps
+    List<Runnable> fills = new ArrayList<>(positionPnLs.size());
+    for (PositionPnL positionPnL : positionPnLs) {
+      Map<Integer, Double> unrealizedDateMap = null;
+      Map<Integer, Double> realizedDateMap = null;
+      if (isBooked(positionPnL.unrealized()))
+        unrealizedDateMap = unrealizedImntPnLMap(positionPnL.imnt(), positionPnL.accountType());
+      if (isBooked(positionPnL.realized()))
+        realizedDateMap = realizedImntPnLMap(positionPnL.imnt(), positionPnL.accountType());
+      Map<Integer, Double> unrealizedFill = unrealizedDateMap;
+      Map<Integer, Double> realizedFill = realizedDateMap;
+      fills.add(
+          () -> {
+            for (int d = 0; d < dateCount; d++) {
+              if (unrealizedFill != null && !Double.isNaN(positionPnL.unrealized()[d]))
+                unrealizedFill.put(cube.getDate(d), positionPnL.unrealized()[d]);
+              if (realizedFill != null && !Double.isNaN(positionPnL.realized()[d]))
+                realizedFill.put(cube.getDate(d), positionPnL.realized()[d]);
+            }
+          });
+    }
+    pool.submit(() -> fills.parallelStream().forEach(Runnable::run)).join();
+  }
 
-    if (!failed) {
-      computeCombinedPnL(dates);
+  /** Adds the position's booked pnl, scaled by the sign, into the cube over [from, to) */
+  private static void bookInto(
+      PnLCube cube, PositionPnL positionPnL, int from, int to, double sign) {
+    MarketDataProto.AccountType type = positionPnL.accountType();
+    for (int d = from; d < to; d++) {
+      double unrealizedPnL = positionPnL.unrealized()[d];
+      double realizedPnL = positionPnL.realized()[d];
+      if (!Double.isNaN(unrealizedPnL))
+        cube.add(PnLCube.Measure.UNREALIZED, d, type, sign * unrealizedPnL);
+      if (!Double.isNaN(realizedPnL))
+        cube.add(PnLCube.Measure.REALIZED, d, type, sign * realizedPnL);
+    }
+  }
 
-      computeRealizedPnLFromDividends(dates);
-      computeCombinedPnLCumulative();
-      System.out.println(
-          "Combined PnL of TFSA: "
-              + combinedDatePnLCumulativeMap
-                  .floorEntry(TODAY_DATE)
-                  .getValue()
-                  .get(MarketDataProto.AccountType.TFSA));
-      System.out.println(
-          "Combined PnL of NR: "
-              + combinedDatePnLCumulativeMap
-                  .floorEntry(TODAY_DATE)
-                  .getValue()
-                  .get(MarketDataProto.AccountType.NR));
-      System.out.println(
-          "Combined PnL of FHSA: "
-              + combinedDatePnLCumulativeMap
-                  .floorEntry(TODAY_DATE)
-                  .getValue()
-                  .get(MarketDataProto.AccountType.FHSA));
-    } else log.error("Failed to compute pnL. Check logs for relevant error.");
+  private static boolean isBooked(double[] series) {
+    for (double value : series) if (!Double.isNaN(value)) return true;
+    return false;
+  }
+
+  private void bookDividends(PnLCube cube) {
+    dateDividendsMap.forEach(
+        (date, typeDividendMap) -> {
+          int ordinal = cube.ordinalOf(date);
+          if (ordinal < 0) return;
+          typeDividendMap.forEach(
+              (type, dividend) -> cube.add(PnLCube.Measure.DIVIDEND, ordinal, type, dividend));
+        });
+  }
+
+  /** Books a single position's series into the cube and imnt level maps, on top of the others */
+  private void bookPnL(PositionPnL positionPnL, PnLCube cube) {
+    bookInto(cube, positionPnL, 0, cube.size(), 1.0);
+    String imnt = positionPnL.imnt();
+    MarketDataProto.AccountType type = positionPnL.accountType();
+    for (int d = 0; d < cube.size(); d++) {
+      int date = cube.getDate(d);
+      double unrealizedPnL = positionPnL.unrealized()[d];
+      double realizedPnL = positionPnL.realized()[d];
+      if (!Double.isNaN(unrealizedPnL))
+        unrealizedImntPnLMap(imnt, type).compute(date, (k, v) -> sanitizeDouble(v) + unrealizedPnL);
+      if (!Double.isNaN(realizedPnL))
+        realizedImntPnLMap(imnt, type).compute(date, (k, v) -> sanitizeDouble(v) + realizedPnL);
+    }
+  }
+
+  private Map<Integer, Double> unrealizedImntPnLMap(String imnt, MarketDataProto.AccountType type) {
+    return unrealizedImntPnLMap
+        .computeIfAbsent(
+            imnt,
+            k -> {
+              Map<MarketDataProto.AccountType, TreeMap<Integer, Double>> typeDatePriceMap =
+                  new HashMap<>();
+              getAccountTypes()
+                  .forEach(accountType -> typeDatePriceMap.put(accountType, new TreeMap<>()));
+              return typeDatePriceMap;
+            })
+        .computeIfAbsent(type, k -> new TreeMap<>());
+  }
+
+  private Map<Integer, Double> realizedImntPnLMap(String imnt, MarketDataProto.AccountType type) {
+    return realizedImntPnLMap
+        .computeIfAbsent(
+            imnt,
+            k -> {
+              Map<MarketDataProto.AccountType, Map<Integer, Double>> typeDatePriceMap =
+                  new HashMap<>();
+              getAccountTypes()
+                  .forEach(accountType -> typeDatePriceMap.put(accountType, new HashMap<>()));
+              return typeDatePriceMap;
+            })
+        .computeIfAbsent(type, k -> new HashMap<>());
+  }
+
+  /** Takes the ledger's unrealized and realized pnl back out of the cube's date level cells */
+  private void removePnL(String imnt, MarketDataProto.AccountType type, PnLCube cube) {
+    if (unrealizedImntPnLMap.containsKey(imnt)) {
+      Map<Integer, Double> datePnLMap = unrealizedImntPnLMap.get(imnt).get(type);
+      datePnLMap.forEach(
+          (date, pnL) -> cube.add(PnLCube.Measure.UNREALIZED, cube.ordinalOf(date), type, -pnL));
+      datePnLMap.clear();
+    }
+    if (realizedImntPnLMap.containsKey(imnt)) {
+      Map<Integer, Double> datePnLMap = realizedImntPnLMap.get(imnt).get(type);
+      datePnLMap.forEach(
+          (date, pnL) -> cube.add(PnLCube.Measure.REALIZED, cube.ordinalOf(date), type, -pnL));
+      datePnLMap.clear();
+    }
+  }
+
+  /** Combined, realized with dividends and cumulative pnl, off the cube's date x type cells */
+  private void computeAggregatePnL(PnLCube cube) {
+    cube.aggregate();
+    computeRealizedImntPnLFromDividends(cube);
   }
 
   void populateSellPnlData() {
     AtomicInteger sellRecs = new AtomicInteger(0);
     AtomicDouble totalSellPnL = new AtomicDouble(0.0);
     marketData.forEach(
-        (imnt, accountTypeDataListMap) ->
-            accountTypeDataListMap.forEach(
-                (acctType, dataList) -> {
-                  DataNode node = dataList.getHead();
-                  boolean failed = false;
-                  while (node != null) {
-                    if (node.getInstrument().getDirection() == MarketDataProto.Direction.SELL) {
-                      if (node.getPrev() == null) {
-                        log.error("Cannot handle short sell yet.");
-                        failed = true;
-                        break;
-                      }
-                      DataNode prev = node.getPrev();
-                      double soldQty = node.getInstrument().getQty();
-                      double soldPps =
-                          Double.parseDouble(
-                              node.getInstrument().getMetaDataMap().get("pricePerShare"));
-                      ACB preAcb = prev.getAcb();
-                      ACB currentAcb = node.getAcb();
-                      double pnl = (soldPps - preAcb.getAcbPerUnit()) * soldQty;
-                      double soldPrice = node.getInstrument().getTicker().getData(0).getPrice();
-                      int date = node.getInstrument().getTicker().getData(0).getDate();
-                      boolean closingPosition = node.getRunningQuantity() <= 0.0;
-                      SellRecord sellRecord =
-                          new SellRecord(
-                              imnt,
-                              date,
-                              acctType,
-                              soldQty,
-                              pnl,
-                              soldPps,
-                              preAcb,
-                              soldPrice,
-                              currentAcb,
-                              closingPosition);
-
-                      // init part
-                      Map<MarketDataProto.AccountType, TreeMap<Integer, List<SellRecord>>>
-                          acctDateSellMap =
-                              imntSellRecordMap.computeIfAbsent(imnt, k -> new HashMap<>());
-                      acctDateSellMap.computeIfAbsent(acctType, k -> new TreeMap<>());
-                      acctDateSellMap.get(acctType).computeIfAbsent(date, k -> new ArrayList<>());
-
-                      // actual insertion
-                      acctDateSellMap.get(acctType).get(date).add(sellRecord);
-                      sellRecs.incrementAndGet();
-                      totalSellPnL.addAndGet(pnl);
-                      log.info("{} -> {}", imnt, sellRecord);
-                    }
-                    node = node.getNext();
-                  }
-                }));
+        (imnt, accountTypeLedgerMap) ->
+            accountTypeLedgerMap.forEach(
+                (acctType, ledger) ->
+                    populateSellPnlData(imnt, acctType, ledger, sellRecs, totalSellPnL)));
     log.info(
         "Populated {} sell records, with a total sell pnL of ${}",
         sellRecs.get(),
         totalSellPnL.get());
   }
 
+  private void populateSellPnlData(
+      String imnt,
+      MarketDataProto.AccountType acctType,
+      PositionLedger ledger,
+      AtomicInteger sellRecs,
+      AtomicDouble totalSellPnL) {
+    for (int index = 0; index < ledger.size(); index++) {
+      if (ledger.isSell(index)) {
+        if (index == 0) {
+          log.error("Cannot handle short sell yet.");
+          break;
+        }
+        double soldQty = ledger.getQuantity(index);
+        double soldPps = ledger.getPricePerShare(index);
+        ACB preAcb = ledger.getAcb(index - 1);
+        ACB currentAcb = ledger.getAcb(index);
+        double pnl = (soldPps - preAcb.getAcbPerUnit()) * soldQty;
+        double soldPrice = ledger.getPrice(index);
+        int date = ledger.getDate(index);
+        boolean closingPosition = ledger.getRunningQuantity(index) <= 0.0;
+        SellRecord sellRecord =
+            new SellRecord(
+                imnt,
+                date,
+                acctType,
+                soldQty,
+                pnl,
+                soldPps,
+                preAcb,
+                soldPrice,
+                currentAcb,
+                closingPosition);
+
+        // init part
+        Map<MarketDataProto.AccountType, TreeMap<Integer, List<SellRecord>>> acctDateSellMap =
+            imntSellRecordMap.computeIfAbsent(imnt, k -> new HashMap<>());
+        acctDateSellMap.computeIfAbsent(acctType, k -> new TreeMap<>());
+        acctDateSellMap.get(acctType).computeIfAbsent(date, k -> new ArrayList<>());
+
+        // actual insertion
+        acctDateSellMap.get(acctType).get(date).add(sellRecord);
+        sellRecs.incrementAndGet();
+        totalSellPnL.addAndGet(pnl);
+        log.info("{} -> {}", imnt, sellRecord);
+      }
+    }
+  }
+
   private List<SellRecord> getSellRecords(
       Optional<MarketDataProto.AccountType> optionalAccountType) {
     Set<MarketDataProto.AccountType> filterAccountTypes =
@@ -1776,282 +2503,154 @@ public class CompleteMarketDataServiceImpl implements CompleteMarketDataService
       int dateIndex,
       int fallBackDaysLimit,
       TickerDataWarehouseService tickerDataWarehouseService,
-      List<LocalDate> dates,
-      DateLocalDateCache dateLocalDateCache) {
-    for (int tMinusDay = 1; tMinusDay <= fallBackDaysLimit && dateIndex-- > 0; tMinusDay++) {
-      int date = dateLocalDateCache.get(dates.get(dateIndex)).getAsInt();
-      Double marketPrice = tickerDataWarehouseService.getMarketData(imnt, date);
-      if (marketPrice != null) {
-        return Optional.ofNullable(Pair.of(marketPrice, date));
-      }
-    }
-    return Optional.empty();
+      List<LocalDate> dates) {
+    if (dateIndex <= 0) return Optional.empty();
+    // as-of lookup bounded by the date fallBackDaysLimit entries behind in the dates list
+    LocalDate tMinus1Date = dates.get(dateIndex).minusDays(1);
+    LocalDate limitDate = dates.get(Math.max(0, dateIndex - fallBackDaysLimit));
+    int maxLookBackDays = (int) ChronoUnit.DAYS.between(limitDate, tMinus1Date);
+
+    return tickerDataWarehouseService
+        .getMarketDataAsOf(imnt, DateFormatUtil.getDate(tMinus1Date), maxLookBackDays)
+        .map(asOf -> Pair.of(asOf.getRight(), asOf.getLeft()));
   }
 
-  // inflate realized pnl with dividend data
-  private void computeRealizedPnLFromDividends(List<LocalDate> dates) {
-    List<MarketDataProto.AccountType> accountTypes = getAccountTypes();
-    realizedImntWithDividendPnLMap.clear();
-    //    realizedImntWithDividendPnLMap.putAll(realizedImntPnLMap); // doesn't actually create new
-    // copies
-
-    // deep copy realizedImntPnLMap -> realizedImntWithDividendPnLMap
+  /**
+   * Running sum of sells + dividends per imnt x account type, aligned to the cube's dates: the
+   * realized pnl and dividends are scattered onto their date ordinals and prefix summed in one
+   * linear pass. Only imnt x account types with a sell or a dividend get a series
+   */
+  private void computeRealizedImntPnLFromDividends(PnLCube cube) {
+    Map<String, Map<MarketDataProto.AccountType, double[]>> imntSeriesMap = new HashMap<>();
     realizedImntPnLMap.forEach(
         (imnt, typeDatePriceMap) ->
             typeDatePriceMap.forEach(
                 (type, datePriceMap) ->
                     datePriceMap.forEach(
-                        (date, price) -> {
-                          Map<MarketDataProto.AccountType, TreeMap<Integer, Double>> imntMap =
-                              realizedImntWithDividendPnLMap.computeIfAbsent(
-                                  imnt, k -> new HashMap<>());
-                          Map<Integer, Double> dtPriceMap =
-                              imntMap.computeIfAbsent(type, k -> new TreeMap<>());
-                          dtPriceMap.put(date, price);
+                        (date, pnL) -> {
+                          double[] series = realizedImntSeries(imntSeriesMap, imnt, type, cube);
+                          series[cube.ordinalOf(date)] += pnL;
                         })));
-    // deep copy completed
-
-    // populate realizedImntWithDividendPnLMap
-    for (String dividendTicker : imntDividendsMap.keySet()) {
-      Map<MarketDataProto.AccountType, TreeMap<Integer, List<DividendRecord>>> accountTypeMapMap =
-          imntDividendsMap.get(dividendTicker);
-
-      accountTypeMapMap.forEach(
-          (accountType, dateRecordMap) ->
-              dateRecordMap.forEach(
-                  (date, records) -> {
-                    // init
-                    Map<MarketDataProto.AccountType, TreeMap<Integer, Double>> typeMapMap =
-                        realizedImntWithDividendPnLMap.computeIfAbsent(
-                            dividendTicker,
-                            k2 -> new HashMap<>()); // for CAD manufactured kind of things
-                    typeMapMap.computeIfAbsent(accountType, k1 -> new TreeMap<>());
-                    typeMapMap.get(accountType).putIfAbsent(0, 0.0); // baseline
-
-                    int dateTMinus1 =
-                        DateFormatUtil.getDate(dateLocalDateCache.get(date).get().minusDays(1));
-                    Double realizedPnLTMinus1 =
-                        typeMapMap.get(accountType).floorEntry(dateTMinus1).getValue();
-
-                    typeMapMap
-                        .get(accountType)
-                        .compute(
-                            date,
-                            (k1, v1) -> {
-                              double dividendSum = 0.0;
-                              for (DividendRecord record : records)
-                                dividendSum += record.dividend();
-                              return sanitizeDouble(v1)
-                                  + dividendSum
-                                  + sanitizeDouble(realizedPnLTMinus1);
-                            });
-                  }));
-    }
-
-    // compute for adding to realizedWithDividendDatePnLMap
-    realizedWithDividendDatePnLMap.put(0, new HashMap<>());
-    accountTypes.forEach(type -> realizedWithDividendDatePnLMap.get(0).put(type, 0.0)); // baseline
-    dates.forEach(
-        localDate -> {
-          int date = dateLocalDateCache.get(localDate).getAsInt();
-          realizedWithDividendDatePnLMap.putIfAbsent(date, new HashMap<>());
-          Map<MarketDataProto.AccountType, Double> typePnLRealizedWithDivDatePnLMap =
-              realizedWithDividendDatePnLMap.get(date);
-
-          accountTypes.forEach(
-              accountType -> {
-                typePnLRealizedWithDivDatePnLMap.putIfAbsent(accountType, 0.0);
-
-                //                System.out.println(date);
-                //                System.out.println(accountType);
-
-                int dateTMinus1 =
-                    DateFormatUtil.getDate(dateLocalDateCache.get(date).get().minusDays(1));
-                Double realizedTMinus1 =
-                    realizedWithDividendDatePnLMap
-                        .floorEntry(dateTMinus1)
-                        .getValue()
-                        .get(accountType);
-
-                Double dividendValue =
-                    dateDividendsMap.containsKey(date)
-                        ? dateDividendsMap.get(date).get(accountType)
-                        : null;
-                Double realizedValue =
-                    realizedDatePnLMap.containsKey(date)
-                        ? realizedDatePnLMap.get(date).get(accountType)
-                        : null;
-
-                double totalValue =
-                    sanitizeDouble(realizedTMinus1)
-                        + sanitizeDouble(dividendValue)
-                        + sanitizeDouble(realizedValue);
-                typePnLRealizedWithDivDatePnLMap.compute(
-                    accountType, (k, v) -> sanitizeDouble(v) + totalValue);
-              });
-        });
+    imntDividendsMap.forEach(
+        (imnt, typeDateRecordsMap) ->
+            typeDateRecordsMap.forEach(
+                (type, dateRecordsMap) ->
+                    dateRecordsMap.forEach(
+                        (date, records) -> {
+                          double[] series = realizedImntSeries(imntSeriesMap, imnt, type, cube);
+                          for (DividendRecord record : records)
+                            series[cube.ordinalOf(date)] += record.dividend();
+                        })));
+    imntSeriesMap.values().stream()
+        .flatMap(typeSeriesMap -> typeSeriesMap.values().stream())
+        .forEach(series -> MathUtil.prefixSum(series, 0, series.length));
+
+    realizedImntWithDividendPnLMap.clear();
+    realizedImntWithDividendPnLMap.putAll(imntSeriesMap);
+  }
+
+  private static double[] realizedImntSeries(
+      Map<String, Map<MarketDataProto.AccountType, double[]>> imntSeriesMap,
+      String imnt,
+      MarketDataProto.AccountType type,
+      PnLCube cube) {
+    return imntSeriesMap
+        .computeIfAbsent(imnt, k -> new HashMap<>())
+        .computeIfAbsent(type, k -> new double[cube.size()]);
+  }
+
+  /** Cumulative sells + dividends of the imnt x account type as of the date, 0 if there are none */
+  double getRealizedImntWithDividendPnL(String imnt, MarketDataProto.AccountType type, int date) {
+    Map<MarketDataProto.AccountType, double[]> typeSeriesMap =
+        realizedImntWithDividendPnLMap.get(imnt);
+    if (typeSeriesMap == null || !typeSeriesMap.containsKey(type)) return 0.0;
+    int ordinal = pnLCube.floorOrdinal(date);
+    return ordinal < 0 ? 0.0 : typeSeriesMap.get(type)[ordinal];
   }
 
   private Set<Integer> getDividendDates() {
     return dateDividendsMap.keySet();
   }
 
-  private void computeRealizedPnL(
-      String imnt, MarketDataProto.AccountType type, DataNode node, int date, Double soldPps) {
-    double sellQty = node.getInstrument().getQty();
-
-    double tickerPrice = node.getPrev().getAcb().getAcbPerUnit();
+  private double computeRealizedPnL(
+      String imnt,
+      MarketDataProto.AccountType type,
+      PositionLedger ledger,
+      int index,
+      int date,
+      double soldPps) {
+    double sellQty = ledger.getQuantity(index);
+
+    double tickerPrice = ledger.getAcbPerUnit(index - 1);
     double pnL = (soldPps - tickerPrice) * sellQty;
 
-    // if (date == TODAY_DATE)
+    // if (date == todayDate)
     log.info(
         "realized pnL {} x {} x {} x {} => mkt price '{}', qty '{}', ticker price '{}' => pnl= {}",
         imnt,
         type.name(),
         date,
-        node.getInstrument().getDirection().name(),
+        ledger.getDirection(index).name(),
         soldPps,
         sellQty,
         tickerPrice,
         pnL);
-    realizedDatePnLMap.computeIfAbsent(
-        date,
-        k -> {
-          Map<MarketDataProto.AccountType, Double> typePriceMap = new HashMap<>();
-          getAccountTypes().forEach(accountType -> typePriceMap.put(accountType, 0.0));
-          return typePriceMap;
-        });
-    realizedImntPnLMap.computeIfAbsent(
-        imnt,
-        k -> {
-          Map<MarketDataProto.AccountType, Map<Integer, Double>> typeDatePriceMap = new HashMap<>();
-          getAccountTypes()
-              .forEach(accountType -> typeDatePriceMap.put(accountType, new HashMap<>()));
-          return typeDatePriceMap;
-        });
-
-    realizedDatePnLMap.get(date).compute(type, (k, v) -> sanitizeDouble(v) + pnL);
-    realizedImntPnLMap.get(imnt).get(type).compute(date, (k, v) -> sanitizeDouble(v) + pnL);
+    return pnL;
   }
 
-  private void computeUnrealizedPnL(
-      String imnt, MarketDataProto.AccountType type, DataNode node, int date, Double marketPrice) {
-    double sellQty = node.getRunningQuantity();
-
-    double tickerPrice = node.getAcb().getAcbPerUnit();
+  private double computeUnrealizedPnL(
+      String imnt,
+      MarketDataProto.AccountType type,
+      PositionLedger ledger,
+      int index,
+      int date,
+      Double marketPrice) {
+    double sellQty = ledger.getRunningQuantity(index);
+
+    double tickerPrice = ledger.getAcbPerUnit(index);
     double pnL = (marketPrice - tickerPrice) * sellQty;
 
-    if (date == TODAY_DATE)
+    if (date == todayDate)
       log.info(
           "unrealized pnL {} x {} x {} x {} => mkt price '{}', qty '{}', ticker price '{}' => pnl= {}",
           imnt,
           type.name(),
           date,
-          node.getInstrument().getDirection().name(),
+          ledger.getDirection(index).name(),
           marketPrice,
           sellQty,
           tickerPrice,
           pnL);
-    unrealizedDatePnLMap.computeIfAbsent(
-        date,
-        k -> {
-          Map<MarketDataProto.AccountType, Double> typePriceMap = new HashMap<>();
-          getAccountTypes().forEach(accountType -> typePriceMap.put(accountType, 0.0));
-          return typePriceMap;
-        });
-    unrealizedImntPnLMap.computeIfAbsent(
-        imnt,
-        k -> {
-          Map<MarketDataProto.AccountType, TreeMap<Integer, Double>> typeDatePriceMap =
-              new HashMap<>();
-          getAccountTypes()
-              .forEach(accountType -> typeDatePriceMap.put(accountType, new TreeMap<>()));
-          return typeDatePriceMap;
-        });
-
-    unrealizedDatePnLMap.get(date).compute(type, (k, v) -> sanitizeDouble(v) + pnL);
-    unrealizedImntPnLMap.get(imnt).get(type).compute(date, (k, v) -> sanitizeDouble(v) + pnL);
-  }
-
-  private void computeCombinedPnL(List<LocalDate> dates) {
-    List<MarketDataProto.AccountType> accountTypes = getAccountTypes();
-
-    dates.forEach(
-        localDate -> {
-          int date = dateLocalDateCache.get(localDate).getAsInt();
-          for (MarketDataProto.AccountType type : accountTypes) {
-            Double unrealizedPnL = null;
-            Double realizedPnL = null;
-            if (unrealizedDatePnLMap.containsKey(date)) {
-              unrealizedPnL = unrealizedDatePnLMap.get(date).get(type);
-            }
-            if (realizedDatePnLMap.containsKey(date)) {
-              realizedPnL = realizedDatePnLMap.get(date).get(type);
-            }
-            if (realizedPnL == null && unrealizedPnL == null) {
-              continue;
-            }
-            double combinedPnL = sanitizeDouble(unrealizedPnL) + sanitizeDouble(realizedPnL);
-
-            if (date == TODAY_DATE)
-              log.info("combined pnL {} x {} => pnl= {}", date, type.name(), combinedPnL);
-
-            combinedDatePnLMap.computeIfAbsent(date, k -> new HashMap<>());
-            combinedDatePnLMap.get(date).compute(type, (k, v) -> sanitizeDouble(v) + combinedPnL);
-          }
-        });
-  }
-
-  private void computeCombinedPnLCumulative() {
-    combinedDatePnLCumulativeMap.putIfAbsent(0, new HashMap<>());
-    getAccountTypes()
-        .forEach(accountType -> combinedDatePnLCumulativeMap.get(0).put(accountType, 0.0));
-
-    combinedDatePnLMap.forEach(
-        (date, accountTypePnLMap) ->
-            accountTypePnLMap.forEach(
-                ((accountType, combinedPnL) -> {
-                  Double realizedImntWithDivPnL =
-                      realizedWithDividendDatePnLMap.floorEntry(date).getValue().get(accountType);
-                  Double unrealizedPnL =
-                      unrealizedDatePnLMap.containsKey(date)
-                          ? unrealizedDatePnLMap.get(date).get(accountType)
-                          : null;
-                  double cumulativeCombinedPnL =
-                      sanitizeDouble(realizedImntWithDivPnL) + sanitizeDouble(unrealizedPnL);
-                  Map<MarketDataProto.AccountType, Double> typeDoubleMap =
-                      combinedDatePnLCumulativeMap.computeIfAbsent(date, k -> new HashMap<>());
-                  typeDoubleMap.put(accountType, cumulativeCombinedPnL);
-                })));
+    return pnL;
   }
 
   private Map<String, Map<String, String>> getImntValuationPortfolioLevel(
       boolean includeDividendsForCurrentVal) {
     Map<String, Map<String, String>> imntValuationMap = new TreeMap<>();
     marketData.forEach(
-        (imnt, accountTypeDataListMap) -> {
+        (imnt, accountTypeLedgerMap) -> {
           Map<String, String> valuationDataMap = new HashMap<>();
 
           List<Double> values = Lists.newArrayList(0.0, 0.0, 0.0, 0.0);
           // 0 - book val, 1 - pnl, 2 - total div, 3 - qty
           List<String> accountTypes = new ArrayList<>();
-          accountTypeDataListMap.forEach(
-              (accountType, dataList) -> {
+          accountTypeLedgerMap.forEach(
+              (accountType, ledger) -> {
                 accountTypes.add(accountType.name());
 
-                DataNode node = dataList.getTail();
-                double bookVal = node.getAcb().getAcbPerUnit() * node.getRunningQuantity();
+                int latest = ledger.latest();
+                double bookVal = ledger.getAcbPerUnit(latest) * ledger.getRunningQuantity(latest);
                 double pnl =
                     unrealizedImntPnLMap
                         .get(imnt)
                         .get(accountType)
-                        .floorEntry(TODAY_DATE)
+                        .floorEntry(todayDate)
                         .getValue();
                 double totalDiv =
                     cumulativeImntDividendsMap.containsKey(imnt)
                         ? cumulativeImntDividendsMap.get(imnt).getOrDefault(accountType, 0.0)
                         : 0.0;
-                double qty = node.getRunningQuantity(); // from the tail
+                double qty = ledger.getRunningQuantity(latest); // from the latest entry
 
                 values.set(0, values.get(0) + bookVal);
                 values.set(
@@ -2080,8 +2679,8 @@ public class CompleteMarketDataServiceImpl implements CompleteMarketDataService
     return imntValuationMap;
   }
 
-  private int getDate(DataNode node) {
-    return node.getInstrument().getTicker().getData(0).getDate();
+  private double getLatestRunningQuantity(PositionLedger ledger) {
+    return ledger.getRunningQuantity(ledger.latest());
   }
 
   /**
@@ -1,25 +1,22 @@
 package com.vv.personal.twm.portfolio.service.impl;
 
-import com.google.common.collect.HashBasedTable;
-import com.google.common.collect.Lists;
-import com.google.common.collect.Table;
 import com.vv.personal.twm.portfolio.cache.DateLocalDateCache;
+import com.vv.personal.twm.portfolio.model.market.CorrelationMatrix;
+import com.vv.personal.twm.portfolio.model.market.PriceSeries;
 import com.vv.personal.twm.portfolio.remote.market.max_weight.InstrumentMaxWeight;
 import com.vv.personal.twm.portfolio.service.ComputeMarketStatisticsService;
 import com.vv.personal.twm.portfolio.service.TickerDataWarehouseService;
-import com.vv.personal.twm.portfolio.util.math.StatisticsUtil;
-import java.time.LocalDate;
-import java.util.ArrayList;
+import com.vv.personal.twm.portfolio.util.math.CorrelationEngine;
+import com.vv.personal.twm.portfolio.util.math.RunningCorrelation;
+import com.vv.personal.twm.portfolio.util.math.SeriesStatisticsUtil;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
@@ -39,8 +36,9 @@ public class ComputeMarketStatisticsServiceImpl implements ComputeMarketStatisti
   private final TickerDataWarehouseService tickerDataWarehouseService;
   private final InstrumentMaxWeight instrumentMaxWeight;
 
-  private final Map<ImntDatesRecord, Optional<List<Double>>> tmpImntDatesRecordListMap =
+  private final Map<ImntDatesRecord, Optional<double[]>> tmpImntDatesRecordListMap =
       new ConcurrentHashMap<>();
+  private final AtomicReference<CorrelationState> correlationState = new AtomicReference<>();
 
   /** CAPM */
   @Override
@@ -50,22 +48,25 @@ public class ComputeMarketStatisticsServiceImpl implements ComputeMarketStatisti
 
   @Override
   public Optional<Double> computeBeta(String instrument, String marketSymbol, List<Integer> dates) {
-    List<Double> imntValues = new ArrayList<>(dates.size());
-    List<Double> marketValues = new ArrayList<>(dates.size());
-
-    for (Integer date : dates) {
-      LocalDate localDate = dateLocalDateCache.getOrCalc(date);
-      Double imntPrice = tickerDataWarehouseService.getMarketData(instrument, localDate);
-      Double marketPrice = tickerDataWarehouseService.getMarketData(marketSymbol, localDate);
-      if (imntPrice != null && marketPrice != null) {
-        imntValues.add(imntPrice);
-        marketValues.add(marketPrice);
+    PriceSeries imntSeries = tickerDataWarehouseService.getSeries(instrument, dates);
+    PriceSeries marketSeries = tickerDataWarehouseService.getSeries(marketSymbol, dates);
+    double[] imntValues = new double[dates.size()];
+    double[] marketValues = new double[dates.size()];
+
+    int count = 0;
+    for (int i = 0; i < dates.size(); i++) {
+      if (imntSeries.isValid(i) && marketSeries.isValid(i)) {
+        imntValues[count] = imntSeries.price(i);
+        marketValues[count++] = marketSeries.price(i);
       }
     }
+    imntValues = Arrays.copyOf(imntValues, count);
+    marketValues = Arrays.copyOf(marketValues, count);
 
-    Optional<Double> covariance = StatisticsUtil.calculateCoVariance(imntValues, marketValues);
+    Optional<Double> covariance =
+        SeriesStatisticsUtil.calculateCoVariance(imntValues, marketValues);
     if (covariance.isPresent()) {
-      Optional<Double> variance = StatisticsUtil.calculateVariance(marketValues, Optional.empty());
+      Optional<Double> variance = SeriesStatisticsUtil.calculateVariance(marketValues);
       if (variance.isPresent()) {
         return Optional.of(covariance.get() / variance.get());
       }
@@ -82,19 +83,15 @@ public class ComputeMarketStatisticsServiceImpl implements ComputeMarketStatisti
   @Override
   public Optional<Double> computeStandardDeviationInFormOfEWMAVol(
       String instrument, List<Integer> dates) {
-    List<Double> imntValues = new ArrayList<>(dates.size());
-    for (int i = 0; i < dates.size(); i++) {
-      Double value = tickerDataWarehouseService.getMarketData(instrument, dates.get(i));
-      if (value != null) imntValues.add(value);
-    }
-    Optional<List<Double>> logReturns = StatisticsUtil.calculateLogarithmicDelta(imntValues);
+    double[] imntValues = tickerDataWarehouseService.getSeries(instrument, dates).validPrices();
+    Optional<double[]> logReturns = SeriesStatisticsUtil.calculateLogarithmicDelta(imntValues);
     if (logReturns.isPresent()) {
-      double variance = Math.pow(logReturns.get().get(0), 2);
+      double[] returns = logReturns.get();
+      double variance = returns[0] * returns[0];
       final double COUNTER_LAMBDA = 1 - LAMBDA_EWMA_VOL;
 
-      for (int i = 1; i < logReturns.get().size(); i++) {
-        variance =
-            LAMBDA_EWMA_VOL * variance + COUNTER_LAMBDA * Math.pow(logReturns.get().get(i), 2);
+      for (int i = 1; i < returns.length; i++) {
+        variance = LAMBDA_EWMA_VOL * variance + COUNTER_LAMBDA * returns[i] * returns[i];
       }
 
       double dailyStdDev = Math.sqrt(variance);
@@ -116,12 +113,13 @@ public class ComputeMarketStatisticsServiceImpl implements ComputeMarketStatisti
     double rsi = 50.0; // Default to neutral
     if (dates.size() <= timeFrame) return Optional.of(rsi);
 
-    List<Double> prices = new ArrayList<>();
     int lookback = Math.min(dates.size(), 252);
-    for (int i = dates.size() - lookback; i < dates.size(); i++)
-      prices.add(tickerDataWarehouseService.getMarketData(instrument, dates.get(i)));
+    double[] prices =
+        tickerDataWarehouseService
+            .getSeries(instrument, dates.subList(dates.size() - lookback, dates.size()))
+            .validPrices();
 
-    if (prices.size() <= timeFrame) {
+    if (prices.length <= timeFrame) {
       log.warn("Lesser price points found for {} than the timeframe {}", instrument, timeFrame);
       return Optional.of(rsi);
     }
@@ -131,7 +129,7 @@ public class ComputeMarketStatisticsServiceImpl implements ComputeMarketStatisti
 
     // Initial average
     for (int i = 1; i <= timeFrame; i++) {
-      double change = prices.get(i) - prices.get(i - 1);
+      double change = prices[i] - prices[i - 1];
       if (change > 0) avgGain += change;
       else avgLoss += Math.abs(change);
     }
@@ -139,8 +137,8 @@ public class ComputeMarketStatisticsServiceImpl implements ComputeMarketStatisti
     avgLoss /= timeFrame;
 
     // Smoothed averages (Wilder's method)
-    for (int i = timeFrame + 1; i < prices.size(); i++) {
-      double change = prices.get(i) - prices.get(i - 1);
+    for (int i = timeFrame + 1; i < prices.length; i++) {
+      double change = prices[i] - prices[i - 1];
       double currentGain = Math.max(0, change);
       double currentLoss = Math.max(0, -change);
 
@@ -210,13 +208,14 @@ public class ComputeMarketStatisticsServiceImpl implements ComputeMarketStatisti
       return Optional.empty();
     }
 
+    PriceSeries series =
+        tickerDataWarehouseService.getSeries(
+            instrument, dates.subList(dates.size() - timeFrame, dates.size()));
     double sum = 0.0;
     int count = 0;
-    for (int i = dates.size() - 1; i >= 0 && timeFrame-- > 0; i--) {
-      LocalDate localDate = dateLocalDateCache.getOrCalc(dates.get(i));
-      Double price = tickerDataWarehouseService.getMarketData(instrument, localDate);
-      if (price != null) {
-        sum += price;
+    for (int i = 0; i < series.size(); i++) {
+      if (series.isValid(i)) {
+        sum += series.price(i);
         count++;
       }
     }
@@ -247,9 +246,6 @@ public class ComputeMarketStatisticsServiceImpl implements ComputeMarketStatisti
     }
     if (instrument1.equals(instrument2)) return Optional.of(1.0);
 
-    Optional<List<Double>> imnt1Values = Optional.empty();
-    Optional<List<Double>> imnt2Values = Optional.empty();
-
     log.debug(
         "Firing up compute of correlation for imnts {} and {} for {} dates",
         instrument1,
@@ -259,35 +255,8 @@ public class ComputeMarketStatisticsServiceImpl implements ComputeMarketStatisti
 
     Optional<Double> correlation = Optional.empty();
     try {
-      ExecutorService dualExecutor = Executors.newFixedThreadPool(2);
-      try {
-        List<Future<Optional<List<Double>>>> imntValues =
-            dualExecutor.invokeAll(
-                Lists.newArrayList(
-                    generateInstrumentValueReadFromWarehouseTask(instrument1, dates),
-                    generateInstrumentValueReadFromWarehouseTask(instrument2, dates)),
-                30,
-                TimeUnit.SECONDS);
-        dualExecutor.shutdown();
-
-        if (imntValues.size() != 2) {
-          log.error(
-              "Failed to compute correlation properly between instruments {} and {} for {} dates",
-              instrument1,
-              instrument2,
-              dates.size());
-          return Optional.empty();
-        }
-        imnt1Values = imntValues.get(0).get();
-        imnt2Values = imntValues.get(1).get();
-      } catch (InterruptedException | ExecutionException e) {
-        log.error(
-            "Failed to successfully read imnt values for {} and {} for {} dates from warehouse",
-            instrument1,
-            instrument2,
-            dates.size(),
-            e);
-      }
+      Optional<double[]> imnt1Values = readLogReturns(instrument1, dates);
+      Optional<double[]> imnt2Values = readLogReturns(instrument2, dates);
       if (imnt1Values.isEmpty() || imnt2Values.isEmpty()) {
         log.error(
             "Failed to compute correlation between instruments {} and {} for {} dates",
@@ -297,7 +266,7 @@ public class ComputeMarketStatisticsServiceImpl implements ComputeMarketStatisti
         return Optional.empty();
       }
 
-      correlation = StatisticsUtil.calculateCorrelation(imnt1Values.get(), imnt2Values.get());
+      correlation = SeriesStatisticsUtil.calculateCorrelation(imnt1Values.get(), imnt2Values.get());
       log.debug("Correlation between {} x {}: {}", instrument1, instrument2, correlation);
     } catch (Exception e) {
       log.error(
@@ -319,7 +288,7 @@ public class ComputeMarketStatisticsServiceImpl implements ComputeMarketStatisti
   }
 
   @Override
-  public Optional<Table<String, String, Double>> computeCorrelationMatrix(
+  public Optional<CorrelationMatrix> computeCorrelationMatrix(
       List<String> instruments, List<Integer> dates) {
     if (instruments.isEmpty() || dates.isEmpty()) {
       log.error("Can't compute correlation for empty instruments or dates.");
@@ -328,44 +297,107 @@ public class ComputeMarketStatisticsServiceImpl implements ComputeMarketStatisti
     log.info("Activating correlation matrix computation for {} instruments", instruments.size());
     StopWatch timer = StopWatch.createStarted();
 
-    Table<String, String, Double> correlationMatrix = HashBasedTable.create();
-    // initial population fill up
-    for (int i = 0; i < instruments.size(); i++)
-      for (int j = 0; j < instruments.size(); j++)
-        correlationMatrix.put(instruments.get(i), instruments.get(j), 0.0);
+    try {
+      List<String> symbols = instruments.stream().distinct().toList();
+      return Optional.of(
+          CorrelationEngine.compute(
+              symbols,
+              imnt -> tickerDataWarehouseService.getSeries(imnt, dates),
+              ForkJoinPool.commonPool()));
+    } catch (Exception e) {
+      log.error("Failed to compute correlation matrix for {} instruments", instruments.size(), e);
+      return Optional.empty();
+    } finally {
+      timer.stop();
+      log.info("Correlation Matrix computation took {} ms", timer.getTime(TimeUnit.MILLISECONDS));
+      timer = null;
+    }
+  }
+
+  @Override
+  public synchronized Optional<CorrelationMatrix> computeCorrelationMatrixIncrementally(
+      List<String> instruments, List<Integer> dates) {
+    if (instruments.isEmpty() || dates.isEmpty()) {
+      log.error("Can't compute correlation for empty instruments or dates.");
+      return Optional.empty();
+    }
+    StopWatch timer = StopWatch.createStarted();
+    // sorted, so that the universe compares equal across reloads
+    List<String> symbols = instruments.stream().distinct().sorted().toList();
+    long revision = tickerDataWarehouseService.getHistoryRevision();
+    CorrelationState state = correlationState.get();
 
     try {
-      ExecutorService heavyExecutor = Executors.newFixedThreadPool(8);
-
-      List<Callable<Void>> correlationComputeTasks =
-          new ArrayList<>(instruments.size() * instruments.size() / 2);
-      for (int i = 0; i < instruments.size(); i++)
-        for (int j = i; j < instruments.size(); j++)
-          correlationComputeTasks.add(
-              generateCorrelationComputeTask(
-                  instruments.get(i), instruments.get(j), dates, correlationMatrix));
-      log.info(
-          "Generation of {} tasks ({}C2) for correlation compute completed",
-          correlationComputeTasks.size(),
-          instruments.size());
-
-      log.info("Initiating heavy executor correlation compute now");
-      try {
-        heavyExecutor.invokeAll(correlationComputeTasks);
-      } catch (InterruptedException e) {
-        log.error(
-            "Interrupted while running through the correlation compute tasks in the heavy executor",
-            e);
-      } finally {
-        heavyExecutor.shutdown();
+      RunningCorrelation running;
+      if (state != null && state.canRollForwardTo(symbols, dates, revision)) {
+        running = state.running();
+        int fromIndex = state.dates().size() - 1;
+        double[][] dayPrices = new double[dates.size() - fromIndex][symbols.size()];
+        boolean[][] dayValid = new boolean[dayPrices.length][symbols.size()];
+        for (int i = 0; i < symbols.size(); i++) {
+          PriceSeries series =
+              tickerDataWarehouseService.getSeries(
+                  symbols.get(i), dates.subList(fromIndex, dates.size()));
+          for (int day = 0; day < dayPrices.length; day++) {
+            dayPrices[day][i] = series.price(day);
+            dayValid[day][i] = series.isValid(day);
+          }
+        }
+
+        boolean replaced = running.replaceLatestDay(dayPrices[0], dayValid[0]);
+        for (int day = 1; day < dayPrices.length; day++)
+          running.appendDay(dayPrices[day], dayValid[day]);
+        log.info(
+            "Rolled correlation matrix of {} instruments forward by {} days, latest day revised: {}",
+            symbols.size(),
+            dayPrices.length - 1,
+            replaced);
+      } else {
+        log.info(
+            "Full correlation matrix compute for {} instruments over {} dates",
+            symbols.size(),
+            dates.size());
+        running =
+            RunningCorrelation.build(
+                symbols,
+                imnt -> tickerDataWarehouseService.getSeries(imnt, dates),
+                ForkJoinPool.commonPool());
       }
+      correlationState.set(new CorrelationState(symbols, List.copyOf(dates), revision, running));
+      return Optional.of(running.toMatrix());
+    } catch (Exception e) {
+      log.error("Failed to compute correlation matrix for {} instruments", symbols.size(), e);
+      correlationState.set(null);
+      return Optional.empty();
     } finally {
       timer.stop();
-      log.info("Correlation Matrix computation took {} ms", timer.getTime(TimeUnit.MILLISECONDS));
+      log.info(
+          "Incremental correlation matrix computation took {} ms",
+          timer.getTime(TimeUnit.MILLISECONDS));
       timer = null;
     }
+  }
+
+  @Override
+  public Optional<double[]> computeCorrelationRow(
+      String instrument, List<String> instruments, List<Integer> dates) {
+    if (StringUtils.isEmpty(instrument) || instruments.isEmpty() || dates.isEmpty()) {
+      log.error("Can't compute correlation for empty instruments or dates.");
+      return Optional.empty();
+    }
+    try {
+      return Optional.of(
+          CorrelationEngine.computeRow(
+              instruments, instrument, imnt -> tickerDataWarehouseService.getSeries(imnt, dates)));
+    } catch (Exception e) {
+      log.error("Failed to compute correlation row of {}", instrument, e);
+      return Optional.empty();
+    }
+  }
 
-    return Optional.of(correlationMatrix);
+  @Override
+  public void evictInstrument(String instrument) {
+    tmpImntDatesRecordListMap.keySet().removeIf(record -> record.imnt().equals(instrument));
   }
 
   @Override
@@ -373,50 +405,39 @@ public class ComputeMarketStatisticsServiceImpl implements ComputeMarketStatisti
     tmpImntDatesRecordListMap.clear();
   }
 
-  private Callable<Optional<List<Double>>> generateInstrumentValueReadFromWarehouseTask(
-      String imnt, List<Integer> dates) {
-    return () -> {
-      ImntDatesRecord record =
-          new ImntDatesRecord(imnt, dates.get(0), dates.get(dates.size() - 1), dates.size());
-      if (tmpImntDatesRecordListMap.containsKey(record)) { // cache hit
-        return tmpImntDatesRecordListMap.get(record);
-      }
-
-      List<Double> imntValues = new ArrayList<>(dates.size());
-      for (int i = 0; i < dates.size(); i++) {
-        Double value = tickerDataWarehouseService.getMarketData(imnt, dates.get(i));
-        if (value != null) imntValues.add(value);
-      }
-      // convert the raw prices to log returns
-      Optional<List<Double>> logImntValues = StatisticsUtil.calculateLogarithmicDelta(imntValues);
-      imntValues = null; // dump memory
+  private Optional<double[]> readLogReturns(String imnt, List<Integer> dates) {
+    ImntDatesRecord record =
+        new ImntDatesRecord(imnt, dates.get(0), dates.get(dates.size() - 1), dates.size());
+    if (tmpImntDatesRecordListMap.containsKey(record)) { // cache hit
+      return tmpImntDatesRecordListMap.get(record);
+    }
 
-      if (logImntValues.isPresent()) {
-        tmpImntDatesRecordListMap.put(record, logImntValues); // populate tmp cache
-      } else {
-        log.warn("Failed to calculate logarithmic delta for imnt {}", imnt);
-      }
-      log.debug("imnt {} => log returns {}", imnt, logImntValues);
-      return logImntValues;
-    };
-  }
+    double[] imntValues = tickerDataWarehouseService.getSeries(imnt, dates).validPrices();
+    // convert the raw prices to log returns
+    Optional<double[]> logImntValues = SeriesStatisticsUtil.calculateLogarithmicDelta(imntValues);
+    imntValues = null; // dump memory
 
-  private Callable<Void> generateCorrelationComputeTask(
-      String instrument1,
-      String instrument2,
-      List<Integer> dates,
-      Table<String, String, Double> correlationMatrix) {
-    return () -> {
-      Optional<Double> correlation = computeCorrelation(instrument1, instrument2, dates);
-      if (correlation.isPresent()) {
-        correlationMatrix.put(instrument1, instrument2, correlation.get());
-        correlationMatrix.put(instrument2, instrument1, correlation.get());
-      } else {
-        log.error("Failed to compute correlation for {} x {}", instrument1, instrument2);
-      }
-      return null;
-    };
+    if (logImntValues.isPresent()) {
+      tmpImntDatesRecordListMap.put(record, logImntValues); // populate tmp cache
+    } else {
+      log.warn("Failed to calculate logarithmic delta for imnt {}", imnt);
+    }
+    log.debug("imnt {} => log returns {}", imnt, logImntValues.map(Arrays::toString));
+    return logImntValues;
   }
 
   private record ImntDatesRecord(String imnt, int startDate, int endDate, int dateCounts) {}
+
+  private record CorrelationState(
+      List<String> symbols, List<Integer> dates, long revision, RunningCorrelation running) {
+
+    /** Same universe, untouched history, and the dates only extend what was computed before */
+    boolean canRollForwardTo(List<String> symbols, List<Integer> dates, long revision) {
+      return this.revision == revision
+          && this.symbols.equals(symbols)
+          && this.dates.size() >= 2
+          && dates.size() >= this.dates.size()
+          && dates.subList(0, this.dates.size()).equals(this.dates);
+    }
+  }
 }
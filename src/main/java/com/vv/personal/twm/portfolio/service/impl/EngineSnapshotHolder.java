@@ -0,0 +1,187 @@
+package com.vv.personal.twm.portfolio.service.impl;
+
+import com.vv.personal.twm.portfolio.cache.KeyInstrumentValueCache;
+import com.vv.personal.twm.portfolio.model.market.PriceUpdate;
+import com.vv.personal.twm.portfolio.service.CompleteBankDataService;
+import com.vv.personal.twm.portfolio.service.CompleteMarketDataService;
+import com.vv.personal.twm.portfolio.warehouse.market.impl.EpochTickerDataWarehouseImpl;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.time.StopWatch;
+
+/**
+ * Holds the live bank and market data state as one snapshot, which readers go through. A reload
+ * prepares a fresh snapshot off the factories, loads it in the background while readers keep using
+ * the live one, and publishes it with a single reference swap. Nothing is ever cleared under a
+ * reader; the replaced snapshot is left to the garbage collector once in-flight reads on it are
+ * done.
+ *
+ * <p>Every published snapshot, be it off a reload or an {@link #update}, gets the next data epoch.
+ * A request pins the snapshot live when it came in, so all its reads are of the one epoch even if
+ * another is published mid way, and none of them wait on the writer. An update's prices go into the
+ * ticker data warehouse as of its epoch, so the pinned reads do not see them either. A reload
+ * however loads its prices into the warehouse as it goes, which readers of the live snapshot see
+ * ahead of its publish.
+ *
+ * @author Vivek
+ * @since 2026-10-18
+ */
+@Slf4j
+public class EngineSnapshotHolder {
+  private static final long MB = 1024 * 1024;
+
+  private final Supplier<CompleteBankDataService> bankDataServiceFactory;
+  private final Supplier<CompleteMarketDataService> marketDataServiceFactory;
+  private final KeyInstrumentValueCache keyInstrumentValueCache;
+  private final EpochTickerDataWarehouseImpl tickerDataWarehouse;
+  private final MemoryMXBean memoryMXBean = ManagementFactory.getMemoryMXBean();
+  private final AtomicReference<Snapshot> live;
+  private final ThreadLocal<Snapshot> pinned = new ThreadLocal<>();
+  private final TreeMap<Long, Integer> pinnedEpochs = new TreeMap<>(); // guarded by itself
+  private Snapshot building; // guarded by this
+  private StopWatch buildTimer;
+  private long heapBefore;
+
+  public record Snapshot(
+      long epoch,
+      CompleteBankDataService bankDataService,
+      CompleteMarketDataService marketDataService) {}
+
+  public EngineSnapshotHolder(
+      Supplier<CompleteBankDataService> bankDataServiceFactory,
+      Supplier<CompleteMarketDataService> marketDataServiceFactory,
+      KeyInstrumentValueCache keyInstrumentValueCache,
+      EpochTickerDataWarehouseImpl tickerDataWarehouse) {
+    this.bankDataServiceFactory = bankDataServiceFactory;
+    this.marketDataServiceFactory = marketDataServiceFactory;
+    this.keyInstrumentValueCache = keyInstrumentValueCache;
+    this.tickerDataWarehouse = tickerDataWarehouse;
+    this.live = new AtomicReference<>(newSnapshot(0)); // empty until the first load
+    tickerDataWarehouse.setDataEpoch(() -> get().epoch());
+  }
+
+  /** The snapshot pinned to this thread, else the live one */
+  public Snapshot get() {
+    Snapshot snapshot = pinned.get();
+    return snapshot == null ? live.get() : snapshot;
+  }
+
+  /** Pins the live snapshot to this thread, for its reads until {@link #unpin()} */
+  public Snapshot pin() {
+    Snapshot snapshot;
+    synchronized (pinnedEpochs) {
+      snapshot = live.get();
+      pinnedEpochs.merge(snapshot.epoch(), 1, Integer::sum);
+    }
+    pinned.set(snapshot);
+    return snapshot;
+  }
+
+  public void unpin() {
+    Snapshot snapshot = pinned.get();
+    pinned.remove();
+    if (snapshot == null) return;
+    synchronized (pinnedEpochs) {
+      pinnedEpochs.computeIfPresent(snapshot.epoch(), (epoch, pins) -> pins == 1 ? null : pins - 1);
+    }
+  }
+
+  /**
+   * Starts a new, empty snapshot off the factories, to be loaded and then published or aborted. The
+   * live one keeps serving reads meanwhile, but rejects writes, as they would not make it into the
+   * new one. Only one snapshot is built at a time.
+   */
+  public synchronized Snapshot prepare() {
+    if (building != null)
+      throw new IllegalStateException("An engine snapshot is already being built");
+    live.get().marketDataService().setReloadInProgress(true);
+    tickerDataWarehouse.settlePrices(Long.MAX_VALUE); // the reload loads over them
+    buildTimer = StopWatch.createStarted();
+    heapBefore = usedHeap();
+    building = newSnapshot(live.get().epoch() + 1); // no updates are published while it builds
+    return building;
+  }
+
+  /**
+   * Applies the change to a copy of the live market data and publishes that as the next epoch, if
+   * the change reports it was made. The prices, fetched ahead by the caller as nothing remote is to
+   * be called under the lock, go into the warehouse as of that epoch: the change reads them, the
+   * readers of the live one do not, and they are dropped if the change is not made. Rejected while
+   * a snapshot is being built, as the change would not make it into that one.
+   */
+  public synchronized boolean update(
+      PriceUpdate prices, Predicate<CompleteMarketDataService> change) {
+    if (building != null) {
+      log.warn("Engine snapshot being built, not taking updates");
+      return false;
+    }
+    Snapshot current = live.get();
+    long epoch = current.epoch() + 1;
+    tickerDataWarehouse.putPrices(epoch, prices);
+    Snapshot readerPin = pinned.get();
+    boolean changed = false;
+    try {
+      Snapshot next =
+          new Snapshot(epoch, current.bankDataService(), current.marketDataService().copy());
+      pinned.set(next); // the change reads as of the epoch it is to be published as
+      changed = change.test(next.marketDataService());
+      if (changed) live.set(next);
+    } finally {
+      if (readerPin == null) pinned.remove();
+      else pinned.set(readerPin);
+      if (!changed) tickerDataWarehouse.dropPrices(epoch);
+    }
+    if (changed) tickerDataWarehouse.settlePrices(oldestReadEpoch());
+    return changed;
+  }
+
+  /** Swaps in the loaded snapshot from {@link #prepare()} */
+  public synchronized void publish(Snapshot next) {
+    if (next == null || next != building)
+      throw new IllegalStateException("Only the snapshot being built can be published");
+    long heapOverlap = usedHeap();
+    live.set(next);
+    building = null;
+    keyInstrumentValueCache.flushAll(); // values derived off the replaced snapshot
+    buildTimer.stop();
+    log.info(
+        "Swapped in new engine snapshot of epoch {} after {}ms. Heap used: {}MB before the build, {}MB with"
+            + " both snapshots live (~{}MB for the new one), {}MB max",
+        next.epoch(),
+        buildTimer.getTime(TimeUnit.MILLISECONDS),
+        heapBefore / MB,
+        heapOverlap / MB,
+        Math.max(0, heapOverlap - heapBefore) / MB,
+        memoryMXBean.getHeapMemoryUsage().getMax() / MB);
+  }
+
+  /** Drops the snapshot being built, if any, leaving the live one as it was */
+  public synchronized void abort() {
+    if (building == null) return;
+    building = null;
+    live.get().marketDataService().setReloadInProgress(false); // takes writes again
+    log.warn("Dropped the engine snapshot being built, keeping the live one");
+  }
+
+  /** The epoch of the longest pinned reader, else the live one */
+  private long oldestReadEpoch() {
+    synchronized (pinnedEpochs) {
+      long epoch = live.get().epoch();
+      return pinnedEpochs.isEmpty() ? epoch : Math.min(epoch, pinnedEpochs.firstKey());
+    }
+  }
+
+  private Snapshot newSnapshot(long epoch) {
+    return new Snapshot(epoch, bankDataServiceFactory.get(), marketDataServiceFactory.get());
+  }
+
+  private long usedHeap() {
+    return memoryMXBean.getHeapMemoryUsage().getUsed();
+  }
+}
@@ -18,6 +18,7 @@ import com.vv.personal.twm.portfolio.service.DiscoveryClientService;
 import com.vv.personal.twm.portfolio.service.ExecutorProviderService;
 import com.vv.personal.twm.portfolio.service.InstrumentMetaDataService;
 import com.vv.personal.twm.portfolio.util.DateFormatUtil;
+import com.vv.personal.twm.portfolio.util.MarketClock;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -100,6 +101,7 @@ public class InstrumentMetaDataServiceImpl implements InstrumentMetaDataService
 
   @Setter private int benchMarkCurrentDate = -1;
   @Setter private OutdatedSymbols outdatedSymbols;
+  @Setter private MarketClock marketClock = MarketClock.system();
 
   @Override
   public boolean load(int benchMarkCurrentDate, boolean forceReloadDataForCurrentDate) {
@@ -460,9 +462,7 @@ public class InstrumentMetaDataServiceImpl implements InstrumentMetaDataService
       MarketDataProto.Ticker.Builder tickerBuilder = MarketDataProto.Ticker.newBuilder();
       tickerBuilder.setSymbol(imnt);
       tickerBuilder.addData(
-          MarketDataProto.Value.newBuilder()
-              .setDate(DateFormatUtil.getDate(LocalDate.now()))
-              .build());
+          MarketDataProto.Value.newBuilder().setDate(marketClock.todayDate()).build());
 
       Map<String, String> kvMap =
           dataPacket.getStringStringMap(); // todo fix this in twm-artifactory?
@@ -677,8 +677,7 @@ public class InstrumentMetaDataServiceImpl implements InstrumentMetaDataService
     imntBuilder.addAllCorporateActions(corporateActions);
 
     if (!existingCorporateActions.isEmpty()) {
-      LocalDate tDate = DateFormatUtil.getLocalDate(CompleteMarketDataServiceImpl.TODAY_DATE);
-      // todo - shift to a specialized date component
+      LocalDate tDate = marketClock.today();
 
       for (MarketDataProto.CorporateAction corporateAction : existingCorporateActions) {
         boolean retain = true;
@@ -0,0 +1,127 @@
+package com.vv.personal.twm.portfolio.service.impl;
+
+import com.vv.personal.twm.portfolio.model.tracking.ProgressTracker;
+import com.vv.personal.twm.portfolio.service.ProgressTrackerService;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.time.StopWatch;
+
+/**
+ * A load as a graph of named phases, each declaring the phases it depends on. A phase starts as
+ * soon as its dependencies are done, so independent ones run concurrently on the given executor.
+ * Dependencies have to be declared before their dependents, which keeps the graph acyclic.
+ *
+ * <p>Each phase publishes its progress tracker, if any, when it starts and its timing when done.
+ * The load can be cancelled between phases: a phase yet to start when cancelled is skipped, along
+ * with everything after it.
+ *
+ * @author Vivek
+ * @since 2026-10-18
+ */
+@Slf4j
+public final class LoadPhaseGraph {
+  private final ProgressTrackerService progressTrackerService;
+  private final String clientId;
+  private final Map<String, Phase> phases;
+  private BooleanSupplier cancelled = () -> false;
+  private Set<String> runningPhases; // null if not tracked
+
+  private record Phase(
+      String name, ProgressTracker progressTracker, Runnable task, List<String> dependsOn) {}
+
+  public LoadPhaseGraph(ProgressTrackerService progressTrackerService, String clientId) {
+    this.progressTrackerService = progressTrackerService;
+    this.clientId = clientId;
+    this.phases = new LinkedHashMap<>();
+  }
+
+  public LoadPhaseGraph phase(
+      String name, ProgressTracker progressTracker, Runnable task, String... dependsOn) {
+    if (phases.containsKey(name))
+      throw new IllegalArgumentException("Load phase " + name + " is already declared");
+    for (String dependency : dependsOn) {
+      if (!phases.containsKey(dependency))
+        throw new IllegalArgumentException(
+            "Load phase " + name + " depends on undeclared phase " + dependency);
+    }
+    phases.put(name, new Phase(name, progressTracker, task, List.of(dependsOn)));
+    return this;
+  }
+
+  /** Checked before each phase starts, which is cancelled once it turns true */
+  public LoadPhaseGraph cancelWhen(BooleanSupplier cancelled) {
+    this.cancelled = cancelled;
+    return this;
+  }
+
+  /** Keeps the names of the phases running in the given set, which has to be thread safe */
+  public LoadPhaseGraph trackRunningPhases(Set<String> runningPhases) {
+    this.runningPhases = runningPhases;
+    return this;
+  }
+
+  /**
+   * Runs all phases and blocks until each is done or skipped. A failed phase skips the phases
+   * depending on it, while the independent ones run to the end; the failure is then rethrown. A
+   * cancelled load throws a {@link CancellationException}.
+   */
+  public void run(Executor executor) {
+    progressTrackerService.expectPhases(clientId, phases.size());
+    Map<String, CompletableFuture<Void>> futures = new HashMap<>();
+    for (Phase phase : phases.values()) {
+      CompletableFuture<?>[] dependencies =
+          phase.dependsOn().stream().map(futures::get).toArray(CompletableFuture[]::new);
+      futures.put(
+          phase.name(),
+          CompletableFuture.allOf(dependencies).thenRunAsync(() -> run(phase), executor));
+    }
+
+    try {
+      CompletableFuture.allOf(futures.values().toArray(CompletableFuture[]::new)).join();
+    } catch (CompletionException e) {
+      Throwable cause = e;
+      while (cause instanceof CompletionException && cause.getCause() != null)
+        cause = cause.getCause();
+      if (cause instanceof RuntimeException runtimeException) throw runtimeException;
+      if (cause instanceof Error error) throw error;
+      throw e;
+    }
+  }
+
+  private void run(Phase phase) {
+    if (cancelled.getAsBoolean()) {
+      log.warn("Load phase {} cancelled", phase.name());
+      throw new CancellationException("Load phase " + phase.name() + " cancelled");
+    }
+    if (phase.progressTracker() != null)
+      progressTrackerService.publishProgressTracker(clientId, phase.progressTracker());
+    progressTrackerService.startPhase(clientId, phase.name());
+    if (runningPhases != null) runningPhases.add(phase.name());
+    StopWatch stopWatch = StopWatch.createStarted();
+    try {
+      phase.task().run();
+    } catch (RuntimeException e) {
+      log.error(
+          "Load phase {} failed after {}ms",
+          phase.name(),
+          stopWatch.getTime(TimeUnit.MILLISECONDS));
+      throw e;
+    } finally {
+      if (runningPhases != null) runningPhases.remove(phase.name());
+    }
+    stopWatch.stop();
+    long millis = stopWatch.getTime(TimeUnit.MILLISECONDS);
+    progressTrackerService.publishPhaseTiming(clientId, phase.name(), millis);
+    log.info("Load phase {} done in {}ms", phase.name(), millis);
+  }
+}
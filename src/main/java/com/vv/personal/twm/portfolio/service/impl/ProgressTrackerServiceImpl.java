@@ -2,25 +2,90 @@ package com.vv.personal.twm.portfolio.service.impl;
 
 import static com.vv.personal.twm.portfolio.model.tracking.ProgressTracker.POSITION_ZERO;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.vv.personal.twm.portfolio.model.tracking.LoadProgress;
+import com.vv.personal.twm.portfolio.model.tracking.PhaseProgress;
 import com.vv.personal.twm.portfolio.model.tracking.ProgressTracker;
 import com.vv.personal.twm.portfolio.service.ProgressTrackerService;
 import io.micrometer.common.util.StringUtils;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 /**
+ * Besides the stage of each client, tracks the phases of its current load with their counters, and
+ * estimates how long they have left off the timings of the previous load. The timings are saved to
+ * a tab separated file after each completed load, and read back on construction, so the first load
+ * after a restart gets an ETA too.
+ *
  * @author Vivek
  * @since 2025-11-30
  */
 @Slf4j
 @Service
 public class ProgressTrackerServiceImpl implements ProgressTrackerService {
+  private static final String TIMING_PHASE = "phase";
+  private static final String TIMING_LOAD = "load";
+  private static final double MAX_RUNNING_PERCENT = 99.0; // until it has actually ended
+
   private final Map<String, ProgressTracker> progressTrackerMap;
+  private final Map<String, Map<String, Long>> phaseTimingsMap;
+  private final Map<String, Long> loadTimingsMap;
+  private final Map<String, LoadState> loadStateMap;
+  private final Map<String, Set<Consumer<LoadProgress>>> listenersMap;
+  private final Set<String> pendingNotifications;
+  private final ExecutorService notifier;
+  private final Path timingsFile; // null keeps the timings in memory only
+
+  /** A client's load, with its phases in start order */
+  private static final class LoadState {
+    private final long startedAtMillis = System.currentTimeMillis();
+    private final Map<String, PhaseState> phases =
+        Collections.synchronizedMap(new LinkedHashMap<>());
+    private final AtomicInteger phasesTotal = new AtomicInteger();
+    private volatile long endedAtMillis;
+    private volatile boolean completed;
+  }
+
+  private static final class PhaseState {
+    private final long startedAtMillis = System.currentTimeMillis();
+    private final AtomicInteger done = new AtomicInteger();
+    private volatile int total;
+    private volatile long endedAtMillis;
+    private volatile boolean completed;
+  }
 
   public ProgressTrackerServiceImpl() {
+    this(null);
+  }
+
+  public ProgressTrackerServiceImpl(String timingsFile) {
     progressTrackerMap = new ConcurrentHashMap<>();
+    phaseTimingsMap = new ConcurrentHashMap<>();
+    loadTimingsMap = new ConcurrentHashMap<>();
+    loadStateMap = new ConcurrentHashMap<>();
+    listenersMap = new ConcurrentHashMap<>();
+    pendingNotifications = ConcurrentHashMap.newKeySet();
+    notifier =
+        Executors.newSingleThreadExecutor(
+            new ThreadFactoryBuilder().setNameFormat("progress-notifier").setDaemon(true).build());
+    this.timingsFile = StringUtils.isEmpty(timingsFile) ? null : Path.of(timingsFile);
+    readTimings();
   }
 
   @Override
@@ -35,6 +100,7 @@ public class ProgressTrackerServiceImpl implements ProgressTrackerService {
       progressTracker = POSITION_ZERO;
     }
     progressTrackerMap.put(clientId, progressTracker);
+    notifyListeners(clientId);
   }
 
   @Override
@@ -43,7 +109,268 @@ public class ProgressTrackerServiceImpl implements ProgressTrackerService {
     return progressTrackerMap.getOrDefault(clientId, POSITION_ZERO);
   }
 
+  @Override
+  public void startLoad(String clientId) {
+    if (StringUtils.isEmpty(clientId)) {
+      log.error("clientId is empty for startLoad");
+      return;
+    }
+    loadStateMap.put(clientId, new LoadState());
+    notifyListeners(clientId);
+  }
+
+  @Override
+  public void finishLoad(String clientId, boolean completed) {
+    LoadState loadState = StringUtils.isEmpty(clientId) ? null : loadStateMap.get(clientId);
+    if (loadState == null) return;
+    long now = System.currentTimeMillis();
+    synchronized (loadState.phases) { // the ones left running were cancelled or failed
+      loadState.phases.values().stream()
+          .filter(phaseState -> phaseState.endedAtMillis == 0)
+          .forEach(phaseState -> phaseState.endedAtMillis = now);
+    }
+    loadState.completed = completed;
+    loadState.endedAtMillis = now;
+    if (completed) {
+      loadTimingsMap.put(clientId, now - loadState.startedAtMillis);
+      saveTimings();
+    }
+    notifyListeners(clientId);
+  }
+
+  @Override
+  public void expectPhases(String clientId, int phases) {
+    if (StringUtils.isEmpty(clientId)) return;
+    loadState(clientId).phasesTotal.addAndGet(phases);
+  }
+
+  @Override
+  public void startPhase(String clientId, String phase) {
+    if (StringUtils.isEmpty(clientId)) {
+      log.error("clientId is empty for startPhase");
+      return;
+    }
+    loadState(clientId).phases.put(phase, new PhaseState());
+    notifyListeners(clientId);
+  }
+
+  @Override
+  public void publishPhaseTiming(String clientId, String phase, long millis) {
+    if (StringUtils.isEmpty(clientId)) {
+      log.error("clientId is empty for publishPhaseTiming");
+      return;
+    }
+
+    runningPhase(clientId, phase)
+        .ifPresent(
+            phaseState -> {
+              phaseState.completed = true;
+              phaseState.endedAtMillis = System.currentTimeMillis();
+            });
+    putPhaseTiming(clientId, phase, millis);
+    notifyListeners(clientId);
+  }
+
+  @Override
+  public Map<String, Long> getPhaseTimings(String clientId) {
+    if (StringUtils.isEmpty(clientId) || !phaseTimingsMap.containsKey(clientId))
+      return Collections.emptyMap();
+    Map<String, Long> phaseTimings = phaseTimingsMap.get(clientId);
+    synchronized (phaseTimings) {
+      return new LinkedHashMap<>(phaseTimings);
+    }
+  }
+
+  @Override
+  public void publishPhaseTotal(String clientId, String phase, int total) {
+    runningPhase(clientId, phase).ifPresent(phaseState -> phaseState.total = total);
+    notifyListeners(clientId);
+  }
+
+  @Override
+  public void incrementPhaseDone(String clientId, String phase) {
+    Optional<PhaseState> phaseState = runningPhase(clientId, phase);
+    if (phaseState.isEmpty()) return;
+    phaseState.get().done.incrementAndGet();
+    notifyListeners(clientId);
+  }
+
+  @Override
+  public LoadProgress getLoadProgress(String clientId) {
+    LoadState loadState = StringUtils.isEmpty(clientId) ? null : loadStateMap.get(clientId);
+    if (loadState == null)
+      return new LoadProgress(
+          clientId, getProgressTracker(clientId), 0, 0, false, 0, 0, 0.0, -1, List.of());
+
+    long now = System.currentTimeMillis();
+    Map<String, Long> phaseTimings = getPhaseTimings(clientId);
+    List<PhaseProgress> phases = new ArrayList<>();
+    synchronized (loadState.phases) {
+      loadState.phases.forEach(
+          (phase, phaseState) ->
+              phases.add(
+                  toPhaseProgress(phase, phaseState, phaseTimings.getOrDefault(phase, 0L), now)));
+    }
+    int phasesDone = (int) phases.stream().filter(PhaseProgress::completed).count();
+    int phasesTotal = Math.max(loadState.phasesTotal.get(), phases.size());
+
+    double percent;
+    long etaMillis;
+    long endedAtMillis = loadState.endedAtMillis;
+    if (endedAtMillis > 0) {
+      percent = loadState.completed ? 100.0 : 100.0 * phasesDone / Math.max(1, phasesTotal);
+      etaMillis = 0;
+    } else {
+      long elapsedMillis = now - loadState.startedAtMillis;
+      Long loadMillis = loadTimingsMap.get(clientId);
+      etaMillis = loadMillis == null ? -1 : Math.max(0, loadMillis - elapsedMillis);
+      for (PhaseProgress phase : phases) etaMillis = Math.max(etaMillis, phase.etaMillis());
+      percent =
+          etaMillis < 0
+              ? 0.0
+              : Math.min(
+                  MAX_RUNNING_PERCENT,
+                  100.0 * elapsedMillis / Math.max(1, elapsedMillis + etaMillis));
+    }
+    return new LoadProgress(
+        clientId,
+        getProgressTracker(clientId),
+        loadState.startedAtMillis,
+        endedAtMillis,
+        loadState.completed,
+        phasesDone,
+        phasesTotal,
+        percent,
+        etaMillis,
+        phases);
+  }
+
+  @Override
+  public Runnable subscribe(String clientId, Consumer<LoadProgress> listener) {
+    if (StringUtils.isEmpty(clientId)) {
+      log.error("clientId is empty for subscribe");
+      return () -> {};
+    }
+    Set<Consumer<LoadProgress>> listeners =
+        listenersMap.computeIfAbsent(clientId, k -> ConcurrentHashMap.newKeySet());
+    listeners.add(listener);
+    return () -> listeners.remove(listener);
+  }
+
   Map<String, ProgressTracker> getProgressTrackerMap() {
     return progressTrackerMap;
   }
+
+  private PhaseProgress toPhaseProgress(
+      String phase, PhaseState phaseState, long expectedMillis, long now) {
+    int done = phaseState.done.get();
+    int total = phaseState.total;
+    long endedAtMillis = phaseState.endedAtMillis;
+    if (endedAtMillis > 0)
+      return new PhaseProgress(
+          phase,
+          phaseState.startedAtMillis,
+          endedAtMillis,
+          phaseState.completed,
+          done,
+          total,
+          phaseState.completed ? 100.0 : total > 0 ? 100.0 * done / total : 0.0,
+          0);
+
+    long elapsedMillis = now - phaseState.startedAtMillis;
+    double percent = 0.0;
+    long etaMillis = -1;
+    if (total > 0 && done > 0) {
+      percent = Math.min(MAX_RUNNING_PERCENT, 100.0 * done / total);
+      etaMillis = elapsedMillis * Math.max(0, total - done) / done;
+    } else if (expectedMillis > 0) {
+      percent = Math.min(MAX_RUNNING_PERCENT, 100.0 * elapsedMillis / expectedMillis);
+      etaMillis = Math.max(0, expectedMillis - elapsedMillis);
+    }
+    return new PhaseProgress(
+        phase, phaseState.startedAtMillis, 0, false, done, total, percent, etaMillis);
+  }
+
+  /** The client's load, started on its first phase if there was no {@link #startLoad(String)} */
+  private LoadState loadState(String clientId) {
+    return loadStateMap.computeIfAbsent(clientId, k -> new LoadState());
+  }
+
+  private Optional<PhaseState> runningPhase(String clientId, String phase) {
+    LoadState loadState = StringUtils.isEmpty(clientId) ? null : loadStateMap.get(clientId);
+    if (loadState == null) return Optional.empty();
+    return Optional.ofNullable(loadState.phases.get(phase))
+        .filter(phaseState -> phaseState.endedAtMillis == 0);
+  }
+
+  private void putPhaseTiming(String clientId, String phase, long millis) {
+    Map<String, Long> phaseTimings =
+        phaseTimingsMap.computeIfAbsent(
+            clientId, k -> Collections.synchronizedMap(new LinkedHashMap<>()));
+    synchronized (phaseTimings) {
+      phaseTimings.remove(phase); // moves the phase to the end
+      phaseTimings.put(phase, millis);
+    }
+  }
+
+  private void notifyListeners(String clientId) {
+    if (StringUtils.isEmpty(clientId)) return;
+    Set<Consumer<LoadProgress>> listeners = listenersMap.get(clientId);
+    if (listeners == null || listeners.isEmpty() || !pendingNotifications.add(clientId)) return;
+    notifier.execute(
+        () -> {
+          pendingNotifications.remove(clientId); // changes from here on notify again
+          LoadProgress loadProgress = getLoadProgress(clientId);
+          for (Consumer<LoadProgress> listener : listeners) {
+            try {
+              listener.accept(loadProgress);
+            } catch (RuntimeException e) {
+              log.warn("Progress listener of {} failed: {}", clientId, e.getMessage());
+            }
+          }
+        });
+  }
+
+  private void readTimings() {
+    if (timingsFile == null || !Files.isRegularFile(timingsFile)) return;
+    try {
+      for (String line : Files.readAllLines(timingsFile)) {
+        String[] parts = line.split("\t");
+        if (parts.length == 4 && TIMING_PHASE.equals(parts[0]))
+          putPhaseTiming(parts[1], parts[2], Long.parseLong(parts[3]));
+        else if (parts.length == 3 && TIMING_LOAD.equals(parts[0]))
+          loadTimingsMap.put(parts[1], Long.parseLong(parts[2]));
+      }
+      log.info("Read load timings of {} clients from {}", phaseTimingsMap.size(), timingsFile);
+    } catch (IOException | RuntimeException e) {
+      log.error("Failed to read load timings from {}, ignoring them", timingsFile, e);
+    }
+  }
+
+  private synchronized void saveTimings() {
+    if (timingsFile == null) return;
+    List<String> lines = new ArrayList<>();
+    loadTimingsMap.forEach(
+        (clientId, millis) -> lines.add(String.join("\t", TIMING_LOAD, clientId, "" + millis)));
+    phaseTimingsMap
+        .keySet()
+        .forEach(
+            clientId ->
+                getPhaseTimings(clientId)
+                    .forEach(
+                        (phase, millis) ->
+                            lines.add(
+                                String.join("\t", TIMING_PHASE, clientId, phase, "" + millis))));
+    Path tempFile = timingsFile.resolveSibling(timingsFile.getFileName() + ".tmp");
+    try {
+      Files.write(tempFile, lines);
+      Files.move(
+          tempFile,
+          timingsFile,
+          StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      log.error("Failed to save load timings to {}", timingsFile, e);
+    }
+  }
 }
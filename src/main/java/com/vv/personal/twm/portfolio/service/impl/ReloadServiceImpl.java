@@ -1,18 +1,40 @@
 package com.vv.personal.twm.portfolio.service.impl;
 
+import com.google.common.base.Enums;
+import com.vv.personal.twm.artifactory.generated.equitiesMarket.MarketDataProto;
+import com.vv.personal.twm.portfolio.model.market.WarmStartSnapshot;
+import com.vv.personal.twm.portfolio.model.tracking.ReloadStatus;
 import com.vv.personal.twm.portfolio.remote.market.max_weight.InstrumentMaxWeight;
-import com.vv.personal.twm.portfolio.service.CompleteBankDataService;
 import com.vv.personal.twm.portfolio.service.CompleteMarketDataService;
+import com.vv.personal.twm.portfolio.service.ExecutorProviderService;
 import com.vv.personal.twm.portfolio.service.InstrumentMetaDataService;
+import com.vv.personal.twm.portfolio.service.ProgressTrackerService;
 import com.vv.personal.twm.portfolio.service.ReloadService;
+import com.vv.personal.twm.portfolio.service.TickerDataWarehouseService;
+import com.vv.personal.twm.portfolio.service.WarmStartService;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.lang3.NotImplementedException;
+import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.time.StopWatch;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 /**
+ * Reloads are single flight. A reload asked for while one is in flight joins it and gets its
+ * result, unless it asks for a hard refresh the one in flight is not doing. Then it waits on a
+ * follow-up reload, queued to start once the one in flight is done, which all such requests share.
+ * So at most one reload runs and one waits at any time.
+ *
  * @author Vivek
  * @since 2025-03-22
  */
@@ -20,14 +42,132 @@ import org.springframework.stereotype.Service;
 @RequiredArgsConstructor
 @Service
 public class ReloadServiceImpl implements ReloadService {
+  private static final String CLIENT_VIVEK = "vivek-v2";
+  private static final int RELOAD_PHASE_THREADS = 3;
+  private static final String PHASE_MAX_WEIGHT = "reload-max-weight";
+  private static final String PHASE_BANK = "reload-bank";
+  private static final String PHASE_BENCHMARK = "reload-benchmark";
+  private static final String PHASE_MARKET = "reload-market";
+  private static final String PHASE_PUBLISH = "reload-publish";
+  private static final String PHASE_METADATA = "reload-metadata";
+  private static final String PHASE_SAVE_WARM_START = "reload-save-warm-start";
+  private static final String PHASE_WARM_START_PRICES = "warm-start-prices";
+  private static final String PHASE_WARM_START_MARKET = "warm-start-market";
+  private static final String PHASE_WARM_START_PUBLISH = "warm-start-publish";
+  private static final String BACKGROUND_RELOAD_EXECUTOR = "reload-after-warm-start";
+
   private final CompleteMarketDataService completeMarketDataService;
-  private final CompleteBankDataService completeBankDataService;
+  private final EngineSnapshotHolder engineSnapshotHolder;
   private final InstrumentMetaDataService instrumentMetaDataService;
   private final InstrumentMaxWeight instrumentMaxWeight;
+  private final ProgressTrackerService progressTrackerService;
+  private final TickerDataWarehouseService tickerDataWarehouseService;
+  private final WarmStartService warmStartService;
+  private final ExecutorProviderService executorProviderService;
+  private ReloadRun inFlight; // guarded by this
+  private ReloadRun followUp; // guarded by this, queued behind the one in flight
+  private long lastReloadId; // guarded by this
+
+  /** A reload, in flight or queued, with its result shared by all the requests joining it */
+  private static final class ReloadRun {
+    private final long id;
+    private final boolean firstTimeLoad;
+    private final boolean hardRefresh;
+    private final CompletableFuture<Void> started = new CompletableFuture<>();
+    private final CompletableFuture<Boolean> result = new CompletableFuture<>();
+    private final Set<String> runningPhases = ConcurrentHashMap.newKeySet();
+    private volatile boolean cancelled;
+    private volatile boolean published; // past the point of cancelling or failing
+    private volatile long startedAtMillis;
+
+    private ReloadRun(long id, boolean firstTimeLoad, boolean hardRefresh) {
+      this.id = id;
+      this.firstTimeLoad = firstTimeLoad;
+      this.hardRefresh = hardRefresh;
+    }
+
+    private ReloadRun start() {
+      startedAtMillis = System.currentTimeMillis();
+      started.complete(null);
+      return this;
+    }
+
+    /** The reload's result serves a request for a hard refresh only if it is one itself */
+    private boolean covers(boolean hardRefresh) {
+      return this.hardRefresh || !hardRefresh;
+    }
+  }
 
   @Override
   public boolean initialFullLoad() {
-    return reload(true, false);
+    if (!warmStart()) return reload(true, false);
+
+    // serve off the warm start snapshot until the full load has caught up with remote
+    double warmStartPnL = completeMarketDataService.getLatestCombinedCumulativePnL();
+    executorProviderService
+        .procure(BACKGROUND_RELOAD_EXECUTOR, 1)
+        .submit(
+            () -> {
+              try {
+                if (reload(true, false))
+                  log.info(
+                      "Full load replaced the warm start snapshot, latest combined cumulative pnl"
+                          + " {} -> {}",
+                      warmStartPnL,
+                      completeMarketDataService.getLatestCombinedCumulativePnL());
+              } finally {
+                executorProviderService.shutdown(BACKGROUND_RELOAD_EXECUTOR);
+              }
+            });
+    return true;
+  }
+
+  /**
+   * Publishes the market data computed off the saved warm start snapshot, without any remote call.
+   * The bank data is not part of the snapshot and comes in with the full load. Returns false if
+   * there was no usable snapshot
+   */
+  boolean warmStart() {
+    Optional<WarmStartSnapshot> warmStartSnapshot = warmStartService.read();
+    if (warmStartSnapshot.isEmpty()) return false;
+    log.info(
+        "Warm starting off the snapshot saved at {}",
+        Instant.ofEpochMilli(warmStartSnapshot.get().savedAtMillis()));
+    StopWatch loadTimer = StopWatch.createStarted();
+    EngineSnapshotHolder.Snapshot next;
+    try {
+      next = engineSnapshotHolder.prepare();
+    } catch (IllegalStateException e) {
+      log.error("Warm start skipped: {}", e.getMessage());
+      return false;
+    }
+    try {
+      new LoadPhaseGraph(progressTrackerService, CLIENT_VIVEK)
+          .phase(
+              PHASE_WARM_START_PRICES,
+              null,
+              () ->
+                  tickerDataWarehouseService.restoreAnalysisWarehouse(
+                      warmStartSnapshot.get().tickers()))
+          .phase(
+              PHASE_WARM_START_MARKET,
+              null,
+              () -> next.marketDataService().load(warmStartSnapshot.get().loadInputs()),
+              PHASE_WARM_START_PRICES)
+          .phase(
+              PHASE_WARM_START_PUBLISH,
+              null,
+              () -> engineSnapshotHolder.publish(next),
+              PHASE_WARM_START_MARKET)
+          .run(Runnable::run); // one after the other, on this thread
+      loadTimer.stop();
+      log.info("Warm start completed in {}ms", loadTimer.getTime(TimeUnit.MILLISECONDS));
+      return true;
+    } catch (Exception e) {
+      engineSnapshotHolder.abort();
+      log.error("Warm start failed, falling back to a full load", e);
+      return false;
+    }
   }
 
   @Override
@@ -36,37 +176,181 @@ public class ReloadServiceImpl implements ReloadService {
   }
 
   boolean reload(boolean firstTimeLoad, boolean hardRefresh) {
-    if (!firstTimeLoad) {
-      log.warn("Clearing bank data service and market data service!");
-      completeBankDataService.clear();
-      completeMarketDataService.clear();
-      completeMarketDataService.setReloadInProgress(true);
-      instrumentMetaDataService.clear();
+    ReloadRun run;
+    boolean owner = false;
+    synchronized (this) {
+      if (inFlight == null) {
+        run = inFlight = new ReloadRun(++lastReloadId, firstTimeLoad, hardRefresh).start();
+        owner = true;
+      } else if (inFlight.covers(hardRefresh)) {
+        run = inFlight;
+      } else if (followUp != null) {
+        run = followUp;
+      } else {
+        run = followUp = new ReloadRun(++lastReloadId, firstTimeLoad, hardRefresh);
+        owner = true;
+      }
+    }
+    if (!owner) {
+      log.info("Joining reload {}, waiting on its result", run.id);
+      return run.result.join();
     }
 
-    log.info("Starting reload...");
+    run.started.join(); // a follow-up is started once the reload ahead of it is done
+    boolean reloaded = false;
+    try {
+      reloaded = runReload(run);
+    } finally {
+      finish(run, reloaded);
+    }
+    return reloaded;
+  }
+
+  /** Hands over to the follow-up, if any, before the requests joined get the result */
+  private void finish(ReloadRun run, boolean reloaded) {
+    synchronized (this) {
+      inFlight = followUp == null ? null : followUp.start();
+      followUp = null;
+    }
+    run.result.complete(reloaded);
+  }
+
+  private boolean runReload(ReloadRun run) {
+    boolean firstTimeLoad = run.firstTimeLoad;
+    boolean hardRefresh = run.hardRefresh;
+    log.info("Starting reload {}...", run.id);
     StopWatch loadTimer = StopWatch.createStarted();
+    // readers keep on the live bank and market data until the reloaded ones are published
+    EngineSnapshotHolder.Snapshot next;
+    try {
+      next = engineSnapshotHolder.prepare();
+    } catch (IllegalStateException e) {
+      log.error("Reload skipped: {}", e.getMessage());
+      return false;
+    }
+    ExecutorService executorService = Executors.newFixedThreadPool(RELOAD_PHASE_THREADS);
+    boolean completed = false;
+    progressTrackerService.startLoad(CLIENT_VIVEK);
     try {
-      instrumentMaxWeight.reload();
-      completeBankDataService.load();
-      completeMarketDataService.load();
-      completeMarketDataService.setReloadInProgress(false);
-      instrumentMetaDataService.load(
-          completeMarketDataService.getBenchMarkCurrentDate(), !firstTimeLoad && hardRefresh);
+      LoadPhaseGraph loadPhaseGraph =
+          new LoadPhaseGraph(progressTrackerService, CLIENT_VIVEK)
+              .cancelWhen(() -> run.cancelled && !run.published)
+              .trackRunningPhases(run.runningPhases)
+              .phase(PHASE_MAX_WEIGHT, null, instrumentMaxWeight::reload)
+              .phase(PHASE_BANK, null, () -> next.bankDataService().load());
+      // the benchmark sets the market dates, fetched once, ahead of the first market load
+      String[] marketDependsOn = new String[0];
+      if (firstTimeLoad) {
+        loadPhaseGraph.phase(PHASE_BENCHMARK, null, tickerDataWarehouseService::loadBenchmarkData);
+        marketDependsOn = new String[] {PHASE_BENCHMARK};
+      }
+      loadPhaseGraph
+          .phase(PHASE_MARKET, null, () -> loadMarketData(next, !firstTimeLoad), marketDependsOn)
+          .phase(
+              PHASE_PUBLISH,
+              null,
+              () -> {
+                engineSnapshotHolder.publish(next);
+                run.published = true;
+              },
+              PHASE_BANK,
+              PHASE_MARKET)
+          .phase( // metadata entries are replaced in place, one instrument at a time, so no clear
+              PHASE_METADATA,
+              null,
+              () ->
+                  instrumentMetaDataService.load(
+                      next.marketDataService().getBenchMarkCurrentDate(),
+                      !firstTimeLoad && hardRefresh),
+              PHASE_PUBLISH)
+          .phase(
+              PHASE_SAVE_WARM_START,
+              null,
+              () -> warmStartService.save(next.marketDataService().getLoadInputs()),
+              PHASE_PUBLISH)
+          .run(executorService);
       loadTimer.stop();
-      log.info("Reload completed in {} s", loadTimer.getTime(TimeUnit.SECONDS));
+      log.info("Reload {} completed in {} s", run.id, loadTimer.getTime(TimeUnit.SECONDS));
+      completed = true;
       return true;
+    } catch (CancellationException e) {
+      engineSnapshotHolder.abort();
+      log.warn("Reload {} cancelled: {}", run.id, e.getMessage());
     } catch (Exception e) {
-      log.error("Reload failed", e);
+      if (run.published) {
+        // the reloaded data is live, only a phase after the publish fell short
+        log.error("Reload {} published, but a phase after it failed", run.id, e);
+        completed = true;
+        return true;
+      }
+      engineSnapshotHolder.abort();
+      log.error("Reload {} failed", run.id, e);
     } finally {
+      progressTrackerService.finishLoad(CLIENT_VIVEK, completed);
+      executorService.shutdown();
       if (!loadTimer.isStopped()) loadTimer.stop();
       loadTimer = null;
     }
     return false;
   }
 
+  /**
+   * @param reloadInProgress has the market data load force refresh the current date's market data
+   */
+  private void loadMarketData(EngineSnapshotHolder.Snapshot next, boolean reloadInProgress) {
+    next.marketDataService().setReloadInProgress(reloadInProgress);
+    next.marketDataService().load();
+    next.marketDataService().setReloadInProgress(false);
+  }
+
+  @Override
+  public synchronized boolean cancelReload() {
+    if (inFlight == null) return false;
+    if (inFlight.published) {
+      log.info("Reload {} already published, too late to cancel", inFlight.id);
+      return false;
+    }
+    inFlight.cancelled = true;
+    log.info("Cancelling reload {}", inFlight.id);
+    return true;
+  }
+
+  @Override
+  public synchronized ReloadStatus getReloadStatus() {
+    if (inFlight == null) return ReloadStatus.IDLE;
+    return new ReloadStatus(
+        inFlight.id,
+        inFlight.hardRefresh,
+        new TreeSet<>(inFlight.runningPhases),
+        System.currentTimeMillis() - inFlight.startedAtMillis,
+        inFlight.cancelled,
+        followUp != null);
+  }
+
+  @Override
+  public boolean refreshIntraday() {
+    log.info("Starting intraday refresh...");
+    return completeMarketDataService.refreshIntraday();
+  }
+
+  @Override
+  @Scheduled(cron = "${reload.rollover-cron:0 */15 9-16 * * MON-FRI}")
+  public boolean rollover() {
+    log.info("Starting day rollover...");
+    return completeMarketDataService.rollover();
+  }
+
   @Override
   public boolean reload(String uid) {
-    throw new NotImplementedException("future task, not implemented yet");
+    if (StringUtils.isBlank(uid)) return false;
+    String scope = uid.trim().toUpperCase();
+    Optional<MarketDataProto.AccountType> accountType =
+        Enums.getIfPresent(MarketDataProto.AccountType.class, scope).toJavaUtil();
+    if (accountType.isPresent()) {
+      log.info("Starting reload of account type {}...", scope);
+      return completeMarketDataService.reloadAccountType(accountType.get());
+    }
+    log.info("Starting reload of instrument {}...", scope);
+    return completeMarketDataService.reloadInstrument(scope);
   }
 }
@@ -0,0 +1,21 @@
+package com.vv.personal.twm.portfolio.service.impl;
+
+import com.vv.personal.twm.portfolio.service.CompleteBankDataService;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.Delegate;
+
+/**
+ * The bank data service handed out to readers, forwarding each call to the live snapshot's one.
+ *
+ * @author Vivek
+ * @since 2026-10-18
+ */
+@RequiredArgsConstructor
+public class SnapshotCompleteBankDataService implements CompleteBankDataService {
+  private final EngineSnapshotHolder engineSnapshotHolder;
+
+  @Delegate(types = CompleteBankDataService.class)
+  private CompleteBankDataService live() {
+    return engineSnapshotHolder.get().bankDataService();
+  }
+}
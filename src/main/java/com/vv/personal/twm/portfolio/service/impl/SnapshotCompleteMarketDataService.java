@@ -0,0 +1,67 @@
+package com.vv.personal.twm.portfolio.service.impl;
+
+import com.vv.personal.twm.artifactory.generated.equitiesMarket.MarketDataProto;
+import com.vv.personal.twm.portfolio.model.market.IngestResult;
+import com.vv.personal.twm.portfolio.model.market.PriceUpdate;
+import com.vv.personal.twm.portfolio.service.CompleteMarketDataService;
+import java.util.concurrent.atomic.AtomicReference;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.Delegate;
+
+/**
+ * The market data service handed out to readers, forwarding each call to the live snapshot's one,
+ * so that a reload swapping in a new snapshot is seen by all of them at once. The incremental
+ * writes go to a copy of it instead, published as the next epoch. The prices a write needs are
+ * fetched off the live one first, outside of the holder's lock, so a slow remote holds up no other
+ * write or reload.
+ *
+ * @author Vivek
+ * @since 2026-10-18
+ */
+@RequiredArgsConstructor
+public class SnapshotCompleteMarketDataService implements CompleteMarketDataService {
+  private final EngineSnapshotHolder engineSnapshotHolder;
+
+  @Delegate(types = CompleteMarketDataService.class)
+  private CompleteMarketDataService live() {
+    return engineSnapshotHolder.get().marketDataService();
+  }
+
+  @Override
+  public IngestResult ingestTransaction(MarketDataProto.Instrument instrument) {
+    PriceUpdate prices = live().fetchTransactionPrices(instrument);
+    // published once in the ledger, even when its pnl could not be computed
+    AtomicReference<IngestResult> result = new AtomicReference<>(IngestResult.REJECTED);
+    engineSnapshotHolder.update(
+        prices,
+        next -> {
+          result.set(next.ingestTransaction(instrument));
+          return result.get().isApplied();
+        });
+    return result.get();
+  }
+
+  @Override
+  public boolean refreshIntraday() {
+    PriceUpdate prices = live().fetchIntradayPrices();
+    return engineSnapshotHolder.update(prices, CompleteMarketDataService::refreshIntraday);
+  }
+
+  @Override
+  public boolean rollover() {
+    PriceUpdate prices = live().fetchRolloverPrices();
+    return engineSnapshotHolder.update(prices, CompleteMarketDataService::rollover);
+  }
+
+  @Override
+  public boolean reloadInstrument(String imnt) {
+    PriceUpdate prices = live().fetchInstrumentPrices(imnt);
+    return engineSnapshotHolder.update(prices, next -> next.reloadInstrument(imnt));
+  }
+
+  @Override
+  public boolean reloadAccountType(MarketDataProto.AccountType accountType) {
+    return engineSnapshotHolder.update(
+        PriceUpdate.empty(), next -> next.reloadAccountType(accountType));
+  }
+}
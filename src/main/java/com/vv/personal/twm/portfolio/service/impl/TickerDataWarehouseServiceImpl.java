@@ -7,6 +7,8 @@ import com.google.common.collect.Sets;
 import com.vv.personal.twm.artifactory.generated.equitiesMarket.MarketDataProto;
 import com.vv.personal.twm.portfolio.config.TickerDataWarehouseConfig;
 import com.vv.personal.twm.portfolio.model.market.OutdatedSymbol;
+import com.vv.personal.twm.portfolio.model.market.PriceSeries;
+import com.vv.personal.twm.portfolio.model.market.PriceUpdate;
 import com.vv.personal.twm.portfolio.remote.feign.MarketDataCrdbServiceFeign;
 import com.vv.personal.twm.portfolio.remote.feign.MarketDataPythonEngineFeign;
 import com.vv.personal.twm.portfolio.remote.market.outdated.OutdatedSymbols;
@@ -14,12 +16,20 @@ import com.vv.personal.twm.portfolio.service.DiscoveryClientService;
 import com.vv.personal.twm.portfolio.service.ExecutorProviderService;
 import com.vv.personal.twm.portfolio.service.TickerDataWarehouseService;
 import com.vv.personal.twm.portfolio.util.DateFormatUtil;
+import com.vv.personal.twm.portfolio.util.MarketClock;
 import com.vv.personal.twm.portfolio.warehouse.market.TickerDataWarehouse;
+import com.vv.personal.twm.portfolio.warehouse.market.TradingCalendar;
 import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import lombok.RequiredArgsConstructor;
+import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.time.StopWatch;
 import org.apache.commons.lang3.tuple.Pair;
@@ -34,6 +44,7 @@ import org.springframework.stereotype.Service;
 @RequiredArgsConstructor
 public class TickerDataWarehouseServiceImpl implements TickerDataWarehouseService {
   private static final String EXECUTOR_NAME = "ticker-data-warehouse-service";
+  private static final String INTRADAY_EXECUTOR_NAME = "ticker-data-warehouse-intraday";
 
   private final TickerDataWarehouseConfig tickerDataWarehouseConfig;
   private final MarketDataPythonEngineFeign marketDataPythonEngineFeign;
@@ -43,8 +54,9 @@ public class TickerDataWarehouseServiceImpl implements TickerDataWarehouseServic
   private final ExecutorProviderService executorProviderService;
   private final DiscoveryClientService discoveryClientService;
 
-  private final List<Integer> marketDates = new ArrayList<>(100000);
-  private final LocalDate endDate = LocalDate.now().plusDays(1);
+  // copy-on-write, readers take the list as it stands and appends swap in a longer copy
+  private volatile List<Integer> marketDates = List.of();
+  @Setter private MarketClock marketClock = MarketClock.system();
 
   @Override
   public void loadBenchmarkData() {
@@ -54,6 +66,7 @@ public class TickerDataWarehouseServiceImpl implements TickerDataWarehouseServic
     LocalDate lookBackDate =
         DateFormatUtil.getLocalDate(tickerDataWarehouseConfig.getBenchmarkStartDate());
 
+    LocalDate endDate = marketClock.today().plusDays(1);
     MarketDataProto.Ticker benchmarkTickerData =
         marketDataPythonEngineFeign.getTickerDataWithoutCountryCode(
             benchmarkTicker, lookBackDate.toString(), endDate.toString());
@@ -64,81 +77,23 @@ public class TickerDataWarehouseServiceImpl implements TickerDataWarehouseServic
 
   @Override
   public void loadAnalysisDataForInstruments(Set<String> instruments, boolean isReloadInProgress) {
+    loadAnalysisDataForInstruments(instruments, isReloadInProgress, () -> {});
+  }
+
+  @Override
+  public void loadAnalysisDataForInstruments(
+      Set<String> instruments, boolean isReloadInProgress, Runnable onInstrumentLoaded) {
     // starting gradual parallelize, accounting for pressure on py flask
     List<Callable<Void>> tasks = Lists.newArrayList();
     StopWatch stopWatch = StopWatch.createStarted();
     for (String instrument : instruments) {
       tasks.add(
           () -> {
-            log.info("Loading analysis data for {}", instrument);
-            if (isReloadInProgress) {
-              LocalDate now = LocalDate.now();
-              int currentDateForMarketDataRemoval = DateFormatUtil.getDate(now);
-              log.info(
-                  "Forcing removal of market data for {} x {}",
-                  instrument,
-                  currentDateForMarketDataRemoval);
-
-              marketDataCrdbServiceFeign.deleteMarketData(
-                  instrument, currentDateForMarketDataRemoval);
-              tickerDataWarehouse.delete(now, instrument);
+            try {
+              loadAnalysisDataForInstrument(instrument, isReloadInProgress);
+            } finally {
+              onInstrumentLoaded.run();
             }
-
-            MarketDataProto.Ticker tickerDataFromDb =
-                marketDataCrdbServiceFeign.getMarketDataByTicker(instrument);
-            fillAnalysisWarehouse(tickerDataFromDb);
-
-            List<Pair<LocalDate, LocalDate>> missingDbDataDates =
-                identifyMissingDbDates(tickerDataFromDb, marketDates);
-            missingDbDataDates.forEach(
-                inputDates -> {
-                  List<Pair<LocalDate, LocalDate>> dateList = new ArrayList<>();
-                  if (outdatedSymbols.contains(instrument)) {
-                    dateList =
-                        identifyMissingDatesDueToOutdated(
-                            outdatedSymbols, instrument, inputDates, marketDates);
-
-                    if (dateList.isEmpty()) {
-                      log.info(
-                          "Skipping outdated symbol {} from {} to {}",
-                          instrument,
-                          inputDates.getLeft(),
-                          inputDates.getRight());
-                    }
-                  } else { // imnt not in outdated list
-                    dateList.add(inputDates);
-                  }
-                  for (Pair<LocalDate, LocalDate> dates : dateList) {
-                    log.info(
-                        "Downloading missing data for {} from {} -> {}",
-                        instrument,
-                        dates.getLeft(),
-                        dates.getRight());
-                    MarketDataProto.Ticker missingTickerDataRange =
-                        marketDataPythonEngineFeign.getTickerDataWithoutCountryCode(
-                            instrument, dates.getLeft().toString(), dates.getRight().toString());
-
-                    if (missingTickerDataRange == null
-                        || missingTickerDataRange.getDataCount() == 0) {
-                      log.warn(
-                          "No data found for {} from {} -> {}",
-                          instrument,
-                          dates.getLeft(),
-                          dates.getRight());
-                    } else {
-                      fillAnalysisWarehouse(missingTickerDataRange);
-                      log.info(
-                          "Adding market data to db for {} from {} -> {}",
-                          instrument,
-                          missingTickerDataRange.getData(0).getDate(),
-                          missingTickerDataRange
-                              .getData(missingTickerDataRange.getDataCount() - 1)
-                              .getDate());
-                      marketDataCrdbServiceFeign.addMarketDataForSingleTicker(
-                          missingTickerDataRange);
-                    }
-                  }
-                });
             return null;
           });
     }
@@ -159,6 +114,177 @@ public class TickerDataWarehouseServiceImpl implements TickerDataWarehouseServic
     }
   }
 
+  @Override
+  public PriceUpdate fetchAnalysisData(String imnt) {
+    List<MarketDataProto.Ticker> tickers = new ArrayList<>();
+    loadAnalysisDataForInstrument(imnt, false, tickers::add);
+    return PriceUpdate.revisionOf(tickers);
+  }
+
+  private void loadAnalysisDataForInstrument(String instrument, boolean isReloadInProgress) {
+    loadAnalysisDataForInstrument(instrument, isReloadInProgress, this::fillAnalysisWarehouse);
+  }
+
+  private void loadAnalysisDataForInstrument(
+      String instrument,
+      boolean isReloadInProgress,
+      Consumer<MarketDataProto.Ticker> analysisWarehouse) {
+    log.info("Loading analysis data for {}", instrument);
+    if (isReloadInProgress) {
+      LocalDate now = marketClock.today();
+      int currentDateForMarketDataRemoval = DateFormatUtil.getDate(now);
+      log.info(
+          "Forcing removal of market data for {} x {}",
+          instrument,
+          currentDateForMarketDataRemoval);
+
+      marketDataCrdbServiceFeign.deleteMarketData(instrument, currentDateForMarketDataRemoval);
+      tickerDataWarehouse.delete(now, instrument);
+    }
+
+    MarketDataProto.Ticker tickerDataFromDb =
+        marketDataCrdbServiceFeign.getMarketDataByTicker(instrument);
+    if (tickerDataFromDb != null) analysisWarehouse.accept(tickerDataFromDb);
+
+    List<Integer> marketDates = this.marketDates;
+    List<Pair<LocalDate, LocalDate>> missingDbDataDates =
+        identifyMissingDbDates(tickerDataFromDb, marketDates);
+    missingDbDataDates.forEach(
+        inputDates -> {
+          List<Pair<LocalDate, LocalDate>> dateList = new ArrayList<>();
+          if (outdatedSymbols.contains(instrument)) {
+            dateList =
+                identifyMissingDatesDueToOutdated(
+                    outdatedSymbols, instrument, inputDates, marketDates);
+
+            if (dateList.isEmpty()) {
+              log.info(
+                  "Skipping outdated symbol {} from {} to {}",
+                  instrument,
+                  inputDates.getLeft(),
+                  inputDates.getRight());
+            }
+          } else { // imnt not in outdated list
+            dateList.add(inputDates);
+          }
+          for (Pair<LocalDate, LocalDate> dates : dateList) {
+            log.info(
+                "Downloading missing data for {} from {} -> {}",
+                instrument,
+                dates.getLeft(),
+                dates.getRight());
+            MarketDataProto.Ticker missingTickerDataRange =
+                marketDataPythonEngineFeign.getTickerDataWithoutCountryCode(
+                    instrument, dates.getLeft().toString(), dates.getRight().toString());
+
+            if (missingTickerDataRange == null || missingTickerDataRange.getDataCount() == 0) {
+              log.warn(
+                  "No data found for {} from {} -> {}",
+                  instrument,
+                  dates.getLeft(),
+                  dates.getRight());
+            } else {
+              analysisWarehouse.accept(missingTickerDataRange);
+              log.info(
+                  "Adding market data to db for {} from {} -> {}",
+                  instrument,
+                  missingTickerDataRange.getData(0).getDate(),
+                  missingTickerDataRange
+                      .getData(missingTickerDataRange.getDataCount() - 1)
+                      .getDate());
+              marketDataCrdbServiceFeign.addMarketDataForSingleTicker(missingTickerDataRange);
+            }
+          }
+        });
+  }
+
+  @Override
+  public PriceUpdate fetchLatestPrices(Set<String> instruments, LocalDate date) {
+    int targetDate = DateFormatUtil.getDate(date);
+    Map<String, Double> latestPrices = new ConcurrentHashMap<>();
+    List<Callable<Void>> tasks = Lists.newArrayList();
+    StopWatch stopWatch = StopWatch.createStarted();
+    for (String instrument : instruments) {
+      tasks.add(
+          () -> {
+            MarketDataProto.Ticker tickerData =
+                marketDataPythonEngineFeign.getTickerDataWithoutCountryCode(
+                    instrument, date.toString(), date.plusDays(1).toString());
+            Optional<MarketDataProto.Value> latestValue =
+                tickerData == null
+                    ? Optional.empty()
+                    : tickerData.getDataList().stream()
+                        .filter(value -> value.getDate() == targetDate)
+                        .reduce((first, second) -> second);
+            if (latestValue.isEmpty()) {
+              log.warn("No latest price found for {} on {}", instrument, targetDate);
+              return null;
+            }
+            // not added to db, the intraday price is superseded by the close on the next reload
+            latestPrices.put(instrument, latestValue.get().getPrice());
+            return null;
+          });
+    }
+    try {
+      int executorThreads =
+          Math.max(
+              1, discoveryClientService.getAppInstanceCount(MARKET_DATA_PYTHON_ENGINE_FEIGN_NAME));
+      for (Future<Void> future :
+          executorProviderService.procure(INTRADAY_EXECUTOR_NAME, executorThreads).invokeAll(tasks))
+        try {
+          future.get();
+        } catch (ExecutionException e) {
+          log.error("Failed to refresh latest price", e.getCause());
+        }
+    } catch (Exception e) {
+      log.error("Failed to execute tasks", e);
+    } finally {
+      stopWatch.stop();
+      log.info(
+          "fetchLatestPrices took {}ms for {} of {} imnts",
+          stopWatch.getTime(TimeUnit.MILLISECONDS),
+          latestPrices.size(),
+          instruments.size());
+      executorProviderService.shutdown(INTRADAY_EXECUTOR_NAME);
+    }
+    return PriceUpdate.of(date, latestPrices);
+  }
+
+  @Override
+  public PriceUpdate fetchClosingPrices(Set<String> instruments, LocalDate date) {
+    Set<String> imnts = new HashSet<>(instruments);
+    imnts.add(tickerDataWarehouseConfig.getBenchmarkTicker());
+    return fetchLatestPrices(imnts, date);
+  }
+
+  @Override
+  public PriceUpdate confirmMarketDates(LocalDate after, LocalDate upTo) {
+    String benchmarkTicker = tickerDataWarehouseConfig.getBenchmarkTicker();
+    MarketDataProto.Ticker benchmarkTickerData;
+    try {
+      benchmarkTickerData =
+          marketDataPythonEngineFeign.getTickerDataWithoutCountryCode(
+              benchmarkTicker, after.plusDays(1).toString(), upTo.plusDays(1).toString());
+    } catch (Exception e) {
+      log.error("Failed to fetch benchmark {} after {} up to {}", benchmarkTicker, after, upTo, e);
+      return PriceUpdate.empty();
+    }
+    if (benchmarkTickerData == null) return PriceUpdate.empty();
+
+    int afterDate = DateFormatUtil.getDate(after), upToDate = DateFormatUtil.getDate(upTo);
+    TreeMap<LocalDate, Double> benchmarkPrices = new TreeMap<>();
+    benchmarkTickerData.getDataList().stream()
+        .filter(value -> value.getDate() > afterDate && value.getDate() <= upToDate)
+        .forEach(
+            value ->
+                benchmarkPrices.put(
+                    DateFormatUtil.getLocalDate(value.getDate()), value.getPrice()));
+    if (benchmarkPrices.isEmpty()) return PriceUpdate.empty();
+    appendMarketDates(benchmarkPrices.keySet().stream().map(DateFormatUtil::getDate).toList());
+    return new PriceUpdate(
+        Map.of(benchmarkTicker, Collections.unmodifiableNavigableMap(benchmarkPrices)), false);
+  }
+
   @Override
   public void loadAnalysisDataForInstrumentsViaDbOnly(
       Set<String> instruments, boolean isReloadInProgress) {
@@ -166,7 +292,7 @@ public class TickerDataWarehouseServiceImpl implements TickerDataWarehouseServic
         instrument -> {
           log.info("Loading direct db analysis data for {}", instrument);
           if (isReloadInProgress) {
-            LocalDate now = LocalDate.now();
+            LocalDate now = marketClock.today();
             int currentDateForMarketDataRemoval = DateFormatUtil.getDate(now);
             log.info(
                 "Forcing removal of direct db read market data for {} x {}",
@@ -264,20 +390,22 @@ public class TickerDataWarehouseServiceImpl implements TickerDataWarehouseServic
     return missingDateList;
   }
 
-  /** assumption: marketDates is sorted, log(n) look up */
+  /**
+   * assumption: marketDates is sorted, single log(n) look up. Locates the nearest market date
+   * within 10 days of the local date, ahead of it on forward search and behind it otherwise
+   */
   Optional<Integer> locateIndexInMarketDates(
       LocalDate localDate, List<Integer> marketDates, boolean forwardSearch) {
-    Optional<Integer> targetIndex = Optional.empty();
-    int counter = forwardSearch ? 1 : -1;
-    int range = 11;
-
-    while (range-- > 0) {
-      int date = DateFormatUtil.getDate(localDate);
-      int searchResult = Collections.binarySearch(marketDates, date);
-      if (searchResult >= 0) return Optional.of(searchResult);
-      localDate = localDate.plusDays(counter);
-    }
-    return targetIndex;
+    int searchResult = Collections.binarySearch(marketDates, DateFormatUtil.getDate(localDate));
+    if (searchResult >= 0) return Optional.of(searchResult);
+
+    int insertionPoint = -searchResult - 1;
+    int targetIndex = forwardSearch ? insertionPoint : insertionPoint - 1;
+    if (targetIndex < 0 || targetIndex >= marketDates.size()) return Optional.empty();
+
+    long gapDays =
+        Math.abs(ChronoUnit.DAYS.between(localDate, convertDate(marketDates.get(targetIndex))));
+    return gapDays <= 10 ? Optional.of(targetIndex) : Optional.empty();
   }
 
   List<Pair<LocalDate, LocalDate>> identifyMissingDatesDueToOutdated(
@@ -321,6 +449,41 @@ public class TickerDataWarehouseServiceImpl implements TickerDataWarehouseServic
     return tickerDataWarehouse.contains(date, imnt);
   }
 
+  @Override
+  public Optional<Pair<Integer, Double>> getMarketDataAsOf(
+      String imnt, int date, int maxLookBackDays) {
+    return tickerDataWarehouse
+        .getAsOf(convertDate(date), imnt, maxLookBackDays)
+        .map(asOf -> Pair.of(DateFormatUtil.getDate(asOf.getLeft()), asOf.getRight()));
+  }
+
+  @Override
+  public PriceSeries getSeries(String imnt, int fromDate, int toDate) {
+    List<Integer> marketDates = this.marketDates;
+    int fromIndex = Collections.binarySearch(marketDates, fromDate);
+    if (fromIndex < 0) fromIndex = -fromIndex - 1;
+    int toIndex = Collections.binarySearch(marketDates, toDate);
+    toIndex = toIndex < 0 ? -toIndex - 1 : toIndex + 1;
+
+    return getSeries(
+        imnt, fromIndex < toIndex ? marketDates.subList(fromIndex, toIndex) : List.of());
+  }
+
+  @Override
+  public PriceSeries getSeries(String imnt, List<Integer> dates) {
+    int[] intDates = new int[dates.size()];
+    List<LocalDate> localDates = new ArrayList<>(dates.size());
+    for (int i = 0; i < intDates.length; i++) {
+      intDates[i] = dates.get(i);
+      localDates.add(convertDate(intDates[i]));
+    }
+
+    double[] prices = new double[intDates.length];
+    boolean[] valid = new boolean[intDates.length];
+    tickerDataWarehouse.getSeries(imnt, localDates, prices, valid);
+    return new PriceSeries(imnt, intDates, prices, valid);
+  }
+
   @Override
   public List<Pair<LocalDate, LocalDate>> identifyMissingDbDates(
       MarketDataProto.Ticker benchmarkTickerDataFromDb, List<Integer> marketDates) {
@@ -364,14 +527,7 @@ public class TickerDataWarehouseServiceImpl implements TickerDataWarehouseServic
 
   @Override
   public LocalDate convertDate(int date) {
-    // return DateFormatUtil.getLocalDate(date); // can be used as an alternate as well, but may be
-    // less optimal? test it out
-
-    int year = date / 10000;
-    date %= 10000;
-    int month = date / 100;
-    date %= 100;
-    return LocalDate.of(year, month, date);
+    return DateFormatUtil.getLocalDate(date);
   }
 
   @Override
@@ -379,6 +535,16 @@ public class TickerDataWarehouseServiceImpl implements TickerDataWarehouseServic
     return tickerDataWarehouse.getDates();
   }
 
+  @Override
+  public TradingCalendar getTradingCalendar() {
+    return tickerDataWarehouse.getTradingCalendar();
+  }
+
+  @Override
+  public long getHistoryRevision() {
+    return tickerDataWarehouse.getHistoryRevision();
+  }
+
   @Override
   public void fillAnalysisWarehouse(MarketDataProto.Ticker tickerData) {
     if (tickerData == null) return;
@@ -393,9 +559,54 @@ public class TickerDataWarehouseServiceImpl implements TickerDataWarehouseServic
             });
   }
 
-  private void populateMarketDates(MarketDataProto.Ticker benchmarkTickerData) {
-    benchmarkTickerData.getDataList().forEach(value -> marketDates.add(value.getDate()));
-    Collections.sort(marketDates);
+  @Override
+  public List<MarketDataProto.Ticker> exportAnalysisWarehouse() {
+    List<MarketDataProto.Ticker> tickers = new ArrayList<>();
+    for (String imnt : tickerDataWarehouse.getInstruments()) {
+      MarketDataProto.Ticker.Builder tickerBuilder =
+          MarketDataProto.Ticker.newBuilder().setSymbol(imnt);
+      tickerDataWarehouse
+          .getPrices(imnt)
+          .forEach(
+              (date, price) ->
+                  tickerBuilder.addData(
+                      MarketDataProto.Value.newBuilder()
+                          .setDate(DateFormatUtil.getDate(date))
+                          .setPrice(price)));
+      tickers.add(tickerBuilder.build());
+    }
+    return tickers;
+  }
+
+  @Override
+  public void restoreAnalysisWarehouse(List<MarketDataProto.Ticker> tickers) {
+    String benchmarkTicker = tickerDataWarehouseConfig.getBenchmarkTicker();
+    for (MarketDataProto.Ticker ticker : tickers) {
+      if (ticker.getSymbol().equals(benchmarkTicker) && marketDates.isEmpty())
+        populateMarketDates(ticker);
+      fillAnalysisWarehouse(ticker);
+    }
+    log.info("Restored {} tickers into the analysis warehouse", tickers.size());
+  }
+
+  /**
+   * Appends the benchmark's dates after the last market date held, as the warm start may have
+   * restored the earlier ones already
+   */
+  void populateMarketDates(MarketDataProto.Ticker benchmarkTickerData) {
+    appendMarketDates(
+        benchmarkTickerData.getDataList().stream().map(MarketDataProto.Value::getDate).toList());
+  }
+
+  private synchronized void appendMarketDates(List<Integer> dates) {
+    int lastMarketDate = marketDates.isEmpty() ? 0 : marketDates.get(marketDates.size() - 1);
+    List<Integer> newDates =
+        dates.stream().filter(date -> date > lastMarketDate).sorted().distinct().toList();
+    if (newDates.isEmpty()) return;
+    List<Integer> appended = new ArrayList<>(marketDates.size() + newDates.size());
+    appended.addAll(marketDates);
+    appended.addAll(newDates);
+    marketDates = Collections.unmodifiableList(appended);
   }
 
   /*
@@ -412,7 +623,7 @@ public class TickerDataWarehouseServiceImpl implements TickerDataWarehouseServic
         firstStartDate = date;
       }
     }
-    LocalDate endDate = LocalDate.now().plusDays(1);
+    LocalDate endDate = marketClock.today().plusDays(1);
     LocalDate startDateForAnalysis = endDate.minusYears(7);
 
     if (tickerDataWarehouseConfig.isLoad()) {
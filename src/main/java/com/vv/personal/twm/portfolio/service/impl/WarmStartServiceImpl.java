@@ -0,0 +1,172 @@
+package com.vv.personal.twm.portfolio.service.impl;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.ExtensionRegistryLite;
+import com.vv.personal.twm.artifactory.generated.equitiesMarket.MarketDataProto;
+import com.vv.personal.twm.portfolio.config.WarmStartConfig;
+import com.vv.personal.twm.portfolio.model.market.MarketLoadInputs;
+import com.vv.personal.twm.portfolio.model.market.WarmStartSnapshot;
+import com.vv.personal.twm.portfolio.service.TickerDataWarehouseService;
+import com.vv.personal.twm.portfolio.service.WarmStartService;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.time.StopWatch;
+
+/**
+ * Writes the snapshot as a header of magic and format version followed by length delimited protobuf
+ * messages, to a temp file moved over the previous snapshot so a crash mid write leaves the old one
+ * intact. It is read back off a memory mapped buffer. A format version bump makes the older
+ * snapshots unreadable, so they are ignored until the next good load replaces them.
+ *
+ * @author Vivek
+ * @since 2026-10-18
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class WarmStartServiceImpl implements WarmStartService {
+  private static final int MAGIC = 0x54574d57; // TWMW
+  static final int FORMAT_VERSION = 1;
+
+  private final WarmStartConfig warmStartConfig;
+  private final TickerDataWarehouseService tickerDataWarehouseService;
+
+  @Override
+  public boolean save(MarketLoadInputs loadInputs) {
+    if (!warmStartConfig.isEnabled() || loadInputs == null) return false;
+    StopWatch stopWatch = StopWatch.createStarted();
+    Path snapshotFile = Path.of(warmStartConfig.getSnapshotFile());
+    Path tempFile = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+    try {
+      List<MarketDataProto.Ticker> tickers = tickerDataWarehouseService.exportAnalysisWarehouse();
+      try (OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(tempFile))) {
+        write(CodedOutputStream.newInstance(outputStream), loadInputs, tickers);
+      }
+      Files.move(
+          tempFile,
+          snapshotFile,
+          StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+      stopWatch.stop();
+      log.info(
+          "Saved warm start snapshot of {} tickers to {} in {}ms",
+          tickers.size(),
+          snapshotFile,
+          stopWatch.getTime(TimeUnit.MILLISECONDS));
+      return true;
+    } catch (IOException e) {
+      log.error("Failed to save warm start snapshot to {}", snapshotFile, e);
+      return false;
+    }
+  }
+
+  @Override
+  public Optional<WarmStartSnapshot> read() {
+    if (!warmStartConfig.isEnabled()) return Optional.empty();
+    Path snapshotFile = Path.of(warmStartConfig.getSnapshotFile());
+    if (!Files.isRegularFile(snapshotFile)) {
+      log.info("No warm start snapshot at {}", snapshotFile);
+      return Optional.empty();
+    }
+
+    StopWatch stopWatch = StopWatch.createStarted();
+    try (FileChannel channel = FileChannel.open(snapshotFile, StandardOpenOption.READ)) {
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      Optional<WarmStartSnapshot> snapshot = read(CodedInputStream.newInstance(buffer));
+      stopWatch.stop();
+      snapshot.ifPresent(
+          warmStartSnapshot ->
+              log.info(
+                  "Read warm start snapshot of {} tickers from {} in {}ms",
+                  warmStartSnapshot.tickers().size(),
+                  snapshotFile,
+                  stopWatch.getTime(TimeUnit.MILLISECONDS)));
+      return snapshot;
+    } catch (IOException | RuntimeException e) {
+      log.error("Failed to read warm start snapshot from {}, ignoring it", snapshotFile, e);
+      return Optional.empty();
+    }
+  }
+
+  private void write(
+      CodedOutputStream output, MarketLoadInputs loadInputs, List<MarketDataProto.Ticker> tickers)
+      throws IOException {
+    output.writeFixed32NoTag(MAGIC);
+    output.writeUInt32NoTag(FORMAT_VERSION);
+    output.writeInt64NoTag(System.currentTimeMillis());
+
+    output.writeMessageNoTag(loadInputs.buys());
+    output.writeMessageNoTag(loadInputs.sells());
+    output.writeUInt32NoTag(loadInputs.dividends().size());
+    for (Map.Entry<MarketDataProto.AccountType, MarketDataProto.Portfolio> entry :
+        loadInputs.dividends().entrySet()) {
+      output.writeEnumNoTag(entry.getKey().getNumber());
+      output.writeMessageNoTag(entry.getValue());
+    }
+    output.writeUInt32NoTag(loadInputs.imntsNotInPortfolio().size());
+    for (String imnt : loadInputs.imntsNotInPortfolio()) output.writeStringNoTag(imnt);
+
+    output.writeUInt32NoTag(tickers.size());
+    for (MarketDataProto.Ticker ticker : tickers) output.writeMessageNoTag(ticker);
+    output.flush();
+  }
+
+  private Optional<WarmStartSnapshot> read(CodedInputStream input) throws IOException {
+    int magic = input.readFixed32();
+    int formatVersion = input.readUInt32();
+    if (magic != MAGIC || formatVersion != FORMAT_VERSION) {
+      log.warn(
+          "Ignoring warm start snapshot of format version {}, expecting {}",
+          formatVersion,
+          FORMAT_VERSION);
+      return Optional.empty();
+    }
+    long savedAtMillis = input.readInt64();
+    ExtensionRegistryLite extensionRegistry = ExtensionRegistryLite.getEmptyRegistry();
+
+    MarketDataProto.Portfolio buys =
+        input.readMessage(MarketDataProto.Portfolio.parser(), extensionRegistry);
+    MarketDataProto.Portfolio sells =
+        input.readMessage(MarketDataProto.Portfolio.parser(), extensionRegistry);
+    int dividendsCount = input.readUInt32();
+    Map<MarketDataProto.AccountType, MarketDataProto.Portfolio> dividends = new HashMap<>();
+    for (int i = 0; i < dividendsCount; i++) {
+      MarketDataProto.AccountType accountType =
+          MarketDataProto.AccountType.forNumber(input.readEnum());
+      MarketDataProto.Portfolio portfolio =
+          input.readMessage(MarketDataProto.Portfolio.parser(), extensionRegistry);
+      if (accountType != null) dividends.put(accountType, portfolio);
+    }
+    int imntsNotInPortfolioCount = input.readUInt32();
+    Set<String> imntsNotInPortfolio = new HashSet<>(imntsNotInPortfolioCount);
+    for (int i = 0; i < imntsNotInPortfolioCount; i++) imntsNotInPortfolio.add(input.readString());
+
+    int tickersCount = input.readUInt32();
+    List<MarketDataProto.Ticker> tickers = new ArrayList<>(tickersCount);
+    for (int i = 0; i < tickersCount; i++)
+      tickers.add(input.readMessage(MarketDataProto.Ticker.parser(), extensionRegistry));
+
+    return Optional.of(
+        new WarmStartSnapshot(
+            savedAtMillis,
+            new MarketLoadInputs(buys, sells, dividends, imntsNotInPortfolio),
+            tickers));
+  }
+}
@@ -1,10 +1,9 @@
 package com.vv.personal.twm.portfolio.util;
 
-import com.google.common.collect.Table;
 import com.opencsv.CSVParser;
 import com.vv.personal.twm.artifactory.generated.equitiesMarket.MarketDataProto;
+import com.vv.personal.twm.portfolio.model.market.CorrelationMatrix;
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -33,28 +32,26 @@ public final class DataConverterUtil {
   }
 
   public static MarketDataProto.CorrelationMatrix getCorrelationMatrix(
-      Optional<Table<String, String, Double>> optionalCorrelationMatrix) {
+      Optional<CorrelationMatrix> optionalCorrelationMatrix) {
     if (optionalCorrelationMatrix.isEmpty()) {
       log.warn("Supplied optional correlation matrix is empty");
       return MarketDataProto.CorrelationMatrix.newBuilder().build();
     }
-    Table<String, String, Double> correlationMatrix = optionalCorrelationMatrix.get();
+    CorrelationMatrix correlationMatrix = optionalCorrelationMatrix.get();
+    List<String> symbols = correlationMatrix.getSymbols();
 
-    List<MarketDataProto.CorrelationCell> correlationCells =
-        new ArrayList<>(correlationMatrix.size());
-    correlationMatrix
-        .rowMap()
-        .forEach(
-            (imntRow, imntColValMap) ->
-                imntColValMap.forEach(
-                    (imntCol, imntValMap) ->
-                        correlationCells.add(
-                            generateCorrelationCell(imntRow, imntCol, imntValMap))));
-    return MarketDataProto.CorrelationMatrix.newBuilder().addAllEntries(correlationCells).build();
+    MarketDataProto.CorrelationMatrix.Builder builder =
+        MarketDataProto.CorrelationMatrix.newBuilder();
+    for (int row = 0; row < symbols.size(); row++)
+      for (int col = 0; col < symbols.size(); col++)
+        builder.addEntries(
+            generateCorrelationCell(
+                symbols.get(row), symbols.get(col), correlationMatrix.get(row, col)));
+    return builder.build();
   }
 
   private static MarketDataProto.CorrelationCell generateCorrelationCell(
-      String rowKey, String columnKey, Double value) {
+      String rowKey, String columnKey, double value) {
     return MarketDataProto.CorrelationCell.newBuilder()
         .setImntRow(rowKey)
         .setImntCol(columnKey)
@@ -22,8 +22,9 @@ public final class DateFormatUtil {
     return LocalDate.parse(date, DATE_TIME_FORMATTER);
   }
 
+  /** Arithmetic conversion of a yyyyMMdd int, no formatter involved */
   public static LocalDate getLocalDate(int date) {
-    return getLocalDate(String.valueOf(date));
+    return LocalDate.of(date / 10000, date / 100 % 100, date % 100);
   }
 
   public static int getDate(LocalDate date) {
@@ -33,4 +34,37 @@ public final class DateFormatUtil {
   public static int getDate(String date) {
     return getDate(getLocalDate(date));
   }
+
+  /**
+   * Days since 1970-01-01 of a yyyyMMdd int, same as {@link LocalDate#toEpochDay()} but without
+   * materializing the LocalDate. The input is not validated.
+   */
+  public static long toEpochDay(int date) {
+    int year = date / 10000, month = date / 100 % 100, day = date % 100;
+    if (month <= 2) year--; // count the year from March, so that Feb 29 is the last day
+    long era = Math.floorDiv(year, 400);
+    long yearOfEra = year - era * 400;
+    long dayOfYear = (153L * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+    long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+    return era * 146097 + dayOfEra - 719468;
+  }
+
+  /** Inverse of {@link #toEpochDay(int)}, returns the yyyyMMdd int */
+  public static int fromEpochDay(long epochDay) {
+    long shifted = epochDay + 719468; // days since 0000-03-01
+    long era = Math.floorDiv(shifted, 146097);
+    long dayOfEra = shifted - era * 146097;
+    long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+    long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+    long monthIndex = (5 * dayOfYear + 2) / 153; // 0 = March
+    int day = (int) (dayOfYear - (153 * monthIndex + 2) / 5 + 1);
+    int month = (int) (monthIndex < 10 ? monthIndex + 3 : monthIndex - 9);
+    int year = (int) (yearOfEra + era * 400 + (month <= 2 ? 1 : 0));
+    return year * 10000 + month * 100 + day;
+  }
+
+  /** Calendar day arithmetic on yyyyMMdd ints */
+  public static int plusDays(int date, int days) {
+    return fromEpochDay(toEpochDay(date) + days);
+  }
 }
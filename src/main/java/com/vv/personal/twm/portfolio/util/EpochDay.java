@@ -0,0 +1,53 @@
+package com.vv.personal.twm.portfolio.util;
+
+import java.time.LocalDate;
+
+/**
+ * A calendar date held as its days since 1970-01-01. Unlike the yyyyMMdd int, consecutive days are
+ * consecutive values, so day arithmetic and day counts are plain int math, and the natural order is
+ * still chronological - making it usable as a dense array index or a sorted map key.
+ *
+ * @author Vivek
+ * @since 2026-10-18
+ */
+public record EpochDay(int value) implements Comparable<EpochDay> {
+
+  public static EpochDay of(int date) {
+    return new EpochDay((int) DateFormatUtil.toEpochDay(date));
+  }
+
+  public static EpochDay of(LocalDate date) {
+    return new EpochDay((int) date.toEpochDay());
+  }
+
+  /** yyyyMMdd int */
+  public int toDate() {
+    return DateFormatUtil.fromEpochDay(value);
+  }
+
+  public LocalDate toLocalDate() {
+    return LocalDate.ofEpochDay(value);
+  }
+
+  public EpochDay plusDays(int days) {
+    return new EpochDay(value + days);
+  }
+
+  public int daysUntil(EpochDay other) {
+    return other.value - value;
+  }
+
+  public boolean isAfter(EpochDay other) {
+    return value > other.value;
+  }
+
+  @Override
+  public int compareTo(EpochDay other) {
+    return Integer.compare(value, other.value);
+  }
+
+  @Override
+  public String toString() {
+    return String.valueOf(toDate());
+  }
+}
@@ -0,0 +1,32 @@
+package com.vv.personal.twm.portfolio.util;
+
+import java.time.Clock;
+import java.time.LocalDate;
+
+/**
+ * Today's date off a {@link Clock}, read on each call rather than fixed at class load, so a long
+ * running service moves on to the next day. A fixed clock pins today in tests.
+ *
+ * @author Vivek
+ * @since 2026-10-18
+ */
+public final class MarketClock {
+  private final Clock clock;
+
+  public MarketClock(Clock clock) {
+    this.clock = clock;
+  }
+
+  public static MarketClock system() {
+    return new MarketClock(Clock.systemDefaultZone());
+  }
+
+  public LocalDate today() {
+    return LocalDate.now(clock);
+  }
+
+  /** yyyyMMdd int */
+  public int todayDate() {
+    return DateFormatUtil.getDate(today());
+  }
+}
@@ -0,0 +1,172 @@
+package com.vv.personal.twm.portfolio.util.math;
+
+import com.vv.personal.twm.portfolio.model.market.CorrelationMatrix;
+import com.vv.personal.twm.portfolio.model.market.PriceSeries;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+/**
+ * Computes the full correlation matrix of a universe in one go, instead of pair by pair.
+ *
+ * <ol>
+ *   <li>Each instrument's prices are read once and turned into log returns on the shared date axis,
+ *       forward filling any missing day (so a gap contributes a 0 return).
+ *   <li>Each return column is standardized once: centered and scaled to unit norm, so the dot
+ *       product of two columns is their Pearson correlation.
+ *   <li>The matrix is then Z<sup>T</sup>Z, computed over square tiles of the upper triangle on the
+ *       fork-join pool, straight into the packed {@link CorrelationMatrix}.
+ * </ol>
+ *
+ * A column with no variance, or with fewer than two prices, correlates 0 with everything else. The
+ * diagonal is always 1.
+ *
+ * @author Vivek
+ * @since 2026-10-18
+ */
+public final class CorrelationEngine {
+  static final int TILE = 32; // instruments per tile side
+  private static final int T_CHUNK = 512; // days per pass over a tile
+
+  private CorrelationEngine() {}
+
+  public static CorrelationMatrix compute(
+      List<String> symbols, Function<String, PriceSeries> seriesReader, ForkJoinPool pool) {
+    int n = symbols.size();
+    double[][] columns = new double[n][];
+    pool.submit(
+            () ->
+                IntStream.range(0, n)
+                    .parallel()
+                    .forEach(
+                        i ->
+                            columns[i] =
+                                standardize(logReturns(seriesReader.apply(symbols.get(i))))))
+        .join();
+    double[] values = crossProducts(columns, pool);
+    int index = 0;
+    for (int i = 0; i < n; i++)
+      for (int j = i; j < n; j++, index++)
+        values[index] = i == j ? 1.0 : Math.max(-1.0, Math.min(1.0, values[index]));
+    return new CorrelationMatrix(symbols, values);
+  }
+
+  /**
+   * The symbol's row of {@link #compute} against the symbols, e.g. after its prices alone have
+   * changed, off the same returns so that a flat or missing series correlates 0 here too
+   */
+  public static double[] computeRow(
+      List<String> symbols, String symbol, Function<String, PriceSeries> seriesReader) {
+    double[] column = standardize(logReturns(seriesReader.apply(symbol)));
+    double[] row = new double[symbols.size()];
+    for (int i = 0; i < row.length; i++) {
+      if (symbols.get(i).equals(symbol)) {
+        row[i] = 1.0;
+        continue;
+      }
+      double[] other = standardize(logReturns(seriesReader.apply(symbols.get(i))));
+      double dot = dot(column, other, 0, Math.min(column.length, other.length));
+      row[i] = Math.max(-1.0, Math.min(1.0, dot));
+    }
+    return row;
+  }
+
+  /** Log returns on the series' date axis, forward filling missing prices */
+  static double[] logReturns(PriceSeries series) {
+    int days = series.size();
+    double[] returns = new double[Math.max(0, days - 1)];
+    double last = Double.NaN;
+    int present = 0;
+    for (int t = 0; t < days; t++) {
+      boolean valid = series.isValid(t) && series.price(t) > 0.0;
+      if (t > 0)
+        returns[t - 1] = valid && !Double.isNaN(last) ? Math.log(series.price(t) / last) : 0.0;
+      if (valid) {
+        last = series.price(t);
+        present++;
+      }
+    }
+    if (present < 2) Arrays.fill(returns, 0.0);
+    return returns;
+  }
+
+  /** Centers the column and scales it to unit norm, in place. A flat column is zeroed out */
+  static double[] standardize(double[] column) {
+    if (column.length == 0) return column;
+    double mean = 0.0;
+    for (double value : column) mean += value;
+    mean /= column.length;
+
+    double sumOfSquares = 0.0;
+    for (int t = 0; t < column.length; t++) {
+      column[t] -= mean;
+      sumOfSquares += column[t] * column[t];
+    }
+    double norm = Math.sqrt(sumOfSquares);
+    double scale = norm > 0.0 && Double.isFinite(norm) ? 1.0 / norm : 0.0;
+    for (int t = 0; t < column.length; t++) column[t] *= scale;
+    return column;
+  }
+
+  /** Packed upper triangle, diagonal included, of the columns' pairwise dot products */
+  static double[] crossProducts(double[][] columns, ForkJoinPool pool) {
+    int n = columns.length;
+    int days = n == 0 ? 0 : columns[0].length;
+    double[] values = new double[CorrelationMatrix.packedLength(n)];
+
+    int tiles = (n + TILE - 1) / TILE;
+    int[] tileRows = new int[tiles * (tiles + 1) / 2];
+    int[] tileCols = new int[tileRows.length];
+    for (int bi = 0, k = 0; bi < tiles; bi++)
+      for (int bj = bi; bj < tiles; bj++, k++) {
+        tileRows[k] = bi;
+        tileCols[k] = bj;
+      }
+
+    pool.submit(
+            () ->
+                IntStream.range(0, tileRows.length)
+                    .parallel()
+                    .forEach(k -> multiplyTile(columns, days, tileRows[k], tileCols[k], values)))
+        .join();
+    return values;
+  }
+
+  private static void multiplyTile(
+      double[][] columns, int days, int tileRow, int tileCol, double[] values) {
+    int n = columns.length;
+    int rowStart = tileRow * TILE, rowEnd = Math.min(n, rowStart + TILE);
+    int colStart = tileCol * TILE, colEnd = Math.min(n, colStart + TILE);
+    double[] tile = new double[TILE * TILE];
+
+    // walk the days in chunks so the tile's columns stay in cache across the pairs
+    for (int from = 0; from < days; from += T_CHUNK) {
+      int to = Math.min(days, from + T_CHUNK);
+      for (int i = rowStart; i < rowEnd; i++) {
+        double[] x = columns[i];
+        for (int j = Math.max(i, colStart); j < colEnd; j++)
+          tile[(i - rowStart) * TILE + j - colStart] += dot(x, columns[j], from, to);
+      }
+    }
+
+    for (int i = rowStart; i < rowEnd; i++)
+      for (int j = Math.max(i, colStart); j < colEnd; j++)
+        values[CorrelationMatrix.packedIndex(n, i, j)] = tile[(i - rowStart) * TILE + j - colStart];
+  }
+
+  private static double dot(double[] x, double[] y, int from, int to) {
+    // independent accumulators, so the adds pipeline instead of chaining on one register
+    double s0 = 0.0, s1 = 0.0, s2 = 0.0, s3 = 0.0;
+    int t = from;
+    for (; t + 3 < to; t += 4) {
+      s0 += x[t] * y[t];
+      s1 += x[t + 1] * y[t + 1];
+      s2 += x[t + 2] * y[t + 2];
+      s3 += x[t + 3] * y[t + 3];
+    }
+    for (; t < to; t++) s0 += x[t] * y[t];
+    return (s0 + s1) + (s2 + s3);
+  }
+}
@@ -2,12 +2,15 @@ package com.vv.personal.twm.portfolio.util.math;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.util.Arrays;
 
 /**
  * @author Vivek
  * @since 2026-03-07
  */
 public final class MathUtil {
+  // below this many values a sequential scan beats splitting the prefix over the common pool
+  static final int PARALLEL_PREFIX_THRESHOLD = 1 << 13;
 
   private MathUtil() {}
 
@@ -16,4 +19,17 @@ public final class MathUtil {
     bd = bd.setScale(2, RoundingMode.HALF_UP);
     return bd.doubleValue();
   }
+
+  /**
+   * In place running sum over [from, to), i.e. values[i] becomes the sum of values[from..i]. Large
+   * ranges go through {@link Arrays#parallelPrefix}, whose rounding can differ from the sequential
+   * scan in the last bits.
+   */
+  public static void prefixSum(double[] values, int from, int to) {
+    if (to - from >= PARALLEL_PREFIX_THRESHOLD) {
+      Arrays.parallelPrefix(values, from, to, Double::sum);
+      return;
+    }
+    for (int i = from + 1; i < to; i++) values[i] += values[i - 1];
+  }
 }
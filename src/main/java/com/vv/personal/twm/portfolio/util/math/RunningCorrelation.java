@@ -0,0 +1,191 @@
+package com.vv.personal.twm.portfolio.util.math;
+
+import com.vv.personal.twm.portfolio.model.market.CorrelationMatrix;
+import com.vv.personal.twm.portfolio.model.market.PriceSeries;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+/**
+ * Running means and pairwise co-moments (sums of products of deviations from the mean) of a
+ * universe's daily log returns, so that a new trading day, or a revised close for the latest day,
+ * is folded into the correlation matrix with O(n<sup>2</sup>) arithmetic instead of re-reading the
+ * history. The updates are Welford's, extended to pairs.
+ *
+ * <p>Returns follow the same conventions as {@link CorrelationEngine}, so that a matrix built up
+ * day by day matches one computed from scratch over the same dates.
+ *
+ * <p>Not thread safe.
+ *
+ * @author Vivek
+ * @since 2026-10-18
+ */
+public final class RunningCorrelation {
+  private final List<String> symbols;
+  private final int size;
+  private long count; // of returns, i.e. days - 1
+  private final double[] means;
+  private final double[] coMoments; // packed upper triangle, diagonal included
+
+  // forward filled closes, NaN until the first price
+  private final double[] lastPrices;
+  private final double[] priorPrices; // as of the day before the latest
+  private final double[] latestReturns;
+
+  private RunningCorrelation(List<String> symbols) {
+    this.symbols = List.copyOf(symbols);
+    this.size = symbols.size();
+    this.means = new double[size];
+    this.coMoments = new double[CorrelationMatrix.packedLength(size)];
+    this.lastPrices = new double[size];
+    this.priorPrices = new double[size];
+    this.latestReturns = new double[size];
+    Arrays.fill(lastPrices, Double.NaN);
+    Arrays.fill(priorPrices, Double.NaN);
+  }
+
+  /** Full build over the series' dates, computing the co-moments as one blocked product */
+  public static RunningCorrelation build(
+      List<String> symbols, Function<String, PriceSeries> seriesReader, ForkJoinPool pool) {
+    RunningCorrelation running = new RunningCorrelation(symbols);
+    double[][] columns = new double[running.size][];
+    pool.submit(
+            () ->
+                IntStream.range(0, running.size)
+                    .parallel()
+                    .forEach(i -> columns[i] = running.seed(i, seriesReader.apply(symbols.get(i)))))
+        .join();
+
+    running.count = running.size == 0 ? 0 : columns[0].length;
+    double[] products = CorrelationEngine.crossProducts(columns, pool);
+    System.arraycopy(products, 0, running.coMoments, 0, products.length);
+    return running;
+  }
+
+  public List<String> getSymbols() {
+    return symbols;
+  }
+
+  /** Number of price days folded in */
+  public long getDays() {
+    return count + 1;
+  }
+
+  /** Folds in the closes of a new trading day, positionally by symbol */
+  public void appendDay(double[] prices, boolean[] valid) {
+    double[] returns = new double[size];
+    for (int i = 0; i < size; i++) {
+      priorPrices[i] = lastPrices[i];
+      returns[i] = roll(i, prices[i], valid[i]);
+    }
+    add(returns);
+    System.arraycopy(returns, 0, latestReturns, 0, size);
+  }
+
+  /**
+   * Swaps the latest day's closes for the given ones. Returns false, leaving everything as is, if
+   * none of the closes changed.
+   */
+  public boolean replaceLatestDay(double[] prices, boolean[] valid) {
+    if (count == 0) throw new IllegalStateException("No trading day to replace");
+    double[] returns = new double[size];
+    double[] closes = new double[size];
+    boolean changed = false;
+    for (int i = 0; i < size; i++) {
+      boolean present = valid[i] && prices[i] > 0.0;
+      double prior = priorPrices[i];
+      closes[i] = present ? prices[i] : prior;
+      returns[i] = present && !Double.isNaN(prior) ? Math.log(prices[i] / prior) : 0.0;
+      changed |= Double.compare(closes[i], lastPrices[i]) != 0;
+    }
+    if (!changed) return false;
+
+    remove(latestReturns);
+    add(returns);
+    System.arraycopy(returns, 0, latestReturns, 0, size);
+    System.arraycopy(closes, 0, lastPrices, 0, size);
+    return true;
+  }
+
+  public CorrelationMatrix toMatrix() {
+    double[] values = new double[coMoments.length];
+    int index = 0;
+    for (int i = 0; i < size; i++) {
+      double varianceI = coMoments[CorrelationMatrix.packedIndex(size, i, i)];
+      for (int j = i; j < size; j++, index++) {
+        if (i == j) {
+          values[index] = 1.0;
+          continue;
+        }
+        double varianceJ = coMoments[CorrelationMatrix.packedIndex(size, j, j)];
+        double denominator = Math.sqrt(varianceI * varianceJ);
+        values[index] =
+            denominator > 0.0 ? Math.max(-1.0, Math.min(1.0, coMoments[index] / denominator)) : 0.0;
+      }
+    }
+    return new CorrelationMatrix(symbols, values);
+  }
+
+  /** Log returns of the symbol's series, centered, with the price and mean state filled in */
+  private double[] seed(int symbol, PriceSeries series) {
+    double[] returns = CorrelationEngine.logReturns(series);
+    for (int t = 0; t < series.size(); t++) {
+      if (t == series.size() - 1) priorPrices[symbol] = lastPrices[symbol];
+      if (series.isValid(t) && series.price(t) > 0.0) lastPrices[symbol] = series.price(t);
+    }
+    if (returns.length == 0) return returns;
+
+    latestReturns[symbol] = returns[returns.length - 1];
+    double mean = 0.0;
+    for (double value : returns) mean += value;
+    mean /= returns.length;
+    means[symbol] = mean;
+    for (int t = 0; t < returns.length; t++) returns[t] -= mean;
+    return returns;
+  }
+
+  private double roll(int symbol, double price, boolean valid) {
+    boolean present = valid && price > 0.0;
+    double last = lastPrices[symbol];
+    double logReturn = present && !Double.isNaN(last) ? Math.log(price / last) : 0.0;
+    if (present) lastPrices[symbol] = price;
+    return logReturn;
+  }
+
+  private void add(double[] returns) {
+    count++;
+    double[] deltas = new double[size];
+    for (int i = 0; i < size; i++) {
+      deltas[i] = returns[i] - means[i];
+      means[i] += deltas[i] / count;
+    }
+    updateCoMoments(deltas, (count - 1) / (double) count);
+  }
+
+  private void remove(double[] returns) {
+    if (count == 1) {
+      count = 0;
+      Arrays.fill(means, 0.0);
+      Arrays.fill(coMoments, 0.0);
+      return;
+    }
+    double[] deltas = new double[size];
+    for (int i = 0; i < size; i++) {
+      double priorMean = (count * means[i] - returns[i]) / (count - 1);
+      deltas[i] = returns[i] - priorMean;
+      means[i] = priorMean;
+    }
+    updateCoMoments(deltas, -(count - 1) / (double) count);
+    count--;
+  }
+
+  private void updateCoMoments(double[] deltas, double weight) {
+    int index = 0;
+    for (int i = 0; i < size; i++) {
+      double scaled = weight * deltas[i];
+      for (int j = i; j < size; j++, index++) coMoments[index] += scaled * deltas[j];
+    }
+  }
+}
@@ -0,0 +1,67 @@
+package com.vv.personal.twm.portfolio.util.math;
+
+import java.util.Optional;
+
+/**
+ * Primitive counterparts of {@link StatisticsUtil}, for series read in bulk off the warehouse.
+ *
+ * @author Vivek
+ * @since 2026-10-18
+ */
+public final class SeriesStatisticsUtil {
+
+  private SeriesStatisticsUtil() {}
+
+  public static Optional<Double> calculateMean(double[] inputValues) {
+    if (inputValues == null || inputValues.length == 0) return Optional.empty();
+
+    double mean = 0.0;
+    for (double inputValue : inputValues) mean += inputValue;
+    return Optional.of(mean / inputValues.length);
+  }
+
+  /** Sample variance */
+  public static Optional<Double> calculateVariance(double[] inputValues) {
+    if (inputValues == null || inputValues.length < 2) return Optional.empty();
+    double mean = calculateMean(inputValues).get();
+
+    double variance = 0.0;
+    for (double inputValue : inputValues) variance += (inputValue - mean) * (inputValue - mean);
+    return Optional.of(variance / (inputValues.length - 1));
+  }
+
+  /** Sample covariance */
+  public static Optional<Double> calculateCoVariance(double[] inputValues1, double[] inputValues2) {
+    if (inputValues1 == null
+        || inputValues2 == null
+        || inputValues1.length != inputValues2.length
+        || inputValues1.length < 2) return Optional.empty();
+    double mean1 = calculateMean(inputValues1).get();
+    double mean2 = calculateMean(inputValues2).get();
+
+    double covariance = 0.0;
+    for (int i = 0; i < inputValues1.length; i++)
+      covariance += (inputValues1[i] - mean1) * (inputValues2[i] - mean2);
+    return Optional.of(covariance / (inputValues1.length - 1));
+  }
+
+  /** Ingests N values and returns N-1 logarithmic returns */
+  public static Optional<double[]> calculateLogarithmicDelta(double[] inputValues) {
+    if (inputValues == null || inputValues.length <= 1) return Optional.empty();
+
+    double[] logarithmicDelta = new double[inputValues.length - 1];
+    for (int i = 1; i < inputValues.length; i++)
+      logarithmicDelta[i - 1] = Math.log(inputValues[i] / inputValues[i - 1]);
+    return Optional.of(logarithmicDelta);
+  }
+
+  public static Optional<Double> calculateCorrelation(
+      double[] inputValues1, double[] inputValues2) {
+    Optional<Double> covariance = calculateCoVariance(inputValues1, inputValues2);
+    if (covariance.isEmpty()) return covariance;
+
+    double standardDeviation1 = Math.sqrt(calculateVariance(inputValues1).get());
+    double standardDeviation2 = Math.sqrt(calculateVariance(inputValues2).get());
+    return Optional.of(covariance.get() / (standardDeviation1 * standardDeviation2));
+  }
+}
@@ -2,6 +2,10 @@ package com.vv.personal.twm.portfolio.warehouse.market;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Set;
+import org.apache.commons.lang3.tuple.Pair;
 
 /**
  * @author Vivek
@@ -17,5 +21,50 @@ public interface TickerDataWarehouse {
 
   boolean contains(LocalDate date, String imnt);
 
+  /** Instruments holding at least one price */
+  Set<String> getInstruments();
+
+  /** All prices of the imnt, by date */
+  NavigableMap<LocalDate, Double> getPrices(String imnt);
+
+  /** Sorted trading dates of the benchmark ticker. Not to be mutated by the caller */
   List<LocalDate> getDates();
+
+  /**
+   * Moves forward whenever an already stored part of the history changes: a price revised or filled
+   * in on a date before the instrument's latest one, or a price deleted. Writes on or after an
+   * instrument's latest date, i.e. new days and updates to the latest close, leave it as is. Lets
+   * derived state built off the history tell whether it is still valid.
+   */
+  long getHistoryRevision();
+
+  default TradingCalendar getTradingCalendar() {
+    return TradingCalendar.of(getDates());
+  }
+
+  /**
+   * Latest price of the imnt at or before the date, looking back no further than maxLookBackDays
+   * calendar days. Returns the date the price was found on, along with the price.
+   */
+  default Optional<Pair<LocalDate, Double>> getAsOf(
+      LocalDate date, String imnt, int maxLookBackDays) {
+    for (int days = 0; days <= maxLookBackDays; days++) {
+      Double price = get(date, imnt);
+      if (price != null) return Optional.of(Pair.of(date, price));
+      date = date.minusDays(1);
+    }
+    return Optional.empty();
+  }
+
+  /**
+   * Bulk read of the imnt's prices for the given dates. {@code prices} and {@code valid} are filled
+   * positionally, and need to be at least as long as {@code dates}.
+   */
+  default void getSeries(String imnt, List<LocalDate> dates, double[] prices, boolean[] valid) {
+    for (int i = 0; i < dates.size(); i++) {
+      Double price = get(dates.get(i), imnt);
+      valid[i] = price != null;
+      prices[i] = valid[i] ? price : 0.0;
+    }
+  }
 }
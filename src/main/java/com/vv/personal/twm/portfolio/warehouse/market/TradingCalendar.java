@@ -0,0 +1,69 @@
+package com.vv.personal.twm.portfolio.warehouse.market;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+
+/**
+ * Immutable, sorted view of the trading dates driven by the benchmark ticker, with O(1) mapping
+ * between a date and its ordinal in the calendar.
+ *
+ * @author Vivek
+ * @since 2026-10-18
+ */
+public final class TradingCalendar {
+  private static final TradingCalendar EMPTY = new TradingCalendar(Collections.emptyList());
+
+  private final List<LocalDate> dates;
+  private final Map<LocalDate, Integer> ordinals;
+
+  private TradingCalendar(List<LocalDate> sortedDates) {
+    this.dates = Collections.unmodifiableList(sortedDates);
+    this.ordinals = new HashMap<>((int) (sortedDates.size() / .75f) + 1);
+    for (int i = 0; i < sortedDates.size(); i++) ordinals.put(sortedDates.get(i), i);
+  }
+
+  public static TradingCalendar empty() {
+    return EMPTY;
+  }
+
+  public static TradingCalendar of(Collection<LocalDate> dates) {
+    List<LocalDate> sortedDates = new ArrayList<>(dates);
+    Collections.sort(sortedDates);
+    return new TradingCalendar(sortedDates);
+  }
+
+  /** Caller guarantees the dates are sorted, unique and not mutated afterwards */
+  public static TradingCalendar ofSorted(List<LocalDate> sortedDates) {
+    return new TradingCalendar(sortedDates);
+  }
+
+  public List<LocalDate> getDates() {
+    return dates;
+  }
+
+  public int size() {
+    return dates.size();
+  }
+
+  public boolean isEmpty() {
+    return dates.isEmpty();
+  }
+
+  public OptionalInt getOrdinal(LocalDate date) {
+    Integer ordinal = ordinals.get(date);
+    return ordinal == null ? OptionalInt.empty() : OptionalInt.of(ordinal);
+  }
+
+  public Optional<LocalDate> getDate(int ordinal) {
+    return ordinal >= 0 && ordinal < dates.size()
+        ? Optional.of(dates.get(ordinal))
+        : Optional.empty();
+  }
+}
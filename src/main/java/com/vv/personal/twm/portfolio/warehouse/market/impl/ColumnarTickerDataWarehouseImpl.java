@@ -0,0 +1,331 @@
+package com.vv.personal.twm.portfolio.warehouse.market.impl;
+
+import com.vv.personal.twm.portfolio.config.TickerDataWarehouseConfig;
+import com.vv.personal.twm.portfolio.warehouse.market.TickerDataWarehouse;
+import com.vv.personal.twm.portfolio.warehouse.market.TradingCalendar;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.apache.commons.lang3.tuple.Pair;
+
+/**
+ * Columnar take on the ticker data warehouse. Each symbol is dictionary-encoded to its own price
+ * column, and dates are mapped to dense ordinals (in order of first arrival), so an instrument is
+ * held as a primitive {@code double[]} indexed by date ordinal, with a {@link BitSet} marking which
+ * cells are present.
+ *
+ * <p>Compared to the {@code HashBasedTable<LocalDate, String, Double>} backed {@link
+ * TickerDataWarehouseImpl}, a price point costs 8 bytes + 1 bit instead of a boxed Double and two
+ * hash map entries. The cost of a missing cell is the same 8 bytes, which is fine as the universe
+ * is largely aligned on the benchmark's trading days.
+ *
+ * <p>As-of lookups are served off a per-instrument index of its present dates sorted by epoch day,
+ * built lazily on the first as-of read after a mutation of that instrument.
+ *
+ * <p>The trading calendar is maintained incrementally off the benchmark ticker's puts and deletes,
+ * kept sorted on insertion, and handed out as an immutable {@link TradingCalendar} snapshot which
+ * is only rebuilt after the calendar changes.
+ *
+ * <p>The history revision is bumped off the same per-instrument write path, by tracking each
+ * column's latest date.
+ *
+ * <p>Thread safe. Locking is striped per instrument column, so the parallel analysis data load (one
+ * task per instrument) does not contend on writes. The dictionaries are lock-free on reads and only
+ * the first sighting of a date is serialized.
+ *
+ * @author Vivek
+ * @since 2026-10-18
+ */
+public class ColumnarTickerDataWarehouseImpl implements TickerDataWarehouse {
+  private static final int INITIAL_DATE_CAPACITY = 2048;
+
+  private final TickerDataWarehouseConfig tickerDataWarehouseConfig;
+
+  private final ConcurrentHashMap<String, PriceColumn> priceColumns;
+  private final ConcurrentHashMap<LocalDate, Integer> dateOrdinals;
+  private final List<LocalDate> ordinalDates;
+  private final List<LocalDate> calendarDates; // sorted, guarded by itself
+  private volatile TradingCalendar tradingCalendar; // null when stale
+  private final AtomicLong historyRevision;
+
+  public ColumnarTickerDataWarehouseImpl(TickerDataWarehouseConfig tickerDataWarehouseConfig) {
+    this.tickerDataWarehouseConfig = tickerDataWarehouseConfig;
+
+    this.priceColumns = new ConcurrentHashMap<>();
+    this.dateOrdinals = new ConcurrentHashMap<>(INITIAL_DATE_CAPACITY);
+    this.ordinalDates = new CopyOnWriteArrayList<>();
+    this.calendarDates = new ArrayList<>(INITIAL_DATE_CAPACITY);
+    this.tradingCalendar = TradingCalendar.empty();
+    this.historyRevision = new AtomicLong();
+  }
+
+  @Override
+  public void put(LocalDate date, String imnt, Double price) {
+    double value = price; // null prices are rejected, same as the table impl
+    int ordinal = encodeDate(date);
+    PriceColumn column =
+        priceColumns.computeIfAbsent(
+            imnt, k -> new PriceColumn(Math.max(ordinalDates.size(), INITIAL_DATE_CAPACITY)));
+    column.put(ordinal, value);
+    if (isBenchmark(imnt)) addToCalendar(date);
+  }
+
+  @Override
+  public Double get(LocalDate date, String imnt) {
+    PriceColumn column = priceColumns.get(imnt);
+    Integer ordinal = dateOrdinals.get(date);
+    if (column == null || ordinal == null) return null;
+    return column.get(ordinal);
+  }
+
+  @Override
+  public void delete(LocalDate date, String imnt) {
+    PriceColumn column = priceColumns.get(imnt);
+    Integer ordinal = dateOrdinals.get(date);
+    if (column != null && ordinal != null) column.delete(ordinal);
+    if (isBenchmark(imnt)) removeFromCalendar(date);
+  }
+
+  @Override
+  public boolean contains(LocalDate date, String imnt) {
+    return get(date, imnt) != null;
+  }
+
+  @Override
+  public Set<String> getInstruments() {
+    Set<String> instruments = new TreeSet<>();
+    priceColumns.forEach(
+        (imnt, column) -> {
+          if (column.hasPrices()) instruments.add(imnt);
+        });
+    return instruments;
+  }
+
+  @Override
+  public NavigableMap<LocalDate, Double> getPrices(String imnt) {
+    PriceColumn column = priceColumns.get(imnt);
+    return column == null ? new TreeMap<>() : column.getPrices();
+  }
+
+  @Override
+  public Optional<Pair<LocalDate, Double>> getAsOf(
+      LocalDate date, String imnt, int maxLookBackDays) {
+    PriceColumn column = priceColumns.get(imnt);
+    if (column == null) return Optional.empty();
+    return column.getAsOf(date, maxLookBackDays);
+  }
+
+  @Override
+  public void getSeries(String imnt, List<LocalDate> dates, double[] prices, boolean[] valid) {
+    PriceColumn column = priceColumns.get(imnt);
+    if (column == null) {
+      Arrays.fill(valid, 0, dates.size(), false);
+      return;
+    }
+    int[] ordinals = new int[dates.size()];
+    for (int i = 0; i < ordinals.length; i++) {
+      Integer ordinal = dateOrdinals.get(dates.get(i));
+      ordinals[i] = ordinal == null ? -1 : ordinal;
+    }
+    column.getSeries(ordinals, prices, valid);
+  }
+
+  @Override
+  public long getHistoryRevision() {
+    return historyRevision.get();
+  }
+
+  @Override
+  public List<LocalDate> getDates() {
+    return getTradingCalendar().getDates();
+  }
+
+  @Override
+  public TradingCalendar getTradingCalendar() {
+    TradingCalendar calendar = tradingCalendar;
+    if (calendar != null) return calendar;
+
+    synchronized (calendarDates) {
+      if (tradingCalendar == null)
+        tradingCalendar = TradingCalendar.ofSorted(new ArrayList<>(calendarDates));
+      return tradingCalendar;
+    }
+  }
+
+  private boolean isBenchmark(String imnt) {
+    return imnt.equals(tickerDataWarehouseConfig.getBenchmarkTicker());
+  }
+
+  private void addToCalendar(LocalDate date) {
+    synchronized (calendarDates) {
+      int size = calendarDates.size();
+      if (size == 0 || calendarDates.get(size - 1).isBefore(date)) { // loads come in date order
+        calendarDates.add(date);
+      } else {
+        int index = Collections.binarySearch(calendarDates, date);
+        if (index >= 0) return;
+        calendarDates.add(-index - 1, date);
+      }
+      tradingCalendar = null;
+    }
+  }
+
+  private void removeFromCalendar(LocalDate date) {
+    synchronized (calendarDates) {
+      int index = Collections.binarySearch(calendarDates, date);
+      if (index < 0) return;
+      calendarDates.remove(index);
+      tradingCalendar = null;
+    }
+  }
+
+  private int encodeDate(LocalDate date) {
+    Integer ordinal = dateOrdinals.get(date);
+    if (ordinal != null) return ordinal;
+
+    synchronized (ordinalDates) {
+      ordinal = dateOrdinals.get(date);
+      if (ordinal != null) return ordinal;
+
+      ordinal = ordinalDates.size();
+      ordinalDates.add(date); // published before the ordinal is visible to readers
+      dateOrdinals.put(date, ordinal);
+      return ordinal;
+    }
+  }
+
+  /** One instrument's prices, guarded by its own lock */
+  private final class PriceColumn {
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private double[] prices;
+    private final BitSet presence;
+    // (epochDay << 32 | ordinal) of the present cells, sorted. null when stale
+    private volatile long[] asOfIndex;
+    private long latestEpochDay = Long.MIN_VALUE;
+
+    private PriceColumn(int capacity) {
+      this.prices = new double[capacity];
+      this.presence = new BitSet(capacity);
+    }
+
+    private void put(int ordinal, double value) {
+      lock.writeLock().lock();
+      try {
+        if (ordinal >= prices.length)
+          prices =
+              Arrays.copyOf(prices, Math.max(ordinal + 1, prices.length + (prices.length >> 1)));
+        long epochDay = ordinalDates.get(ordinal).toEpochDay();
+        if (epochDay < latestEpochDay
+            && (!presence.get(ordinal) || Double.compare(prices[ordinal], value) != 0))
+          historyRevision.incrementAndGet();
+        latestEpochDay = Math.max(latestEpochDay, epochDay);
+
+        prices[ordinal] = value;
+        presence.set(ordinal);
+        asOfIndex = null;
+      } finally {
+        lock.writeLock().unlock();
+      }
+    }
+
+    private void delete(int ordinal) {
+      lock.writeLock().lock();
+      try {
+        if (presence.get(ordinal)) historyRevision.incrementAndGet();
+        presence.clear(ordinal);
+        asOfIndex = null;
+      } finally {
+        lock.writeLock().unlock();
+      }
+    }
+
+    private Double get(int ordinal) {
+      lock.readLock().lock();
+      try {
+        return presence.get(ordinal) ? prices[ordinal] : null;
+      } finally {
+        lock.readLock().unlock();
+      }
+    }
+
+    private void getSeries(int[] ordinals, double[] seriesPrices, boolean[] valid) {
+      lock.readLock().lock();
+      try {
+        for (int i = 0; i < ordinals.length; i++) {
+          valid[i] = ordinals[i] >= 0 && presence.get(ordinals[i]);
+          seriesPrices[i] = valid[i] ? prices[ordinals[i]] : 0.0;
+        }
+      } finally {
+        lock.readLock().unlock();
+      }
+    }
+
+    private boolean hasPrices() {
+      lock.readLock().lock();
+      try {
+        return !presence.isEmpty();
+      } finally {
+        lock.readLock().unlock();
+      }
+    }
+
+    private NavigableMap<LocalDate, Double> getPrices() {
+      lock.readLock().lock();
+      try {
+        NavigableMap<LocalDate, Double> datePrices = new TreeMap<>();
+        for (int ordinal = presence.nextSetBit(0);
+            ordinal >= 0;
+            ordinal = presence.nextSetBit(ordinal + 1)) {
+          datePrices.put(ordinalDates.get(ordinal), prices[ordinal]);
+        }
+        return datePrices;
+      } finally {
+        lock.readLock().unlock();
+      }
+    }
+
+    private Optional<Pair<LocalDate, Double>> getAsOf(LocalDate date, int maxLookBackDays) {
+      lock.readLock().lock();
+      try {
+        long[] index = asOfIndex;
+        // concurrent readers may race to build it, all arriving at the same index
+        if (index == null) index = asOfIndex = buildAsOfIndex();
+
+        long epochDay = date.toEpochDay();
+        int floor = -Arrays.binarySearch(index, epochDay << 32 | 0xFFFFFFFFL) - 2;
+        if (floor < 0 || epochDay - (index[floor] >>> 32) > maxLookBackDays)
+          return Optional.empty();
+
+        int ordinal = (int) index[floor];
+        return Optional.of(Pair.of(ordinalDates.get(ordinal), prices[ordinal]));
+      } finally {
+        lock.readLock().unlock();
+      }
+    }
+
+    private long[] buildAsOfIndex() {
+      long[] index = new long[presence.cardinality()];
+      int i = 0;
+      for (int ordinal = presence.nextSetBit(0);
+          ordinal >= 0;
+          ordinal = presence.nextSetBit(ordinal + 1)) {
+        index[i++] = ordinalDates.get(ordinal).toEpochDay() << 32 | ordinal;
+      }
+      Arrays.sort(index);
+      return index;
+    }
+  }
+}
@@ -0,0 +1,201 @@
+package com.vv.personal.twm.portfolio.warehouse.market.impl;
+
+import com.vv.personal.twm.portfolio.config.TickerDataWarehouseConfig;
+import com.vv.personal.twm.portfolio.model.market.PriceUpdate;
+import com.vv.personal.twm.portfolio.warehouse.market.TickerDataWarehouse;
+import com.vv.personal.twm.portfolio.warehouse.market.TradingCalendar;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import lombok.Setter;
+import org.apache.commons.lang3.tuple.Pair;
+
+/**
+ * Ticker data warehouse versioned by data epoch, over a plain one holding the settled prices. The
+ * prices of an incremental update are put in as a layer of their own, seen only by readers on the
+ * epoch the update is published as or a later one, so a reader pinned to an earlier epoch keeps
+ * reading the prices as they were. A layer dropped along with its update leaves nothing behind.
+ *
+ * <p>Once no reader is left on an epoch before a layer's, it is settled, i.e. written through to
+ * the underlying warehouse, which keeps the layers down to the few updates in flight.
+ *
+ * <p>Plain puts and deletes go straight to the underlying warehouse, for every epoch: they are the
+ * full loads, which build over the settled prices.
+ *
+ * @author Vivek
+ * @since 2026-10-18
+ */
+public class EpochTickerDataWarehouseImpl implements TickerDataWarehouse {
+  private final TickerDataWarehouse tickerDataWarehouse;
+  private final TickerDataWarehouseConfig tickerDataWarehouseConfig;
+  private final AtomicLong settledRevisions = new AtomicLong();
+  private volatile List<PriceLayer> layers = List.of(); // by epoch, copy-on-write under this
+
+  /** Data epoch of the reading thread, everything is read when unset */
+  @Setter private volatile LongSupplier dataEpoch = () -> Long.MAX_VALUE;
+
+  private record PriceLayer(long epoch, PriceUpdate prices) {}
+
+  public EpochTickerDataWarehouseImpl(
+      TickerDataWarehouse tickerDataWarehouse,
+      TickerDataWarehouseConfig tickerDataWarehouseConfig) {
+    this.tickerDataWarehouse = tickerDataWarehouse;
+    this.tickerDataWarehouseConfig = tickerDataWarehouseConfig;
+  }
+
+  /** Puts the prices in as of the epoch, unseen by readers on an earlier one */
+  public synchronized void putPrices(long epoch, PriceUpdate prices) {
+    if (prices.isEmpty()) return;
+    List<PriceLayer> added = new ArrayList<>(layers);
+    added.add(new PriceLayer(epoch, prices));
+    layers = List.copyOf(added);
+  }
+
+  /** Drops the prices put in as of the epoch, its update not being published */
+  public synchronized void dropPrices(long epoch) {
+    layers = layers.stream().filter(layer -> layer.epoch() != epoch).toList();
+  }
+
+  /**
+   * Writes the prices put in as of the epoch or earlier through to the underlying warehouse, no
+   * reader being left on an epoch before theirs
+   */
+  public synchronized void settlePrices(long epoch) {
+    List<PriceLayer> layers = this.layers;
+    int settled = 0;
+    for (; settled < layers.size() && layers.get(settled).epoch() <= epoch; settled++) {
+      PriceUpdate prices = layers.get(settled).prices();
+      prices
+          .prices()
+          .forEach(
+              (imnt, datePrices) ->
+                  datePrices.forEach((date, price) -> tickerDataWarehouse.put(date, imnt, price)));
+      if (prices.revision()) settledRevisions.incrementAndGet();
+    }
+    // written through first, so a reader sees the prices either way meanwhile
+    if (settled > 0) this.layers = layers.subList(settled, layers.size());
+  }
+
+  @Override
+  public void put(LocalDate date, String imnt, Double price) {
+    tickerDataWarehouse.put(date, imnt, price);
+  }
+
+  @Override
+  public Double get(LocalDate date, String imnt) {
+    List<PriceLayer> visible = visibleLayers();
+    for (int i = visible.size() - 1; i >= 0; i--) {
+      Double price = visible.get(i).prices().get(date, imnt);
+      if (price != null) return price;
+    }
+    return tickerDataWarehouse.get(date, imnt);
+  }
+
+  @Override
+  public void delete(LocalDate date, String imnt) {
+    tickerDataWarehouse.delete(date, imnt);
+  }
+
+  @Override
+  public boolean contains(LocalDate date, String imnt) {
+    return get(date, imnt) != null;
+  }
+
+  @Override
+  public Set<String> getInstruments() {
+    List<PriceLayer> visible = visibleLayers();
+    if (visible.isEmpty()) return tickerDataWarehouse.getInstruments();
+    Set<String> instruments = new TreeSet<>(tickerDataWarehouse.getInstruments());
+    visible.forEach(layer -> instruments.addAll(layer.prices().prices().keySet()));
+    return instruments;
+  }
+
+  @Override
+  public NavigableMap<LocalDate, Double> getPrices(String imnt) {
+    NavigableMap<LocalDate, Double> prices = new TreeMap<>(tickerDataWarehouse.getPrices(imnt));
+    for (PriceLayer layer : visibleLayers()) {
+      NavigableMap<LocalDate, Double> datePrices = layer.prices().prices().get(imnt);
+      if (datePrices != null) prices.putAll(datePrices);
+    }
+    return prices;
+  }
+
+  @Override
+  public List<LocalDate> getDates() {
+    return getTradingCalendar().getDates();
+  }
+
+  @Override
+  public TradingCalendar getTradingCalendar() {
+    TradingCalendar calendar = tickerDataWarehouse.getTradingCalendar();
+    String benchmarkTicker = tickerDataWarehouseConfig.getBenchmarkTicker();
+    TreeSet<LocalDate> dates = null;
+    for (PriceLayer layer : visibleLayers()) {
+      NavigableMap<LocalDate, Double> datePrices = layer.prices().prices().get(benchmarkTicker);
+      if (datePrices == null) continue;
+      for (LocalDate date : datePrices.keySet())
+        if (calendar.getOrdinal(date).isEmpty()) {
+          if (dates == null) dates = new TreeSet<>(calendar.getDates());
+          dates.add(date);
+        }
+    }
+    return dates == null ? calendar : TradingCalendar.ofSorted(new ArrayList<>(dates));
+  }
+
+  @Override
+  public long getHistoryRevision() {
+    long revision = tickerDataWarehouse.getHistoryRevision() + settledRevisions.get();
+    for (PriceLayer layer : visibleLayers()) if (layer.prices().revision()) revision++;
+    return revision;
+  }
+
+  @Override
+  public Optional<Pair<LocalDate, Double>> getAsOf(
+      LocalDate date, String imnt, int maxLookBackDays) {
+    Optional<Pair<LocalDate, Double>> asOf =
+        tickerDataWarehouse.getAsOf(date, imnt, maxLookBackDays);
+    LocalDate lookBackDate = date.minusDays(maxLookBackDays);
+    for (PriceLayer layer : visibleLayers()) {
+      NavigableMap<LocalDate, Double> datePrices = layer.prices().prices().get(imnt);
+      Map.Entry<LocalDate, Double> floor = datePrices == null ? null : datePrices.floorEntry(date);
+      if (floor == null || floor.getKey().isBefore(lookBackDate)) continue;
+      // a later layer wins on the same date
+      if (asOf.isEmpty() || !floor.getKey().isBefore(asOf.get().getLeft()))
+        asOf = Optional.of(Pair.of(floor.getKey(), floor.getValue()));
+    }
+    return asOf;
+  }
+
+  @Override
+  public void getSeries(String imnt, List<LocalDate> dates, double[] prices, boolean[] valid) {
+    tickerDataWarehouse.getSeries(imnt, dates, prices, valid);
+    for (PriceLayer layer : visibleLayers()) {
+      NavigableMap<LocalDate, Double> datePrices = layer.prices().prices().get(imnt);
+      if (datePrices == null) continue;
+      for (int i = 0; i < dates.size(); i++) {
+        Double price = datePrices.get(dates.get(i));
+        if (price == null) continue;
+        prices[i] = price;
+        valid[i] = true;
+      }
+    }
+  }
+
+  /** The layers the reading thread's epoch sees, by epoch */
+  private List<PriceLayer> visibleLayers() {
+    List<PriceLayer> layers = this.layers;
+    if (layers.isEmpty()) return layers;
+    long epoch = dataEpoch.getAsLong();
+    int visible = 0;
+    while (visible < layers.size() && layers.get(visible).epoch() <= epoch) visible++;
+    return visible == layers.size() ? layers : layers.subList(0, visible);
+  }
+}
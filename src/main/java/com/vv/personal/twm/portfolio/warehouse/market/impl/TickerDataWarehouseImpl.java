@@ -6,7 +6,11 @@ import com.vv.personal.twm.portfolio.config.TickerDataWarehouseConfig;
 import com.vv.personal.twm.portfolio.warehouse.market.TickerDataWarehouse;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
@@ -22,17 +26,20 @@ public class TickerDataWarehouseImpl implements TickerDataWarehouse {
   private final TickerDataWarehouseConfig tickerDataWarehouseConfig;
   private final Table<LocalDate, String, Double> adjustedClosePriceTableForAnalysis;
   private final TreeSet<String> instruments;
+  private final AtomicLong historyRevision;
 
   public TickerDataWarehouseImpl(TickerDataWarehouseConfig tickerDataWarehouseConfig) {
     this.tickerDataWarehouseConfig = tickerDataWarehouseConfig;
 
     this.instruments = new TreeSet<>();
     adjustedClosePriceTableForAnalysis = HashBasedTable.create();
+    historyRevision = new AtomicLong();
   }
 
   @Override
   public void put(LocalDate date, String imnt, Double price) {
     adjustedClosePriceTableForAnalysis.put(date, imnt, price);
+    historyRevision.incrementAndGet(); // not tracking the latest date per imnt here
   }
 
   @Override
@@ -43,6 +50,7 @@ public class TickerDataWarehouseImpl implements TickerDataWarehouse {
   @Override
   public void delete(LocalDate date, String imnt) {
     adjustedClosePriceTableForAnalysis.remove(date, imnt);
+    historyRevision.incrementAndGet();
   }
 
   @Override
@@ -50,6 +58,21 @@ public class TickerDataWarehouseImpl implements TickerDataWarehouse {
     return get(date, imnt) != null;
   }
 
+  @Override
+  public Set<String> getInstruments() {
+    return new TreeSet<>(adjustedClosePriceTableForAnalysis.columnKeySet());
+  }
+
+  @Override
+  public NavigableMap<LocalDate, Double> getPrices(String imnt) {
+    return new TreeMap<>(adjustedClosePriceTableForAnalysis.column(imnt));
+  }
+
+  @Override
+  public long getHistoryRevision() {
+    return historyRevision.get();
+  }
+
   @Override
   public List<LocalDate> getDates() {
     return adjustedClosePriceTableForAnalysis.rowKeySet().stream()
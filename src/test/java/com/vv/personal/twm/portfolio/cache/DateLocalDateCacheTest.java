@@ -0,0 +1,41 @@
+package com.vv.personal.twm.portfolio.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDate;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Vivek
+ * @since 2026-10-18
+ */
+class DateLocalDateCacheTest {
+
+  private final DateLocalDateCache cache =
+      new DateLocalDateCache(new DenseCalendarCache(2020, 2026));
+
+  @Test
+  void testGet() {
+    assertEquals(LocalDate.of(2024, 12, 3), cache.get(20241203).get());
+    assertEquals(20241203, cache.get(LocalDate.of(2024, 12, 3)).getAsInt());
+    assertEquals(LocalDate.of(2024, 12, 3), cache.getOrCalc(20241203));
+  }
+
+  @Test
+  void testGet_NotAdded() {
+    // used to NPE on a LocalDate which was never added
+    assertEquals(20250220, cache.get(LocalDate.of(2025, 2, 20)).getAsInt());
+    assertEquals(19991231, cache.get(LocalDate.of(1999, 12, 31)).getAsInt());
+    assertEquals(LocalDate.of(2030, 1, 2), cache.get(20300102).get());
+  }
+
+  @Test
+  void testContains() {
+    assertTrue(cache.contains(20200101));
+    assertTrue(cache.contains(LocalDate.of(2026, 12, 31)));
+    assertFalse(cache.contains(20270101));
+
+    cache.flush();
+    assertTrue(cache.contains(20200101));
+  }
+}
@@ -0,0 +1,76 @@
+package com.vv.personal.twm.portfolio.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.vv.personal.twm.portfolio.util.DateFormatUtil;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Vivek
+ * @since 2026-10-18
+ */
+class DenseCalendarCacheTest {
+
+  private final DenseCalendarCache calendar = new DenseCalendarCache(2020, 2026);
+
+  @Test
+  void testRange() {
+    assertEquals(
+        LocalDate.of(2026, 12, 31).toEpochDay() - LocalDate.of(2020, 1, 1).toEpochDay() + 1,
+        calendar.size());
+    assertTrue(calendar.covers(20200101));
+    assertTrue(calendar.covers(20261231));
+    assertFalse(calendar.covers(20191231));
+    assertFalse(calendar.covers(LocalDate.of(2027, 1, 1)));
+    assertThrows(IllegalArgumentException.class, () -> new DenseCalendarCache(2026, 2020));
+  }
+
+  @Test
+  void testLookups() {
+    for (LocalDate date = LocalDate.of(2019, 6, 1);
+        date.isBefore(LocalDate.of(2027, 6, 1));
+        date = date.plusDays(1)) {
+      int intDate = DateFormatUtil.getDate(date);
+      assertEquals(date, calendar.getLocalDate(intDate));
+      assertEquals(intDate, calendar.getDate(date));
+    }
+    assertSame(calendar.getLocalDate(20240229), calendar.getLocalDate(20240229));
+  }
+
+  @Test
+  void testInvalidDate() {
+    assertThrows(DateTimeException.class, () -> calendar.getLocalDate(20250229));
+    assertThrows(DateTimeException.class, () -> calendar.getLocalDate(20250231));
+    assertThrows(DateTimeException.class, () -> calendar.getLocalDate(20251301));
+  }
+
+  @Test
+  void testConcurrentReads() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<Boolean>> futures = new ArrayList<>();
+      for (int t = 0; t < 8; t++) {
+        futures.add(
+            executor.submit(
+                () -> {
+                  for (LocalDate date = LocalDate.of(2020, 1, 1);
+                      date.getYear() < 2027;
+                      date = date.plusDays(1)) {
+                    if (!date.equals(calendar.getLocalDate(calendar.getDate(date)))) return false;
+                  }
+                  return true;
+                }));
+      }
+      for (Future<Boolean> future : futures) assertTrue(future.get());
+    } finally {
+      executor.shutdown();
+    }
+  }
+}
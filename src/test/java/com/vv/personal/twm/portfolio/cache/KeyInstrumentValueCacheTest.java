@@ -116,4 +116,20 @@ class KeyInstrumentValueCacheTest {
         () -> assertFalse(cache.containsKey("K2")),
         () -> assertFalse(cache.containsImntForKey("K2", "BNS.TO")));
   }
+
+  @Test
+  @DisplayName("Should drop an instrument from the flushable keys only")
+  void testFlushImnt() {
+    cache.offer("beta", "CM.TO", 1.1);
+    cache.offer("beta", "BNS.TO", 0.9);
+    cache.setFlushForKey("sector", false);
+    cache.offer("sector", "CM.TO", 2.0);
+
+    cache.flushImnt("CM.TO");
+
+    assertAll(
+        () -> assertFalse(cache.containsImntForKey("beta", "CM.TO")),
+        () -> assertTrue(cache.containsImntForKey("beta", "BNS.TO")),
+        () -> assertTrue(cache.containsImntForKey("sector", "CM.TO")));
+  }
 }
@@ -0,0 +1,57 @@
+package com.vv.personal.twm.portfolio.math;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.vv.personal.twm.portfolio.util.math.SeriesStatisticsUtil;
+import com.vv.personal.twm.portfolio.util.math.StatisticsUtil;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Vivek
+ * @since 2026-10-18
+ */
+class SeriesStatisticsUtilTest {
+  private static final double DELTA = 0.0001;
+
+  private final double[] X = {102.20, 104.25, 99.10, 96.99, 101.55};
+  private final double[] Y = {10.20, 10.25, 10.10, 11.50, 12.30};
+
+  @Test
+  public void testParityWithListBasedUtil() {
+    List<Double> x = Arrays.stream(X).boxed().toList();
+    List<Double> y = Arrays.stream(Y).boxed().toList();
+
+    assertEquals(
+        StatisticsUtil.calculateMean(x).get(), SeriesStatisticsUtil.calculateMean(X).get(), DELTA);
+    assertEquals(
+        StatisticsUtil.calculateVariance(x, Optional.empty()).get(),
+        SeriesStatisticsUtil.calculateVariance(X).get(),
+        DELTA);
+    assertEquals(
+        StatisticsUtil.calculateCoVariance(x, y).get(),
+        SeriesStatisticsUtil.calculateCoVariance(X, Y).get(),
+        DELTA);
+    assertEquals(
+        StatisticsUtil.calculateCorrelation(x, y).get(),
+        SeriesStatisticsUtil.calculateCorrelation(X, Y).get(),
+        DELTA);
+
+    List<Double> logDelta = StatisticsUtil.calculateLogarithmicDelta(x).get();
+    double[] primitiveLogDelta = SeriesStatisticsUtil.calculateLogarithmicDelta(X).get();
+    assertEquals(logDelta.size(), primitiveLogDelta.length);
+    for (int i = 0; i < primitiveLogDelta.length; i++)
+      assertEquals(logDelta.get(i), primitiveLogDelta[i], DELTA);
+  }
+
+  @Test
+  public void testInsufficientInput() {
+    assertTrue(SeriesStatisticsUtil.calculateMean(new double[0]).isEmpty());
+    assertTrue(SeriesStatisticsUtil.calculateVariance(new double[] {1.0}).isEmpty());
+    assertTrue(SeriesStatisticsUtil.calculateCoVariance(X, new double[] {1.0, 2.0}).isEmpty());
+    assertTrue(SeriesStatisticsUtil.calculateLogarithmicDelta(new double[] {1.0}).isEmpty());
+    assertTrue(SeriesStatisticsUtil.calculateCorrelation(null, Y).isEmpty());
+  }
+}
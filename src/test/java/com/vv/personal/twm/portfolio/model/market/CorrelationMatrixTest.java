@@ -0,0 +1,86 @@
+package com.vv.personal.twm.portfolio.model.market;
+
+import static com.vv.personal.twm.portfolio.TestConstants.DELTA_PRECISION;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Vivek
+ * @since 2026-10-18
+ */
+class CorrelationMatrixTest {
+
+  // a1 a2 a3 a4 => upper triangle packed row by row
+  private final CorrelationMatrix matrix =
+      new CorrelationMatrix(
+          List.of("a1", "a2", "a3", "a4"),
+          new double[] {1.0, .1, .2, .3, 1.0, .4, .5, 1.0, .6, 1.0});
+
+  @Test
+  void testGet() {
+    assertEquals(4, matrix.size());
+    assertEquals(.4, matrix.get(1, 2), DELTA_PRECISION);
+    assertEquals(.4, matrix.get(2, 1), DELTA_PRECISION);
+    assertEquals(.6, matrix.get("a4", "a3").getAsDouble(), DELTA_PRECISION);
+    assertEquals(1.0, matrix.get("a2", "a2").getAsDouble(), DELTA_PRECISION);
+    assertTrue(matrix.get("a2", "a5").isEmpty());
+    assertEquals(2, matrix.indexOf("a3").getAsInt());
+    assertTrue(matrix.indexOf("a5").isEmpty());
+  }
+
+  @Test
+  void testPackedIndex() {
+    int index = 0;
+    for (int i = 0; i < 4; i++)
+      for (int j = i; j < 4; j++) {
+        assertEquals(index, CorrelationMatrix.packedIndex(4, i, j));
+        assertEquals(index++, CorrelationMatrix.packedIndex(4, j, i));
+      }
+    assertEquals(index, CorrelationMatrix.packedLength(4));
+  }
+
+  @Test
+  void testSubset() {
+    CorrelationMatrix subset = matrix.subset(List.of("a4", "a5", "a2", "a4"));
+    assertEquals(List.of("a4", "a2"), subset.getSymbols());
+    assertEquals(.5, subset.get(0, 1), DELTA_PRECISION);
+    assertEquals(1.0, subset.get(1, 1), DELTA_PRECISION);
+    assertFalse(subset.contains("a1"));
+
+    CorrelationMatrix subSubset = subset.subset(List.of("a2"));
+    assertEquals(1, subSubset.size());
+    assertEquals(1.0, subSubset.get("a2", "a2").getAsDouble(), DELTA_PRECISION);
+  }
+
+  @Test
+  void testRelabel() {
+    CorrelationMatrix relabelled = matrix.subset(List.of("a1", "a3")).relabel(List.of("x", "y"));
+    assertEquals(.2, relabelled.get("x", "y").getAsDouble(), DELTA_PRECISION);
+    assertThrows(IllegalArgumentException.class, () -> matrix.relabel(List.of("x")));
+  }
+
+  @Test
+  void testWithCorrelations() {
+    CorrelationMatrix subset = matrix.subset(List.of("a3", "a1", "a4"));
+    CorrelationMatrix updated = subset.withCorrelations("a1", new double[] {-.2, 1.0, -.3});
+
+    assertEquals(List.of("a3", "a1", "a4"), updated.getSymbols());
+    assertEquals(-.2, updated.get("a3", "a1").getAsDouble(), DELTA_PRECISION);
+    assertEquals(-.3, updated.get("a1", "a4").getAsDouble(), DELTA_PRECISION);
+    assertEquals(.6, updated.get("a4", "a3").getAsDouble(), DELTA_PRECISION);
+    assertEquals(.2, subset.get("a3", "a1").getAsDouble(), DELTA_PRECISION); // left as it was
+    assertThrows(
+        IllegalArgumentException.class, () -> subset.withCorrelations("a2", new double[3]));
+    assertThrows(
+        IllegalArgumentException.class, () -> subset.withCorrelations("a1", new double[2]));
+  }
+
+  @Test
+  void testInvalidLength() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> new CorrelationMatrix(List.of("a1", "a2"), new double[4]));
+  }
+}
@@ -0,0 +1,161 @@
+package com.vv.personal.twm.portfolio.model.market;
+
+import static com.vv.personal.twm.artifactory.generated.equitiesMarket.MarketDataProto.AccountType.NR;
+import static com.vv.personal.twm.artifactory.generated.equitiesMarket.MarketDataProto.AccountType.RRSP;
+import static com.vv.personal.twm.artifactory.generated.equitiesMarket.MarketDataProto.AccountType.TFSA;
+import static com.vv.personal.twm.portfolio.TestConstants.DELTA_PRECISION;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.vv.personal.twm.artifactory.generated.equitiesMarket.MarketDataProto;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Vivek
+ * @since 2026-10-18
+ */
+class PnLCubeTest {
+  // fri, mon, tue, thu
+  private static final int[] DATES = {20240906, 20240909, 20240910, 20240912};
+  private static final List<MarketDataProto.AccountType> TYPES = List.of(TFSA, NR);
+
+  @Test
+  public void floorOrdinal_ResolvesCalendarDaysToTradingDates() {
+    PnLCube cube = new PnLCube(DATES, TYPES);
+
+    assertEquals(-1, cube.floorOrdinal(20240905));
+    assertEquals(0, cube.floorOrdinal(20240906));
+    assertEquals(0, cube.floorOrdinal(20240908));
+    assertEquals(1, cube.floorOrdinal(20240909));
+    assertEquals(2, cube.floorOrdinal(20240911));
+    assertEquals(3, cube.floorOrdinal(20250101));
+    assertEquals(2, cube.ordinalOf(20240910));
+    assertEquals(-1, cube.ordinalOf(20240911));
+  }
+
+  @Test
+  public void asOf_FloorsToLatestBookedDate() {
+    PnLCube cube = new PnLCube(DATES, TYPES);
+    cube.add(PnLCube.Measure.UNREALIZED, 0, TFSA, 10.0);
+    cube.add(PnLCube.Measure.UNREALIZED, 1, TFSA, 12.5);
+    cube.add(PnLCube.Measure.UNREALIZED, 1, NR, -2.0);
+    cube.indexFloors();
+
+    assertEquals(0.0, cube.asOf(PnLCube.Measure.UNREALIZED, TFSA, 20240905), DELTA_PRECISION);
+    assertEquals(10.0, cube.asOf(PnLCube.Measure.UNREALIZED, TFSA, 20240908), DELTA_PRECISION);
+    assertEquals(0.0, cube.asOf(PnLCube.Measure.UNREALIZED, NR, 20240908), DELTA_PRECISION);
+    // nothing booked on 20240910 or later, so these fall back to 20240909
+    assertEquals(12.5, cube.asOf(PnLCube.Measure.UNREALIZED, TFSA, 20240910), DELTA_PRECISION);
+    assertEquals(-2.0, cube.asOf(PnLCube.Measure.UNREALIZED, NR, 20250101), DELTA_PRECISION);
+    assertEquals(10.5, cube.asOfTotal(PnLCube.Measure.UNREALIZED, 20240912), DELTA_PRECISION);
+  }
+
+  @Test
+  public void aggregate_RollsUpCombinedAndCumulativeMeasures() {
+    PnLCube cube = new PnLCube(DATES, TYPES);
+    for (int d = 0; d < DATES.length; d++) cube.add(PnLCube.Measure.UNREALIZED, d, TFSA, d + 1.0);
+    cube.add(PnLCube.Measure.REALIZED, 1, TFSA, 100.0);
+    cube.add(PnLCube.Measure.DIVIDEND, 0, TFSA, 5.0);
+    cube.add(PnLCube.Measure.DIVIDEND, 2, NR, 7.0);
+    cube.aggregate();
+
+    assertEquals(102.0, cube.get(PnLCube.Measure.COMBINED, 1, TFSA), DELTA_PRECISION);
+    assertEquals(
+        105.0,
+        cube.get(PnLCube.Measure.REALIZED_WITH_DIVIDEND_CUMULATIVE, 3, TFSA),
+        DELTA_PRECISION);
+    assertEquals(
+        7.0, cube.get(PnLCube.Measure.REALIZED_WITH_DIVIDEND_CUMULATIVE, 3, NR), DELTA_PRECISION);
+    assertEquals(
+        4.0 + 105.0, cube.get(PnLCube.Measure.COMBINED_CUMULATIVE, 3, TFSA), DELTA_PRECISION);
+    assertEquals(
+        7.0, cube.asOf(PnLCube.Measure.COMBINED_CUMULATIVE, NR, 20240912), DELTA_PRECISION);
+
+    // dividends cumulate on the dividend dates only, on top of the 0 date baseline
+    TreeMap<Integer, Map<MarketDataProto.AccountType, Double>> dividendsCumulative =
+        cube.toDateMap(PnLCube.Measure.DIVIDEND_CUMULATIVE);
+    assertEquals(List.of(0, 20240906, 20240910), List.copyOf(dividendsCumulative.keySet()));
+    assertEquals(0.0, dividendsCumulative.get(0).get(NR), DELTA_PRECISION);
+    assertEquals(5.0, dividendsCumulative.get(20240910).get(TFSA), DELTA_PRECISION);
+    assertEquals(7.0, dividendsCumulative.get(20240910).get(NR), DELTA_PRECISION);
+    assertEquals(
+        5.0, cube.asOf(PnLCube.Measure.DIVIDEND_CUMULATIVE, TFSA, 20240909), DELTA_PRECISION);
+  }
+
+  @Test
+  public void aggregate_IsRepeatable() {
+    PnLCube cube = new PnLCube(DATES, TYPES);
+    cube.add(PnLCube.Measure.REALIZED, 1, TFSA, 100.0);
+    cube.add(PnLCube.Measure.DIVIDEND, 2, TFSA, 5.0);
+    cube.aggregate();
+    TreeMap<Integer, Double> slice = cube.slice(PnLCube.Measure.COMBINED_CUMULATIVE, TFSA);
+    cube.aggregate();
+
+    assertEquals(slice, cube.slice(PnLCube.Measure.COMBINED_CUMULATIVE, TFSA));
+    assertEquals(List.of(0, 20240909), List.copyOf(slice.keySet()));
+  }
+
+  @Test
+  public void toDateMap_KeepsBookedAccountTypesOutsideTheDefaults() {
+    PnLCube cube = new PnLCube(DATES, TYPES);
+    cube.add(PnLCube.Measure.UNREALIZED, 2, RRSP, 3.0);
+    cube.indexFloors();
+
+    Map<MarketDataProto.AccountType, Double> typeMap =
+        cube.toDateMap(PnLCube.Measure.UNREALIZED).get(20240910);
+    assertEquals(Map.of(TFSA, 0.0, NR, 0.0, RRSP, 3.0), typeMap);
+    assertEquals(3.0, cube.sliceTotal(PnLCube.Measure.UNREALIZED).get(20240910), DELTA_PRECISION);
+  }
+
+  @Test
+  public void append_CarriesRunningSumsOntoTheNewDate() {
+    PnLCube cube = new PnLCube(DATES, TYPES);
+    cube.add(PnLCube.Measure.UNREALIZED, 3, TFSA, 4.0);
+    cube.add(PnLCube.Measure.REALIZED, 1, TFSA, 100.0);
+    cube.add(PnLCube.Measure.DIVIDEND, 2, NR, 7.0);
+    cube.aggregate();
+
+    PnLCube appended = cube.append(20240913);
+    assertEquals(5, appended.size());
+    assertEquals(4, appended.ordinalOf(20240913));
+    assertEquals(
+        100.0,
+        appended.get(PnLCube.Measure.REALIZED_WITH_DIVIDEND_CUMULATIVE, 4, TFSA),
+        DELTA_PRECISION);
+    assertEquals(
+        7.0,
+        appended.get(PnLCube.Measure.REALIZED_WITH_DIVIDEND_CUMULATIVE, 4, NR),
+        DELTA_PRECISION);
+    assertFalse(appended.isPresent(PnLCube.Measure.UNREALIZED, 4));
+
+    appended.add(PnLCube.Measure.UNREALIZED, 4, TFSA, 6.0);
+    appended.aggregateUnrealized(4);
+    appended.indexFloors();
+    assertEquals(
+        106.0, appended.asOf(PnLCube.Measure.COMBINED_CUMULATIVE, TFSA, 20240914), DELTA_PRECISION);
+    assertEquals(
+        7.0, appended.asOf(PnLCube.Measure.COMBINED_CUMULATIVE, NR, 20240914), DELTA_PRECISION);
+    // the original still ends on the thursday
+    assertEquals(
+        104.0, cube.asOf(PnLCube.Measure.COMBINED_CUMULATIVE, TFSA, 20240914), DELTA_PRECISION);
+    assertThrows(IllegalArgumentException.class, () -> appended.append(20240913));
+  }
+
+  @Test
+  public void copy_LeavesTheOriginalUntouched() {
+    PnLCube cube = new PnLCube(DATES, TYPES);
+    cube.add(PnLCube.Measure.REALIZED, 1, TFSA, 100.0);
+    cube.aggregate();
+
+    PnLCube copy = cube.copy();
+    copy.add(PnLCube.Measure.REALIZED, 1, TFSA, -40.0);
+    copy.aggregate();
+
+    assertEquals(
+        100.0, cube.asOf(PnLCube.Measure.COMBINED_CUMULATIVE, TFSA, 20240912), DELTA_PRECISION);
+    assertEquals(
+        60.0, copy.asOf(PnLCube.Measure.COMBINED_CUMULATIVE, TFSA, 20240912), DELTA_PRECISION);
+  }
+}
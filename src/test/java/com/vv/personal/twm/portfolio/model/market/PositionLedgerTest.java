@@ -0,0 +1,436 @@
+package com.vv.personal.twm.portfolio.model.market;
+
+import static com.vv.personal.twm.artifactory.generated.equitiesMarket.MarketDataProto.Direction.BUY;
+import static com.vv.personal.twm.artifactory.generated.equitiesMarket.MarketDataProto.Direction.SELL;
+import static com.vv.personal.twm.portfolio.TestConstants.DELTA_PRECISION;
+import static com.vv.personal.twm.portfolio.TestConstants.DELTA_PRECISION2;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.vv.personal.twm.portfolio.util.TestInstrument;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Vivek
+ * @since 2026-10-18
+ */
+class PositionLedgerTest {
+
+  @Test
+  public void ledgerCreationWith3Blocks_2B_1S_closure() {
+    PositionLedger ledger = new PositionLedger();
+    ledger.add(
+        TestInstrument.builder()
+            .qty(10)
+            .price(50.1)
+            .date(20240909)
+            .build()
+            .getInstrument()); // this price is the price paid
+    ledger.add(
+        TestInstrument.builder()
+            .qty(20)
+            .price(100)
+            .date(20240912)
+            .build()
+            .getInstrument()); // this price is the price paid
+    ledger.add(
+        TestInstrument.builder()
+            .qty(30)
+            .price(120) // this price is the price sold at
+            .direction(SELL)
+            .date(20240913)
+            .build()
+            .getInstrument());
+    ledger.computeAcb();
+
+    assertEquals(10, ledger.getRunningQuantity(0), DELTA_PRECISION);
+    assertEquals(50.1, ledger.getTotalAcb(0), DELTA_PRECISION);
+    assertEquals(5.01, ledger.getAcbPerUnit(0), DELTA_PRECISION);
+    assertEquals(BUY, ledger.getDirection(0));
+    assertFalse(ledger.isClosingPosition(0));
+
+    assertEquals(30, ledger.getRunningQuantity(1), DELTA_PRECISION);
+    assertEquals(150.1, ledger.getTotalAcb(1), DELTA_PRECISION);
+    assertEquals(5.0033333, ledger.getAcbPerUnit(1), DELTA_PRECISION);
+    assertEquals(BUY, ledger.getDirection(1));
+    assertFalse(ledger.isClosingPosition(1));
+
+    assertEquals(0, ledger.getRunningQuantity(2), DELTA_PRECISION);
+    assertEquals(0, ledger.getTotalAcb(2), DELTA_PRECISION);
+    assertEquals(0, ledger.getAcbPerUnit(2), DELTA_PRECISION);
+    assertEquals(SELL, ledger.getDirection(2));
+    assertEquals(2, ledger.latest());
+    assertTrue(ledger.isClosingPosition(2));
+  }
+
+  @Test
+  public void ledgerCreationWith4Blocks_3B_1S() {
+    PositionLedger ledger = new PositionLedger();
+    ledger.add(TestInstrument.builder().qty(10).price(50.1).date(20240909).build().getInstrument());
+    ledger.add(TestInstrument.builder().qty(20).price(100).date(20240912).build().getInstrument());
+    ledger.add(TestInstrument.builder().qty(10).price(150).date(20240920).build().getInstrument());
+    ledger.add(
+        TestInstrument.builder()
+            .qty(5)
+            .price(120)
+            .direction(SELL)
+            .date(20240913)
+            .build()
+            .getInstrument());
+    ledger.computeAcb();
+
+    assertEquals(10, ledger.getRunningQuantity(0), DELTA_PRECISION);
+    assertEquals(50.1, ledger.getTotalAcb(0), DELTA_PRECISION);
+    assertEquals(5.01, ledger.getAcbPerUnit(0), DELTA_PRECISION);
+    assertEquals(BUY, ledger.getDirection(0));
+    assertTrue(ledger.getPnl(0).isEmpty());
+    assertFalse(ledger.isClosingPosition(0));
+
+    assertEquals(30, ledger.getRunningQuantity(1), DELTA_PRECISION);
+    assertEquals(150.1, ledger.getTotalAcb(1), DELTA_PRECISION);
+    assertEquals(5.0033333, ledger.getAcbPerUnit(1), DELTA_PRECISION);
+    assertEquals(BUY, ledger.getDirection(1));
+    assertTrue(ledger.getPnl(1).isEmpty());
+    assertFalse(ledger.isClosingPosition(1));
+
+    assertEquals(25, ledger.getRunningQuantity(2), DELTA_PRECISION);
+    assertEquals(125.0833325, ledger.getTotalAcb(2), DELTA_PRECISION);
+    assertEquals(5.0033333, ledger.getAcbPerUnit(2), DELTA_PRECISION);
+    assertEquals(SELL, ledger.getDirection(2));
+    assertFalse(ledger.getPnl(2).isEmpty());
+    assertEquals(94.9833335, ledger.getPnl(2).getAsDouble(), DELTA_PRECISION);
+    assertFalse(ledger.isClosingPosition(2));
+
+    assertEquals(35, ledger.getRunningQuantity(3), DELTA_PRECISION);
+    assertEquals(275.0833325, ledger.getTotalAcb(3), DELTA_PRECISION);
+    assertEquals(7.859523786, ledger.getAcbPerUnit(3), DELTA_PRECISION);
+    assertEquals(BUY, ledger.getDirection(3));
+    assertTrue(ledger.getPnl(3).isEmpty());
+    assertEquals(3, ledger.latest());
+    assertFalse(ledger.isClosingPosition(3));
+  }
+
+  @Test
+  public void ledgerCreationWith4Blocks_3B_1S_2() {
+    // references reference/acb-compute.png
+
+    PositionLedger ledger = new PositionLedger();
+    ledger.add(TestInstrument.builder().qty(10).price(50.1).date(20240909).build().getInstrument());
+    ledger.add(TestInstrument.builder().qty(10).price(50.3).date(20240910).build().getInstrument());
+    ledger.add(
+        TestInstrument.builder()
+            .qty(5)
+            .price(70)
+            .date(20240913)
+            .direction(SELL)
+            .build()
+            .getInstrument());
+    ledger.add(TestInstrument.builder().qty(10).price(90).date(20240920).build().getInstrument());
+
+    ledger.computeAcb();
+
+    assertEquals(10, ledger.getRunningQuantity(0), DELTA_PRECISION);
+    assertEquals(50.1, ledger.getTotalAcb(0), DELTA_PRECISION);
+    assertEquals(5.01, ledger.getAcbPerUnit(0), DELTA_PRECISION);
+    assertEquals(BUY, ledger.getDirection(0));
+    assertTrue(ledger.getPnl(0).isEmpty());
+    assertFalse(ledger.isClosingPosition(0));
+
+    assertEquals(20, ledger.getRunningQuantity(1), DELTA_PRECISION);
+    assertEquals(100.4, ledger.getTotalAcb(1), DELTA_PRECISION);
+    assertEquals(5.02, ledger.getAcbPerUnit(1), DELTA_PRECISION);
+    assertEquals(BUY, ledger.getDirection(1));
+    assertTrue(ledger.getPnl(1).isEmpty());
+    assertFalse(ledger.isClosingPosition(1));
+
+    assertEquals(15, ledger.getRunningQuantity(2), DELTA_PRECISION);
+    assertEquals(75.3, ledger.getTotalAcb(2), DELTA_PRECISION);
+    assertEquals(5.02, ledger.getAcbPerUnit(2), DELTA_PRECISION);
+    assertEquals(SELL, ledger.getDirection(2));
+    assertFalse(ledger.getPnl(2).isEmpty());
+    assertEquals(44.9, ledger.getPnl(2).getAsDouble(), DELTA_PRECISION);
+    assertFalse(ledger.isClosingPosition(2));
+
+    assertEquals(25, ledger.getRunningQuantity(3), DELTA_PRECISION);
+    assertEquals(165.3, ledger.getTotalAcb(3), DELTA_PRECISION);
+    assertEquals(6.612, ledger.getAcbPerUnit(3), DELTA_PRECISION);
+    assertEquals(BUY, ledger.getDirection(3));
+    assertTrue(ledger.getPnl(3).isEmpty());
+    assertEquals(3, ledger.latest());
+    assertFalse(ledger.isClosingPosition(3));
+  }
+
+  @Test
+  public void ledgerCreationWith6Blocks_4B_2S() {
+    // refer: https://www.atb.com/wealth/good-advice/tax/understanding-adjusted-cost-base/
+
+    PositionLedger ledger = new PositionLedger();
+    ledger.add(
+        TestInstrument.builder().qty(100).price(3000).date(20260307).build().getInstrument());
+    ledger.add(
+        TestInstrument.builder().qty(95).price(3049.50).date(20260308).build().getInstrument());
+    ledger.add(
+        TestInstrument.builder().qty(60).price(2215.20).date(20260309).build().getInstrument());
+    ledger.add(
+        TestInstrument.builder()
+            .qty(20)
+            .price(679.20)
+            .date(20260310)
+            .direction(SELL)
+            .build()
+            .getInstrument());
+    ledger.add(
+        TestInstrument.builder().qty(110).price(4407.70).date(20260311).build().getInstrument());
+    ledger.add(
+        TestInstrument.builder()
+            .qty(22)
+            .price(842.38)
+            .date(20260312)
+            .direction(SELL)
+            .build()
+            .getInstrument());
+    ledger.computeAcb();
+
+    assertEquals(100, ledger.getRunningQuantity(0), DELTA_PRECISION2);
+    assertEquals(3000, ledger.getTotalAcb(0), DELTA_PRECISION2);
+    assertEquals(30, ledger.getAcbPerUnit(0), DELTA_PRECISION2);
+    assertEquals(BUY, ledger.getDirection(0));
+    assertTrue(ledger.getPnl(0).isEmpty());
+    assertFalse(ledger.isClosingPosition(0));
+
+    assertEquals(195, ledger.getRunningQuantity(1), DELTA_PRECISION2);
+    assertEquals(6049.50, ledger.getTotalAcb(1), DELTA_PRECISION2);
+    assertEquals(31.02, ledger.getAcbPerUnit(1), DELTA_PRECISION2);
+    assertEquals(BUY, ledger.getDirection(1));
+    assertTrue(ledger.getPnl(1).isEmpty());
+    assertFalse(ledger.isClosingPosition(1));
+
+    assertEquals(255, ledger.getRunningQuantity(2), DELTA_PRECISION2);
+    assertEquals(8264.70, ledger.getTotalAcb(2), DELTA_PRECISION2);
+    assertEquals(32.41, ledger.getAcbPerUnit(2), DELTA_PRECISION2);
+    assertEquals(BUY, ledger.getDirection(2));
+    assertTrue(ledger.getPnl(2).isEmpty());
+    assertFalse(ledger.isClosingPosition(2));
+
+    assertEquals(235, ledger.getRunningQuantity(3), DELTA_PRECISION2);
+    assertEquals(7616.488, ledger.getTotalAcb(3), DELTA_PRECISION2); // 7616.50
+    assertEquals(32.41, ledger.getAcbPerUnit(3), DELTA_PRECISION2);
+    assertEquals(SELL, ledger.getDirection(3));
+    assertFalse(ledger.getPnl(3).isEmpty());
+    assertEquals(30.98, ledger.getPnl(3).getAsDouble(), DELTA_PRECISION2); // 31
+    assertEquals(20, ledger.getQuantity(3), DELTA_PRECISION2);
+    assertFalse(ledger.isClosingPosition(3));
+
+    assertEquals(345, ledger.getRunningQuantity(4), DELTA_PRECISION2);
+    assertEquals(12024.188, ledger.getTotalAcb(4), DELTA_PRECISION2); // 12024.20
+    assertEquals(34.85, ledger.getAcbPerUnit(4), DELTA_PRECISION2);
+    assertEquals(BUY, ledger.getDirection(4));
+    assertTrue(ledger.getPnl(4).isEmpty());
+    assertFalse(ledger.isClosingPosition(4));
+
+    assertEquals(323, ledger.getRunningQuantity(5), DELTA_PRECISION2);
+    assertEquals(11257.428, ledger.getTotalAcb(5), DELTA_PRECISION2); // 11257.50
+    assertEquals(34.85, ledger.getAcbPerUnit(5), DELTA_PRECISION2);
+    assertEquals(SELL, ledger.getDirection(5));
+    assertFalse(ledger.getPnl(5).isEmpty());
+    assertEquals(75.6201, ledger.getPnl(5).getAsDouble(), DELTA_PRECISION2); // 75.68
+    assertEquals(22, ledger.getQuantity(5), DELTA_PRECISION2);
+    assertFalse(ledger.isClosingPosition(5));
+  }
+
+  @Test
+  public void computeAcb_IsRepeatable() {
+    PositionLedger ledger = new PositionLedger();
+    ledger.add(TestInstrument.builder().qty(10).price(50.1).date(20240911).build().getInstrument());
+    ledger.add(
+        TestInstrument.builder()
+            .qty(1)
+            .price(6)
+            .direction(SELL)
+            .date(20240912)
+            .build()
+            .getInstrument());
+    ledger.computeAcb();
+    ledger.computeAcb();
+
+    assertEquals(10, ledger.getRunningQuantity(0), DELTA_PRECISION);
+    assertEquals(50.1, ledger.getTotalAcb(0), DELTA_PRECISION);
+    assertEquals(9, ledger.getRunningQuantity(1), DELTA_PRECISION);
+    assertEquals(45.09, ledger.getTotalAcb(1), DELTA_PRECISION);
+    assertEquals(5.01, ledger.getAcbPerUnit(1), DELTA_PRECISION);
+    assertEquals(.99, ledger.getPnl(1).getAsDouble(), DELTA_PRECISION);
+  }
+
+  @Test
+  public void add_InsertsSellsByTradeDate() {
+    PositionLedger ledger = new PositionLedger(2); // forces growth
+    ledger.add(TestInstrument.builder().qty(10).price(100).date(20240909).build().getInstrument());
+    ledger.add(TestInstrument.builder().qty(10).price(120).date(20240912).build().getInstrument());
+    ledger.add(TestInstrument.builder().qty(10).price(140).date(20240916).build().getInstrument());
+    ledger.add(
+        TestInstrument.builder()
+            .qty(2)
+            .price(30)
+            .direction(SELL)
+            .date(20240920)
+            .build()
+            .getInstrument());
+    ledger.add(
+        TestInstrument.builder()
+            .qty(5)
+            .price(65)
+            .direction(SELL)
+            .date(20240912) // goes in ahead of the same day buy
+            .sector("banks")
+            .metadata(Map.of("pricePerShare", "13.0"))
+            .build()
+            .getInstrument());
+    ledger.computeAcb();
+
+    assertEquals(5, ledger.size());
+    assertEquals(
+        List.of(20240909, 20240912, 20240912, 20240916, 20240920),
+        IntStream.range(0, ledger.size()).map(ledger::getDate).boxed().toList());
+    assertEquals(SELL, ledger.getDirection(1));
+    assertEquals(13.0, ledger.getPricePerShare(1), DELTA_PRECISION);
+    assertTrue(Double.isNaN(ledger.getPricePerShare(4)));
+    assertEquals(5, ledger.getRunningQuantity(1), DELTA_PRECISION);
+    assertEquals(50, ledger.getTotalAcb(1), DELTA_PRECISION);
+    assertEquals(15, ledger.getRunningQuantity(2), DELTA_PRECISION);
+    assertEquals(170, ledger.getTotalAcb(2), DELTA_PRECISION);
+    assertEquals(23, ledger.getRunningQuantity(4), DELTA_PRECISION);
+    assertEquals("TEST", ledger.getSector()); // of the latest, not the last added
+    assertFalse(ledger.isClosed());
+  }
+
+  @Test
+  public void add_InsertsBackDatedBuysByTradeDate() {
+    PositionLedger ledger = new PositionLedger();
+    ledger.add(TestInstrument.builder().qty(10).price(100).date(20240909).build().getInstrument());
+    ledger.add(
+        TestInstrument.builder()
+            .qty(5)
+            .price(75)
+            .direction(SELL)
+            .date(20240912)
+            .build()
+            .getInstrument());
+    ledger.add(TestInstrument.builder().qty(10).price(140).date(20240916).build().getInstrument());
+    ledger.computeAcb();
+
+    // back-dated, behind the sell and after the same day buy
+    ledger.add(TestInstrument.builder().qty(10).price(200).date(20240909).build().getInstrument());
+    assertEquals(1, ledger.getDirtyFrom());
+    assertEquals(3, ledger.computeAcb());
+
+    assertEquals(
+        List.of(20240909, 20240909, 20240912, 20240916),
+        IntStream.range(0, ledger.size()).map(ledger::getDate).boxed().toList());
+    assertEquals(20, ledger.getRunningQuantity(1), DELTA_PRECISION);
+    assertEquals(300, ledger.getTotalAcb(1), DELTA_PRECISION);
+    assertEquals(15, ledger.getRunningQuantity(2), DELTA_PRECISION);
+    assertEquals(75 - 15 * 5, ledger.getPnl(2).getAsDouble(), DELTA_PRECISION);
+    assertEquals(225, ledger.getTotalAcb(2), DELTA_PRECISION);
+    assertEquals(25, ledger.getRunningQuantity(3), DELTA_PRECISION);
+    assertEquals(365, ledger.getTotalAcb(3), DELTA_PRECISION);
+  }
+
+  @Test
+  public void add_DisallowsShortSelling() {
+    PositionLedger ledger = new PositionLedger();
+    ledger.add(TestInstrument.builder().qty(10).price(100).date(20240909).build().getInstrument());
+    assertThrows(
+        UnsupportedOperationException.class,
+        () ->
+            ledger.add(
+                TestInstrument.builder()
+                    .qty(5)
+                    .price(50)
+                    .direction(SELL)
+                    .date(20240909)
+                    .build()
+                    .getInstrument()));
+    assertEquals(1, ledger.size());
+    assertThrows(IndexOutOfBoundsException.class, () -> ledger.getDate(1));
+  }
+
+  @Test
+  public void add_DisallowsSellingIntoAnEmptyLedger() {
+    PositionLedger ledger = new PositionLedger();
+    assertThrows(
+        UnsupportedOperationException.class,
+        () ->
+            ledger.add(
+                TestInstrument.builder()
+                    .qty(5)
+                    .price(50)
+                    .direction(SELL)
+                    .date(20240909)
+                    .build()
+                    .getInstrument()));
+    assertEquals(0, ledger.size());
+    assertEquals(-1, ledger.latest());
+  }
+
+  @Test
+  public void computeAcb_RecomputesFromDirtyWatermarkOnly() {
+    PositionLedger ledger = new PositionLedger();
+    ledger.add(TestInstrument.builder().qty(10).price(50.1).date(20240909).build().getInstrument());
+    ledger.add(TestInstrument.builder().qty(10).price(50.3).date(20240910).build().getInstrument());
+    ledger.add(TestInstrument.builder().qty(10).price(90).date(20240920).build().getInstrument());
+    assertEquals(0, ledger.getDirtyFrom());
+    assertEquals(3, ledger.computeAcb());
+    assertEquals(3, ledger.getDirtyFrom());
+    assertEquals(0, ledger.computeAcb());
+
+    ledger.add(TestInstrument.builder().qty(5).price(60).date(20240923).build().getInstrument());
+    assertEquals(1, ledger.computeAcb());
+    ledger.add(
+        TestInstrument.builder()
+            .qty(5)
+            .price(70)
+            .date(20240913)
+            .direction(SELL)
+            .build()
+            .getInstrument());
+    assertEquals(2, ledger.getDirtyFrom());
+    assertEquals(3, ledger.computeAcb());
+
+    // same as the acb-compute.png scenario, plus the late BUY
+    assertEquals(15, ledger.getRunningQuantity(2), DELTA_PRECISION);
+    assertEquals(75.3, ledger.getTotalAcb(2), DELTA_PRECISION);
+    assertEquals(44.9, ledger.getPnl(2).getAsDouble(), DELTA_PRECISION);
+    assertEquals(25, ledger.getRunningQuantity(3), DELTA_PRECISION);
+    assertEquals(165.3, ledger.getTotalAcb(3), DELTA_PRECISION);
+    assertEquals(30, ledger.getRunningQuantity(4), DELTA_PRECISION);
+    assertEquals(225.3, ledger.getTotalAcb(4), DELTA_PRECISION);
+  }
+
+  @Test
+  public void copy_IsIndependentOfTheSource() {
+    PositionLedger ledger = new PositionLedger();
+    ledger.add(TestInstrument.builder().qty(10).price(50.1).date(20240909).build().getInstrument());
+    ledger.add(TestInstrument.builder().qty(10).price(50.3).date(20240910).build().getInstrument());
+    ledger.computeAcb();
+
+    PositionLedger copy = ledger.copy();
+    assertEquals(0, copy.computeAcb());
+    copy.add(
+        TestInstrument.builder()
+            .qty(5)
+            .price(70)
+            .date(20240913)
+            .direction(SELL)
+            .build()
+            .getInstrument());
+    assertEquals(1, copy.computeAcb());
+
+    assertEquals(2, ledger.size());
+    assertEquals(20, ledger.getRunningQuantity(ledger.latest()), DELTA_PRECISION);
+    assertEquals(3, copy.size());
+    assertEquals(15, copy.getRunningQuantity(copy.latest()), DELTA_PRECISION);
+    assertEquals(ledger.getTotalAcb(1), copy.getTotalAcb(1), DELTA_PRECISION);
+  }
+}
@@ -0,0 +1,115 @@
+package com.vv.personal.twm.portfolio.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.vv.personal.twm.ping.config.PingConfig;
+import com.vv.personal.twm.portfolio.cache.KeyInstrumentValueCache;
+import com.vv.personal.twm.portfolio.config.TickerDataWarehouseConfig;
+import com.vv.personal.twm.portfolio.model.tracking.StartupStatus;
+import com.vv.personal.twm.portfolio.remote.feign.BankCrdbServiceFeign;
+import com.vv.personal.twm.portfolio.service.impl.EngineSnapshotHolder;
+import com.vv.personal.twm.portfolio.service.impl.ExecutorProviderServiceImpl;
+import com.vv.personal.twm.portfolio.warehouse.market.TickerDataWarehouse;
+import com.vv.personal.twm.portfolio.warehouse.market.impl.EpochTickerDataWarehouseImpl;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.availability.LivenessState;
+import org.springframework.boot.availability.ReadinessState;
+
+/**
+ * @author Vivek
+ * @since 2026-10-18
+ */
+@ExtendWith(MockitoExtension.class)
+class StartupServiceTest {
+
+  @Mock private PingConfig pingConfig;
+  @Mock private BankCrdbServiceFeign crdbServiceFeign;
+  @Mock private ReloadService reloadService;
+
+  private CountDownLatch initialLoadReleased;
+  private EngineSnapshotHolder engineSnapshotHolder;
+  private StartupService startupService;
+
+  @BeforeEach
+  void setUp() {
+    when(pingConfig.pinger()).thenReturn(mock(PingConfig.Pinger.class));
+    initialLoadReleased = new CountDownLatch(1);
+    engineSnapshotHolder =
+        new EngineSnapshotHolder(
+            () -> mock(CompleteBankDataService.class),
+            () -> mock(CompleteMarketDataService.class),
+            new KeyInstrumentValueCache(),
+            new EpochTickerDataWarehouseImpl(
+                mock(TickerDataWarehouse.class), mock(TickerDataWarehouseConfig.class)));
+    startupService =
+        new StartupService(
+            pingConfig,
+            crdbServiceFeign,
+            reloadService,
+            new ExecutorProviderServiceImpl(),
+            engineSnapshotHolder);
+  }
+
+  @AfterEach
+  void tearDown() {
+    initialLoadReleased.countDown();
+  }
+
+  @Test
+  public void startup_ReturnsAheadOfTheInitialLoad() throws InterruptedException {
+    assertEquals(StartupStatus.Stage.PENDING, startupService.getStartupStatus().stage());
+    when(reloadService.initialFullLoad())
+        .thenAnswer(
+            invocation -> {
+              assertTrue(initialLoadReleased.await(5, TimeUnit.SECONDS));
+              engineSnapshotHolder.publish(engineSnapshotHolder.prepare());
+              return true;
+            });
+
+    startupService.startup();
+    StartupStatus status = startupService.getStartupStatus();
+    assertEquals(StartupStatus.Stage.LOADING, status.stage());
+    assertEquals(LivenessState.CORRECT, status.liveness());
+    assertEquals(ReadinessState.REFUSING_TRAFFIC, status.readiness());
+
+    initialLoadReleased.countDown();
+    awaitStage(StartupStatus.Stage.STARTED);
+    status = startupService.getStartupStatus();
+    assertEquals(ReadinessState.ACCEPTING_TRAFFIC, status.readiness());
+    assertEquals(1, status.dataEpoch());
+  }
+
+  @Test
+  public void runStartup_FailedLoadIsNotReadyButLive() {
+    when(reloadService.initialFullLoad()).thenReturn(false);
+    startupService.runStartup();
+    StartupStatus status = startupService.getStartupStatus();
+    assertEquals(StartupStatus.Stage.FAILED, status.stage());
+    assertEquals(LivenessState.CORRECT, status.liveness());
+    assertEquals(ReadinessState.REFUSING_TRAFFIC, status.readiness());
+  }
+
+  @Test
+  public void runStartup_BrokenPipelineIsNotLive() {
+    when(reloadService.initialFullLoad()).thenThrow(new IllegalStateException("engine down"));
+    startupService.runStartup();
+    StartupStatus status = startupService.getStartupStatus();
+    assertEquals(StartupStatus.Stage.FAILED, status.stage());
+    assertEquals(LivenessState.BROKEN, status.liveness());
+  }
+
+  private void awaitStage(StartupStatus.Stage stage) throws InterruptedException {
+    for (int i = 0; i < 500 && startupService.getStartupStatus().stage() != stage; i++)
+      Thread.sleep(10);
+    assertEquals(stage, startupService.getStartupStatus().stage());
+  }
+}
@@ -3,7 +3,17 @@ package com.vv.personal.twm.portfolio.service.impl;
 import static com.vv.personal.twm.artifactory.generated.equitiesMarket.MarketDataProto.Direction.SELL;
 import static com.vv.personal.twm.portfolio.TestConstants.DELTA_PRECISION;
 import static com.vv.personal.twm.portfolio.TestConstants.DELTA_PRECISION2;
+import static com.vv.personal.twm.portfolio.util.SanitizerUtil.sanitizeDouble;
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.google.common.collect.ImmutableMap;
@@ -12,23 +22,39 @@ import com.google.common.collect.Sets;
 import com.vv.personal.twm.artifactory.generated.equitiesMarket.MarketDataProto;
 import com.vv.personal.twm.portfolio.cache.DateLocalDateCache;
 import com.vv.personal.twm.portfolio.cache.KeyInstrumentValueCache;
-import com.vv.personal.twm.portfolio.model.market.DataList;
+import com.vv.personal.twm.portfolio.model.market.CorrelationMatrix;
 import com.vv.personal.twm.portfolio.model.market.DividendRecord;
+import com.vv.personal.twm.portfolio.model.market.IngestResult;
+import com.vv.personal.twm.portfolio.model.market.PnLCube;
+import com.vv.personal.twm.portfolio.model.market.PositionLedger;
+import com.vv.personal.twm.portfolio.model.market.PriceUpdate;
 import com.vv.personal.twm.portfolio.model.market.SellRecord;
+import com.vv.personal.twm.portfolio.model.market.warehouse.PortfolioData;
 import com.vv.personal.twm.portfolio.remote.feign.CalcPythonEngine;
 import com.vv.personal.twm.portfolio.remote.feign.MarketDataCrdbServiceFeign;
 import com.vv.personal.twm.portfolio.remote.feign.MarketDataPythonEngineFeign;
 import com.vv.personal.twm.portfolio.service.ComputeMarketStatisticsService;
+import com.vv.personal.twm.portfolio.service.ExtractMarketPortfolioDataService;
 import com.vv.personal.twm.portfolio.service.InstrumentMetaDataService;
 import com.vv.personal.twm.portfolio.service.ProgressTrackerService;
 import com.vv.personal.twm.portfolio.service.TickerDataWarehouseService;
 import com.vv.personal.twm.portfolio.util.DateFormatUtil;
+import com.vv.personal.twm.portfolio.util.MarketClock;
 import com.vv.personal.twm.portfolio.util.TestInstrument;
+import java.time.Clock;
 import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import org.apache.commons.lang3.tuple.Pair;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -54,53 +80,927 @@ class CompleteMarketDataServiceImplTest {
 
   @BeforeEach
   void setUp() {
-    completeMarketDataService =
+    completeMarketDataService = newCompleteMarketDataService();
+  }
+
+  private CompleteMarketDataServiceImpl newCompleteMarketDataService() {
+    return new CompleteMarketDataServiceImpl(
+        new DateLocalDateCache(),
+        new KeyInstrumentValueCache(),
+        instrumentMetaDataService,
+        null,
+        tickerDataWarehouseService,
+        marketDataPythonEngineFeign,
+        calcPythonEngine,
+        progressTrackerService,
+        computeMarketStatisticsService,
+        marketDataCrdbServiceFeign);
+  }
+
+  @Test
+  public void populateMap() {
+    MarketDataProto.Portfolio portfolio =
+        MarketDataProto.Portfolio.newBuilder().addAllInstruments(generateTestInstruments()).build();
+    System.out.println(portfolio);
+
+    completeMarketDataService.populate(portfolio);
+    completeMarketDataService.computeAcb();
+    Map<String, Map<MarketDataProto.AccountType, PositionLedger>> result =
+        completeMarketDataService.getMarketData();
+
+    assertFalse(result.isEmpty());
+    assertTrue(result.containsKey("CM.TO"));
+    PositionLedger cibcTfsaLedger = result.get("CM.TO").get(MarketDataProto.AccountType.TFSA);
+    assertNotNull(cibcTfsaLedger);
+    assertEquals(3, cibcTfsaLedger.size());
+    assertEquals(50.1, cibcTfsaLedger.getTotalAcb(0));
+    assertEquals(25.05, cibcTfsaLedger.getTotalAcb(1), DELTA_PRECISION2); // 25.05
+    assertEquals(175.05, cibcTfsaLedger.getTotalAcb(cibcTfsaLedger.latest()));
+
+    PositionLedger cmNrLedger = result.get("CM.TO").get(MarketDataProto.AccountType.NR);
+    assertNotNull(cmNrLedger);
+    assertEquals(1, cmNrLedger.size());
+    assertEquals(150, cmNrLedger.getTotalAcb(0), DELTA_PRECISION);
+    assertEquals(15, cmNrLedger.getAcbPerUnit(0), DELTA_PRECISION);
+
+    assertTrue(result.containsKey("BNS.TO"));
+    PositionLedger bnsTfsaLedger = result.get("BNS.TO").get(MarketDataProto.AccountType.TFSA);
+    assertNotNull(bnsTfsaLedger);
+    assertEquals(1, bnsTfsaLedger.size());
+    assertEquals(100, bnsTfsaLedger.getTotalAcb(0), DELTA_PRECISION);
+    assertEquals(5, bnsTfsaLedger.getAcbPerUnit(0), DELTA_PRECISION);
+  }
+
+  @Test
+  public void testComputePnL_ParallelMatchesSingleThreaded() {
+    List<LocalDate> dates = new ArrayList<>();
+    for (LocalDate date = LocalDate.of(2024, 1, 1); dates.size() < 300; date = date.plusDays(1))
+      dates.add(date);
+    when(tickerDataWarehouseService.getDates()).thenReturn(dates);
+    when(tickerDataWarehouseService.getMarketData(anyString(), anyInt()))
+        .thenAnswer(
+            invocation -> hashedPrice(invocation.getArgument(0), invocation.getArgument(1)));
+    MarketDataProto.Portfolio portfolio =
+        MarketDataProto.Portfolio.newBuilder()
+            .addAllInstruments(generateRandomInstruments(dates, 25, 42))
+            .build();
+
+    CompleteMarketDataServiceImpl parallelService = newCompleteMarketDataService();
+    for (CompleteMarketDataServiceImpl service :
+        List.of(completeMarketDataService, parallelService)) {
+      service.populate(portfolio);
+      service.computeAcb();
+    }
+    ForkJoinPool singleThreadPool = new ForkJoinPool(1);
+    ForkJoinPool pool = new ForkJoinPool(4);
+    completeMarketDataService.computePnL(singleThreadPool);
+    parallelService.computePnL(pool);
+    singleThreadPool.shutdown();
+    pool.shutdown();
+
+    // bit for bit the same, whatever the split
+    assertFalse(
+        completeMarketDataService.getPnLCube().toDateMap(PnLCube.Measure.UNREALIZED).isEmpty());
+    assertFalse(
+        completeMarketDataService.getPnLCube().toDateMap(PnLCube.Measure.REALIZED).isEmpty());
+    assertEquals(
+        completeMarketDataService.getPnLCube().toDateMap(PnLCube.Measure.UNREALIZED),
+        parallelService.getPnLCube().toDateMap(PnLCube.Measure.UNREALIZED));
+    assertEquals(
+        completeMarketDataService.getPnLCube().toDateMap(PnLCube.Measure.REALIZED),
+        parallelService.getPnLCube().toDateMap(PnLCube.Measure.REALIZED));
+    assertEquals(
+        completeMarketDataService.getUnrealizedImntPnLMap(),
+        parallelService.getUnrealizedImntPnLMap());
+    assertEquals(
+        completeMarketDataService.getRealizedImntPnLMap(), parallelService.getRealizedImntPnLMap());
+    assertEquals(
+        completeMarketDataService.getPnLCube().toDateMap(PnLCube.Measure.COMBINED_CUMULATIVE),
+        parallelService.getPnLCube().toDateMap(PnLCube.Measure.COMBINED_CUMULATIVE));
+
+    // and the date level totals are the sums of the imnt level series
+    Map<Integer, Map<MarketDataProto.AccountType, Double>> expected = new TreeMap<>();
+    parallelService
+        .getUnrealizedImntPnLMap()
+        .forEach(
+            (imnt, typeDateMap) ->
+                typeDateMap.forEach(
+                    (type, dateMap) ->
+                        dateMap.forEach(
+                            (date, pnl) ->
+                                expected
+                                    .computeIfAbsent(date, k -> new HashMap<>())
+                                    .merge(type, pnl, Double::sum))));
+    expected.forEach(
+        (date, typeMap) ->
+            typeMap.forEach(
+                (type, pnl) ->
+                    assertEquals(
+                        pnl,
+                        parallelService
+                            .getPnLCube()
+                            .toDateMap(PnLCube.Measure.UNREALIZED)
+                            .get(date)
+                            .get(type),
+                        DELTA_PRECISION)));
+  }
+
+  @Test
+  public void testRefreshIntraday_MatchesFullCompute() {
+    LocalDate todayDate = LocalDate.of(2026, 1, 15);
+    int today = DateFormatUtil.getDate(todayDate);
+    completeMarketDataService.setMarketClock(fixedClock(todayDate));
+    List<LocalDate> dates = new ArrayList<>();
+    for (LocalDate date = todayDate.minusDays(199);
+        !date.isAfter(todayDate);
+        date = date.plusDays(1)) dates.add(date);
+    double[] todayBump = {0.0};
+    when(tickerDataWarehouseService.getDates()).thenReturn(dates);
+    when(tickerDataWarehouseService.getMarketData(anyString(), anyInt()))
+        .thenAnswer(
+            invocation -> {
+              int date = invocation.getArgument(1);
+              return hashedPrice(invocation.getArgument(0), date)
+                  + (date == today ? todayBump[0] : 0.0);
+            });
+    MarketDataProto.Portfolio portfolio =
+        MarketDataProto.Portfolio.newBuilder()
+            .addAllInstruments(generateRandomInstruments(dates, 10, 7))
+            .build();
+    completeMarketDataService.populate(portfolio);
+    completeMarketDataService.computeAcb();
+    completeMarketDataService.computePnL();
+    PnLCube before = completeMarketDataService.getPnLCube();
+
+    todayBump[0] = 1.5;
+    assertTrue(completeMarketDataService.refreshIntraday());
+
+    CompleteMarketDataServiceImpl fullService = newCompleteMarketDataService();
+    fullService.setMarketClock(fixedClock(todayDate));
+    fullService.populate(portfolio);
+    fullService.computeAcb();
+    fullService.computePnL();
+
+    PnLCube refreshed = completeMarketDataService.getPnLCube();
+    assertNotEquals(
+        before.asOf(PnLCube.Measure.UNREALIZED, MarketDataProto.AccountType.TFSA, today),
+        refreshed.asOf(PnLCube.Measure.UNREALIZED, MarketDataProto.AccountType.TFSA, today),
+        DELTA_PRECISION);
+    assertSlicesEqual(fullService.getPnLCube(), refreshed);
+    fullService
+        .getUnrealizedImntPnLMap()
+        .forEach(
+            (imnt, typeDateMap) ->
+                typeDateMap.forEach(
+                    (type, dateMap) ->
+                        assertEquals(
+                            sanitizeDouble(dateMap.get(today)),
+                            sanitizeDouble(
+                                completeMarketDataService
+                                    .getUnrealizedImntPnLMap()
+                                    .get(imnt)
+                                    .get(type)
+                                    .get(today)),
+                            DELTA_PRECISION)));
+  }
+
+  @Test
+  public void testRollover_MatchesFullCompute() {
+    LocalDate todayDate = LocalDate.of(2026, 1, 15);
+    LocalDate lastLocalDate = todayDate.minusDays(1);
+    int today = DateFormatUtil.getDate(todayDate);
+    int lastDate = DateFormatUtil.getDate(lastLocalDate);
+    List<LocalDate> dates = new ArrayList<>();
+    for (LocalDate date = lastLocalDate.minusDays(199);
+        !date.isAfter(lastLocalDate);
+        date = date.plusDays(1)) dates.add(date);
+    double[] closeBump = {0.0};
+    when(tickerDataWarehouseService.getDates()).thenReturn(dates);
+    // nothing is priced on the new day yet
+    when(tickerDataWarehouseService.getMarketData(anyString(), anyInt()))
+        .thenAnswer(
+            invocation -> {
+              int date = invocation.getArgument(1);
+              if (date > lastDate) return null;
+              return hashedPrice(invocation.getArgument(0), date)
+                  + (date == lastDate ? closeBump[0] : 0.0);
+            });
+    when(tickerDataWarehouseService.getMarketDataAsOf(anyString(), eq(lastDate), anyInt()))
+        .thenAnswer(
+            invocation ->
+                Optional.of(
+                    Pair.of(
+                        lastDate,
+                        hashedPrice(invocation.getArgument(0), lastDate) + closeBump[0])));
+    MarketDataProto.Portfolio portfolio =
+        MarketDataProto.Portfolio.newBuilder()
+            .addAllInstruments(generateRandomInstruments(dates, 10, 11))
+            .build();
+    completeMarketDataService.setMarketClock(fixedClock(lastLocalDate));
+    completeMarketDataService.populate(portfolio);
+    completeMarketDataService.computeAcb();
+    completeMarketDataService.computePnL();
+    assertFalse(completeMarketDataService.rollover()); // same day
+
+    // the benchmark confirmed today, and the last date closed
+    closeBump[0] = -2.0;
+    List<LocalDate> rolledDates = new ArrayList<>(dates);
+    rolledDates.add(todayDate);
+    when(tickerDataWarehouseService.getDates()).thenReturn(rolledDates);
+    completeMarketDataService.setMarketClock(fixedClock(todayDate));
+    assertTrue(completeMarketDataService.rollover());
+    assertFalse(completeMarketDataService.rollover());
+    assertEquals(today, completeMarketDataService.getTodayDate());
+    assertEquals(today, completeMarketDataService.getBenchMarkCurrentDate());
+    assertEquals(dates.size() + 1, completeMarketDataService.getMarketDates().size());
+
+    CompleteMarketDataServiceImpl fullService = newCompleteMarketDataService();
+    fullService.setMarketClock(fixedClock(todayDate));
+    fullService.populate(portfolio);
+    fullService.computeAcb();
+    fullService.computePnL();
+
+    PnLCube rolled = completeMarketDataService.getPnLCube();
+    assertEquals(today, rolled.getDate(rolled.size() - 1));
+    assertSlicesEqual(fullService.getPnLCube(), rolled);
+    assertEquals(
+        fullService.getLatestCombinedCumulativePnL(),
+        completeMarketDataService.getLatestCombinedCumulativePnL(),
+        DELTA_PRECISION);
+    fullService
+        .getUnrealizedImntPnLMap()
+        .forEach(
+            (imnt, typeDateMap) ->
+                typeDateMap.forEach(
+                    (type, dateMap) -> {
+                      for (int date : List.of(lastDate, today))
+                        assertEquals(
+                            sanitizeDouble(dateMap.get(date)),
+                            sanitizeDouble(
+                                completeMarketDataService
+                                    .getUnrealizedImntPnLMap()
+                                    .get(imnt)
+                                    .get(type)
+                                    .get(date)),
+                            DELTA_PRECISION,
+                            imnt + " x " + type + " on " + date);
+                      assertEquals(
+                          fullService.getRealizedImntWithDividendPnL(imnt, type, today),
+                          completeMarketDataService.getRealizedImntWithDividendPnL(
+                              imnt, type, today),
+                          DELTA_PRECISION);
+                    }));
+  }
+
+  @Test
+  public void testRollover_CatchesUpOnMissedMarketDates() {
+    LocalDate lastLocalDate = LocalDate.of(2026, 3, 30);
+    LocalDate missedDate = lastLocalDate.plusDays(1);
+    LocalDate todayDate = lastLocalDate.plusDays(2);
+    int lastDate = DateFormatUtil.getDate(lastLocalDate);
+    int missed = DateFormatUtil.getDate(missedDate);
+    int today = DateFormatUtil.getDate(todayDate);
+    List<LocalDate> dates = new ArrayList<>();
+    for (LocalDate date = lastLocalDate.minusDays(199);
+        !date.isAfter(lastLocalDate);
+        date = date.plusDays(1)) dates.add(date);
+    when(tickerDataWarehouseService.getDates()).thenReturn(dates);
+    // the missed date has closed, nothing is priced on the new day yet
+    when(tickerDataWarehouseService.getMarketData(anyString(), anyInt()))
+        .thenAnswer(
+            invocation -> {
+              int date = invocation.getArgument(1);
+              return date > missed ? null : hashedPrice(invocation.getArgument(0), date);
+            });
+    when(tickerDataWarehouseService.getMarketDataAsOf(anyString(), eq(missed), anyInt()))
+        .thenAnswer(
+            invocation ->
+                Optional.of(Pair.of(missed, hashedPrice(invocation.getArgument(0), missed))));
+    MarketDataProto.Portfolio portfolio =
+        MarketDataProto.Portfolio.newBuilder()
+            .addAllInstruments(generateRandomInstruments(dates, 10, 11))
+            .build();
+    completeMarketDataService.setMarketClock(fixedClock(lastLocalDate));
+    completeMarketDataService.populate(portfolio);
+    completeMarketDataService.computeAcb();
+    completeMarketDataService.computePnL();
+
+    // both the missed date and today get confirmed, the last date and the missed one close
+    completeMarketDataService.setMarketClock(fixedClock(todayDate));
+    PriceUpdate confirmed =
+        PriceUpdate.of(missedDate, Map.of("^GSPTSE", 31000.0))
+            .merge(PriceUpdate.of(todayDate, Map.of("^GSPTSE", 31100.0)));
+    when(tickerDataWarehouseService.confirmMarketDates(lastLocalDate, todayDate))
+        .thenReturn(confirmed);
+    when(tickerDataWarehouseService.fetchClosingPrices(anySet(), any(LocalDate.class)))
+        .thenAnswer(
+            invocation -> PriceUpdate.of(invocation.getArgument(1), Map.of("CM.TO", 100.0)));
+    PriceUpdate rolloverPrices = completeMarketDataService.fetchRolloverPrices();
+    assertEquals(Set.of(lastLocalDate, missedDate, todayDate), rolloverPrices.dates());
+    verify(tickerDataWarehouseService).fetchClosingPrices(anySet(), eq(lastLocalDate));
+    verify(tickerDataWarehouseService).fetchClosingPrices(anySet(), eq(missedDate));
+    verify(tickerDataWarehouseService, never()).fetchClosingPrices(anySet(), eq(todayDate));
+
+    List<LocalDate> rolledDates = new ArrayList<>(dates);
+    rolledDates.add(missedDate);
+    rolledDates.add(todayDate);
+    when(tickerDataWarehouseService.getDates()).thenReturn(rolledDates);
+    assertTrue(completeMarketDataService.rollover());
+    assertFalse(completeMarketDataService.rollover());
+    assertTrue(completeMarketDataService.fetchRolloverPrices().isEmpty());
+    assertEquals(today, completeMarketDataService.getTodayDate());
+    assertEquals(dates.size() + 2, completeMarketDataService.getMarketDates().size());
+
+    CompleteMarketDataServiceImpl fullService = newCompleteMarketDataService();
+    fullService.setMarketClock(fixedClock(todayDate));
+    fullService.populate(portfolio);
+    fullService.computeAcb();
+    fullService.computePnL();
+
+    PnLCube rolled = completeMarketDataService.getPnLCube();
+    assertEquals(missed, rolled.getDate(rolled.size() - 2));
+    assertEquals(today, rolled.getDate(rolled.size() - 1));
+    assertSlicesEqual(fullService.getPnLCube(), rolled);
+    fullService
+        .getUnrealizedImntPnLMap()
+        .forEach(
+            (imnt, typeDateMap) ->
+                typeDateMap.forEach(
+                    (type, dateMap) -> {
+                      for (int date : List.of(lastDate, missed, today))
+                        assertEquals(
+                            sanitizeDouble(dateMap.get(date)),
+                            sanitizeDouble(
+                                completeMarketDataService
+                                    .getUnrealizedImntPnLMap()
+                                    .get(imnt)
+                                    .get(type)
+                                    .get(date)),
+                            DELTA_PRECISION,
+                            imnt + " x " + type + " on " + date);
+                      assertEquals(
+                          fullService.getRealizedImntWithDividendPnL(imnt, type, today),
+                          completeMarketDataService.getRealizedImntWithDividendPnL(
+                              imnt, type, today),
+                          DELTA_PRECISION);
+                    }));
+  }
+
+  @Test
+  public void testRollover_SkipsANonMarketDate() {
+    LocalDate lastLocalDate = LocalDate.of(2026, 4, 2);
+    LocalDate holiday = lastLocalDate.plusDays(1); // Good Friday
+    List<LocalDate> dates = new ArrayList<>();
+    for (LocalDate date = lastLocalDate.minusDays(59);
+        !date.isAfter(lastLocalDate);
+        date = date.plusDays(1)) dates.add(date);
+    when(tickerDataWarehouseService.getDates()).thenReturn(dates);
+    when(tickerDataWarehouseService.getMarketData(anyString(), anyInt()))
+        .thenAnswer(
+            invocation -> hashedPrice(invocation.getArgument(0), invocation.getArgument(1)));
+    completeMarketDataService.setMarketClock(fixedClock(lastLocalDate));
+    completeMarketDataService.populate(
+        MarketDataProto.Portfolio.newBuilder()
+            .addAllInstruments(generateRandomInstruments(dates, 4, 5))
+            .build());
+    completeMarketDataService.computeAcb();
+    completeMarketDataService.computePnL();
+    PnLCube cube = completeMarketDataService.getPnLCube();
+    int lastDate = DateFormatUtil.getDate(lastLocalDate);
+
+    when(tickerDataWarehouseService.confirmMarketDates(lastLocalDate, holiday))
+        .thenReturn(PriceUpdate.empty());
+    completeMarketDataService.setMarketClock(fixedClock(holiday));
+    assertTrue(completeMarketDataService.fetchRolloverPrices().isEmpty());
+    assertFalse(completeMarketDataService.rollover());
+
+    assertSame(cube, completeMarketDataService.getPnLCube());
+    assertEquals(lastDate, cube.getDate(cube.size() - 1));
+    assertEquals(lastDate, completeMarketDataService.getBenchMarkCurrentDate());
+    assertEquals(dates.size(), completeMarketDataService.getMarketDates().size());
+    verify(tickerDataWarehouseService, never()).fetchClosingPrices(anySet(), any());
+  }
+
+  private static void assertSlicesEqual(PnLCube expected, PnLCube actual) {
+    for (PnLCube.Measure measure :
+        List.of(
+            PnLCube.Measure.UNREALIZED,
+            PnLCube.Measure.COMBINED,
+            PnLCube.Measure.REALIZED_WITH_DIVIDEND_CUMULATIVE,
+            PnLCube.Measure.COMBINED_CUMULATIVE))
+      for (MarketDataProto.AccountType type :
+          List.of(MarketDataProto.AccountType.TFSA, MarketDataProto.AccountType.NR)) {
+        TreeMap<Integer, Double> expectedSlice = expected.slice(measure, type);
+        TreeMap<Integer, Double> actualSlice = actual.slice(measure, type);
+        assertEquals(expectedSlice.keySet(), actualSlice.keySet(), measure + " dates");
+        expectedSlice.forEach(
+            (date, pnl) ->
+                assertEquals(pnl, actualSlice.get(date), DELTA_PRECISION, measure + " on " + date));
+      }
+  }
+
+  private static MarketClock fixedClock(LocalDate date) {
+    return new MarketClock(
+        Clock.fixed(date.atStartOfDay(ZoneId.systemDefault()).toInstant(), ZoneId.systemDefault()));
+  }
+
+  private static double hashedPrice(String imnt, int date) {
+    return 10.0 + Math.floorMod((imnt + date).hashCode(), 1000) / 100.0;
+  }
+
+  private List<MarketDataProto.Instrument> generateRandomInstruments(
+      List<LocalDate> dates, int imnts, long seed) {
+    Random random = new Random(seed);
+    List<MarketDataProto.AccountType> accountTypes =
+        List.of(MarketDataProto.AccountType.TFSA, MarketDataProto.AccountType.NR);
+    List<MarketDataProto.Instrument> buys = new ArrayList<>();
+    List<MarketDataProto.Instrument> sells = new ArrayList<>();
+    for (int i = 0; i < imnts; i++) {
+      for (MarketDataProto.AccountType accountType : accountTypes) {
+        double held = 0.0;
+        for (int d = random.nextInt(20); d < dates.size(); d += 1 + random.nextInt(15)) {
+          int date = DateFormatUtil.getDate(dates.get(d));
+          boolean sell = held > 2 && random.nextInt(4) == 0;
+          double qty = sell ? Math.min(held, 1 + random.nextInt(5)) : 1 + random.nextInt(10);
+          double pps = 10.0 + random.nextInt(1000) / 100.0;
+          held += sell ? -qty : qty;
+          (sell ? sells : buys)
+              .add(
+                  TestInstrument.builder()
+                      .symbol("imnt" + i + ".to")
+                      .accountType(accountType)
+                      .qty(qty)
+                      .price(qty * pps)
+                      .direction(sell ? SELL : MarketDataProto.Direction.BUY)
+                      .date(date)
+                      .metadata(Map.of("pricePerShare", String.valueOf(pps)))
+                      .build()
+                      .getInstrument());
+        }
+      }
+    }
+    buys.addAll(sells); // sells go in after all the buys, like a load
+    return buys;
+  }
+
+  @Test
+  public void testLoad_WarmStartMatchesColdLoad() {
+    LocalDate todayDate = LocalDate.of(2026, 1, 15);
+    List<LocalDate> dates = new ArrayList<>();
+    for (LocalDate date = todayDate.minusDays(99);
+        !date.isAfter(todayDate);
+        date = date.plusDays(1)) dates.add(date);
+    when(tickerDataWarehouseService.getDates()).thenReturn(dates);
+    when(tickerDataWarehouseService.getMarketData(anyString(), anyInt()))
+        .thenAnswer(
+            invocation -> hashedPrice(invocation.getArgument(0), invocation.getArgument(1)));
+    when(tickerDataWarehouseService.loadAnalysisDataForInstrumentsNotInPortfolio(
+            anySet(), eq(false), anySet()))
+        .thenReturn(Set.of("RY.TO"));
+    Map<MarketDataProto.Direction, List<MarketDataProto.Instrument>> transactions =
+        generateRandomInstruments(dates, 6, 11).stream()
+            .collect(Collectors.groupingBy(MarketDataProto.Instrument::getDirection));
+    ExtractMarketPortfolioDataService extractMarketPortfolioDataService =
+        mock(ExtractMarketPortfolioDataService.class);
+    for (MarketDataProto.Direction direction : List.of(MarketDataProto.Direction.BUY, SELL))
+      when(extractMarketPortfolioDataService.extractMarketPortfolioData(direction))
+          .thenReturn(
+              new PortfolioData(
+                  MarketDataProto.Portfolio.newBuilder()
+                      .addAllInstruments(transactions.getOrDefault(direction, List.of()))
+                      .build()));
+    when(extractMarketPortfolioDataService.extractMarketPortfolioDividendData(any()))
+        .thenReturn(new PortfolioData(MarketDataProto.Portfolio.getDefaultInstance()));
+
+    CompleteMarketDataServiceImpl coldService =
         new CompleteMarketDataServiceImpl(
             new DateLocalDateCache(),
             new KeyInstrumentValueCache(),
             instrumentMetaDataService,
-            null,
+            extractMarketPortfolioDataService,
             tickerDataWarehouseService,
             marketDataPythonEngineFeign,
             calcPythonEngine,
             progressTrackerService,
             computeMarketStatisticsService,
             marketDataCrdbServiceFeign);
+    coldService.setMarketClock(fixedClock(todayDate));
+    coldService.load();
+    // no extract service, so any remote fetch would fail the warm load
+    completeMarketDataService.setMarketClock(fixedClock(todayDate));
+    completeMarketDataService.load(coldService.getLoadInputs());
+
+    assertEquals(Set.of("RY.TO"), coldService.getLoadInputs().imntsNotInPortfolio());
+    assertEquals(coldService.getLoadInputs(), completeMarketDataService.getLoadInputs());
+    assertSlicesEqual(coldService.getPnLCube(), completeMarketDataService.getPnLCube());
+    assertEquals(
+        coldService.getLatestCombinedCumulativePnL(),
+        completeMarketDataService.getLatestCombinedCumulativePnL(),
+        DELTA_PRECISION);
+    verify(tickerDataWarehouseService)
+        .loadAnalysisDataForInstruments(anySet(), eq(false), any(Runnable.class));
+    verify(tickerDataWarehouseService).loadAnalysisDataForInstrumentsViaDbOnly(anySet(), eq(false));
   }
 
   @Test
-  public void populateMap() {
-    MarketDataProto.Portfolio portfolio =
-        MarketDataProto.Portfolio.newBuilder().addAllInstruments(generateTestInstruments()).build();
-    System.out.println(portfolio);
+  public void testIngestTransaction_MatchesFullCompute() {
+    List<MarketDataProto.Instrument> instruments = generateTestInstruments3();
+    mockCmMarketData();
 
-    completeMarketDataService.populate(portfolio);
+    completeMarketDataService.populate(
+        MarketDataProto.Portfolio.newBuilder()
+            .addAllInstruments(instruments.subList(0, 3))
+            .build());
     completeMarketDataService.computeAcb();
-    Map<String, Map<MarketDataProto.AccountType, DataList>> result =
-        completeMarketDataService.getMarketData();
+    completeMarketDataService.computePnL();
+    // back-dated SELL, lands ahead of the 20240913 BUY
+    assertEquals(
+        IngestResult.BOOKED, completeMarketDataService.ingestTransaction(instruments.get(3)));
 
-    assertFalse(result.isEmpty());
-    assertTrue(result.containsKey("CM.TO"));
-    DataList cibcTfsaList = result.get("CM.TO").get(MarketDataProto.AccountType.TFSA);
-    assertNotNull(cibcTfsaList);
-    assertEquals(3, cibcTfsaList.getBlocks());
-    assertEquals(50.1, cibcTfsaList.getHead().getAcb().getTotalAcb());
+    CompleteMarketDataServiceImpl fullService = newCompleteMarketDataService();
+    fullService.populate(
+        MarketDataProto.Portfolio.newBuilder().addAllInstruments(instruments).build());
+    fullService.computeAcb();
+    fullService.populateSellPnlData();
+    fullService.computePnL();
+
+    PositionLedger ledger =
+        completeMarketDataService
+            .getMarketData()
+            .get("CM.TO")
+            .get(MarketDataProto.AccountType.TFSA);
+    PositionLedger fullLedger =
+        fullService.getMarketData().get("CM.TO").get(MarketDataProto.AccountType.TFSA);
+    assertEquals(fullLedger.size(), ledger.size());
+    for (int i = 0; i < ledger.size(); i++) {
+      assertEquals(fullLedger.getRunningQuantity(i), ledger.getRunningQuantity(i), DELTA_PRECISION);
+      assertEquals(fullLedger.getTotalAcb(i), ledger.getTotalAcb(i), DELTA_PRECISION);
+    }
+    for (int date : List.of(20240909, 20240910, 20240911, 20240912, 20240913, 20240916)) {
+      assertEquals(
+          fullService
+              .getPnLCube()
+              .toDateMap(PnLCube.Measure.UNREALIZED)
+              .get(date)
+              .get(MarketDataProto.AccountType.TFSA),
+          completeMarketDataService
+              .getPnLCube()
+              .toDateMap(PnLCube.Measure.UNREALIZED)
+              .get(date)
+              .get(MarketDataProto.AccountType.TFSA),
+          DELTA_PRECISION);
+      assertEquals(
+          fullService
+              .getPnLCube()
+              .toDateMap(PnLCube.Measure.COMBINED_CUMULATIVE)
+              .get(date)
+              .get(MarketDataProto.AccountType.TFSA),
+          completeMarketDataService
+              .getPnLCube()
+              .toDateMap(PnLCube.Measure.COMBINED_CUMULATIVE)
+              .get(date)
+              .get(MarketDataProto.AccountType.TFSA),
+          DELTA_PRECISION);
+    }
+    assertEquals(
+        44.9,
+        completeMarketDataService
+            .getPnLCube()
+            .toDateMap(PnLCube.Measure.REALIZED)
+            .get(20240912)
+            .get(MarketDataProto.AccountType.TFSA),
+        DELTA_PRECISION);
     assertEquals(
-        25.05, cibcTfsaList.getHead().getNext().getAcb().getTotalAcb(), DELTA_PRECISION2); // 25.05
-    assertEquals(175.05, cibcTfsaList.getTail().getAcb().getTotalAcb());
+        fullService.getSellPnl().getInstrumentsCount(),
+        completeMarketDataService.getSellPnl().getInstrumentsCount());
+  }
 
-    DataList cmNrList = result.get("CM.TO").get(MarketDataProto.AccountType.NR);
-    assertNotNull(cmNrList);
-    assertEquals(1, cmNrList.getBlocks());
-    assertEquals(150, cmNrList.getHead().getAcb().getTotalAcb(), DELTA_PRECISION);
-    assertEquals(15, cmNrList.getHead().getAcb().getAcbPerUnit(), DELTA_PRECISION);
+  @Test
+  public void testIngestTransaction_BackDatedBuyMatchesFullCompute() {
+    List<MarketDataProto.Instrument> instruments = generateTestInstruments3();
+    mockCmMarketData();
+    completeMarketDataService.populate(
+        MarketDataProto.Portfolio.newBuilder()
+            .addAllInstruments(List.of(instruments.get(0), instruments.get(2), instruments.get(3)))
+            .build());
+    completeMarketDataService.computeAcb();
+    completeMarketDataService.populateSellPnlData();
+    completeMarketDataService.computePnL();
+    // the 20240910 BUY, ahead of the 20240912 SELL and the 20240913 BUY already in
+    assertEquals(
+        IngestResult.BOOKED, completeMarketDataService.ingestTransaction(instruments.get(1)));
 
-    assertTrue(result.containsKey("BNS.TO"));
-    DataList bnsTfsaList = result.get("BNS.TO").get(MarketDataProto.AccountType.TFSA);
-    assertNotNull(bnsTfsaList);
-    assertEquals(1, bnsTfsaList.getBlocks());
-    assertEquals(100, bnsTfsaList.getHead().getAcb().getTotalAcb(), DELTA_PRECISION);
-    assertEquals(5, bnsTfsaList.getHead().getAcb().getAcbPerUnit(), DELTA_PRECISION);
+    CompleteMarketDataServiceImpl fullService = newCompleteMarketDataService();
+    fullService.populate(
+        MarketDataProto.Portfolio.newBuilder().addAllInstruments(instruments).build());
+    fullService.computeAcb();
+    fullService.populateSellPnlData();
+    fullService.computePnL();
+
+    PositionLedger ledger =
+        completeMarketDataService
+            .getMarketData()
+            .get("CM.TO")
+            .get(MarketDataProto.AccountType.TFSA);
+    PositionLedger fullLedger =
+        fullService.getMarketData().get("CM.TO").get(MarketDataProto.AccountType.TFSA);
+    assertEquals(fullLedger.size(), ledger.size());
+    for (int i = 0; i < ledger.size(); i++) {
+      assertEquals(fullLedger.getDate(i), ledger.getDate(i));
+      assertEquals(fullLedger.getRunningQuantity(i), ledger.getRunningQuantity(i), DELTA_PRECISION);
+      assertEquals(fullLedger.getTotalAcb(i), ledger.getTotalAcb(i), DELTA_PRECISION);
+    }
+    assertSlicesEqual(fullService.getPnLCube(), completeMarketDataService.getPnLCube());
+    assertEquals(
+        fullService
+            .getPnLCube()
+            .toDateMap(PnLCube.Measure.REALIZED)
+            .get(20240912)
+            .get(MarketDataProto.AccountType.TFSA),
+        completeMarketDataService
+            .getPnLCube()
+            .toDateMap(PnLCube.Measure.REALIZED)
+            .get(20240912)
+            .get(MarketDataProto.AccountType.TFSA),
+        DELTA_PRECISION);
+  }
+
+  @Test
+  public void testIngestTransaction_RejectsShortSell() {
+    List<MarketDataProto.Instrument> instruments = generateTestInstruments3();
+    mockCmMarketData();
+    completeMarketDataService.populate(
+        MarketDataProto.Portfolio.newBuilder()
+            .addAllInstruments(instruments.subList(0, 3))
+            .build());
+    completeMarketDataService.computeAcb();
+    completeMarketDataService.computePnL();
+
+    assertEquals(
+        IngestResult.REJECTED,
+        completeMarketDataService.ingestTransaction(
+            TestInstrument.builder()
+                .symbol("cm.to")
+                .qty(5)
+                .price(50)
+                .direction(SELL)
+                .date(20240906)
+                .build()
+                .getInstrument()));
+    assertEquals(
+        3,
+        completeMarketDataService
+            .getMarketData()
+            .get("CM.TO")
+            .get(MarketDataProto.AccountType.TFSA)
+            .size());
+  }
+
+  @Test
+  public void testIngestTransaction_RejectedSellLeavesNoLedgerBehind() {
+    List<MarketDataProto.Instrument> instruments = generateTestInstruments3();
+    mockCmMarketData();
+    completeMarketDataService.populate(
+        MarketDataProto.Portfolio.newBuilder()
+            .addAllInstruments(instruments.subList(0, 3))
+            .build());
+    completeMarketDataService.computeAcb();
+    completeMarketDataService.computePnL();
+
+    assertEquals(
+        IngestResult.REJECTED,
+        completeMarketDataService.ingestTransaction(
+            TestInstrument.builder()
+                .symbol("cm.to")
+                .accountType(MarketDataProto.AccountType.NR)
+                .qty(5)
+                .price(50)
+                .direction(SELL)
+                .date(20240912)
+                .build()
+                .getInstrument()));
+    assertFalse(
+        completeMarketDataService
+            .getMarketData()
+            .get("CM.TO")
+            .containsKey(MarketDataProto.AccountType.NR));
+  }
+
+  @Test
+  public void testCopy_IngestLeavesTheSourceAsItWas() {
+    List<MarketDataProto.Instrument> instruments = generateTestInstruments3();
+    mockCmMarketData();
+    completeMarketDataService.populate(
+        MarketDataProto.Portfolio.newBuilder()
+            .addAllInstruments(instruments.subList(0, 3))
+            .build());
+    completeMarketDataService.computeAcb();
+    completeMarketDataService.computePnL();
+    PnLCube cube = completeMarketDataService.getPnLCube();
+    Map<Integer, Double> unrealizedPnLs =
+        new TreeMap<>(
+            completeMarketDataService
+                .getUnrealizedImntPnLMap()
+                .get("CM.TO")
+                .get(MarketDataProto.AccountType.TFSA));
+
+    CompleteMarketDataServiceImpl copy =
+        (CompleteMarketDataServiceImpl) completeMarketDataService.copy();
+    assertEquals(IngestResult.BOOKED, copy.ingestTransaction(instruments.get(3)));
+
+    assertEquals(4, copy.getMarketData().get("CM.TO").get(MarketDataProto.AccountType.TFSA).size());
+    assertEquals(
+        3,
+        completeMarketDataService
+            .getMarketData()
+            .get("CM.TO")
+            .get(MarketDataProto.AccountType.TFSA)
+            .size());
+    assertSame(cube, completeMarketDataService.getPnLCube());
+    assertNotSame(cube, copy.getPnLCube());
+    assertEquals(
+        unrealizedPnLs,
+        completeMarketDataService
+            .getUnrealizedImntPnLMap()
+            .get("CM.TO")
+            .get(MarketDataProto.AccountType.TFSA));
+    assertNotEquals(
+        unrealizedPnLs,
+        copy.getUnrealizedImntPnLMap().get("CM.TO").get(MarketDataProto.AccountType.TFSA));
+    assertTrue(completeMarketDataService.getImntSellRecordMap().isEmpty());
+  }
+
+  @Test
+  public void testCopy_SharesThePositionsAnIngestLeavesUntouched() {
+    List<MarketDataProto.Instrument> instruments = generateTestInstruments3();
+    mockCmMarketData();
+    completeMarketDataService.populate(
+        MarketDataProto.Portfolio.newBuilder()
+            .addAllInstruments(instruments.subList(0, 3))
+            .addInstruments(
+                TestInstrument.builder()
+                    .symbol("cm.to")
+                    .name("cibc")
+                    .qty(10)
+                    .price(50.1)
+                    .date(20240909)
+                    .accountType(MarketDataProto.AccountType.NR)
+                    .build()
+                    .getInstrument())
+            .build());
+    completeMarketDataService.computeAcb();
+    completeMarketDataService.computePnL();
+    completeMarketDataService.computeSectorLevelImntAggregationData();
+    Map<String, Double> tfsaSectorAggr =
+        completeMarketDataService.getSectorLevelAggrDataMap(MarketDataProto.AccountType.TFSA);
+    Map<String, Double> nrSectorAggr =
+        completeMarketDataService.getSectorLevelAggrDataMap(MarketDataProto.AccountType.NR);
+
+    CompleteMarketDataServiceImpl copy =
+        (CompleteMarketDataServiceImpl) completeMarketDataService.copy();
+    assertEquals(IngestResult.BOOKED, copy.ingestTransaction(instruments.get(3)));
+
+    Map<MarketDataProto.AccountType, PositionLedger> ledgers =
+        completeMarketDataService.getMarketData().get("CM.TO");
+    Map<MarketDataProto.AccountType, PositionLedger> copyLedgers =
+        copy.getMarketData().get("CM.TO");
+    assertSame(
+        ledgers.get(MarketDataProto.AccountType.NR),
+        copyLedgers.get(MarketDataProto.AccountType.NR));
+    assertNotSame(
+        ledgers.get(MarketDataProto.AccountType.TFSA),
+        copyLedgers.get(MarketDataProto.AccountType.TFSA));
+    assertSame(
+        completeMarketDataService
+            .getUnrealizedImntPnLMap()
+            .get("CM.TO")
+            .get(MarketDataProto.AccountType.NR),
+        copy.getUnrealizedImntPnLMap().get("CM.TO").get(MarketDataProto.AccountType.NR));
+    assertEquals(
+        tfsaSectorAggr,
+        completeMarketDataService.getSectorLevelAggrDataMap(MarketDataProto.AccountType.TFSA));
+    assertNotEquals(
+        tfsaSectorAggr, copy.getSectorLevelAggrDataMap(MarketDataProto.AccountType.TFSA));
+
+    // the source copies on write too, as long as the two share
+    assertEquals(
+        IngestResult.BOOKED,
+        completeMarketDataService.ingestTransaction(
+            TestInstrument.builder()
+                .symbol("cm.to")
+                .name("cibc")
+                .qty(10)
+                .price(50.3)
+                .date(20240910)
+                .accountType(MarketDataProto.AccountType.NR)
+                .build()
+                .getInstrument()));
+    assertEquals(
+        2,
+        completeMarketDataService
+            .getMarketData()
+            .get("CM.TO")
+            .get(MarketDataProto.AccountType.NR)
+            .size());
+    assertEquals(1, copyLedgers.get(MarketDataProto.AccountType.NR).size());
+    assertEquals(nrSectorAggr, copy.getSectorLevelAggrDataMap(MarketDataProto.AccountType.NR));
+  }
+
+  @Test
+  public void testReloadInstrument_MatchesFullCompute() {
+    List<MarketDataProto.Instrument> instruments = generateTestInstruments3();
+    mockCmMarketData();
+    completeMarketDataService.populate(
+        MarketDataProto.Portfolio.newBuilder().addAllInstruments(instruments).build());
+    completeMarketDataService.computeAcb();
+    completeMarketDataService.populateSellPnlData();
+    completeMarketDataService.computePnL();
+    completeMarketDataService.setCorrelationMatrix(
+        Optional.of(
+            new CorrelationMatrix(List.of("BNS.TO", "CM.TO"), new double[] {1.0, 0.2, 1.0})));
+    assertFalse(completeMarketDataService.reloadInstrument("TD.TO"));
+    assertTrue(completeMarketDataService.fetchInstrumentPrices("TD.TO").isEmpty());
+    assertFalse(completeMarketDataService.reloadAccountType(MarketDataProto.AccountType.NR));
+
+    // the history of CM.TO is corrected, from 9.0 on both of the last dates
+    when(tickerDataWarehouseService.getMarketData("CM.TO", 20240913)).thenReturn(8.0);
+    when(tickerDataWarehouseService.getMarketData("CM.TO", 20240916)).thenReturn(10.0);
+    when(computeMarketStatisticsService.computeCorrelationRow(
+            "CM.TO", List.of("BNS.TO", "CM.TO"), completeMarketDataService.getMarketDates()))
+        .thenReturn(Optional.of(new double[] {0.7, 1.0}))
+        .thenReturn(Optional.of(new double[] {-0.3, 1.0}));
+    assertTrue(completeMarketDataService.reloadInstrument("CM.TO"));
+
+    // the corrected history was fetched ahead, outside of the reload
+    verify(tickerDataWarehouseService, never()).fetchAnalysisData(anyString());
+    CompleteMarketDataServiceImpl fullService = newCompleteMarketDataService();
+    fullService.populate(
+        MarketDataProto.Portfolio.newBuilder().addAllInstruments(instruments).build());
+    fullService.computeAcb();
+    fullService.populateSellPnlData();
+    fullService.computePnL();
+    for (PnLCube.Measure measure :
+        List.of(PnLCube.Measure.UNREALIZED, PnLCube.Measure.COMBINED_CUMULATIVE)) {
+      Map<Integer, Map<MarketDataProto.AccountType, Double>> expected =
+          fullService.getPnLCube().toDateMap(measure);
+      Map<Integer, Map<MarketDataProto.AccountType, Double>> actual =
+          completeMarketDataService.getPnLCube().toDateMap(measure);
+      for (int date : List.of(20240912, 20240913, 20240916))
+        assertEquals(
+            expected.get(date).get(MarketDataProto.AccountType.TFSA),
+            actual.get(date).get(MarketDataProto.AccountType.TFSA),
+            DELTA_PRECISION);
+    }
+    assertEquals(
+        0.7,
+        completeMarketDataService.getCorrelationMatrix().get().get("BNS.TO", "CM.TO").getAsDouble(),
+        DELTA_PRECISION);
+    assertEquals(
+        1,
+        completeMarketDataService
+            .getImntSellRecordMap()
+            .get("CM.TO")
+            .get(MarketDataProto.AccountType.TFSA)
+            .size());
+    assertEquals(
+        Set.of("CM.TO"),
+        completeMarketDataService
+            .getSectorLevelImntAggrMap()
+            .values()
+            .iterator()
+            .next()
+            .get(MarketDataProto.AccountType.TFSA)
+            .keySet());
+
+    assertTrue(completeMarketDataService.reloadAccountType(MarketDataProto.AccountType.TFSA));
+
+    // corrected once more, the row follows the prices as reloaded
+    assertTrue(completeMarketDataService.reloadInstrument("CM.TO"));
+    assertEquals(
+        -0.3,
+        completeMarketDataService.getCorrelationMatrix().get().get("CM.TO", "BNS.TO").getAsDouble(),
+        DELTA_PRECISION);
+    verify(computeMarketStatisticsService, times(2)).evictInstrument("CM.TO");
+  }
+
+  private void mockCmMarketData() {
+    when(tickerDataWarehouseService.getMarketData("CM.TO", 20240909)).thenReturn(5.01);
+    when(tickerDataWarehouseService.getMarketData("CM.TO", 20240910)).thenReturn(5.3);
+    when(tickerDataWarehouseService.getMarketData("CM.TO", 20240911)).thenReturn(5.5);
+    when(tickerDataWarehouseService.getMarketData("CM.TO", 20240912)).thenReturn(7.0);
+    when(tickerDataWarehouseService.getMarketData("CM.TO", 20240913)).thenReturn(9.0);
+    when(tickerDataWarehouseService.getMarketData("CM.TO", 20240916)).thenReturn(9.0);
+    when(tickerDataWarehouseService.getDates())
+        .thenReturn(
+            Lists.newArrayList(
+                DateFormatUtil.getLocalDate(20240905),
+                DateFormatUtil.getLocalDate(20240906),
+                DateFormatUtil.getLocalDate(20240909),
+                DateFormatUtil.getLocalDate(20240910),
+                DateFormatUtil.getLocalDate(20240911),
+                DateFormatUtil.getLocalDate(20240912),
+                DateFormatUtil.getLocalDate(20240913),
+                DateFormatUtil.getLocalDate(20240916)));
   }
 
   @Test
@@ -135,7 +1035,7 @@ class CompleteMarketDataServiceImplTest {
     // completeMarketDataService.setTickerDataWarehouseService(tickerDataWarehouseService);
     completeMarketDataService.computePnL();
     Map<Integer, Map<MarketDataProto.AccountType, Double>> unrealizedPnLMap =
-        completeMarketDataService.getUnrealizedDatePnLMap();
+        completeMarketDataService.getPnLCube().toDateMap(PnLCube.Measure.UNREALIZED);
     System.out.println("unrealizedPnLMap => " + unrealizedPnLMap);
     assertFalse(unrealizedPnLMap.isEmpty());
     assertFalse(unrealizedPnLMap.containsKey(20240905));
@@ -174,7 +1074,7 @@ class CompleteMarketDataServiceImplTest {
     assertEquals(59.7, unrealizedImntPnLCibcMap.get(20240916), DELTA_PRECISION);
 
     Map<Integer, Map<MarketDataProto.AccountType, Double>> realizedPnLMap =
-        completeMarketDataService.getRealizedDatePnLMap();
+        completeMarketDataService.getPnLCube().toDateMap(PnLCube.Measure.REALIZED);
     System.out.println("realizedPnLMap => " + realizedPnLMap);
     assertFalse(realizedPnLMap.isEmpty());
     assertFalse(realizedPnLMap.containsKey(20240905));
@@ -197,7 +1097,7 @@ class CompleteMarketDataServiceImplTest {
     assertEquals(44.9, realizedImntPnLCibcMap.get(20240912), DELTA_PRECISION);
 
     Map<Integer, Map<MarketDataProto.AccountType, Double>> combinedPnLMap =
-        completeMarketDataService.getCombinedDatePnLMap();
+        completeMarketDataService.getPnLCube().toDateMap(PnLCube.Measure.COMBINED);
     System.out.println("combinedPnLMap => " + combinedPnLMap);
     assertFalse(combinedPnLMap.isEmpty());
     assertFalse(combinedPnLMap.containsKey(20240905));
@@ -246,7 +1146,7 @@ class CompleteMarketDataServiceImplTest {
     // completeMarketDataService.setTickerDataWarehouseService(tickerDataWarehouseService);
     completeMarketDataService.computePnL();
     Map<Integer, Map<MarketDataProto.AccountType, Double>> unrealizedPnLMap =
-        completeMarketDataService.getUnrealizedDatePnLMap();
+        completeMarketDataService.getPnLCube().toDateMap(PnLCube.Measure.UNREALIZED);
     System.out.println("unrealizedPnLMap => " + unrealizedPnLMap);
     assertFalse(unrealizedPnLMap.isEmpty());
     assertFalse(unrealizedPnLMap.containsKey(20240905));
@@ -278,7 +1178,7 @@ class CompleteMarketDataServiceImplTest {
     assertNull(unrealizedImntPnLCibcMap.get(20240916));
 
     Map<Integer, Map<MarketDataProto.AccountType, Double>> realizedPnLMap =
-        completeMarketDataService.getRealizedDatePnLMap();
+        completeMarketDataService.getPnLCube().toDateMap(PnLCube.Measure.REALIZED);
     System.out.println("realizedPnLMap => " + realizedPnLMap);
     assertFalse(realizedPnLMap.isEmpty());
     assertFalse(realizedPnLMap.containsKey(20240905));
@@ -301,7 +1201,7 @@ class CompleteMarketDataServiceImplTest {
     assertEquals(39.6, realizedImntPnLCibcMap.get(20240912), DELTA_PRECISION);
 
     Map<Integer, Map<MarketDataProto.AccountType, Double>> combinedPnLMap =
-        completeMarketDataService.getCombinedDatePnLMap();
+        completeMarketDataService.getPnLCube().toDateMap(PnLCube.Measure.COMBINED);
     System.out.println("combinedPnLMap => " + combinedPnLMap);
     assertFalse(combinedPnLMap.isEmpty());
     assertFalse(combinedPnLMap.containsKey(20240905));
@@ -354,7 +1254,7 @@ class CompleteMarketDataServiceImplTest {
     // completeMarketDataService.setTickerDataWarehouseService(tickerDataWarehouseService);
     completeMarketDataService.computePnL();
     Map<Integer, Map<MarketDataProto.AccountType, Double>> unrealizedPnLMap =
-        completeMarketDataService.getUnrealizedDatePnLMap();
+        completeMarketDataService.getPnLCube().toDateMap(PnLCube.Measure.UNREALIZED);
     System.out.println("unrealizedPnLMap => " + unrealizedPnLMap);
     assertFalse(unrealizedPnLMap.isEmpty());
     assertFalse(unrealizedPnLMap.containsKey(20240905));
@@ -393,7 +1293,7 @@ class CompleteMarketDataServiceImplTest {
     assertNull(unrealizedImntPnLCibcMap.get(20240917));
 
     Map<Integer, Map<MarketDataProto.AccountType, Double>> realizedPnLMap =
-        completeMarketDataService.getRealizedDatePnLMap();
+        completeMarketDataService.getPnLCube().toDateMap(PnLCube.Measure.REALIZED);
     System.out.println("realizedPnLMap => " + realizedPnLMap);
     assertFalse(realizedPnLMap.isEmpty());
     assertFalse(realizedPnLMap.containsKey(20240905));
@@ -420,7 +1320,7 @@ class CompleteMarketDataServiceImplTest {
     assertEquals(84.7, realizedImntPnLCibcMap.get(20240916), DELTA_PRECISION);
 
     Map<Integer, Map<MarketDataProto.AccountType, Double>> combinedPnLMap =
-        completeMarketDataService.getCombinedDatePnLMap();
+        completeMarketDataService.getPnLCube().toDateMap(PnLCube.Measure.COMBINED);
     System.out.println("combinedPnLMap => " + combinedPnLMap);
     assertFalse(combinedPnLMap.isEmpty());
     assertFalse(combinedPnLMap.containsKey(20240905));
@@ -440,6 +1340,51 @@ class CompleteMarketDataServiceImplTest {
     assertFalse(combinedPnLMap.containsKey(20240917));
   }
 
+  @Test
+  public void testComputePnLWithDividends_SellAfterADividendAddsOn() {
+    mockCmMarketData();
+    completeMarketDataService.populate(
+        MarketDataProto.Portfolio.newBuilder()
+            .addAllInstruments(generateTestInstruments3())
+            .build());
+    completeMarketDataService.computeAcb();
+    completeMarketDataService.populateDividends(
+        MarketDataProto.Portfolio.newBuilder()
+            .addInstruments(
+                TestInstrument.builder()
+                    .metadata(Map.of("orderId", "DIVIDEND_20240910-TFSA-0-CM.TO"))
+                    .symbol("cm.to")
+                    .price(10)
+                    .date(20240910)
+                    .build()
+                    .getInstrument())
+            .addInstruments(
+                TestInstrument.builder()
+                    .metadata(Map.of("orderId", "DIVIDEND_20240913-TFSA-0-CM.TO"))
+                    .symbol("cm.to")
+                    .price(3)
+                    .date(20240913)
+                    .build()
+                    .getInstrument())
+            .build());
+    completeMarketDataService.populateSellPnlData();
+    completeMarketDataService.computePnL();
+
+    // dividend of 10 on 20240910, sell of 44.90 on 20240912, dividend of 3 on 20240913
+    Map<Integer, Double> expected =
+        Map.of(
+            20240909, 0.0, 20240910, 10.0, 20240911, 10.0, 20240912, 54.9, 20240913, 57.9, 20240916,
+            57.9);
+    expected.forEach(
+        (date, pnL) ->
+            assertEquals(
+                pnL,
+                completeMarketDataService.getRealizedImntWithDividendPnL(
+                    "CM.TO", MarketDataProto.AccountType.TFSA, date),
+                DELTA_PRECISION,
+                "on " + date));
+  }
+
   @Test
   public void testComputePnLWithDividends() {
     when(tickerDataWarehouseService.getMarketData("CM.TO", 20240909)).thenReturn(5.01);
@@ -518,7 +1463,7 @@ class CompleteMarketDataServiceImplTest {
     assertEquals(1, dividendsMap.get("CM.TO").get(MarketDataProto.AccountType.NR).size());
 
     TreeMap<Integer, Map<MarketDataProto.AccountType, Double>> dateDividendsCumulativeMap =
-        completeMarketDataService.getDateDividendsCumulativeMap();
+        completeMarketDataService.getPnLCube().toDateMap(PnLCube.Measure.DIVIDEND_CUMULATIVE);
     System.out.println("dateDividendsCumulativeMap => " + dateDividendsCumulativeMap);
     assertEquals(3, dateDividendsCumulativeMap.size());
     assertEquals(
@@ -587,41 +1532,118 @@ class CompleteMarketDataServiceImplTest {
     assertNull(dividendsDateDivMap.get(20240914).get(MarketDataProto.AccountType.NR));
     assertFalse(dividendsDateDivMap.containsKey(20240916));
 
-    Map<String, Map<MarketDataProto.AccountType, TreeMap<Integer, Double>>>
-        realizedImntWithDividendPnLMap =
-            completeMarketDataService.getRealizedImntWithDividendPnLMap(); // cumulative
+    Map<String, Map<MarketDataProto.AccountType, double[]>> realizedImntWithDividendPnLMap =
+        completeMarketDataService.getRealizedImntWithDividendPnLMap(); // cumulative
     System.out.println("realizedImntWithDividendPnLMap => " + realizedImntWithDividendPnLMap);
     assertFalse(realizedImntWithDividendPnLMap.isEmpty());
     assertEquals(1, realizedImntWithDividendPnLMap.size());
     assertTrue(realizedImntWithDividendPnLMap.containsKey("CM.TO"));
-    Map<MarketDataProto.AccountType, TreeMap<Integer, Double>> typeMapMap =
-        realizedImntWithDividendPnLMap.get("CM.TO");
-    assertEquals(2, typeMapMap.size());
-    TreeMap<Integer, Double> datePriceTfsaMap = typeMapMap.get(MarketDataProto.AccountType.TFSA);
-    TreeMap<Integer, Double> datePriceNrMap = typeMapMap.get(MarketDataProto.AccountType.NR);
-    assertEquals(0, datePriceTfsaMap.floorEntry(20240905).getValue(), DELTA_PRECISION);
-    assertEquals(0, datePriceNrMap.floorEntry(20240905).getValue(), DELTA_PRECISION);
-    assertEquals(0, datePriceTfsaMap.floorEntry(20240906).getValue(), DELTA_PRECISION);
-    assertEquals(0, datePriceNrMap.floorEntry(20240906).getValue(), DELTA_PRECISION);
-    assertEquals(0, datePriceTfsaMap.floorEntry(20240909).getValue(), DELTA_PRECISION);
-    assertEquals(0, datePriceNrMap.floorEntry(20240909).getValue(), DELTA_PRECISION);
-    assertEquals(0, datePriceTfsaMap.floorEntry(20240910).getValue(), DELTA_PRECISION);
-    assertEquals(0, datePriceNrMap.floorEntry(20240910).getValue(), DELTA_PRECISION);
-    assertEquals(0, datePriceTfsaMap.floorEntry(20240911).getValue(), DELTA_PRECISION);
-    assertEquals(0, datePriceNrMap.floorEntry(20240911).getValue(), DELTA_PRECISION);
-    assertEquals(10 + 44.90, datePriceTfsaMap.floorEntry(20240912).getValue(), DELTA_PRECISION);
-    assertEquals(20, datePriceNrMap.floorEntry(20240912).getValue(), DELTA_PRECISION);
-    assertEquals(54.90, datePriceTfsaMap.floorEntry(20240913).getValue(), DELTA_PRECISION);
-    assertEquals(20, datePriceNrMap.floorEntry(20240913).getValue(), DELTA_PRECISION);
-    assertEquals(59.9, datePriceTfsaMap.floorEntry(20240914).getValue(), DELTA_PRECISION);
-    assertEquals(20.0, datePriceNrMap.floorEntry(20240914).getValue(), DELTA_PRECISION);
-    assertEquals(59.9, datePriceTfsaMap.floorEntry(20240915).getValue(), DELTA_PRECISION);
-    assertEquals(20, datePriceNrMap.floorEntry(20240915).getValue(), DELTA_PRECISION);
-    assertEquals(59.9, datePriceTfsaMap.floorEntry(20240916).getValue(), DELTA_PRECISION);
-    assertEquals(20.0, datePriceNrMap.floorEntry(20240916).getValue(), DELTA_PRECISION);
+    assertEquals(2, realizedImntWithDividendPnLMap.get("CM.TO").size());
+    assertEquals(
+        0,
+        completeMarketDataService.getRealizedImntWithDividendPnL(
+            "CM.TO", MarketDataProto.AccountType.TFSA, 20240905),
+        DELTA_PRECISION);
+    assertEquals(
+        0,
+        completeMarketDataService.getRealizedImntWithDividendPnL(
+            "CM.TO", MarketDataProto.AccountType.NR, 20240905),
+        DELTA_PRECISION);
+    assertEquals(
+        0,
+        completeMarketDataService.getRealizedImntWithDividendPnL(
+            "CM.TO", MarketDataProto.AccountType.TFSA, 20240906),
+        DELTA_PRECISION);
+    assertEquals(
+        0,
+        completeMarketDataService.getRealizedImntWithDividendPnL(
+            "CM.TO", MarketDataProto.AccountType.NR, 20240906),
+        DELTA_PRECISION);
+    assertEquals(
+        0,
+        completeMarketDataService.getRealizedImntWithDividendPnL(
+            "CM.TO", MarketDataProto.AccountType.TFSA, 20240909),
+        DELTA_PRECISION);
+    assertEquals(
+        0,
+        completeMarketDataService.getRealizedImntWithDividendPnL(
+            "CM.TO", MarketDataProto.AccountType.NR, 20240909),
+        DELTA_PRECISION);
+    assertEquals(
+        0,
+        completeMarketDataService.getRealizedImntWithDividendPnL(
+            "CM.TO", MarketDataProto.AccountType.TFSA, 20240910),
+        DELTA_PRECISION);
+    assertEquals(
+        0,
+        completeMarketDataService.getRealizedImntWithDividendPnL(
+            "CM.TO", MarketDataProto.AccountType.NR, 20240910),
+        DELTA_PRECISION);
+    assertEquals(
+        0,
+        completeMarketDataService.getRealizedImntWithDividendPnL(
+            "CM.TO", MarketDataProto.AccountType.TFSA, 20240911),
+        DELTA_PRECISION);
+    assertEquals(
+        0,
+        completeMarketDataService.getRealizedImntWithDividendPnL(
+            "CM.TO", MarketDataProto.AccountType.NR, 20240911),
+        DELTA_PRECISION);
+    assertEquals(
+        10 + 44.90,
+        completeMarketDataService.getRealizedImntWithDividendPnL(
+            "CM.TO", MarketDataProto.AccountType.TFSA, 20240912),
+        DELTA_PRECISION);
+    assertEquals(
+        20,
+        completeMarketDataService.getRealizedImntWithDividendPnL(
+            "CM.TO", MarketDataProto.AccountType.NR, 20240912),
+        DELTA_PRECISION);
+    assertEquals(
+        54.90,
+        completeMarketDataService.getRealizedImntWithDividendPnL(
+            "CM.TO", MarketDataProto.AccountType.TFSA, 20240913),
+        DELTA_PRECISION);
+    assertEquals(
+        20,
+        completeMarketDataService.getRealizedImntWithDividendPnL(
+            "CM.TO", MarketDataProto.AccountType.NR, 20240913),
+        DELTA_PRECISION);
+    assertEquals(
+        59.9,
+        completeMarketDataService.getRealizedImntWithDividendPnL(
+            "CM.TO", MarketDataProto.AccountType.TFSA, 20240914),
+        DELTA_PRECISION);
+    assertEquals(
+        20.0,
+        completeMarketDataService.getRealizedImntWithDividendPnL(
+            "CM.TO", MarketDataProto.AccountType.NR, 20240914),
+        DELTA_PRECISION);
+    assertEquals(
+        59.9,
+        completeMarketDataService.getRealizedImntWithDividendPnL(
+            "CM.TO", MarketDataProto.AccountType.TFSA, 20240915),
+        DELTA_PRECISION);
+    assertEquals(
+        20,
+        completeMarketDataService.getRealizedImntWithDividendPnL(
+            "CM.TO", MarketDataProto.AccountType.NR, 20240915),
+        DELTA_PRECISION);
+    assertEquals(
+        59.9,
+        completeMarketDataService.getRealizedImntWithDividendPnL(
+            "CM.TO", MarketDataProto.AccountType.TFSA, 20240916),
+        DELTA_PRECISION);
+    assertEquals(
+        20.0,
+        completeMarketDataService.getRealizedImntWithDividendPnL(
+            "CM.TO", MarketDataProto.AccountType.NR, 20240916),
+        DELTA_PRECISION);
 
     TreeMap<Integer, Map<MarketDataProto.AccountType, Double>> realizedWithDividendDatePnLMap =
-        completeMarketDataService.getRealizedWithDividendDatePnLMap();
+        completeMarketDataService
+            .getPnLCube()
+            .toDateMap(PnLCube.Measure.REALIZED_WITH_DIVIDEND_CUMULATIVE);
     System.out.println("realizedWithDividendDatePnLMap => " + realizedWithDividendDatePnLMap);
     assertEquals(10, realizedWithDividendDatePnLMap.size());
     Map<MarketDataProto.AccountType, Double> typeDividendMap;
@@ -659,7 +1681,7 @@ class CompleteMarketDataServiceImplTest {
 
     // todo - work
     TreeMap<Integer, Map<MarketDataProto.AccountType, Double>> combinedDatePnLCumulativeMap =
-        completeMarketDataService.getCombinedDatePnLCumulativeMap();
+        completeMarketDataService.getPnLCube().toDateMap(PnLCube.Measure.COMBINED_CUMULATIVE);
     System.out.println("combinedDatePnLCumulativeMap => " + combinedDatePnLCumulativeMap);
     assertFalse(combinedDatePnLCumulativeMap.isEmpty());
     typeDividendMap = combinedDatePnLCumulativeMap.get(0);
@@ -710,7 +1732,7 @@ class CompleteMarketDataServiceImplTest {
     // SECTION START - SANITY checks on the non dividend impacted data structures
     // unrealized calc should not be impacted due to divs, thus this is just for sanity
     Map<Integer, Map<MarketDataProto.AccountType, Double>> unrealizedPnLMap =
-        completeMarketDataService.getUnrealizedDatePnLMap();
+        completeMarketDataService.getPnLCube().toDateMap(PnLCube.Measure.UNREALIZED);
     System.out.println("unrealizedPnLMap => " + unrealizedPnLMap);
     assertFalse(unrealizedPnLMap.isEmpty());
     assertFalse(unrealizedPnLMap.containsKey(20240905));
@@ -751,7 +1773,7 @@ class CompleteMarketDataServiceImplTest {
 
     // pure realized calc should not be impacted due to divs, thus this is just for sanity
     Map<Integer, Map<MarketDataProto.AccountType, Double>> realizedPnLMap =
-        completeMarketDataService.getRealizedDatePnLMap();
+        completeMarketDataService.getPnLCube().toDateMap(PnLCube.Measure.REALIZED);
     System.out.println("realizedPnLMap => " + realizedPnLMap);
     assertFalse(realizedPnLMap.isEmpty());
     assertFalse(realizedPnLMap.containsKey(20240905));
@@ -780,7 +1802,7 @@ class CompleteMarketDataServiceImplTest {
 
     // pure combined calc should not be impacted due to divs, thus this is just for sanity
     Map<Integer, Map<MarketDataProto.AccountType, Double>> combinedPnLMap =
-        completeMarketDataService.getCombinedDatePnLMap();
+        completeMarketDataService.getPnLCube().toDateMap(PnLCube.Measure.COMBINED);
     System.out.println("combinedPnLMap => " + combinedPnLMap);
     assertFalse(combinedPnLMap.isEmpty());
     assertFalse(combinedPnLMap.containsKey(20240905));
@@ -1197,7 +2219,7 @@ class CompleteMarketDataServiceImplTest {
             .sector("fin")
             .qty(10)
             .price(65)
-            .date(20240930)
+            .date(20250930)
             .build()
             .getInstrument(),
         TestInstrument.builder()
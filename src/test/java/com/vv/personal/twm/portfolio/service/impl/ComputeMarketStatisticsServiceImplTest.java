@@ -2,15 +2,18 @@ package com.vv.personal.twm.portfolio.service.impl;
 
 import static com.vv.personal.twm.portfolio.TestConstants.DELTA_PRECISION;
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.google.common.collect.Lists;
-import com.google.common.collect.Table;
 import com.vv.personal.twm.portfolio.cache.DateLocalDateCache;
+import com.vv.personal.twm.portfolio.model.market.CorrelationMatrix;
+import com.vv.personal.twm.portfolio.model.market.PriceSeries;
 import com.vv.personal.twm.portfolio.remote.market.max_weight.InstrumentMaxWeight;
 import com.vv.personal.twm.portfolio.service.TickerDataWarehouseService;
-import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import org.junit.jupiter.api.AfterEach;
@@ -45,19 +48,9 @@ class ComputeMarketStatisticsServiceImplTest {
 
   @Test
   void calculateCorrelation_AssumingAllAssumptions() {
-    when(tickerDataWarehouseService.getMarketData("z.to", 20251201)).thenReturn(10.0);
-    when(tickerDataWarehouseService.getMarketData("z.to", 20251202)).thenReturn(12.0);
-    when(tickerDataWarehouseService.getMarketData("z.to", 20251203)).thenReturn(11.0);
-    when(tickerDataWarehouseService.getMarketData("z.to", 20251204)).thenReturn(13.0);
-    when(tickerDataWarehouseService.getMarketData("z.to", 20251205)).thenReturn(15.0);
-
-    when(tickerDataWarehouseService.getMarketData("v.to", 20251201)).thenReturn(20.0);
-    when(tickerDataWarehouseService.getMarketData("v.to", 20251202)).thenReturn(21.0);
-    when(tickerDataWarehouseService.getMarketData("v.to", 20251203)).thenReturn(23.0);
-    when(tickerDataWarehouseService.getMarketData("v.to", 20251204)).thenReturn(22.0);
-    when(tickerDataWarehouseService.getMarketData("v.to", 20251205)).thenReturn(24.0);
-
     List<Integer> dates = Lists.newArrayList(20251201, 20251202, 20251203, 20251204, 20251205);
+    mockSeries("z.to", dates, 10.0, 12.0, 11.0, 13.0, 15.0);
+    mockSeries("v.to", dates, 20.0, 21.0, 23.0, 22.0, 24.0);
 
     Optional<Double> correlation =
         computeStatisticsServiceImpl.computeCorrelation("v.to", "z.to", dates);
@@ -67,19 +60,9 @@ class ComputeMarketStatisticsServiceImplTest {
 
   @Test
   void calculateCorrelation_AssumingAllAssumptions2() {
-    when(tickerDataWarehouseService.getMarketData("z.to", 20251201)).thenReturn(10.20);
-    when(tickerDataWarehouseService.getMarketData("z.to", 20251202)).thenReturn(10.25);
-    when(tickerDataWarehouseService.getMarketData("z.to", 20251203)).thenReturn(10.10);
-    when(tickerDataWarehouseService.getMarketData("z.to", 20251204)).thenReturn(11.50);
-    when(tickerDataWarehouseService.getMarketData("z.to", 20251205)).thenReturn(12.30);
-
-    when(tickerDataWarehouseService.getMarketData("v.to", 20251201)).thenReturn(102.20);
-    when(tickerDataWarehouseService.getMarketData("v.to", 20251202)).thenReturn(104.25);
-    when(tickerDataWarehouseService.getMarketData("v.to", 20251203)).thenReturn(99.10);
-    when(tickerDataWarehouseService.getMarketData("v.to", 20251204)).thenReturn(96.99);
-    when(tickerDataWarehouseService.getMarketData("v.to", 20251205)).thenReturn(101.55);
-
     List<Integer> dates = Lists.newArrayList(20251201, 20251202, 20251203, 20251204, 20251205);
+    mockSeries("z.to", dates, 10.20, 10.25, 10.10, 11.50, 12.30);
+    mockSeries("v.to", dates, 102.20, 104.25, 99.10, 96.99, 101.55);
 
     Optional<Double> correlation =
         computeStatisticsServiceImpl.computeCorrelation("v.to", "z.to", dates);
@@ -89,58 +72,155 @@ class ComputeMarketStatisticsServiceImplTest {
 
   @Test
   void computeCorrelationMatrix_AllAssumptions() {
-    when(tickerDataWarehouseService.getMarketData("z.to", 20251201)).thenReturn(10.20);
-    when(tickerDataWarehouseService.getMarketData("z.to", 20251202)).thenReturn(10.25);
-    when(tickerDataWarehouseService.getMarketData("z.to", 20251203)).thenReturn(10.10);
-    when(tickerDataWarehouseService.getMarketData("z.to", 20251204)).thenReturn(11.50);
-    when(tickerDataWarehouseService.getMarketData("z.to", 20251205)).thenReturn(12.30);
-
-    when(tickerDataWarehouseService.getMarketData("v.to", 20251201)).thenReturn(102.20);
-    when(tickerDataWarehouseService.getMarketData("v.to", 20251202)).thenReturn(104.25);
-    when(tickerDataWarehouseService.getMarketData("v.to", 20251203)).thenReturn(99.10);
-    when(tickerDataWarehouseService.getMarketData("v.to", 20251204)).thenReturn(96.99);
-    when(tickerDataWarehouseService.getMarketData("v.to", 20251205)).thenReturn(101.55);
-
-    when(tickerDataWarehouseService.getMarketData("o.to", 20251201)).thenReturn(10.0);
-    when(tickerDataWarehouseService.getMarketData("o.to", 20251202)).thenReturn(12.0);
-    when(tickerDataWarehouseService.getMarketData("o.to", 20251203)).thenReturn(11.0);
-    when(tickerDataWarehouseService.getMarketData("o.to", 20251204)).thenReturn(13.0);
-    when(tickerDataWarehouseService.getMarketData("o.to", 20251205)).thenReturn(15.0);
-
-    when(tickerDataWarehouseService.getMarketData("a.to", 20251201)).thenReturn(20.0);
-    when(tickerDataWarehouseService.getMarketData("a.to", 20251202)).thenReturn(21.0);
-    when(tickerDataWarehouseService.getMarketData("a.to", 20251203)).thenReturn(23.0);
-    when(tickerDataWarehouseService.getMarketData("a.to", 20251204)).thenReturn(22.0);
-    when(tickerDataWarehouseService.getMarketData("a.to", 20251205)).thenReturn(24.0);
-
     List<Integer> dates = Lists.newArrayList(20251201, 20251202, 20251203, 20251204, 20251205);
+    mockSeries("z.to", dates, 10.20, 10.25, 10.10, 11.50, 12.30);
+    mockSeries("v.to", dates, 102.20, 104.25, 99.10, 96.99, 101.55);
+    mockSeries("o.to", dates, 10.0, 12.0, 11.0, 13.0, 15.0);
+    mockSeries("a.to", dates, 20.0, 21.0, 23.0, 22.0, 24.0);
 
-    Optional<Table<String, String, Double>> correlationMatrix =
+    Optional<CorrelationMatrix> correlationMatrix =
         computeStatisticsServiceImpl.computeCorrelationMatrix(
             Lists.newArrayList("v.to", "z.to", "o.to", "a.to"), dates);
     assertTrue(correlationMatrix.isPresent());
-    assertEquals(16, correlationMatrix.get().size());
+    assertEquals(4, correlationMatrix.get().size());
     System.out.println(correlationMatrix);
 
     // cross imnt pair correlation
-    assertEquals(-.521633, correlationMatrix.get().get("o.to", "a.to"), DELTA_PRECISION);
-    assertEquals(-.521633, correlationMatrix.get().get("a.to", "o.to"), DELTA_PRECISION);
-    assertEquals(.170723, correlationMatrix.get().get("v.to", "z.to"), DELTA_PRECISION);
-    assertEquals(.170723, correlationMatrix.get().get("z.to", "v.to"), DELTA_PRECISION);
-    assertEquals(.714989, correlationMatrix.get().get("v.to", "o.to"), DELTA_PRECISION);
-    assertEquals(.714989, correlationMatrix.get().get("o.to", "v.to"), DELTA_PRECISION);
-    assertEquals(.198028, correlationMatrix.get().get("v.to", "a.to"), DELTA_PRECISION);
-    assertEquals(.198028, correlationMatrix.get().get("a.to", "v.to"), DELTA_PRECISION);
-    assertEquals(.583457, correlationMatrix.get().get("z.to", "o.to"), DELTA_PRECISION);
-    assertEquals(.583457, correlationMatrix.get().get("o.to", "z.to"), DELTA_PRECISION);
-    assertEquals(-.772773, correlationMatrix.get().get("z.to", "a.to"), DELTA_PRECISION);
-    assertEquals(-.772773, correlationMatrix.get().get("a.to", "z.to"), DELTA_PRECISION);
+    assertEquals(
+        -.521633, correlationMatrix.get().get("o.to", "a.to").getAsDouble(), DELTA_PRECISION);
+    assertEquals(
+        -.521633, correlationMatrix.get().get("a.to", "o.to").getAsDouble(), DELTA_PRECISION);
+    assertEquals(
+        .170723, correlationMatrix.get().get("v.to", "z.to").getAsDouble(), DELTA_PRECISION);
+    assertEquals(
+        .170723, correlationMatrix.get().get("z.to", "v.to").getAsDouble(), DELTA_PRECISION);
+    assertEquals(
+        .714989, correlationMatrix.get().get("v.to", "o.to").getAsDouble(), DELTA_PRECISION);
+    assertEquals(
+        .714989, correlationMatrix.get().get("o.to", "v.to").getAsDouble(), DELTA_PRECISION);
+    assertEquals(
+        .198028, correlationMatrix.get().get("v.to", "a.to").getAsDouble(), DELTA_PRECISION);
+    assertEquals(
+        .198028, correlationMatrix.get().get("a.to", "v.to").getAsDouble(), DELTA_PRECISION);
+    assertEquals(
+        .583457, correlationMatrix.get().get("z.to", "o.to").getAsDouble(), DELTA_PRECISION);
+    assertEquals(
+        .583457, correlationMatrix.get().get("o.to", "z.to").getAsDouble(), DELTA_PRECISION);
+    assertEquals(
+        -.772773, correlationMatrix.get().get("z.to", "a.to").getAsDouble(), DELTA_PRECISION);
+    assertEquals(
+        -.772773, correlationMatrix.get().get("a.to", "z.to").getAsDouble(), DELTA_PRECISION);
 
     // diagonals - self imnt correlation
-    assertEquals(1.0, correlationMatrix.get().get("v.to", "v.to"), DELTA_PRECISION);
-    assertEquals(1.0, correlationMatrix.get().get("z.to", "z.to"), DELTA_PRECISION);
-    assertEquals(1.0, correlationMatrix.get().get("o.to", "o.to"), DELTA_PRECISION);
-    assertEquals(1.0, correlationMatrix.get().get("a.to", "a.to"), DELTA_PRECISION);
+    assertEquals(1.0, correlationMatrix.get().get("v.to", "v.to").getAsDouble(), DELTA_PRECISION);
+    assertEquals(1.0, correlationMatrix.get().get("z.to", "z.to").getAsDouble(), DELTA_PRECISION);
+    assertEquals(1.0, correlationMatrix.get().get("o.to", "o.to").getAsDouble(), DELTA_PRECISION);
+    assertEquals(1.0, correlationMatrix.get().get("a.to", "a.to").getAsDouble(), DELTA_PRECISION);
+  }
+
+  @Test
+  void computeCorrelationRow_ReadsThePricesAsTheyAreNow() {
+    List<Integer> dates = Lists.newArrayList(20251201, 20251202, 20251203, 20251204, 20251205);
+    List<String> instruments = List.of("v.to", "z.to", "o.to");
+    mockSeries("z.to", dates, 10.20, 10.25, 10.10, 11.50, 12.30);
+    mockSeries("v.to", dates, 102.20, 104.25, 99.10, 96.99, 101.55);
+    mockSeries("o.to", dates, 10.0, 12.0, 11.0, 13.0, 15.0);
+
+    double[] row =
+        computeStatisticsServiceImpl.computeCorrelationRow("v.to", instruments, dates).get();
+    assertArrayEquals(new double[] {1.0, .170723, .714989}, row, DELTA_PRECISION);
+    assertEquals(
+        .170723,
+        computeStatisticsServiceImpl.computeCorrelation("v.to", "z.to", dates).get(),
+        DELTA_PRECISION);
+
+    // v.to reloaded with the prices of o.to
+    mockSeries("v.to", dates, 10.0, 12.0, 11.0, 13.0, 15.0);
+    computeStatisticsServiceImpl.evictInstrument("v.to");
+    row = computeStatisticsServiceImpl.computeCorrelationRow("v.to", instruments, dates).get();
+    assertArrayEquals(new double[] {1.0, .583457, 1.0}, row, DELTA_PRECISION);
+    assertEquals(
+        .583457,
+        computeStatisticsServiceImpl.computeCorrelation("v.to", "z.to", dates).get(),
+        DELTA_PRECISION);
+  }
+
+  @Test
+  void computeCorrelationMatrixIncrementally_RollsForwardOnNewDay() {
+    List<Integer> dates = Lists.newArrayList(20251201, 20251202, 20251203, 20251204, 20251205);
+    List<Integer> nextDates = new ArrayList<>(dates);
+    nextDates.add(20251208);
+    List<String> imnts = Lists.newArrayList("v.to", "z.to", "o.to", "a.to");
+    when(tickerDataWarehouseService.getHistoryRevision()).thenReturn(7L);
+
+    mockSeries("z.to", dates, 10.20, 10.25, 10.10, 11.50, 12.30);
+    mockSeries("v.to", dates, 102.20, 104.25, 99.10, 96.99, 101.55);
+    mockSeries("o.to", dates, 10.0, 12.0, 11.0, 13.0, 15.0);
+    mockSeries("a.to", dates, 20.0, 21.0, 23.0, 22.0, 24.0);
+    Optional<CorrelationMatrix> correlationMatrix =
+        computeStatisticsServiceImpl.computeCorrelationMatrixIncrementally(imnts, dates);
+    assertTrue(correlationMatrix.isPresent());
+    assertEquals(List.of("a.to", "o.to", "v.to", "z.to"), correlationMatrix.get().getSymbols());
+    assertEquals(
+        -.521633, correlationMatrix.get().get("o.to", "a.to").getAsDouble(), DELTA_PRECISION);
+
+    // the new day is read on its own, along with the latest day it rolls forward from
+    List<Integer> latestDates = nextDates.subList(4, 6);
+    mockSeries("z.to", latestDates, 12.30, 12.10);
+    mockSeries("v.to", latestDates, 101.55, 103.05);
+    mockSeries("o.to", latestDates, 15.0, 14.5);
+    mockSeries("a.to", latestDates, 24.0, 24.5);
+    correlationMatrix =
+        computeStatisticsServiceImpl.computeCorrelationMatrixIncrementally(imnts, nextDates);
+    assertTrue(correlationMatrix.isPresent());
+
+    mockSeries("z.to", nextDates, 10.20, 10.25, 10.10, 11.50, 12.30, 12.10);
+    mockSeries("v.to", nextDates, 102.20, 104.25, 99.10, 96.99, 101.55, 103.05);
+    mockSeries("o.to", nextDates, 10.0, 12.0, 11.0, 13.0, 15.0, 14.5);
+    mockSeries("a.to", nextDates, 20.0, 21.0, 23.0, 22.0, 24.0, 24.5);
+    CorrelationMatrix fullMatrix =
+        computeStatisticsServiceImpl.computeCorrelationMatrix(imnts, nextDates).get();
+    for (String imnt1 : imnts)
+      for (String imnt2 : imnts)
+        assertEquals(
+            fullMatrix.get(imnt1, imnt2).getAsDouble(),
+            correlationMatrix.get().get(imnt1, imnt2).getAsDouble(),
+            DELTA_PRECISION);
+    verify(tickerDataWarehouseService, times(1)).getSeries("v.to", nextDates);
+  }
+
+  @Test
+  void computeCorrelationMatrixIncrementally_RebuildsOnHistoryRevision() {
+    List<Integer> dates = Lists.newArrayList(20251201, 20251202, 20251203, 20251204, 20251205);
+    List<String> imnts = Lists.newArrayList("v.to", "z.to");
+    when(tickerDataWarehouseService.getHistoryRevision()).thenReturn(7L, 8L);
+    mockSeries("z.to", dates, 10.20, 10.25, 10.10, 11.50, 12.30);
+    mockSeries("v.to", dates, 102.20, 104.25, 99.10, 96.99, 101.55);
+
+    computeStatisticsServiceImpl.computeCorrelationMatrixIncrementally(imnts, dates);
+    Optional<CorrelationMatrix> correlationMatrix =
+        computeStatisticsServiceImpl.computeCorrelationMatrixIncrementally(imnts, dates);
+    assertEquals(
+        .170723, correlationMatrix.get().get("v.to", "z.to").getAsDouble(), DELTA_PRECISION);
+    verify(tickerDataWarehouseService, times(2)).getSeries("v.to", dates);
+  }
+
+  @Test
+  void computeBeta_SkipsDatesMissingOnEitherSide() {
+    List<Integer> dates = Lists.newArrayList(20251201, 20251202, 20251203, 20251204, 20251205);
+    mockSeries("v.to", dates, 10.0, 12.0, 11.0, 13.0, 15.0);
+    when(tickerDataWarehouseService.getSeries("CM.TO", dates))
+        .thenReturn(
+            new PriceSeries(
+                "CM.TO",
+                new int[] {20251201, 20251202, 20251203, 20251204, 20251205},
+                new double[] {20.0, 21.0, 0.0, 22.0, 24.0},
+                new boolean[] {true, true, false, true, true}));
+
+    Optional<Double> beta = computeStatisticsServiceImpl.computeBeta("v.to", "CM.TO", dates);
+    assertTrue(beta.isPresent());
+    // v.to [10, 12, 13, 15] against CM.TO [20, 21, 22, 24]
+    assertEquals(1.2, beta.get(), DELTA_PRECISION);
   }
 
   @Test
@@ -153,12 +233,7 @@ class ComputeMarketStatisticsServiceImplTest {
   void computeLatestMovingAverage() {
     Optional<Double> result;
 
-    when(tickerDataWarehouseService.getMarketData("TEST-V2.TO", LocalDate.of(2026, 1, 30)))
-        .thenReturn(5.0);
-    when(tickerDataWarehouseService.getMarketData("TEST-V2.TO", LocalDate.of(2026, 1, 29)))
-        .thenReturn(5.2);
-    when(tickerDataWarehouseService.getMarketData("TEST-V2.TO", LocalDate.of(2026, 1, 28)))
-        .thenReturn(5.1);
+    mockSeries("TEST-V2.TO", Lists.newArrayList(20260128, 20260129, 20260130), 5.1, 5.2, 5.0);
     result =
         computeStatisticsServiceImpl.computeLatestMovingAverage(
             "TEST-V2.TO",
@@ -191,4 +266,13 @@ class ComputeMarketStatisticsServiceImplTest {
             Lists.newArrayList(20260124, 20260126, 20260127, 20260128, 20260129, 20260130));
     assertTrue(result.isEmpty());
   }
+
+  private void mockSeries(String imnt, List<Integer> dates, double... prices) {
+    boolean[] valid = new boolean[prices.length];
+    Arrays.fill(valid, true);
+    when(tickerDataWarehouseService.getSeries(imnt, dates))
+        .thenReturn(
+            new PriceSeries(
+                imnt, dates.stream().mapToInt(Integer::intValue).toArray(), prices, valid));
+  }
 }
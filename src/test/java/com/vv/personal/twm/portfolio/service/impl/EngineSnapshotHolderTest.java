@@ -0,0 +1,186 @@
+package com.vv.personal.twm.portfolio.service.impl;
+
+import static com.vv.personal.twm.portfolio.TestConstants.DELTA_PRECISION;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.vv.personal.twm.artifactory.generated.equitiesMarket.MarketDataProto;
+import com.vv.personal.twm.portfolio.cache.KeyInstrumentValueCache;
+import com.vv.personal.twm.portfolio.config.TickerDataWarehouseConfig;
+import com.vv.personal.twm.portfolio.model.market.IngestResult;
+import com.vv.personal.twm.portfolio.model.market.PriceUpdate;
+import com.vv.personal.twm.portfolio.service.CompleteBankDataService;
+import com.vv.personal.twm.portfolio.service.CompleteMarketDataService;
+import com.vv.personal.twm.portfolio.warehouse.market.impl.ColumnarTickerDataWarehouseImpl;
+import com.vv.personal.twm.portfolio.warehouse.market.impl.EpochTickerDataWarehouseImpl;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Vivek
+ * @since 2026-10-18
+ */
+class EngineSnapshotHolderTest {
+
+  private Deque<CompleteMarketDataService> marketDataServices;
+  private EngineSnapshotHolder engineSnapshotHolder;
+  private SnapshotCompleteMarketDataService completeMarketDataService;
+  private KeyInstrumentValueCache keyInstrumentValueCache;
+  private EpochTickerDataWarehouseImpl tickerDataWarehouse;
+
+  @BeforeEach
+  void setUp() {
+    marketDataServices =
+        new ArrayDeque<>(
+            List.of(
+                mock(CompleteMarketDataService.class),
+                mock(CompleteMarketDataService.class),
+                mock(CompleteMarketDataService.class)));
+    keyInstrumentValueCache = new KeyInstrumentValueCache();
+    TickerDataWarehouseConfig tickerDataWarehouseConfig = mock(TickerDataWarehouseConfig.class);
+    when(tickerDataWarehouseConfig.getBenchmarkTicker()).thenReturn("^GSPTSE");
+    tickerDataWarehouse =
+        new EpochTickerDataWarehouseImpl(
+            new ColumnarTickerDataWarehouseImpl(tickerDataWarehouseConfig),
+            tickerDataWarehouseConfig);
+    engineSnapshotHolder =
+        new EngineSnapshotHolder(
+            () -> mock(CompleteBankDataService.class),
+            marketDataServices::pop,
+            keyInstrumentValueCache,
+            tickerDataWarehouse);
+    completeMarketDataService = new SnapshotCompleteMarketDataService(engineSnapshotHolder);
+  }
+
+  @Test
+  public void publish_ReadersStayOnTheLiveSnapshotUntilTheSwap() {
+    CompleteMarketDataService initial = engineSnapshotHolder.get().marketDataService();
+    when(initial.getLatestCombinedCumulativePnL()).thenReturn(10.0);
+    keyInstrumentValueCache.offer("beta", "CM.TO", 1.1);
+
+    EngineSnapshotHolder.Snapshot next = engineSnapshotHolder.prepare();
+    when(next.marketDataService().getLatestCombinedCumulativePnL()).thenReturn(20.0);
+    verify(initial).setReloadInProgress(true);
+    // mid build, the readers still see the complete live snapshot
+    assertEquals(10.0, completeMarketDataService.getLatestCombinedCumulativePnL(), DELTA_PRECISION);
+    assertThrows(IllegalStateException.class, () -> engineSnapshotHolder.prepare());
+
+    engineSnapshotHolder.publish(next);
+
+    assertSame(next, engineSnapshotHolder.get());
+    assertEquals(20.0, completeMarketDataService.getLatestCombinedCumulativePnL(), DELTA_PRECISION);
+    assertFalse(keyInstrumentValueCache.containsKey("beta"));
+    assertThrows(IllegalStateException.class, () -> engineSnapshotHolder.publish(next));
+  }
+
+  @Test
+  public void abort_KeepsTheLiveSnapshot() {
+    CompleteMarketDataService initial = engineSnapshotHolder.get().marketDataService();
+    EngineSnapshotHolder.Snapshot next = engineSnapshotHolder.prepare();
+
+    engineSnapshotHolder.abort();
+
+    assertSame(initial, engineSnapshotHolder.get().marketDataService());
+    verify(initial).setReloadInProgress(true);
+    verify(initial).setReloadInProgress(false); // takes writes again
+    assertThrows(IllegalStateException.class, () -> engineSnapshotHolder.publish(next));
+    assertNotSame(next, engineSnapshotHolder.prepare()); // free to build again
+  }
+
+  @Test
+  public void update_PublishesTheChangedCopyAsTheNextEpoch() {
+    CompleteMarketDataService initial = engineSnapshotHolder.get().marketDataService();
+    CompleteMarketDataService copy = mock(CompleteMarketDataService.class);
+    when(initial.copy()).thenReturn(copy);
+    when(initial.fetchIntradayPrices()).thenReturn(PriceUpdate.empty());
+    when(copy.refreshIntraday()).thenReturn(true);
+    assertEquals(0, engineSnapshotHolder.get().epoch());
+
+    EngineSnapshotHolder.Snapshot pinned = engineSnapshotHolder.pin();
+    assertTrue(completeMarketDataService.refreshIntraday());
+    // the pinned reader stays on its epoch, while a new one is live
+    assertSame(pinned, engineSnapshotHolder.get());
+    engineSnapshotHolder.unpin();
+    assertSame(copy, engineSnapshotHolder.get().marketDataService());
+    assertEquals(1, engineSnapshotHolder.get().epoch());
+    verify(initial, never()).refreshIntraday();
+
+    // an unmade change publishes nothing
+    when(copy.copy()).thenReturn(mock(CompleteMarketDataService.class));
+    when(copy.fetchRolloverPrices()).thenReturn(PriceUpdate.empty());
+    when(copy.fetchIntradayPrices()).thenReturn(PriceUpdate.empty());
+    assertFalse(completeMarketDataService.rollover());
+    assertSame(copy, engineSnapshotHolder.get().marketDataService());
+    assertEquals(1, engineSnapshotHolder.get().epoch());
+
+    EngineSnapshotHolder.Snapshot next = engineSnapshotHolder.prepare();
+    assertFalse(completeMarketDataService.refreshIntraday()); // rejected mid build
+    engineSnapshotHolder.publish(next);
+    assertEquals(2, engineSnapshotHolder.get().epoch());
+  }
+
+  @Test
+  public void ingestTransaction_PublishesOnlyWhatTheLedgerTookIn() {
+    CompleteMarketDataService initial = engineSnapshotHolder.get().marketDataService();
+    CompleteMarketDataService rejecting = mock(CompleteMarketDataService.class);
+    CompleteMarketDataService applying = mock(CompleteMarketDataService.class);
+    MarketDataProto.Instrument instrument = MarketDataProto.Instrument.getDefaultInstance();
+    when(initial.copy()).thenReturn(rejecting, applying);
+    when(initial.fetchTransactionPrices(instrument)).thenReturn(PriceUpdate.empty());
+    when(rejecting.ingestTransaction(instrument)).thenReturn(IngestResult.REJECTED);
+    when(applying.ingestTransaction(instrument)).thenReturn(IngestResult.APPLIED);
+
+    assertEquals(IngestResult.REJECTED, completeMarketDataService.ingestTransaction(instrument));
+    assertSame(initial, engineSnapshotHolder.get().marketDataService());
+    assertEquals(0, engineSnapshotHolder.get().epoch());
+
+    // in the ledger without its pnl is still a change to publish
+    assertEquals(IngestResult.APPLIED, completeMarketDataService.ingestTransaction(instrument));
+    assertSame(applying, engineSnapshotHolder.get().marketDataService());
+    assertEquals(1, engineSnapshotHolder.get().epoch());
+  }
+
+  @Test
+  public void update_PricesAreOnlySeenFromTheEpochTheyArePublishedAs() {
+    LocalDate today = LocalDate.of(2026, 4, 2);
+    tickerDataWarehouse.put(today, "CM.TO", 100.0);
+    CompleteMarketDataService initial = engineSnapshotHolder.get().marketDataService();
+    CompleteMarketDataService unchanged = mock(CompleteMarketDataService.class);
+    CompleteMarketDataService changed = mock(CompleteMarketDataService.class);
+    when(initial.copy()).thenReturn(unchanged, changed);
+    when(initial.fetchIntradayPrices())
+        .thenReturn(PriceUpdate.of(today, Map.of("CM.TO", 101.0)))
+        .thenReturn(PriceUpdate.of(today, Map.of("CM.TO", 102.0)));
+    when(unchanged.refreshIntraday())
+        .thenAnswer(
+            invocation -> {
+              assertEquals(101.0, tickerDataWarehouse.get(today, "CM.TO"), DELTA_PRECISION);
+              return false;
+            });
+    when(changed.refreshIntraday())
+        .thenAnswer(
+            invocation -> {
+              assertEquals(102.0, tickerDataWarehouse.get(today, "CM.TO"), DELTA_PRECISION);
+              return true;
+            });
+
+    // an unmade change leaves its prices behind for nobody
+    assertFalse(completeMarketDataService.refreshIntraday());
+    assertEquals(100.0, tickerDataWarehouse.get(today, "CM.TO"), DELTA_PRECISION);
+
+    engineSnapshotHolder.pin();
+    assertTrue(completeMarketDataService.refreshIntraday());
+    // the pinned reader keeps the price of its epoch, the live one reads the new one
+    assertEquals(100.0, tickerDataWarehouse.get(today, "CM.TO"), DELTA_PRECISION);
+    engineSnapshotHolder.unpin();
+    assertEquals(102.0, tickerDataWarehouse.get(today, "CM.TO"), DELTA_PRECISION);
+  }
+}
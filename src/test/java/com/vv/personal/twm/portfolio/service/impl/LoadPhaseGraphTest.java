@@ -0,0 +1,147 @@
+package com.vv.personal.twm.portfolio.service.impl;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import com.vv.personal.twm.portfolio.model.tracking.ProgressTracker;
+import com.vv.personal.twm.portfolio.service.ProgressTrackerService;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+/**
+ * @author Vivek
+ * @since 2026-10-18
+ */
+@ExtendWith(MockitoExtension.class)
+class LoadPhaseGraphTest {
+  private static final String CLIENT = "client-A";
+
+  @Mock private ProgressTrackerService progressTrackerService;
+  private ExecutorService executorService;
+  private LoadPhaseGraph loadPhaseGraph;
+
+  @BeforeEach
+  void setUp() {
+    executorService = Executors.newFixedThreadPool(2);
+    loadPhaseGraph = new LoadPhaseGraph(progressTrackerService, CLIENT);
+  }
+
+  @AfterEach
+  void tearDown() {
+    executorService.shutdownNow();
+  }
+
+  @Test
+  public void run_IndependentPhasesRunConcurrently() {
+    // each phase waits on the other, so run one after the other neither would finish
+    CountDownLatch bothStarted = new CountDownLatch(2);
+    Runnable awaitOther =
+        () -> {
+          bothStarted.countDown();
+          try {
+            assertTrue(bothStarted.await(5, TimeUnit.SECONDS));
+          } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+          }
+        };
+    loadPhaseGraph
+        .phase("bank", ProgressTracker.LOADING_BANK, awaitOther)
+        .phase("market", null, awaitOther)
+        .run(executorService);
+
+    verify(progressTrackerService).publishProgressTracker(CLIENT, ProgressTracker.LOADING_BANK);
+    verify(progressTrackerService).expectPhases(CLIENT, 2);
+    verify(progressTrackerService).startPhase(CLIENT, "bank");
+    verify(progressTrackerService).publishPhaseTiming(eq(CLIENT), eq("bank"), anyLong());
+    verify(progressTrackerService).publishPhaseTiming(eq(CLIENT), eq("market"), anyLong());
+  }
+
+  @Test
+  public void run_PhasesStartAfterTheirDependencies() {
+    List<String> order = new CopyOnWriteArrayList<>();
+    loadPhaseGraph
+        .phase("extract", null, () -> order.add("extract"))
+        .phase("populate", null, () -> order.add("populate"), "extract")
+        .phase("acb", null, () -> order.add("acb"), "populate")
+        .phase("pnl", null, () -> order.add("pnl"), "acb", "extract")
+        .run(executorService);
+
+    assertEquals(List.of("extract", "populate", "acb", "pnl"), order);
+  }
+
+  @Test
+  public void run_FailureSkipsDependentsAndIsRethrown() {
+    List<String> ran = new CopyOnWriteArrayList<>();
+    loadPhaseGraph
+        .phase(
+            "extract",
+            null,
+            () -> {
+              throw new IllegalStateException("feign down");
+            })
+        .phase("populate", null, () -> ran.add("populate"), "extract")
+        .phase("risk-free", null, () -> ran.add("risk-free"));
+
+    IllegalStateException e =
+        assertThrows(IllegalStateException.class, () -> loadPhaseGraph.run(executorService));
+
+    assertEquals("feign down", e.getMessage());
+    assertEquals(List.of("risk-free"), ran);
+    verify(progressTrackerService, never())
+        .publishPhaseTiming(eq(CLIENT), eq("extract"), anyLong());
+    verify(progressTrackerService, never())
+        .publishPhaseTiming(eq(CLIENT), eq("populate"), anyLong());
+  }
+
+  @Test
+  public void run_CancelledBetweenPhases() {
+    Set<String> runningPhases = ConcurrentHashMap.newKeySet();
+    AtomicBoolean cancelled = new AtomicBoolean();
+    List<String> ran = new CopyOnWriteArrayList<>();
+    loadPhaseGraph
+        .cancelWhen(cancelled::get)
+        .trackRunningPhases(runningPhases)
+        .phase(
+            "extract",
+            null,
+            () -> {
+              assertEquals(Set.of("extract"), runningPhases);
+              ran.add("extract");
+              cancelled.set(true);
+            })
+        .phase("populate", null, () -> ran.add("populate"), "extract");
+
+    assertThrows(CancellationException.class, () -> loadPhaseGraph.run(executorService));
+
+    assertEquals(List.of("extract"), ran);
+    assertTrue(runningPhases.isEmpty());
+  }
+
+  @Test
+  public void phase_RejectsUndeclaredAndDuplicatePhases() {
+    loadPhaseGraph.phase("extract", null, () -> {});
+
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> loadPhaseGraph.phase("populate", null, () -> {}, "acb"));
+    assertThrows(
+        IllegalArgumentException.class, () -> loadPhaseGraph.phase("extract", null, () -> {}));
+  }
+}
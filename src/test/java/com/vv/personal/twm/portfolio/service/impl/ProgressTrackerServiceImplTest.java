@@ -2,9 +2,18 @@ package com.vv.personal.twm.portfolio.service.impl;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import com.vv.personal.twm.portfolio.model.tracking.LoadProgress;
+import com.vv.personal.twm.portfolio.model.tracking.PhaseProgress;
 import com.vv.personal.twm.portfolio.model.tracking.ProgressTracker;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 /**
  * @author Vivek
@@ -76,4 +85,118 @@ class ProgressTrackerServiceImplTest {
     ProgressTracker result = progressTrackerService.getProgressTracker(null);
     assertEquals(ProgressTracker.POSITION_ZERO, result);
   }
+
+  // -------------------------------------------------------------------------------------
+  // ## publishPhaseTiming Tests
+  // -------------------------------------------------------------------------------------
+
+  @Test
+  void publishPhaseTiming_ShouldKeepLatestTimingInFinishOrder() {
+    String clientId = "client-D";
+    progressTrackerService.publishPhaseTiming(clientId, "bank", 10L);
+    progressTrackerService.publishPhaseTiming(clientId, "market", 20L);
+    progressTrackerService.publishPhaseTiming(clientId, "bank", 30L);
+
+    Map<String, Long> phaseTimings = progressTrackerService.getPhaseTimings(clientId);
+    assertEquals(List.of("market", "bank"), List.copyOf(phaseTimings.keySet()));
+    assertEquals(30L, phaseTimings.get("bank"));
+    assertEquals(20L, phaseTimings.get("market"));
+  }
+
+  @Test
+  void publishPhaseTiming_ShouldNotPublishWhenClientIdIsEmpty() {
+    progressTrackerService.publishPhaseTiming("", "bank", 10L);
+    progressTrackerService.publishPhaseTiming(null, "bank", 10L);
+
+    assertTrue(progressTrackerService.getPhaseTimings("").isEmpty());
+    assertTrue(progressTrackerService.getPhaseTimings(null).isEmpty());
+  }
+
+  // -------------------------------------------------------------------------------------
+  // ## Load progress Tests
+  // -------------------------------------------------------------------------------------
+
+  @Test
+  void getLoadProgress_ShouldCountPhasesAndItemsDone() {
+    String clientId = "client-E";
+    progressTrackerService.startLoad(clientId);
+    progressTrackerService.expectPhases(clientId, 2);
+    progressTrackerService.startPhase(clientId, "bank");
+    progressTrackerService.startPhase(clientId, "market");
+    progressTrackerService.publishPhaseTotal(clientId, "market", 4);
+    progressTrackerService.incrementPhaseDone(clientId, "market");
+    progressTrackerService.publishPhaseTiming(clientId, "bank", 10L);
+    progressTrackerService.incrementPhaseDone(clientId, "bank"); // ended, so ignored
+
+    LoadProgress loadProgress = progressTrackerService.getLoadProgress(clientId);
+    assertEquals(1, loadProgress.phasesDone());
+    assertEquals(2, loadProgress.phasesTotal());
+    assertFalse(loadProgress.completed());
+    PhaseProgress bank = loadProgress.phases().get(0);
+    assertTrue(bank.completed());
+    assertEquals(0, bank.done());
+    assertEquals(100.0, bank.percent());
+    PhaseProgress market = loadProgress.phases().get(1);
+    assertEquals(1, market.done());
+    assertEquals(4, market.total());
+    assertEquals(25.0, market.percent());
+    assertTrue(market.etaMillis() >= 0);
+
+    progressTrackerService.finishLoad(clientId, false); // cancelled
+    loadProgress = progressTrackerService.getLoadProgress(clientId);
+    assertFalse(loadProgress.phases().get(1).completed());
+    assertEquals(50.0, loadProgress.percent());
+    assertEquals(0, loadProgress.etaMillis());
+  }
+
+  @Test
+  void getLoadProgress_ShouldEstimateOffTheTimingsSavedByThePreviousRun(@TempDir Path tempDir) {
+    String clientId = "client-F";
+    String timingsFile = tempDir.resolve("load-timings.tsv").toString();
+    ProgressTrackerServiceImpl previousRun = new ProgressTrackerServiceImpl(timingsFile);
+    previousRun.startLoad(clientId);
+    previousRun.startPhase(clientId, "market");
+    previousRun.publishPhaseTiming(clientId, "bank", 1_000L);
+    previousRun.publishPhaseTiming(clientId, "market", 600_000L);
+    previousRun.finishLoad(clientId, true);
+
+    ProgressTrackerServiceImpl restarted = new ProgressTrackerServiceImpl(timingsFile);
+    assertEquals(previousRun.getPhaseTimings(clientId), restarted.getPhaseTimings(clientId));
+    assertEquals(
+        List.of("bank", "market"), List.copyOf(restarted.getPhaseTimings(clientId).keySet()));
+    restarted.startLoad(clientId);
+    restarted.startPhase(clientId, "market");
+    PhaseProgress market = restarted.getLoadProgress(clientId).phases().get(0);
+    assertTrue(market.etaMillis() > 590_000L && market.etaMillis() <= 600_000L);
+    assertTrue(market.percent() < 2.0);
+  }
+
+  @Test
+  void getLoadProgress_ShouldBeUnknownWithoutTimingsOrCounters() {
+    LoadProgress loadProgress = progressTrackerService.getLoadProgress("client-G");
+    assertEquals(ProgressTracker.POSITION_ZERO, loadProgress.stage());
+    assertEquals(-1, loadProgress.etaMillis());
+
+    progressTrackerService.startLoad("client-G");
+    progressTrackerService.startPhase("client-G", "bank");
+    loadProgress = progressTrackerService.getLoadProgress("client-G");
+    assertEquals(-1, loadProgress.etaMillis());
+    assertEquals(-1, loadProgress.phases().get(0).etaMillis());
+  }
+
+  @Test
+  void subscribe_ShouldPushProgressUntilUnsubscribed() throws InterruptedException {
+    String clientId = "client-H";
+    BlockingQueue<LoadProgress> pushed = new LinkedBlockingQueue<>();
+    Runnable unsubscribe = progressTrackerService.subscribe(clientId, pushed::add);
+
+    progressTrackerService.publishProgressTracker(clientId, ProgressTracker.LOADING_MARKET);
+    LoadProgress loadProgress = pushed.poll(5, TimeUnit.SECONDS);
+    assertNotNull(loadProgress);
+    assertEquals(ProgressTracker.LOADING_MARKET, loadProgress.stage());
+
+    unsubscribe.run();
+    progressTrackerService.publishProgressTracker(clientId, ProgressTracker.READY_MARKET);
+    assertNull(pushed.poll(200, TimeUnit.MILLISECONDS));
+  }
 }
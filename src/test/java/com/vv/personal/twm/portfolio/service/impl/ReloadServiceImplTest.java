@@ -0,0 +1,235 @@
+package com.vv.personal.twm.portfolio.service.impl;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.vv.personal.twm.artifactory.generated.equitiesMarket.MarketDataProto;
+import com.vv.personal.twm.portfolio.cache.KeyInstrumentValueCache;
+import com.vv.personal.twm.portfolio.config.TickerDataWarehouseConfig;
+import com.vv.personal.twm.portfolio.model.tracking.ReloadStatus;
+import com.vv.personal.twm.portfolio.remote.market.max_weight.InstrumentMaxWeight;
+import com.vv.personal.twm.portfolio.service.CompleteBankDataService;
+import com.vv.personal.twm.portfolio.service.CompleteMarketDataService;
+import com.vv.personal.twm.portfolio.service.ExecutorProviderService;
+import com.vv.personal.twm.portfolio.service.InstrumentMetaDataService;
+import com.vv.personal.twm.portfolio.service.ProgressTrackerService;
+import com.vv.personal.twm.portfolio.service.TickerDataWarehouseService;
+import com.vv.personal.twm.portfolio.service.WarmStartService;
+import com.vv.personal.twm.portfolio.warehouse.market.TickerDataWarehouse;
+import com.vv.personal.twm.portfolio.warehouse.market.impl.EpochTickerDataWarehouseImpl;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+/**
+ * @author Vivek
+ * @since 2026-10-18
+ */
+@ExtendWith(MockitoExtension.class)
+class ReloadServiceImplTest {
+
+  @Mock private CompleteMarketDataService completeMarketDataService;
+  @Mock private InstrumentMetaDataService instrumentMetaDataService;
+  @Mock private InstrumentMaxWeight instrumentMaxWeight;
+  @Mock private ProgressTrackerService progressTrackerService;
+  @Mock private TickerDataWarehouseService tickerDataWarehouseService;
+  @Mock private WarmStartService warmStartService;
+  @Mock private ExecutorProviderService executorProviderService;
+
+  private CountDownLatch bankLoadReleased;
+  private volatile boolean bankLoadFails;
+  private AtomicInteger bankLoads;
+  private EngineSnapshotHolder engineSnapshotHolder;
+  private ReloadServiceImpl reloadService;
+  private ExecutorService callers;
+
+  @BeforeEach
+  void setUp() {
+    bankLoadReleased = new CountDownLatch(1);
+    bankLoads = new AtomicInteger();
+    engineSnapshotHolder =
+        new EngineSnapshotHolder(
+            this::blockingBankDataService,
+            () -> mock(CompleteMarketDataService.class),
+            new KeyInstrumentValueCache(),
+            new EpochTickerDataWarehouseImpl(
+                mock(TickerDataWarehouse.class), mock(TickerDataWarehouseConfig.class)));
+    reloadService =
+        new ReloadServiceImpl(
+            completeMarketDataService,
+            engineSnapshotHolder,
+            instrumentMetaDataService,
+            instrumentMaxWeight,
+            progressTrackerService,
+            tickerDataWarehouseService,
+            warmStartService,
+            executorProviderService);
+    callers = Executors.newFixedThreadPool(4);
+  }
+
+  @AfterEach
+  void tearDown() {
+    bankLoadReleased.countDown();
+    callers.shutdownNow();
+  }
+
+  @Test
+  public void reload_ConcurrentRequestsJoinOrQueueOneFollowUp() throws Exception {
+    Future<Boolean> first = callers.submit(() -> reloadService.reload(false));
+    awaitBankLoads(1);
+    ReloadStatus status = reloadService.getReloadStatus();
+    assertEquals(1, status.reloadId());
+    assertTrue(status.runningPhases().contains("reload-bank"));
+
+    // a soft refresh is served by the one in flight
+    Future<Boolean> joined = callers.submit(() -> reloadService.reload(false));
+    // a hard one is not, so waits on a follow-up, shared by the hard ones after it
+    Future<Boolean> followUp = callers.submit(() -> reloadService.reload(true));
+    awaitFollowUpQueued();
+    Future<Boolean> joinedFollowUp = callers.submit(() -> reloadService.reload(true));
+    Thread.sleep(100);
+    assertEquals(1, bankLoads.get());
+
+    bankLoadReleased.countDown();
+    assertTrue(first.get(5, TimeUnit.SECONDS));
+    assertTrue(joined.get(5, TimeUnit.SECONDS));
+    assertTrue(followUp.get(5, TimeUnit.SECONDS));
+    assertTrue(joinedFollowUp.get(5, TimeUnit.SECONDS));
+
+    assertEquals(2, bankLoads.get());
+    verify(instrumentMetaDataService).load(anyInt(), eq(false));
+    verify(instrumentMetaDataService).load(anyInt(), eq(true));
+    assertEquals(2, engineSnapshotHolder.get().epoch());
+    assertSame(ReloadStatus.IDLE, reloadService.getReloadStatus());
+  }
+
+  @Test
+  public void cancelReload_StopsBeforeTheNextPhase() throws Exception {
+    assertFalse(reloadService.cancelReload());
+    EngineSnapshotHolder.Snapshot live = engineSnapshotHolder.get();
+    Future<Boolean> reload = callers.submit(() -> reloadService.reload(true));
+    awaitBankLoads(1);
+
+    assertTrue(reloadService.cancelReload());
+    assertTrue(reloadService.getReloadStatus().cancelRequested());
+    bankLoadReleased.countDown();
+
+    assertFalse(reload.get(5, TimeUnit.SECONDS));
+    assertSame(live, engineSnapshotHolder.get());
+    verify(warmStartService, never()).save(any());
+    assertSame(ReloadStatus.IDLE, reloadService.getReloadStatus());
+
+    assertTrue(reloadService.reload(true)); // free to reload again
+    assertEquals(1, engineSnapshotHolder.get().epoch());
+  }
+
+  @Test
+  public void cancelReload_TooLateOncePublished() throws Exception {
+    bankLoadReleased.countDown();
+    CountDownLatch metadataLoading = new CountDownLatch(1);
+    CountDownLatch metadataReleased = new CountDownLatch(1);
+    doAnswer(
+            invocation -> {
+              metadataLoading.countDown();
+              assertTrue(metadataReleased.await(5, TimeUnit.SECONDS));
+              throw new IllegalStateException("metadata down");
+            })
+        .when(instrumentMetaDataService)
+        .load(anyInt(), eq(true));
+    Future<Boolean> reload = callers.submit(() -> reloadService.reload(true));
+    assertTrue(metadataLoading.await(5, TimeUnit.SECONDS));
+
+    assertFalse(reloadService.cancelReload());
+    metadataReleased.countDown();
+
+    // a phase failing after the publish leaves the reload done, with its warm start saved
+    assertTrue(reload.get(5, TimeUnit.SECONDS));
+    assertEquals(1, engineSnapshotHolder.get().epoch());
+    verify(warmStartService).save(any());
+    verify(progressTrackerService).finishLoad(anyString(), eq(true));
+  }
+
+  @Test
+  public void reload_FailedBankLoadLeavesTheMetadataAlone() {
+    bankLoadFails = true;
+    bankLoadReleased.countDown();
+    assertFalse(reloadService.reload(true));
+
+    assertEquals(0, engineSnapshotHolder.get().epoch());
+    verify(instrumentMetaDataService, never()).load(anyInt(), anyBoolean());
+    verify(warmStartService, never()).save(any());
+  }
+
+  @Test
+  public void initialFullLoad_LoadsTheBenchmarkAheadOfTheMarket() {
+    bankLoadReleased.countDown();
+    assertTrue(reloadService.initialFullLoad());
+
+    CompleteMarketDataService loaded = engineSnapshotHolder.get().marketDataService();
+    InOrder inOrder = inOrder(tickerDataWarehouseService, loaded);
+    inOrder.verify(tickerDataWarehouseService).loadBenchmarkData();
+    inOrder.verify(loaded).load();
+    // later reloads go with the market dates held
+    assertTrue(reloadService.reload(true));
+    verify(tickerDataWarehouseService).loadBenchmarkData();
+  }
+
+  @Test
+  public void reload_ScopedToAnAccountTypeOrInstrument() {
+    when(completeMarketDataService.reloadAccountType(MarketDataProto.AccountType.TFSA))
+        .thenReturn(true);
+    when(completeMarketDataService.reloadInstrument("CM.TO")).thenReturn(true);
+
+    assertTrue(reloadService.reload("tfsa"));
+    assertTrue(reloadService.reload(" cm.to "));
+    assertFalse(reloadService.reload(" "));
+    assertEquals(0, bankLoads.get()); // no full reload
+  }
+
+  private CompleteBankDataService blockingBankDataService() {
+    CompleteBankDataService bankDataService = mock(CompleteBankDataService.class);
+    lenient() // the initial snapshot's one is never loaded
+        .doAnswer(
+            invocation -> {
+              bankLoads.incrementAndGet();
+              assertTrue(bankLoadReleased.await(5, TimeUnit.SECONDS));
+              if (bankLoadFails) throw new IllegalStateException("bank down");
+              return null;
+            })
+        .when(bankDataService)
+        .load();
+    return bankDataService;
+  }
+
+  private void awaitBankLoads(int loads) throws InterruptedException {
+    for (int i = 0; i < 500 && bankLoads.get() < loads; i++) Thread.sleep(10);
+    assertEquals(loads, bankLoads.get());
+  }
+
+  private void awaitFollowUpQueued() throws InterruptedException {
+    for (int i = 0; i < 500 && !reloadService.getReloadStatus().followUpQueued(); i++)
+      Thread.sleep(10);
+    assertTrue(reloadService.getReloadStatus().followUpQueued());
+  }
+}
@@ -1,19 +1,35 @@
 package com.vv.personal.twm.portfolio.service.impl;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 import com.google.common.collect.Lists;
 import com.vv.personal.twm.artifactory.generated.equitiesMarket.MarketDataProto;
+import com.vv.personal.twm.portfolio.TestConstants;
 import com.vv.personal.twm.portfolio.config.TickerDataWarehouseConfig;
 import com.vv.personal.twm.portfolio.model.market.OutdatedSymbol;
+import com.vv.personal.twm.portfolio.model.market.PriceSeries;
+import com.vv.personal.twm.portfolio.model.market.PriceUpdate;
 import com.vv.personal.twm.portfolio.remote.feign.MarketDataCrdbServiceFeign;
 import com.vv.personal.twm.portfolio.remote.feign.MarketDataPythonEngineFeign;
 import com.vv.personal.twm.portfolio.remote.market.outdated.OutdatedSymbols;
+import com.vv.personal.twm.portfolio.service.DiscoveryClientService;
+import com.vv.personal.twm.portfolio.service.ExecutorProviderService;
 import com.vv.personal.twm.portfolio.util.DateFormatUtil;
 import com.vv.personal.twm.portfolio.warehouse.market.TickerDataWarehouse;
+import com.vv.personal.twm.portfolio.warehouse.market.impl.ColumnarTickerDataWarehouseImpl;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executors;
 import org.apache.commons.lang3.tuple.Pair;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -32,6 +48,8 @@ class TickerDataWarehouseServiceImplTest {
   @Mock private MarketDataPythonEngineFeign marketDataPythonEngineFeign;
   @Mock private MarketDataCrdbServiceFeign marketDataCrdbServiceFeign;
   @Mock private TickerDataWarehouse tickerDataWarehouse;
+  @Mock private ExecutorProviderService executorProviderService;
+  @Mock private DiscoveryClientService discoveryClientService;
 
   @InjectMocks private TickerDataWarehouseServiceImpl tickerDataWarehouseServiceImpl;
 
@@ -417,6 +435,204 @@ class TickerDataWarehouseServiceImplTest {
     assertFalse(targetIndex.isPresent());
   }
 
+  @Test
+  public void testGetSeries() {
+    TickerDataWarehouse warehouse = new ColumnarTickerDataWarehouseImpl(tickerDataWarehouseConfig);
+    TickerDataWarehouseServiceImpl service =
+        new TickerDataWarehouseServiceImpl(
+            tickerDataWarehouseConfig, null, null, warehouse, null, null, null);
+    service.populateMarketDates(
+        MarketDataProto.Ticker.newBuilder()
+            .addData(MarketDataProto.Value.newBuilder().setDate(20251231).setPrice(1.0))
+            .addData(MarketDataProto.Value.newBuilder().setDate(20251229).setPrice(1.0))
+            .addData(MarketDataProto.Value.newBuilder().setDate(20251230).setPrice(1.0))
+            .addData(MarketDataProto.Value.newBuilder().setDate(20260102).setPrice(1.0))
+            .build());
+    warehouse.put(LocalDate.of(2025, 12, 29), "CM.TO", 100.0);
+    warehouse.put(LocalDate.of(2025, 12, 31), "CM.TO", 102.0);
+    warehouse.put(LocalDate.of(2026, 1, 2), "CM.TO", 103.0);
+
+    PriceSeries series = service.getSeries("CM.TO", 20251230, 20260101);
+    assertArrayEquals(new int[] {20251230, 20251231}, series.dates());
+    assertArrayEquals(new boolean[] {false, true}, series.valid());
+    assertEquals(102.0, series.price(1), TestConstants.DELTA_PRECISION);
+
+    series = service.getSeries("CM.TO", 20251201, 20260131);
+    assertEquals(4, series.size());
+    assertEquals(3, series.validCount());
+    assertArrayEquals(
+        new double[] {100.0, 102.0, 103.0}, series.validPrices(), TestConstants.DELTA_PRECISION);
+
+    assertEquals(0, service.getSeries("CM.TO", 20260103, 20260131).size());
+    assertEquals(0, service.getSeries("BNS.TO", 20251201, 20260131).validCount());
+  }
+
+  @Test
+  public void testPopulateMarketDates_AppendsPastTheLastOne() {
+    TickerDataWarehouseServiceImpl service =
+        newTickerDataWarehouseService(
+            new ColumnarTickerDataWarehouseImpl(tickerDataWarehouseConfig));
+    service.populateMarketDates(benchmarkTicker(20251230, 20251229));
+    // the benchmark fetched after a warm start, covering the dates restored
+    service.populateMarketDates(benchmarkTicker(20260102, 20251229, 20251230, 20251231));
+    assertArrayEquals(
+        new int[] {20251229, 20251230, 20251231, 20260102},
+        service.getSeries("CM.TO", 20251201, 20260131).dates());
+  }
+
+  @Test
+  public void testGetMarketDataAsOf() {
+    TickerDataWarehouse warehouse = new ColumnarTickerDataWarehouseImpl(tickerDataWarehouseConfig);
+    TickerDataWarehouseServiceImpl service =
+        new TickerDataWarehouseServiceImpl(
+            tickerDataWarehouseConfig, null, null, warehouse, null, null, null);
+    warehouse.put(LocalDate.of(2025, 12, 29), "CM.TO", 100.0);
+    warehouse.put(LocalDate.of(2025, 12, 31), "CM.TO", 102.0);
+
+    Optional<Pair<Integer, Double>> asOf = service.getMarketDataAsOf("CM.TO", 20260104, 10);
+    assertTrue(asOf.isPresent());
+    assertEquals(20251231, asOf.get().getLeft());
+    assertEquals(102.0, asOf.get().getRight(), TestConstants.DELTA_PRECISION);
+
+    assertTrue(service.getMarketDataAsOf("CM.TO", 20260104, 3).isEmpty());
+  }
+
+  @Test
+  public void testFetchLatestPrices() {
+    TickerDataWarehouseServiceImpl service =
+        new TickerDataWarehouseServiceImpl(
+            tickerDataWarehouseConfig,
+            marketDataPythonEngineFeign,
+            null,
+            tickerDataWarehouse,
+            null,
+            executorProviderService,
+            discoveryClientService);
+    LocalDate today = LocalDate.of(2026, 1, 5);
+    when(executorProviderService.procure(anyString(), anyInt()))
+        .thenReturn(Executors.newFixedThreadPool(2));
+    when(marketDataPythonEngineFeign.getTickerDataWithoutCountryCode(
+            "CM.TO", "2026-01-05", "2026-01-06"))
+        .thenReturn(
+            MarketDataProto.Ticker.newBuilder()
+                .addData(MarketDataProto.Value.newBuilder().setDate(20260102).setPrice(100.0))
+                .addData(MarketDataProto.Value.newBuilder().setDate(20260105).setPrice(101.5))
+                .build());
+    when(marketDataPythonEngineFeign.getTickerDataWithoutCountryCode(
+            "BNS.TO", "2026-01-05", "2026-01-06"))
+        .thenReturn(
+            MarketDataProto.Ticker.newBuilder()
+                .addData(MarketDataProto.Value.newBuilder().setDate(20260102).setPrice(60.0))
+                .build());
+
+    PriceUpdate latestPrices = service.fetchLatestPrices(Set.of("CM.TO", "BNS.TO"), today);
+    assertEquals(Map.of("CM.TO", Map.of(today, 101.5)), latestPrices.prices());
+    assertFalse(latestPrices.revision());
+    // left to the update to put in
+    verify(tickerDataWarehouse, never()).put(any(), anyString(), anyDouble());
+    verify(executorProviderService).shutdown(anyString());
+  }
+
+  @Test
+  public void testConfirmMarketDates() {
+    TickerDataWarehouseServiceImpl service =
+        new TickerDataWarehouseServiceImpl(
+            tickerDataWarehouseConfig,
+            marketDataPythonEngineFeign,
+            null,
+            tickerDataWarehouse,
+            null,
+            executorProviderService,
+            discoveryClientService);
+    when(tickerDataWarehouseConfig.getBenchmarkTicker()).thenReturn("^GSPTSE");
+    when(marketDataPythonEngineFeign.getTickerDataWithoutCountryCode(
+            "^GSPTSE", "2026-04-01", "2026-04-04"))
+        .thenReturn(
+            MarketDataProto.Ticker.newBuilder()
+                .addData(MarketDataProto.Value.newBuilder().setDate(20260402).setPrice(31000.0))
+                .addData(MarketDataProto.Value.newBuilder().setDate(20260401).setPrice(30900.0))
+                .build());
+    when(marketDataPythonEngineFeign.getTickerDataWithoutCountryCode(
+            "^GSPTSE", "2026-04-03", "2026-04-04"))
+        .thenReturn(MarketDataProto.Ticker.newBuilder().build());
+
+    // Good Friday on the 3rd
+    PriceUpdate confirmed =
+        service.confirmMarketDates(LocalDate.of(2026, 3, 31), LocalDate.of(2026, 4, 3));
+    assertEquals(
+        Map.of(
+            "^GSPTSE",
+            Map.of(LocalDate.of(2026, 4, 1), 30900.0, LocalDate.of(2026, 4, 2), 31000.0)),
+        confirmed.prices());
+    assertTrue(
+        service.confirmMarketDates(LocalDate.of(2026, 4, 2), LocalDate.of(2026, 4, 3)).isEmpty());
+    verify(tickerDataWarehouse, never()).put(any(), anyString(), anyDouble());
+    // marked as market dates for the loads to come
+    assertArrayEquals(
+        new int[] {20260401, 20260402}, service.getSeries("^GSPTSE", 20260301, 20260430).dates());
+  }
+
+  @Test
+  public void testFetchAnalysisData() {
+    TickerDataWarehouseServiceImpl service = newTickerDataWarehouseService(tickerDataWarehouse);
+    when(marketDataCrdbServiceFeign.getMarketDataByTicker("CM.TO"))
+        .thenReturn(
+            MarketDataProto.Ticker.newBuilder()
+                .setSymbol("CM.TO")
+                .addData(MarketDataProto.Value.newBuilder().setDate(20260401).setPrice(99.0))
+                .addData(MarketDataProto.Value.newBuilder().setDate(20260402).setPrice(100.0))
+                .build());
+
+    PriceUpdate history = service.fetchAnalysisData("CM.TO");
+    assertTrue(history.revision());
+    assertEquals(
+        Map.of("CM.TO", Map.of(LocalDate.of(2026, 4, 1), 99.0, LocalDate.of(2026, 4, 2), 100.0)),
+        history.prices());
+    verify(tickerDataWarehouse, never()).put(any(), anyString(), anyDouble());
+  }
+
+  @Test
+  public void testExportRestoreAnalysisWarehouse() {
+    when(tickerDataWarehouseConfig.getBenchmarkTicker()).thenReturn("CM.TO");
+    TickerDataWarehouse source = new ColumnarTickerDataWarehouseImpl(tickerDataWarehouseConfig);
+    TickerDataWarehouse target = new ColumnarTickerDataWarehouseImpl(tickerDataWarehouseConfig);
+    source.put(LocalDate.of(2026, 1, 2), "CM.TO", 100.0);
+    source.put(LocalDate.of(2026, 1, 5), "CM.TO", 101.5);
+    source.put(LocalDate.of(2026, 1, 5), "BNS.TO", 60.0);
+
+    List<MarketDataProto.Ticker> tickers =
+        newTickerDataWarehouseService(source).exportAnalysisWarehouse();
+    assertEquals(2, tickers.size());
+    TickerDataWarehouseServiceImpl restored = newTickerDataWarehouseService(target);
+    restored.restoreAnalysisWarehouse(tickers);
+
+    for (String imnt : List.of("CM.TO", "BNS.TO"))
+      assertEquals(source.getPrices(imnt), target.getPrices(imnt));
+    assertEquals(source.getDates(), target.getDates());
+    // market dates restored off the benchmark
+    assertArrayEquals(
+        new int[] {20260102, 20260105}, restored.getSeries("CM.TO", 20260101, 20260110).dates());
+  }
+
+  private TickerDataWarehouseServiceImpl newTickerDataWarehouseService(
+      TickerDataWarehouse tickerDataWarehouse) {
+    return new TickerDataWarehouseServiceImpl(
+        tickerDataWarehouseConfig,
+        marketDataPythonEngineFeign,
+        marketDataCrdbServiceFeign,
+        tickerDataWarehouse,
+        null,
+        executorProviderService,
+        discoveryClientService);
+  }
+
+  private MarketDataProto.Ticker benchmarkTicker(int... dates) {
+    MarketDataProto.Ticker.Builder tickerBuilder = MarketDataProto.Ticker.newBuilder();
+    for (int date : dates)
+      tickerBuilder.addData(MarketDataProto.Value.newBuilder().setDate(date).setPrice(1.0));
+    return tickerBuilder.build();
+  }
+
   private Pair<LocalDate, LocalDate> generateLocalDatePair(int d1, int d2) {
     return Pair.of(DateFormatUtil.getLocalDate(d1), DateFormatUtil.getLocalDate(d2));
   }
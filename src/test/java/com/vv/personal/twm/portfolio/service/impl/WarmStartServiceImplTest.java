@@ -0,0 +1,115 @@
+package com.vv.personal.twm.portfolio.service.impl;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+import com.vv.personal.twm.artifactory.generated.equitiesMarket.MarketDataProto;
+import com.vv.personal.twm.portfolio.config.WarmStartConfig;
+import com.vv.personal.twm.portfolio.model.market.MarketLoadInputs;
+import com.vv.personal.twm.portfolio.model.market.WarmStartSnapshot;
+import com.vv.personal.twm.portfolio.service.TickerDataWarehouseService;
+import com.vv.personal.twm.portfolio.util.TestInstrument;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+/**
+ * @author Vivek
+ * @since 2026-10-18
+ */
+@ExtendWith(MockitoExtension.class)
+class WarmStartServiceImplTest {
+
+  @Mock private TickerDataWarehouseService tickerDataWarehouseService;
+  @TempDir private Path tempDir;
+
+  private WarmStartConfig warmStartConfig;
+  private WarmStartServiceImpl warmStartService;
+
+  @BeforeEach
+  void setUp() {
+    warmStartConfig = new WarmStartConfig();
+    warmStartConfig.setSnapshotFile(tempDir.resolve("warm-start.snapshot").toString());
+    warmStartService = new WarmStartServiceImpl(warmStartConfig, tickerDataWarehouseService);
+  }
+
+  @Test
+  public void testSaveRead_RoundTrips() {
+    MarketLoadInputs loadInputs =
+        new MarketLoadInputs(
+            portfolio("CM.TO", MarketDataProto.Direction.BUY),
+            portfolio("CM.TO", MarketDataProto.Direction.SELL),
+            Map.of(
+                MarketDataProto.AccountType.TFSA,
+                portfolio("BNS.TO", MarketDataProto.Direction.BUY),
+                MarketDataProto.AccountType.NR,
+                MarketDataProto.Portfolio.getDefaultInstance()),
+            Set.of("RY.TO", "TD.TO"));
+    List<MarketDataProto.Ticker> tickers =
+        List.of(
+            MarketDataProto.Ticker.newBuilder()
+                .setSymbol("CM.TO")
+                .addData(MarketDataProto.Value.newBuilder().setDate(20260102).setPrice(100.0))
+                .addData(MarketDataProto.Value.newBuilder().setDate(20260105).setPrice(101.5))
+                .build(),
+            MarketDataProto.Ticker.newBuilder().setSymbol("RY.TO").build());
+    when(tickerDataWarehouseService.exportAnalysisWarehouse()).thenReturn(tickers);
+
+    assertTrue(warmStartService.save(loadInputs));
+    Optional<WarmStartSnapshot> snapshot = warmStartService.read();
+
+    assertTrue(snapshot.isPresent());
+    assertEquals(loadInputs, snapshot.get().loadInputs());
+    assertEquals(tickers, snapshot.get().tickers());
+    assertTrue(snapshot.get().savedAtMillis() > 0);
+    assertFalse(Files.exists(tempDir.resolve("warm-start.snapshot.tmp")));
+  }
+
+  @Test
+  public void testRead_IgnoresMissingOrForeignFiles() throws Exception {
+    assertTrue(warmStartService.read().isEmpty());
+
+    Files.writeString(Path.of(warmStartConfig.getSnapshotFile()), "not a snapshot");
+    assertTrue(warmStartService.read().isEmpty());
+  }
+
+  @Test
+  public void testDisabled_NeitherSavesNorReads() {
+    warmStartConfig.setEnabled(false);
+
+    assertFalse(
+        warmStartService.save(
+            new MarketLoadInputs(
+                MarketDataProto.Portfolio.getDefaultInstance(),
+                MarketDataProto.Portfolio.getDefaultInstance(),
+                Map.of(),
+                Set.of())));
+    assertTrue(warmStartService.read().isEmpty());
+    assertFalse(Files.exists(Path.of(warmStartConfig.getSnapshotFile())));
+  }
+
+  private MarketDataProto.Portfolio portfolio(String imnt, MarketDataProto.Direction direction) {
+    return MarketDataProto.Portfolio.newBuilder()
+        .addInstruments(
+            TestInstrument.builder()
+                .symbol(imnt)
+                .accountType(MarketDataProto.AccountType.TFSA)
+                .qty(10)
+                .price(100.0)
+                .direction(direction)
+                .date(20260102)
+                .metadata(Map.of("orderId", imnt + direction))
+                .build()
+                .getInstrument())
+        .build();
+  }
+}
@@ -3,9 +3,8 @@ package com.vv.personal.twm.portfolio.util;
 import static com.vv.personal.twm.portfolio.TestConstants.DELTA_PRECISION;
 import static org.junit.jupiter.api.Assertions.*;
 
-import com.google.common.collect.HashBasedTable;
-import com.google.common.collect.Table;
 import com.vv.personal.twm.artifactory.generated.equitiesMarket.MarketDataProto;
+import com.vv.personal.twm.portfolio.model.market.CorrelationMatrix;
 import java.util.List;
 import java.util.Optional;
 import org.junit.jupiter.api.Test;
@@ -18,19 +17,12 @@ class DataConverterUtilTest {
 
   @Test
   void getCorrelationMatrix() {
-    Table<String, String, Double> table = HashBasedTable.create();
-    table.put("a1", "a1", 0.0);
-    table.put("a1", "a2", .895);
-    table.put("a1", "a3", .415);
-    table.put("a2", "a1", .895);
-    table.put("a2", "a2", 0.0);
-    table.put("a2", "a3", -.521);
-    table.put("a3", "a1", .415);
-    table.put("a3", "a2", -.521);
-    table.put("a3", "a3", 0.0);
+    CorrelationMatrix matrix =
+        new CorrelationMatrix(
+            List.of("a1", "a2", "a3"), new double[] {0.0, .895, .415, 0.0, -.521, 0.0});
 
     MarketDataProto.CorrelationMatrix correlationMatrix =
-        DataConverterUtil.getCorrelationMatrix(Optional.of(table));
+        DataConverterUtil.getCorrelationMatrix(Optional.of(matrix));
     assertNotNull(correlationMatrix);
     assertEquals(9, correlationMatrix.getEntriesCount());
     MarketDataProto.CorrelationCell entry0 = correlationMatrix.getEntries(0);
@@ -41,6 +33,25 @@ class DataConverterUtilTest {
     assertEquals("a2", entry5.getImntRow());
     assertEquals("a3", entry5.getImntCol());
     assertEquals(-0.521, entry5.getValue(), DELTA_PRECISION);
+    MarketDataProto.CorrelationCell entry7 = correlationMatrix.getEntries(7);
+    assertEquals("a3", entry7.getImntRow());
+    assertEquals("a2", entry7.getImntCol());
+    assertEquals(-0.521, entry7.getValue(), DELTA_PRECISION);
+  }
+
+  @Test
+  void getCorrelationMatrix_Subset() {
+    CorrelationMatrix matrix =
+        new CorrelationMatrix(
+            List.of("a1", "a2", "a3"), new double[] {1.0, .895, .415, 1.0, -.521, 1.0});
+
+    MarketDataProto.CorrelationMatrix correlationMatrix =
+        DataConverterUtil.getCorrelationMatrix(Optional.of(matrix.subset(List.of("a3", "a1"))));
+    assertEquals(4, correlationMatrix.getEntriesCount());
+    MarketDataProto.CorrelationCell entry1 = correlationMatrix.getEntries(1);
+    assertEquals("a3", entry1.getImntRow());
+    assertEquals("a1", entry1.getImntCol());
+    assertEquals(.415, entry1.getValue(), DELTA_PRECISION);
   }
 
   @Test
@@ -61,4 +61,39 @@ class DateFormatUtilTest {
     result = DateFormatUtil.getDate(LocalDate.of(2025, 2, 20));
     assertEquals(20250220, result);
   }
+
+  @Test
+  void testEpochDay_RoundTrip() {
+    for (LocalDate date = LocalDate.of(1899, 1, 1);
+        date.isBefore(LocalDate.of(2101, 1, 1));
+        date = date.plusDays(1)) {
+      int intDate = DateFormatUtil.getDate(date);
+      assertEquals(date, DateFormatUtil.getLocalDate(intDate));
+      assertEquals(date.toEpochDay(), DateFormatUtil.toEpochDay(intDate));
+      assertEquals(intDate, DateFormatUtil.fromEpochDay(date.toEpochDay()));
+    }
+  }
+
+  @Test
+  void testPlusDays() {
+    assertEquals(20240229, DateFormatUtil.plusDays(20240301, -1));
+    assertEquals(20230228, DateFormatUtil.plusDays(20230301, -1));
+    assertEquals(20000229, DateFormatUtil.plusDays(20000228, 1));
+    assertEquals(21000301, DateFormatUtil.plusDays(21000228, 1));
+    assertEquals(20250101, DateFormatUtil.plusDays(20241231, 1));
+    assertEquals(20241203, DateFormatUtil.plusDays(20241203, 0));
+    assertEquals(20251203, DateFormatUtil.plusDays(20241203, 365));
+  }
+
+  @Test
+  void testEpochDay() {
+    EpochDay day = EpochDay.of(20240228);
+    assertEquals(EpochDay.of(LocalDate.of(2024, 2, 28)), day);
+    assertEquals(20240301, day.plusDays(2).toDate());
+    assertEquals(LocalDate.of(2024, 3, 1), day.plusDays(2).toLocalDate());
+    assertEquals(2, day.daysUntil(EpochDay.of(20240301)));
+    assertTrue(EpochDay.of(20240301).isAfter(day));
+    assertTrue(day.compareTo(EpochDay.of(20240101)) > 0);
+    assertEquals("20240228", day.toString());
+  }
 }
@@ -0,0 +1,150 @@
+package com.vv.personal.twm.portfolio.util.math;
+
+import static com.vv.personal.twm.portfolio.TestConstants.DELTA_PRECISION;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.vv.personal.twm.portfolio.model.market.CorrelationMatrix;
+import com.vv.personal.twm.portfolio.model.market.PriceSeries;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Vivek
+ * @since 2026-10-18
+ */
+class CorrelationEngineTest {
+
+  @Test
+  void compute_MatchesPairwiseCorrelation() {
+    // spans more than one tile on each side
+    int n = CorrelationEngine.TILE * 2 + 5, days = 120;
+    Map<String, PriceSeries> universe = generateUniverse(n, days, new Random(11));
+    List<String> symbols = new ArrayList<>(universe.keySet());
+
+    CorrelationMatrix matrix =
+        CorrelationEngine.compute(symbols, universe::get, ForkJoinPool.commonPool());
+    assertEquals(n, matrix.size());
+    assertEquals(symbols, matrix.getSymbols());
+
+    for (int i = 0; i < n; i++) {
+      assertEquals(1.0, matrix.get(i, i), DELTA_PRECISION);
+      double[] returnsI =
+          SeriesStatisticsUtil.calculateLogarithmicDelta(universe.get(symbols.get(i)).prices())
+              .get();
+      for (int j = i + 1; j < n; j++) {
+        double[] returnsJ =
+            SeriesStatisticsUtil.calculateLogarithmicDelta(universe.get(symbols.get(j)).prices())
+                .get();
+        double expected = SeriesStatisticsUtil.calculateCorrelation(returnsI, returnsJ).get();
+        assertEquals(expected, matrix.get(i, j), DELTA_PRECISION);
+        assertEquals(matrix.get(i, j), matrix.get(j, i));
+      }
+    }
+  }
+
+  @Test
+  void compute_FlatAndMissingSeries() {
+    int[] dates = {20251201, 20251202, 20251203, 20251204, 20251205};
+    boolean[] allValid = {true, true, true, true, true};
+    Map<String, PriceSeries> universe = new HashMap<>();
+    universe.put(
+        "v.to", new PriceSeries("v.to", dates, new double[] {20, 21, 23, 22, 24}, allValid));
+    universe.put(
+        "flat.to", new PriceSeries("flat.to", dates, new double[] {5, 5, 5, 5, 5}, allValid));
+    universe.put(
+        "none.to", new PriceSeries("none.to", dates, new double[5], new boolean[dates.length]));
+    // missing 20251203 is carried forward from 21, i.e. the same series as v.to but for that day
+    universe.put(
+        "gap.to",
+        new PriceSeries(
+            "gap.to",
+            dates,
+            new double[] {20, 21, 0, 22, 24},
+            new boolean[] {true, true, false, true, true}));
+
+    CorrelationMatrix matrix =
+        CorrelationEngine.compute(
+            List.of("v.to", "flat.to", "none.to", "gap.to"),
+            universe::get,
+            ForkJoinPool.commonPool());
+
+    assertEquals(0.0, matrix.get("v.to", "flat.to").getAsDouble(), DELTA_PRECISION);
+    assertEquals(0.0, matrix.get("v.to", "none.to").getAsDouble(), DELTA_PRECISION);
+    assertEquals(1.0, matrix.get("none.to", "none.to").getAsDouble(), DELTA_PRECISION);
+    double expected =
+        SeriesStatisticsUtil.calculateCorrelation(
+                SeriesStatisticsUtil.calculateLogarithmicDelta(new double[] {20, 21, 23, 22, 24})
+                    .get(),
+                SeriesStatisticsUtil.calculateLogarithmicDelta(new double[] {20, 21, 21, 22, 24})
+                    .get())
+            .get();
+    assertEquals(expected, matrix.get("v.to", "gap.to").getAsDouble(), DELTA_PRECISION);
+    assertTrue(matrix.get("v.to", "unknown.to").isEmpty());
+  }
+
+  @Test
+  void computeRow_MatchesTheMatrixRow() {
+    Map<String, PriceSeries> universe = generateUniverse(6, 40, new Random(7));
+    int[] dates = universe.get("S0").dates();
+    boolean[] allValid = new boolean[dates.length];
+    Arrays.fill(allValid, true);
+    double[] flatPrices = new double[dates.length];
+    Arrays.fill(flatPrices, 5.0);
+    universe.put("flat.to", new PriceSeries("flat.to", dates, flatPrices, allValid));
+    universe.put(
+        "none.to",
+        new PriceSeries("none.to", dates, new double[dates.length], new boolean[dates.length]));
+    List<String> symbols = new ArrayList<>(universe.keySet());
+    CorrelationMatrix matrix =
+        CorrelationEngine.compute(symbols, universe::get, ForkJoinPool.commonPool());
+
+    for (String symbol : List.of("S3", "flat.to", "none.to")) {
+      double[] row = CorrelationEngine.computeRow(symbols, symbol, universe::get);
+      for (int j = 0; j < symbols.size(); j++)
+        assertEquals(
+            matrix.get(symbol, symbols.get(j)).getAsDouble(),
+            row[j],
+            DELTA_PRECISION,
+            symbol + " x " + symbols.get(j));
+    }
+    assertEquals(
+        0.0,
+        CorrelationEngine.computeRow(symbols, "S3", universe::get)[symbols.indexOf("flat.to")],
+        DELTA_PRECISION);
+  }
+
+  @Test
+  void standardize() {
+    double[] column = CorrelationEngine.standardize(new double[] {1.0, 2.0, 3.0});
+    assertEquals(0.0, Arrays.stream(column).sum(), DELTA_PRECISION);
+    assertEquals(1.0, Arrays.stream(column).map(v -> v * v).sum(), DELTA_PRECISION);
+  }
+
+  private Map<String, PriceSeries> generateUniverse(int n, int days, Random random) {
+    int[] dates = new int[days];
+    boolean[] valid = new boolean[days];
+    for (int t = 0; t < days; t++) dates[t] = 20250101 + t;
+    Arrays.fill(valid, true);
+
+    double[] market = new double[days];
+    for (int t = 0; t < days; t++) market[t] = random.nextGaussian();
+
+    Map<String, PriceSeries> universe = new HashMap<>();
+    for (int i = 0; i < n; i++) {
+      double[] prices = new double[days];
+      double price = 50 + i, beta = random.nextDouble();
+      for (int t = 0; t < days; t++) {
+        price *= Math.exp(0.01 * (beta * market[t] + random.nextGaussian()));
+        prices[t] = price;
+      }
+      universe.put("S" + i, new PriceSeries("S" + i, dates, prices, valid));
+    }
+    return universe;
+  }
+}
@@ -1,7 +1,9 @@
 package com.vv.personal.twm.portfolio.util.math;
 
+import static com.vv.personal.twm.portfolio.TestConstants.DELTA_PRECISION;
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.Random;
 import org.junit.jupiter.api.Test;
 
 /**
@@ -16,4 +18,23 @@ class MathUtilTest {
     assertEquals(23.0, MathUtil.round2(23.0), 0);
     assertEquals(23.98, MathUtil.round2(23.97999999), 0);
   }
+
+  @Test
+  public void prefixSum() {
+    double[] values = {1.0, 2.0, 3.0, 4.0, 5.0};
+    MathUtil.prefixSum(values, 1, 4);
+    assertArrayEquals(new double[] {1.0, 2.0, 5.0, 9.0, 5.0}, values, 0);
+  }
+
+  @Test
+  public void prefixSum_LargeRangeMatchesSequentialScan() {
+    Random random = new Random(7);
+    double[] values = new double[MathUtil.PARALLEL_PREFIX_THRESHOLD * 4 + 3];
+    for (int i = 0; i < values.length; i++) values[i] = random.nextDouble() - 0.5;
+    double[] expected = values.clone();
+    for (int i = 1; i < expected.length; i++) expected[i] += expected[i - 1];
+
+    MathUtil.prefixSum(values, 0, values.length);
+    assertArrayEquals(expected, values, DELTA_PRECISION);
+  }
 }
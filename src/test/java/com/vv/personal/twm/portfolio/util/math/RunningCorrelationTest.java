@@ -0,0 +1,111 @@
+package com.vv.personal.twm.portfolio.util.math;
+
+import static com.vv.personal.twm.portfolio.TestConstants.DELTA_PRECISION;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.vv.personal.twm.portfolio.model.market.CorrelationMatrix;
+import com.vv.personal.twm.portfolio.model.market.PriceSeries;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Vivek
+ * @since 2026-10-18
+ */
+class RunningCorrelationTest {
+  private static final int DAYS = 90;
+
+  private final Random random = new Random(23);
+  private final List<String> symbols = new ArrayList<>();
+  private final double[][] prices = new double[DAYS + 3][]; // [day][symbol]
+  private final boolean[][] valid = new boolean[DAYS + 3][];
+
+  @Test
+  void appendDay_MatchesFullCompute() {
+    generate(40);
+    RunningCorrelation running = build(DAYS);
+    for (int day = DAYS; day < DAYS + 3; day++) {
+      running.appendDay(prices[day], valid[day]);
+      assertMatrixEquals(compute(day + 1), running.toMatrix());
+    }
+    assertEquals(DAYS + 3, running.getDays());
+  }
+
+  @Test
+  void replaceLatestDay_MatchesFullCompute() {
+    generate(CorrelationEngine.TILE + 3);
+    RunningCorrelation running = build(DAYS);
+    assertFalse(running.replaceLatestDay(prices[DAYS - 1], valid[DAYS - 1]));
+
+    for (int i = 0; i < symbols.size(); i++)
+      prices[DAYS - 1][i] *= 1.0 + random.nextGaussian() / 50;
+    valid[DAYS - 1][3] = false; // a close pulled, carried forward from the day before
+    assertTrue(running.replaceLatestDay(prices[DAYS - 1], valid[DAYS - 1]));
+    assertMatrixEquals(compute(DAYS), running.toMatrix());
+
+    running.appendDay(prices[DAYS], valid[DAYS]);
+    assertMatrixEquals(compute(DAYS + 1), running.toMatrix());
+  }
+
+  @Test
+  void build_MatchesEngine() {
+    generate(10);
+    assertMatrixEquals(compute(DAYS), build(DAYS).toMatrix());
+  }
+
+  private RunningCorrelation build(int days) {
+    Map<String, PriceSeries> universe = universe(days);
+    return RunningCorrelation.build(symbols, universe::get, ForkJoinPool.commonPool());
+  }
+
+  private CorrelationMatrix compute(int days) {
+    Map<String, PriceSeries> universe = universe(days);
+    return CorrelationEngine.compute(symbols, universe::get, ForkJoinPool.commonPool());
+  }
+
+  private void assertMatrixEquals(CorrelationMatrix expected, CorrelationMatrix actual) {
+    assertEquals(expected.getSymbols(), actual.getSymbols());
+    for (int i = 0; i < expected.size(); i++)
+      for (int j = 0; j < expected.size(); j++)
+        assertEquals(expected.get(i, j), actual.get(i, j), DELTA_PRECISION, i + "x" + j);
+  }
+
+  private void generate(int n) {
+    for (int i = 0; i < n; i++) symbols.add("S" + i);
+    double[] last = new double[n];
+    Arrays.fill(last, 100.0);
+    for (int day = 0; day < prices.length; day++) {
+      double market = random.nextGaussian();
+      prices[day] = new double[n];
+      valid[day] = new boolean[n];
+      for (int i = 0; i < n; i++) {
+        last[i] *= Math.exp(0.01 * (market * i / n + random.nextGaussian()));
+        prices[day][i] = last[i];
+        valid[day][i] = random.nextInt(20) != 0; // the odd missing close
+      }
+    }
+    Arrays.fill(valid[0], 0, 2, false); // leading gaps
+  }
+
+  private Map<String, PriceSeries> universe(int days) {
+    int[] dates = new int[days];
+    for (int day = 0; day < days; day++) dates[day] = 20250101 + day;
+    Map<String, PriceSeries> universe = new HashMap<>();
+    for (int i = 0; i < symbols.size(); i++) {
+      double[] series = new double[days];
+      boolean[] present = new boolean[days];
+      for (int day = 0; day < days; day++) {
+        series[day] = prices[day][i];
+        present[day] = valid[day][i];
+      }
+      universe.put(symbols.get(i), new PriceSeries(symbols.get(i), dates, series, present));
+    }
+    return universe;
+  }
+}
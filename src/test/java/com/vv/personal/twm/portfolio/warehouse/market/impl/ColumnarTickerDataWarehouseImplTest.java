@@ -0,0 +1,315 @@
+package com.vv.personal.twm.portfolio.warehouse.market.impl;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.vv.personal.twm.portfolio.TestConstants;
+import com.vv.personal.twm.portfolio.config.TickerDataWarehouseConfig;
+import com.vv.personal.twm.portfolio.util.DateFormatUtil;
+import com.vv.personal.twm.portfolio.warehouse.market.TickerDataWarehouse;
+import com.vv.personal.twm.portfolio.warehouse.market.TradingCalendar;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+/**
+ * @author Vivek
+ * @since 2026-10-18
+ */
+@ExtendWith(MockitoExtension.class)
+class ColumnarTickerDataWarehouseImplTest {
+  @Mock private TickerDataWarehouseConfig tickerDataWarehouseConfig;
+
+  private TickerDataWarehouse tickerDataWarehouse;
+
+  @BeforeEach
+  void setUp() {
+    tickerDataWarehouse = new ColumnarTickerDataWarehouseImpl(tickerDataWarehouseConfig);
+  }
+
+  @Test
+  public void testGetPut() {
+    assertNull(tickerDataWarehouse.get(DateFormatUtil.getLocalDate(20241203), "CM.TO"));
+
+    tickerDataWarehouse.put(DateFormatUtil.getLocalDate(20241203), "CM.TO", 81.29);
+    tickerDataWarehouse.put(DateFormatUtil.getLocalDate(20241202), "CM.TO", 80.29);
+    tickerDataWarehouse.put(DateFormatUtil.getLocalDate(20241204), "BNS.TO", 110.94);
+
+    assertEquals(
+        80.29,
+        tickerDataWarehouse.get(DateFormatUtil.getLocalDate(20241202), "CM.TO"),
+        TestConstants.DELTA_PRECISION);
+    assertEquals(
+        81.29,
+        tickerDataWarehouse.get(DateFormatUtil.getLocalDate(20241203), "CM.TO"),
+        TestConstants.DELTA_PRECISION);
+    assertEquals(
+        110.94,
+        tickerDataWarehouse.get(DateFormatUtil.getLocalDate(20241204), "BNS.TO"),
+        TestConstants.DELTA_PRECISION);
+
+    assertNull(tickerDataWarehouse.get(DateFormatUtil.getLocalDate(20241201), "CM.TO"));
+    assertNull(tickerDataWarehouse.get(DateFormatUtil.getLocalDate(20241204), "CM.TO"));
+    assertNull(tickerDataWarehouse.get(DateFormatUtil.getLocalDate(20241203), "BNS.TO"));
+
+    tickerDataWarehouse.put(DateFormatUtil.getLocalDate(20241203), "CM.TO", 81.5);
+    assertEquals(
+        81.5,
+        tickerDataWarehouse.get(DateFormatUtil.getLocalDate(20241203), "CM.TO"),
+        TestConstants.DELTA_PRECISION);
+  }
+
+  @Test
+  public void testDeleteContains() {
+    LocalDate date = DateFormatUtil.getLocalDate(20241203);
+    assertFalse(tickerDataWarehouse.contains(date, "CM.TO"));
+    tickerDataWarehouse.delete(date, "CM.TO"); // no-op on unknown imnt
+
+    tickerDataWarehouse.put(date, "CM.TO", 81.29);
+    tickerDataWarehouse.put(date, "BNS.TO", 60.12);
+    assertTrue(tickerDataWarehouse.contains(date, "CM.TO"));
+
+    tickerDataWarehouse.delete(date, "CM.TO");
+    assertFalse(tickerDataWarehouse.contains(date, "CM.TO"));
+    assertNull(tickerDataWarehouse.get(date, "CM.TO"));
+    assertTrue(tickerDataWarehouse.contains(date, "BNS.TO"));
+  }
+
+  @Test
+  public void testColumnGrowth() {
+    LocalDate start = DateFormatUtil.getLocalDate(20100101);
+    for (int i = 0; i < 5000; i++) tickerDataWarehouse.put(start.plusDays(i), "CM.TO", i * 1.0);
+    for (int i = 0; i < 300; i++) tickerDataWarehouse.put(start, "IMNT" + i, i * 2.0);
+
+    assertEquals(
+        4999.0,
+        tickerDataWarehouse.get(start.plusDays(4999), "CM.TO"),
+        TestConstants.DELTA_PRECISION);
+    assertEquals(598.0, tickerDataWarehouse.get(start, "IMNT299"), TestConstants.DELTA_PRECISION);
+    assertNull(tickerDataWarehouse.get(start.plusDays(4999), "IMNT299"));
+  }
+
+  @Test
+  public void testGetSeries() {
+    tickerDataWarehouse.put(DateFormatUtil.getLocalDate(20241202), "CM.TO", 80.29);
+    tickerDataWarehouse.put(DateFormatUtil.getLocalDate(20241204), "CM.TO", 82.29);
+    tickerDataWarehouse.put(DateFormatUtil.getLocalDate(20241203), "BNS.TO", 60.12);
+    List<LocalDate> dates =
+        List.of(
+            DateFormatUtil.getLocalDate(20241202),
+            DateFormatUtil.getLocalDate(20241203),
+            DateFormatUtil.getLocalDate(20241204),
+            DateFormatUtil.getLocalDate(20241205));
+    double[] prices = new double[dates.size()];
+    boolean[] valid = new boolean[dates.size()];
+
+    tickerDataWarehouse.getSeries("CM.TO", dates, prices, valid);
+    assertArrayEquals(new boolean[] {true, false, true, false}, valid);
+    assertEquals(80.29, prices[0], TestConstants.DELTA_PRECISION);
+    assertEquals(82.29, prices[2], TestConstants.DELTA_PRECISION);
+
+    tickerDataWarehouse.getSeries("TD.TO", dates, prices, valid);
+    assertArrayEquals(new boolean[] {false, false, false, false}, valid);
+  }
+
+  @Test
+  public void testGetAsOf() {
+    assertTrue(tickerDataWarehouse.getAsOf(LocalDate.of(2025, 12, 31), "CM.TO", 10).isEmpty());
+
+    tickerDataWarehouse.put(LocalDate.of(2025, 12, 31), "CM.TO", 102.0);
+    tickerDataWarehouse.put(LocalDate.of(2025, 12, 29), "CM.TO", 100.0);
+    tickerDataWarehouse.put(LocalDate.of(2026, 1, 2), "CM.TO", 103.0);
+    tickerDataWarehouse.put(LocalDate.of(2025, 12, 30), "BNS.TO", 60.0);
+
+    Optional<Pair<LocalDate, Double>> asOf =
+        tickerDataWarehouse.getAsOf(LocalDate.of(2026, 1, 1), "CM.TO", 10);
+    assertTrue(asOf.isPresent());
+    assertEquals(LocalDate.of(2025, 12, 31), asOf.get().getLeft());
+    assertEquals(102.0, asOf.get().getRight(), TestConstants.DELTA_PRECISION);
+
+    asOf = tickerDataWarehouse.getAsOf(LocalDate.of(2025, 12, 30), "CM.TO", 10);
+    assertEquals(100.0, asOf.get().getRight(), TestConstants.DELTA_PRECISION);
+    asOf = tickerDataWarehouse.getAsOf(LocalDate.of(2026, 1, 20), "CM.TO", 30);
+    assertEquals(103.0, asOf.get().getRight(), TestConstants.DELTA_PRECISION);
+
+    // beyond the look back, before the first date, unknown imnt
+    assertTrue(tickerDataWarehouse.getAsOf(LocalDate.of(2026, 1, 20), "CM.TO", 10).isEmpty());
+    assertTrue(tickerDataWarehouse.getAsOf(LocalDate.of(2025, 12, 28), "CM.TO", 10).isEmpty());
+    assertTrue(tickerDataWarehouse.getAsOf(LocalDate.of(2026, 1, 2), "TD.TO", 10).isEmpty());
+
+    // index follows mutations
+    tickerDataWarehouse.delete(LocalDate.of(2025, 12, 31), "CM.TO");
+    asOf = tickerDataWarehouse.getAsOf(LocalDate.of(2026, 1, 1), "CM.TO", 10);
+    assertEquals(LocalDate.of(2025, 12, 29), asOf.get().getLeft());
+    tickerDataWarehouse.put(LocalDate.of(2026, 1, 1), "CM.TO", 102.5);
+    asOf = tickerDataWarehouse.getAsOf(LocalDate.of(2026, 1, 1), "CM.TO", 0);
+    assertEquals(102.5, asOf.get().getRight(), TestConstants.DELTA_PRECISION);
+  }
+
+  @Test
+  public void testHistoryRevision() {
+    LocalDate day1 = LocalDate.of(2025, 12, 1), day2 = day1.plusDays(1), day3 = day1.plusDays(2);
+    tickerDataWarehouse.put(day1, "CM.TO", 80.0);
+    tickerDataWarehouse.put(day3, "CM.TO", 82.0);
+    long revision = tickerDataWarehouse.getHistoryRevision();
+
+    tickerDataWarehouse.put(day3, "CM.TO", 82.5); // latest close updated
+    tickerDataWarehouse.put(day1, "CM.TO", 80.0); // same price re-put, as on a reload
+    tickerDataWarehouse.put(day1, "V.TO", 20.0); // first sighting of another imnt
+    assertEquals(revision, tickerDataWarehouse.getHistoryRevision());
+
+    tickerDataWarehouse.put(day2, "CM.TO", 81.0); // filled in before the latest
+    assertEquals(revision + 1, tickerDataWarehouse.getHistoryRevision());
+    tickerDataWarehouse.put(day1, "CM.TO", 79.0); // revised
+    assertEquals(revision + 2, tickerDataWarehouse.getHistoryRevision());
+    tickerDataWarehouse.delete(day2, "CM.TO");
+    assertEquals(revision + 3, tickerDataWarehouse.getHistoryRevision());
+    tickerDataWarehouse.delete(day2, "CM.TO"); // nothing left to delete
+    assertEquals(revision + 3, tickerDataWarehouse.getHistoryRevision());
+  }
+
+  @Test
+  public void testConcurrentLoadStress() throws Exception {
+    Mockito.when(tickerDataWarehouseConfig.getBenchmarkTicker()).thenReturn("CM.TO");
+    int writers = 8, imntsPerWriter = 25, days = 1500;
+    LocalDate start = LocalDate.of(2019, 12, 10);
+    ExecutorService executor = Executors.newFixedThreadPool(writers + 4);
+    CountDownLatch startGate = new CountDownLatch(1);
+    AtomicBoolean loading = new AtomicBoolean(true);
+    List<Future<?>> futures = new ArrayList<>();
+
+    for (int w = 0; w < writers; w++) {
+      final int writer = w;
+      futures.add(
+          executor.submit(
+              () -> {
+                startGate.await();
+                for (int d = 0; d < days; d++) {
+                  // every writer also hammers the shared benchmark column
+                  tickerDataWarehouse.put(start.plusDays(d), "CM.TO", 100.0 + d);
+                  for (int i = 0; i < imntsPerWriter; i++)
+                    tickerDataWarehouse.put(
+                        start.plusDays(d), "IMNT" + writer + "-" + i, writer * 1000.0 + i + d);
+                }
+                return null;
+              }));
+    }
+    for (int r = 0; r < 4; r++) {
+      futures.add(
+          executor.submit(
+              () -> {
+                startGate.await();
+                while (loading.get()) {
+                  List<LocalDate> dates = tickerDataWarehouse.getDates();
+                  for (int i = 1; i < dates.size(); i++)
+                    assertTrue(dates.get(i - 1).isBefore(dates.get(i)));
+                  if (!dates.isEmpty()) {
+                    LocalDate last = dates.get(dates.size() - 1);
+                    Double price = tickerDataWarehouse.get(last, "CM.TO");
+                    assertEquals(100.0 + (last.toEpochDay() - start.toEpochDay()), price, 0.0);
+                    assertTrue(tickerDataWarehouse.getAsOf(last, "CM.TO", 0).isPresent());
+                    double[] prices = new double[dates.size()];
+                    boolean[] valid = new boolean[dates.size()];
+                    tickerDataWarehouse.getSeries("CM.TO", dates, prices, valid);
+                    for (boolean present : valid) assertTrue(present);
+                  }
+                }
+                return null;
+              }));
+    }
+
+    startGate.countDown();
+    for (int w = 0; w < writers; w++) futures.get(w).get(60, TimeUnit.SECONDS);
+    loading.set(false);
+    for (Future<?> future : futures) future.get(60, TimeUnit.SECONDS);
+    executor.shutdown();
+
+    assertEquals(days, tickerDataWarehouse.getDates().size());
+    for (int w = 0; w < writers; w++)
+      for (int i = 0; i < imntsPerWriter; i++)
+        for (int d = 0; d < days; d += 7)
+          assertEquals(
+              w * 1000.0 + i + d,
+              tickerDataWarehouse.get(start.plusDays(d), "IMNT" + w + "-" + i),
+              0.0);
+  }
+
+  @Test
+  public void testGetDates() {
+    Mockito.when(tickerDataWarehouseConfig.getBenchmarkTicker()).thenReturn("CM.TO");
+    assertTrue(tickerDataWarehouse.getDates().isEmpty());
+
+    tickerDataWarehouse.put(DateFormatUtil.getLocalDate(20241203), "CM.TO", 81.29);
+    tickerDataWarehouse.put(DateFormatUtil.getLocalDate(20241202), "CM.TO", 80.29);
+    tickerDataWarehouse.put(DateFormatUtil.getLocalDate(20241204), "BNS.TO", 110.94);
+
+    List<LocalDate> dates = tickerDataWarehouse.getDates();
+    assertNotNull(dates);
+    assertEquals(2, dates.size()); // driven by the benchmark ticker
+    assertEquals(20241202, DateFormatUtil.getDate(dates.get(0)));
+    assertEquals(20241203, DateFormatUtil.getDate(dates.get(1)));
+  }
+
+  @Test
+  public void testTradingCalendar() {
+    Mockito.when(tickerDataWarehouseConfig.getBenchmarkTicker()).thenReturn("CM.TO");
+    assertTrue(tickerDataWarehouse.getTradingCalendar().isEmpty());
+
+    tickerDataWarehouse.put(LocalDate.of(2025, 12, 30), "CM.TO", 101.0);
+    tickerDataWarehouse.put(LocalDate.of(2025, 12, 31), "CM.TO", 102.0);
+    tickerDataWarehouse.put(LocalDate.of(2025, 12, 29), "CM.TO", 100.0); // out of order
+    tickerDataWarehouse.put(LocalDate.of(2025, 12, 31), "CM.TO", 102.5); // overwrite
+    tickerDataWarehouse.put(LocalDate.of(2026, 1, 1), "BNS.TO", 60.0); // not the benchmark
+
+    TradingCalendar calendar = tickerDataWarehouse.getTradingCalendar();
+    assertEquals(
+        List.of(LocalDate.of(2025, 12, 29), LocalDate.of(2025, 12, 30), LocalDate.of(2025, 12, 31)),
+        calendar.getDates());
+    assertEquals(1, calendar.getOrdinal(LocalDate.of(2025, 12, 30)).getAsInt());
+    assertTrue(calendar.getOrdinal(LocalDate.of(2026, 1, 1)).isEmpty());
+    assertEquals(LocalDate.of(2025, 12, 31), calendar.getDate(2).get());
+    assertTrue(calendar.getDate(3).isEmpty());
+    assertThrows(
+        UnsupportedOperationException.class, () -> calendar.getDates().add(LocalDate.now()));
+    assertSame(calendar, tickerDataWarehouse.getTradingCalendar()); // no rebuild when unchanged
+
+    tickerDataWarehouse.delete(LocalDate.of(2025, 12, 30), "CM.TO");
+    TradingCalendar updatedCalendar = tickerDataWarehouse.getTradingCalendar();
+    assertEquals(2, updatedCalendar.size());
+    assertEquals(1, updatedCalendar.getOrdinal(LocalDate.of(2025, 12, 31)).getAsInt());
+    assertEquals(3, calendar.size()); // older snapshot stays intact
+  }
+
+  @Test
+  public void testGetInstrumentsAndPrices() {
+    tickerDataWarehouse.put(DateFormatUtil.getLocalDate(20241203), "CM.TO", 81.29);
+    tickerDataWarehouse.put(DateFormatUtil.getLocalDate(20241202), "CM.TO", 80.29);
+    tickerDataWarehouse.put(DateFormatUtil.getLocalDate(20241204), "BNS.TO", 110.94);
+    tickerDataWarehouse.delete(DateFormatUtil.getLocalDate(20241204), "BNS.TO");
+
+    assertEquals(Set.of("CM.TO"), tickerDataWarehouse.getInstruments());
+    assertEquals(
+        List.of(DateFormatUtil.getLocalDate(20241202), DateFormatUtil.getLocalDate(20241203)),
+        List.copyOf(tickerDataWarehouse.getPrices("CM.TO").keySet()));
+    assertEquals(
+        81.29,
+        tickerDataWarehouse.getPrices("CM.TO").get(DateFormatUtil.getLocalDate(20241203)),
+        TestConstants.DELTA_PRECISION);
+    assertTrue(tickerDataWarehouse.getPrices("BNS.TO").isEmpty());
+    assertTrue(tickerDataWarehouse.getPrices("RY.TO").isEmpty());
+  }
+}
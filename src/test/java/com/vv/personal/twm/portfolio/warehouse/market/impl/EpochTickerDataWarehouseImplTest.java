@@ -0,0 +1,116 @@
+package com.vv.personal.twm.portfolio.warehouse.market.impl;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+import com.vv.personal.twm.artifactory.generated.equitiesMarket.MarketDataProto;
+import com.vv.personal.twm.portfolio.TestConstants;
+import com.vv.personal.twm.portfolio.config.TickerDataWarehouseConfig;
+import com.vv.personal.twm.portfolio.model.market.PriceUpdate;
+import com.vv.personal.twm.portfolio.util.DateFormatUtil;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+/**
+ * @author Vivek
+ * @since 2026-10-18
+ */
+@ExtendWith(MockitoExtension.class)
+class EpochTickerDataWarehouseImplTest {
+  private static final LocalDate LAST_DATE = LocalDate.of(2026, 4, 1);
+  private static final LocalDate TODAY = LocalDate.of(2026, 4, 2);
+
+  @Mock private TickerDataWarehouseConfig tickerDataWarehouseConfig;
+
+  private ColumnarTickerDataWarehouseImpl settled;
+  private EpochTickerDataWarehouseImpl tickerDataWarehouse;
+  private long readEpoch;
+
+  @BeforeEach
+  void setUp() {
+    when(tickerDataWarehouseConfig.getBenchmarkTicker()).thenReturn("^GSPTSE");
+    settled = new ColumnarTickerDataWarehouseImpl(tickerDataWarehouseConfig);
+    tickerDataWarehouse = new EpochTickerDataWarehouseImpl(settled, tickerDataWarehouseConfig);
+    tickerDataWarehouse.setDataEpoch(() -> readEpoch);
+    tickerDataWarehouse.put(LAST_DATE, "^GSPTSE", 31000.0);
+    tickerDataWarehouse.put(LAST_DATE, "CM.TO", 100.0);
+  }
+
+  @Test
+  public void testPutPrices_SeenFromTheirEpochOn() {
+    tickerDataWarehouse.putPrices(
+        1, PriceUpdate.of(TODAY, Map.of("^GSPTSE", 31100.0, "CM.TO", 101.0)));
+    tickerDataWarehouse.putPrices(2, PriceUpdate.of(TODAY, Map.of("CM.TO", 102.0)));
+
+    readEpoch = 0;
+    assertNull(tickerDataWarehouse.get(TODAY, "CM.TO"));
+    assertEquals(List.of(LAST_DATE), tickerDataWarehouse.getDates());
+    assertEquals(
+        Pair.of(LAST_DATE, 100.0), tickerDataWarehouse.getAsOf(TODAY, "CM.TO", 5).orElseThrow());
+
+    readEpoch = 1;
+    assertEquals(101.0, tickerDataWarehouse.get(TODAY, "CM.TO"), TestConstants.DELTA_PRECISION);
+    assertEquals(List.of(LAST_DATE, TODAY), tickerDataWarehouse.getDates());
+
+    readEpoch = 2;
+    assertEquals(
+        Pair.of(TODAY, 102.0), tickerDataWarehouse.getAsOf(TODAY, "CM.TO", 5).orElseThrow());
+    double[] prices = new double[2];
+    boolean[] valid = new boolean[2];
+    tickerDataWarehouse.getSeries("CM.TO", List.of(LAST_DATE, TODAY), prices, valid);
+    assertArrayEquals(new double[] {100.0, 102.0}, prices, TestConstants.DELTA_PRECISION);
+    assertArrayEquals(new boolean[] {true, true}, valid);
+    assertEquals(Map.of(LAST_DATE, 100.0, TODAY, 102.0), tickerDataWarehouse.getPrices("CM.TO"));
+    // nothing is written through to the settled prices yet
+    assertNull(settled.get(TODAY, "CM.TO"));
+  }
+
+  @Test
+  public void testDropPrices_LeavesNothingBehind() {
+    tickerDataWarehouse.putPrices(1, PriceUpdate.of(TODAY, Map.of("CM.TO", 101.0)));
+    tickerDataWarehouse.dropPrices(1);
+
+    readEpoch = 1;
+    assertNull(tickerDataWarehouse.get(TODAY, "CM.TO"));
+    assertFalse(tickerDataWarehouse.contains(TODAY, "CM.TO"));
+  }
+
+  @Test
+  public void testSettlePrices_WritesThroughUpToTheEpoch() {
+    long revision = tickerDataWarehouse.getHistoryRevision();
+    tickerDataWarehouse.putPrices(1, PriceUpdate.of(TODAY, Map.of("CM.TO", 101.0)));
+    tickerDataWarehouse.putPrices(
+        2,
+        PriceUpdate.revisionOf(
+            List.of(
+                MarketDataProto.Ticker.newBuilder()
+                    .setSymbol("CM.TO")
+                    .addData(
+                        MarketDataProto.Value.newBuilder()
+                            .setDate(DateFormatUtil.getDate(LAST_DATE))
+                            .setPrice(99.0))
+                    .build())));
+    readEpoch = 1;
+    assertEquals(revision, tickerDataWarehouse.getHistoryRevision());
+    readEpoch = 2;
+    assertEquals(revision + 1, tickerDataWarehouse.getHistoryRevision());
+
+    tickerDataWarehouse.settlePrices(1);
+    assertEquals(101.0, settled.get(TODAY, "CM.TO"), TestConstants.DELTA_PRECISION);
+    assertEquals(100.0, settled.get(LAST_DATE, "CM.TO"), TestConstants.DELTA_PRECISION);
+    readEpoch = 1;
+    assertEquals(100.0, tickerDataWarehouse.get(LAST_DATE, "CM.TO"), TestConstants.DELTA_PRECISION);
+
+    tickerDataWarehouse.settlePrices(2);
+    assertEquals(99.0, tickerDataWarehouse.get(LAST_DATE, "CM.TO"), TestConstants.DELTA_PRECISION);
+    // the revision does not go back once settled
+    assertTrue(tickerDataWarehouse.getHistoryRevision() >= revision + 1);
+  }
+}
@@ -8,6 +8,7 @@ import com.vv.personal.twm.portfolio.util.DateFormatUtil;
 import com.vv.personal.twm.portfolio.warehouse.market.TickerDataWarehouse;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Set;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -70,4 +71,23 @@ class TickerDataWarehouseImplTest {
     assertEquals(20241203, DateFormatUtil.getDate(dates.get(1)));
     // assertEquals(20241204, DateFormatUtil.getDate(dates.get(2)));
   }
+
+  @Test
+  public void testGetInstrumentsAndPrices() {
+    tickerDataWarehouse.put(DateFormatUtil.getLocalDate(20241203), "CM.TO", 81.29);
+    tickerDataWarehouse.put(DateFormatUtil.getLocalDate(20241202), "CM.TO", 80.29);
+    tickerDataWarehouse.put(DateFormatUtil.getLocalDate(20241204), "BNS.TO", 110.94);
+    tickerDataWarehouse.delete(DateFormatUtil.getLocalDate(20241204), "BNS.TO");
+
+    assertEquals(Set.of("CM.TO"), tickerDataWarehouse.getInstruments());
+    assertEquals(
+        List.of(DateFormatUtil.getLocalDate(20241202), DateFormatUtil.getLocalDate(20241203)),
+        List.copyOf(tickerDataWarehouse.getPrices("CM.TO").keySet()));
+    assertEquals(
+        81.29,
+        tickerDataWarehouse.getPrices("CM.TO").get(DateFormatUtil.getLocalDate(20241203)),
+        TestConstants.DELTA_PRECISION);
+    assertTrue(tickerDataWarehouse.getPrices("BNS.TO").isEmpty());
+    assertTrue(tickerDataWarehouse.getPrices("RY.TO").isEmpty());
+  }
 }